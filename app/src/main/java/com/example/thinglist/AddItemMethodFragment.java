@@ -1,8 +1,10 @@
 package com.example.thinglist;
 
 import android.app.Activity;
+import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
+import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
 import android.view.LayoutInflater;
@@ -17,33 +19,48 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class AddItemMethodFragment extends Fragment {
 
     // Option rows
     private LinearLayout optionTakePhoto;
+    private LinearLayout optionBurstCapture;
+    private LinearLayout optionImportGallery;
     private LinearLayout optionScanBarcode;
     private LinearLayout optionUploadReceipt;
     private LinearLayout optionEnterManually;
 
     // Check icons on the right
     private ImageView iconTakePhoto;
+    private ImageView iconBurst;
+    private ImageView iconGallery;
     private ImageView iconScan;
     private ImageView iconUpload;
     private ImageView iconManual;
 
-    // Current selected method: "photo", "barcode", "receipt", "manual"
+    // Current selected method: "photo", "burst", "gallery", "barcode", "receipt", "manual"
     private String selectedMethod = "photo";  // default
     // Which method just launched the camera
     private String cameraMethod = null;
 
     // Camera launcher
     private ActivityResultLauncher<Intent> cameraLauncher;
+    // Receipt text picker
+    private ActivityResultLauncher<String[]> receiptLauncher;
+    // Multi-select gallery picker
+    private ActivityResultLauncher<String> galleryLauncher;
+    // File the camera app writes the full-size photo into (kept across process death)
+    private File captureFile;
+
+    private static final String STATE_CAMERA_METHOD = "state_camera_method";
+    private static final String STATE_CAPTURE_FILE  = "state_capture_file";
 
     public AddItemMethodFragment() {
         // required empty constructor
@@ -52,12 +69,36 @@ public class AddItemMethodFragment extends Fragment {
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        if (savedInstanceState != null) {
+            cameraMethod = savedInstanceState.getString(STATE_CAMERA_METHOD);
+            String capture = savedInstanceState.getString(STATE_CAPTURE_FILE);
+            captureFile = capture != null ? new File(capture) : null;
+        }
 
         // Register the camera result handler
         cameraLauncher = registerForActivityResult(
                 new ActivityResultContracts.StartActivityForResult(),
                 this::handleCameraResult
         );
+
+        // Register the receipt picker result handler
+        receiptLauncher = registerForActivityResult(
+                new ActivityResultContracts.OpenDocument(),
+                this::handleReceiptResult
+        );
+
+        // Register the gallery picker result handler
+        galleryLauncher = registerForActivityResult(
+                new ActivityResultContracts.GetMultipleContents(),
+                this::handleGalleryResult
+        );
+    }
+
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(STATE_CAMERA_METHOD, cameraMethod);
+        if (captureFile != null) outState.putString(STATE_CAPTURE_FILE, captureFile.getPath());
     }
 
     @Nullable
@@ -75,12 +116,16 @@ public class AddItemMethodFragment extends Fragment {
 
         // Root option rows
         optionTakePhoto     = view.findViewById(R.id.optionTakePhoto);
+        optionBurstCapture  = view.findViewById(R.id.optionBurstCapture);
+        optionImportGallery = view.findViewById(R.id.optionImportGallery);
         optionScanBarcode   = view.findViewById(R.id.optionScanBarcode);
         optionUploadReceipt = view.findViewById(R.id.optionUploadReceipt);
         optionEnterManually = view.findViewById(R.id.optionEnterManually);
 
         // Right-side checkboxes
         iconTakePhoto = view.findViewById(R.id.iconTakePhotoSelected);
+        iconBurst     = view.findViewById(R.id.iconBurstSelected);
+        iconGallery   = view.findViewById(R.id.iconGallerySelected);
         iconScan      = view.findViewById(R.id.iconScanSelected);
         iconUpload    = view.findViewById(R.id.iconUploadSelected);
         iconManual    = view.findViewById(R.id.iconManualSelected);
@@ -91,6 +136,16 @@ public class AddItemMethodFragment extends Fragment {
             updateSelectionUi();
         });
 
+        optionBurstCapture.setOnClickListener(v -> {
+            selectedMethod = "burst";
+            updateSelectionUi();
+        });
+
+        optionImportGallery.setOnClickListener(v -> {
+            selectedMethod = "gallery";
+            updateSelectionUi();
+        });
+
         optionScanBarcode.setOnClickListener(v -> {
             selectedMethod = "barcode";
             updateSelectionUi();
@@ -123,11 +178,26 @@ public class AddItemMethodFragment extends Fragment {
         switch (selectedMethod) {
             case "photo":
             case "barcode":
-            case "receipt":
                 cameraMethod = selectedMethod;
                 launchCamera();
                 break;
 
+            case "burst":
+                // the camera comes straight back after each shot; earlier shots save meanwhile
+                cameraMethod = selectedMethod;
+                BurstSession.get(requireContext()).start();
+                launchCamera();
+                break;
+
+            case "gallery":
+                galleryLauncher.launch("image/*");
+                break;
+
+            case "receipt":
+                // the receipt's text – an e-receipt, or what a scanning app read off the paper
+                receiptLauncher.launch(new String[]{"text/plain", "text/*"});
+                break;
+
             case "manual":
             default:
                 // No camera needed; go straight to Edit screen
@@ -136,7 +206,7 @@ public class AddItemMethodFragment extends Fragment {
         }
     }
 
-    /** Launches the camera */
+    /** Launches the camera, which writes the full-size photo straight into captureFile */
     private void launchCamera() {
         Intent intent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
 
@@ -148,74 +218,188 @@ public class AddItemMethodFragment extends Fragment {
             return;
         }
 
+        ImageStore images = ImageStore.get(requireContext());
+        try {
+            captureFile = images.newCaptureFile();
+        } catch (IOException e) {
+            e.printStackTrace();
+            Toast.makeText(requireContext(),
+                    "Failed to save image",
+                    Toast.LENGTH_SHORT).show();
+            return;
+        }
+        intent.putExtra(MediaStore.EXTRA_OUTPUT, images.uriFor(captureFile));
+        intent.addFlags(Intent.FLAG_GRANT_WRITE_URI_PERMISSION);
         cameraLauncher.launch(intent);
     }
 
-    /** Handles camera result, saves thumbnail, and passes path + autofill data */
+    /** Handles camera result, saves the photo, and passes path + autofill data */
     private void handleCameraResult(ActivityResult result) {
+        File capture = captureFile;
+        captureFile = null;
+        if ("burst".equals(cameraMethod)) {
+            handleBurstResult(result, capture);
+            return;
+        }
         if (result.getResultCode() != Activity.RESULT_OK) {
+            if (capture != null) capture.delete();
             Toast.makeText(requireContext(),
                     "Camera cancelled",
                     Toast.LENGTH_SHORT).show();
             return;
         }
 
-        Intent data = result.getData();
-        Bitmap thumbnail = null;
-        if (data != null && data.getExtras() != null) {
-            Object extra = data.getExtras().get("data");
-            if (extra instanceof Bitmap) {
-                thumbnail = (Bitmap) extra;
+        ImageStore images = ImageStore.get(requireContext());
+        CompletableFuture<String> saving;
+        if (capture != null && capture.length() > 0) {
+            saving = images.save(capture);      // the full-size photo
+        } else {
+            // some camera apps ignore EXTRA_OUTPUT and only return a small "data" bitmap
+            if (capture != null) capture.delete();
+            Intent data = result.getData();
+            Bitmap thumbnail = null;
+            if (data != null && data.getExtras() != null) {
+                Object extra = data.getExtras().get("data");
+                if (extra instanceof Bitmap) {
+                    thumbnail = (Bitmap) extra;
+                }
             }
+
+            if (thumbnail == null) {
+                Toast.makeText(requireContext(),
+                        "No image data from camera",
+                        Toast.LENGTH_SHORT).show();
+                navigateToEditItem(null);
+                return;
+            }
+            saving = images.save(thumbnail);
         }
 
-        if (thumbnail == null) {
-            Toast.makeText(requireContext(),
-                    "No image data from camera",
-                    Toast.LENGTH_SHORT).show();
-            navigateToEditItem(null);
+        // Stored on ImageStore's workers; the editor only opens once the file is on disk
+        Context appContext = requireContext().getApplicationContext();
+        saving.whenCompleteAsync((imagePath, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                Toast.makeText(appContext,
+                        "Failed to save image",
+                        Toast.LENGTH_SHORT).show();
+            }
+            if ("barcode".equals(cameraMethod) && imagePath != null) {
+                scanBarcode(appContext, imagePath);
+                return;
+            }
+            // a fragment transaction after onSaveInstanceState would throw
+            if (isAdded() && !isStateSaved()) navigateToEditItem(autoFilledFor(imagePath, null));
+        }, ContextCompat.getMainExecutor(appContext));
+    }
+
+    /**
+     * One shot of a burst: hand it to the pipeline and go right back to the camera. Closing the
+     * camera ends the burst and opens the review, even while the last shots are still saving.
+     */
+    private void handleBurstResult(ActivityResult result, @Nullable File capture) {
+        BurstSession session = BurstSession.get(requireContext());
+        if (result.getResultCode() == Activity.RESULT_OK && capture != null && capture.length() > 0) {
+            // the process may have died behind the camera, taking the burst with it: carry on in a new one
+            if (!session.isActive()) session.start();
+            if (!session.add(capture)) {
+                Toast.makeText(requireContext(),
+                        "Photo not added to the burst",
+                        Toast.LENGTH_SHORT).show();
+            }
+            launchCamera();
             return;
         }
+        if (capture != null) capture.delete();
 
-        // Save bitmap to a temp file
-        String imagePath = null;
-        try {
-            File cacheDir = requireContext().getCacheDir();
-            File imgFile = new File(cacheDir,
-                    "item_" + System.currentTimeMillis() + ".jpg");
-            FileOutputStream fos = new FileOutputStream(imgFile);
-            thumbnail.compress(Bitmap.CompressFormat.JPEG, 90, fos);
-            fos.flush();
-            fos.close();
-            imagePath = imgFile.getAbsolutePath();
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (session.pending() == 0 && session.drafts().isEmpty()) {
+            session.clear();
             Toast.makeText(requireContext(),
-                    "Failed to save image",
+                    "Camera cancelled",
                     Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (isAdded() && !isStateSaved()) {
+            requireActivity().getSupportFragmentManager()
+                    .beginTransaction()
+                    .replace(R.id.fragment_container_view, DraftReviewFragment.newInstance(DraftReviewFragment.SOURCE_BURST))
+                    .addToBackStack(null)
+                    .commit();
+        }
+    }
+
+    /** Imports every picked photo as a draft in the background and opens the review straight away */
+    private void handleGalleryResult(List<Uri> uris) {
+        if (uris == null || uris.isEmpty()) return;     // picker cancelled
+
+        GalleryImport.get(requireContext()).start(uris);
+        if (isAdded() && !isStateSaved()) {
+            requireActivity().getSupportFragmentManager()
+                    .beginTransaction()
+                    .replace(R.id.fragment_container_view,
+                            DraftReviewFragment.newInstance(DraftReviewFragment.SOURCE_GALLERY))
+                    .addToBackStack(null)
+                    .commit();
         }
+    }
+
+    /** Reads the barcode off the saved photo, then opens the editor with whatever was found */
+    private void scanBarcode(Context appContext, String imagePath) {
+        BarcodeScanner.get(appContext).scan(imagePath).whenCompleteAsync((read, error) -> {
+            if (error != null) error.printStackTrace();
+            if (read == null) {
+                Toast.makeText(appContext,
+                        "No barcode found in photo",
+                        Toast.LENGTH_SHORT).show();
+            }
+            if (isAdded() && !isStateSaved()) navigateToEditItem(autoFilledFor(imagePath, read));
+        }, ContextCompat.getMainExecutor(appContext));
+    }
+
+    /** Adds every item on the picked receipt at once, then shows them on the dashboard */
+    private void handleReceiptResult(@Nullable Uri uri) {
+        if (uri == null) return;     // picker cancelled
+
+        Context appContext = requireContext().getApplicationContext();
+        ReceiptImporter.get(appContext).importText(uri).whenCompleteAsync((imported, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                Toast.makeText(appContext, "Couldn't read receipt", Toast.LENGTH_LONG).show();
+                return;
+            }
+            if (imported.items.isEmpty()) {
+                Toast.makeText(appContext, "No items found on receipt", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            String store = imported.receipt.store != null ? " from " + imported.receipt.store : "";
+            Toast.makeText(appContext,
+                    "Added " + imported.items.size() + " items" + store,
+                    Toast.LENGTH_SHORT).show();
+            if (isAdded() && !isStateSaved() && requireActivity() instanceof MainActivity) {
+                ((MainActivity) requireActivity()).openDashboardScreen();
+            }
+        }, ContextCompat.getMainExecutor(appContext));
+    }
 
-        // Build bundle for EditItemFragment
+    /** Bundle for EditItemFragment: autofill data for the camera method, plus the saved photo */
+    private Bundle autoFilledFor(@Nullable String imagePath, @Nullable BarcodeDecoder.Result barcode) {
         Bundle autoFilled = new Bundle();
 
         if ("photo".equals(cameraMethod)) {
             autoFilled.putString("autoName", "Detected Item");
             autoFilled.putString("autoDescription", "Details extracted from photo.");
         } else if ("barcode".equals(cameraMethod)) {
-            autoFilled.putString("autoBarcode", "1234567890123");
-            autoFilled.putString("autoName", "Sample Barcode Item");
-        } else if ("receipt".equals(cameraMethod)) {
-            autoFilled.putString("autoName", "Receipt Item");
-            autoFilled.putString("autoPrice", "19.99");
-            autoFilled.putString("autoDescription", "Parsed from receipt image.");
+            if (barcode != null) {
+                autoFilled.putString("autoBarcode", barcode.text);
+                autoFilled.putString("autoDescription", "Barcode " + barcode.text);
+            }
         }
 
         autoFilled.putString("method", cameraMethod);
         if (imagePath != null) {
             autoFilled.putString("imagePath", imagePath);
         }
-
-        navigateToEditItem(autoFilled);
+        return autoFilled;
     }
 
     /** Updates selected card background + checkmarks */
@@ -223,12 +407,16 @@ public class AddItemMethodFragment extends Fragment {
 
         // Reset backgrounds
         optionTakePhoto.setBackgroundResource(R.drawable.bg_method_option);
+        optionBurstCapture.setBackgroundResource(R.drawable.bg_method_option);
+        optionImportGallery.setBackgroundResource(R.drawable.bg_method_option);
         optionScanBarcode.setBackgroundResource(R.drawable.bg_method_option);
         optionUploadReceipt.setBackgroundResource(R.drawable.bg_method_option);
         optionEnterManually.setBackgroundResource(R.drawable.bg_method_option);
 
         // Reset icons to unchecked
         iconTakePhoto.setImageResource(R.drawable.outline_check_box_outline_blank_24);
+        iconBurst.setImageResource(R.drawable.outline_check_box_outline_blank_24);
+        iconGallery.setImageResource(R.drawable.outline_check_box_outline_blank_24);
         iconScan.setImageResource(R.drawable.outline_check_box_outline_blank_24);
         iconUpload.setImageResource(R.drawable.outline_check_box_outline_blank_24);
         iconManual.setImageResource(R.drawable.outline_check_box_outline_blank_24);
@@ -240,6 +428,16 @@ public class AddItemMethodFragment extends Fragment {
                 iconTakePhoto.setImageResource(R.drawable.outline_check_box_24);
                 break;
 
+            case "burst":
+                optionBurstCapture.setBackgroundResource(R.drawable.bg_method_option_selected);
+                iconBurst.setImageResource(R.drawable.outline_check_box_24);
+                break;
+
+            case "gallery":
+                optionImportGallery.setBackgroundResource(R.drawable.bg_method_option_selected);
+                iconGallery.setImageResource(R.drawable.outline_check_box_24);
+                break;
+
             case "barcode":
                 optionScanBarcode.setBackgroundResource(R.drawable.bg_method_option_selected);
                 iconScan.setImageResource(R.drawable.outline_check_box_24);
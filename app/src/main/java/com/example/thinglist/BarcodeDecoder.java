@@ -0,0 +1,469 @@
+package com.example.thinglist;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads EAN-13, UPC-A and Code 128 barcodes from a photo, in plain Java.
+ *
+ * A few dozen scan lines are taken across the image – rows from the middle outwards, then
+ * columns, for a barcode photographed sideways – and split between worker threads. Each
+ * line is thresholded, turned into bar/space widths and matched against the symbologies'
+ * width patterns in both directions (a barcode can be upside down). The first read whose
+ * check digit is right wins and the other lines stop.
+ *
+ * Pattern matching works on widths relative to the symbol's own size, so it doesn't care
+ * how big the barcode is in the picture, as long as the narrowest bar is about a pixel.
+ */
+final class BarcodeDecoder {
+
+    enum Format { EAN_13, UPC_A, CODE_128 }
+
+    /** A checksum-valid read. */
+    static final class Result {
+        final Format format;
+        final String text;
+
+        Result(Format format, String text) {
+            this.format = format;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Result)) return false;
+            Result other = (Result) o;
+            return format == other.format && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return format.hashCode() * 31 + text.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return format + ":" + text;
+        }
+    }
+
+    /** Pixels of the picture, one scan line at a time, as ARGB. Called from several threads. */
+    interface Image {
+        int width();
+
+        int height();
+
+        void readRow(int y, int[] argb);
+
+        void readColumn(int x, int[] argb);
+    }
+
+    static final int ROWS = 24;
+    static final int COLUMNS = 12;
+
+    // a line darkest-to-lightest range below this has no barcode worth trying
+    private static final int MIN_CONTRAST = 48;
+    private static final float EAN_MAX_VARIANCE = 0.48f;
+    private static final float CODE128_MAX_VARIANCE = 0.25f;
+    private static final float MAX_INDIVIDUAL_VARIANCE = 0.7f;
+    private static final float NO_MATCH = Float.MAX_VALUE;
+
+    private final Executor workers;
+    private final int parallelism;
+
+    /**
+     * @param workers     runs the other lines' scans; the calling thread scans a share too
+     * @param parallelism how many threads scan at once, the caller included
+     */
+    BarcodeDecoder(Executor workers, int parallelism) {
+        this.workers = workers;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /** The first barcode found, or null. Blocks until it's found or every line is tried. */
+    Result decode(Image image) {
+        int[] lines = lineOrder(image.width(), image.height());
+        int tasks = Math.min(parallelism, lines.length);
+        if (tasks == 0) return null;
+
+        CompletableFuture<Result> first = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(tasks);
+        for (int t = 1; t < tasks; t++) {
+            int task = t;
+            workers.execute(() -> scan(image, lines, task, tasks, first, running));
+        }
+        scan(image, lines, 0, tasks, first, running);
+        return first.join();
+    }
+
+    // lines are interleaved between tasks, so the middle rows are all tried first
+    private static void scan(Image image, int[] lines, int from, int stride,
+                             CompletableFuture<Result> first, AtomicInteger running) {
+        try {
+            LineDecoder decoder = new LineDecoder(Math.max(image.width(), image.height()));
+            for (int i = from; i < lines.length && !first.isDone(); i += stride) {
+                Result result = decoder.decode(image, lines[i]);
+                if (result != null) {
+                    first.complete(result);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            if (running.decrementAndGet() == 0) first.complete(null);
+        }
+    }
+
+    /**
+     * Scan lines in the order they're tried: rows from the middle outwards, then columns.
+     * Row y is {@code y}; column x is {@code -(x + 1)}.
+     */
+    static int[] lineOrder(int width, int height) {
+        int rows = Math.min(ROWS, height);
+        int columns = Math.min(COLUMNS, width);
+        int[] lines = new int[rows + columns];
+        fillFromMiddle(lines, 0, rows, height, false);
+        fillFromMiddle(lines, rows, columns, width, true);
+        return lines;
+    }
+
+    private static void fillFromMiddle(int[] lines, int offset, int count, int size, boolean columns) {
+        int middle = size / 2;
+        int step = Math.max(1, size / (count + 1));
+        for (int k = 0; k < count; k++) {
+            int distance = (k + 1) / 2 * step;
+            int at = Math.max(0, Math.min(size - 1, k % 2 == 0 ? middle + distance : middle - distance));
+            lines[offset + k] = columns ? -(at + 1) : at;
+        }
+    }
+
+    // -------------------- one scan line --------------------
+
+    /** Decodes single scan lines, reusing its buffers. One per thread. */
+    static final class LineDecoder {
+        private final int[] argb;
+        private final int[] luma;
+        private final int[] runs;
+        private int runCount;
+        private boolean firstIsBar;
+
+        LineDecoder(int maxLength) {
+            argb = new int[maxLength];
+            luma = new int[maxLength];
+            runs = new int[maxLength + 1];
+        }
+
+        Result decode(Image image, int line) {
+            int length;
+            if (line >= 0) {
+                image.readRow(line, argb);
+                length = image.width();
+            } else {
+                image.readColumn(-line - 1, argb);
+                length = image.height();
+            }
+            return decodeLine(argb, length);
+        }
+
+        /** Reads {@code length} ARGB pixels as one scan line, either way round. */
+        Result decodeLine(int[] pixels, int length) {
+            if (!toRuns(pixels, length)) return null;
+            Result result = decodeRuns();
+            if (result != null) return result;
+            reverseRuns();
+            return decodeRuns();
+        }
+
+        // thresholds at the middle of the line's range, then run-length encodes
+        private boolean toRuns(int[] pixels, int length) {
+            int min = 255;
+            int max = 0;
+            for (int i = 0; i < length; i++) {
+                int p = pixels[i];
+                // integer Rec. 601 luma
+                int y = (((p >> 16) & 0xFF) * 77 + ((p >> 8) & 0xFF) * 150 + (p & 0xFF) * 29) >> 8;
+                luma[i] = y;
+                if (y < min) min = y;
+                if (y > max) max = y;
+            }
+            if (max - min < MIN_CONTRAST) return false;
+
+            int threshold = (min + max) / 2;
+            boolean dark = luma[0] < threshold;
+            firstIsBar = dark;
+            runCount = 0;
+            int run = 0;
+            for (int i = 0; i < length; i++) {
+                boolean d = luma[i] < threshold;
+                if (d != dark) {
+                    runs[runCount++] = run;
+                    run = 0;
+                    dark = d;
+                }
+                run++;
+            }
+            runs[runCount++] = run;
+            return runCount >= 7;
+        }
+
+        private void reverseRuns() {
+            for (int i = 0, j = runCount - 1; i < j; i++, j--) {
+                int t = runs[i];
+                runs[i] = runs[j];
+                runs[j] = t;
+            }
+            // the old last run is now first; its colour depends on the count's parity
+            if (runCount % 2 == 0) firstIsBar = !firstIsBar;
+        }
+
+        private Result decodeRuns() {
+            for (int i = firstIsBar ? 0 : 1; i < runCount; i += 2) {
+                Result result = decodeEan(runs, runCount, i);
+                if (result == null) result = decodeCode128(runs, runCount, i);
+                if (result != null) return result;
+            }
+            return null;
+        }
+    }
+
+    // -------------------- EAN-13 / UPC-A --------------------
+
+    private static final int[] EAN_GUARD = {1, 1, 1};
+    private static final int[] EAN_MIDDLE = {1, 1, 1, 1, 1};
+    // L-code widths, space first; R codes have the same widths bar first, G codes are L reversed
+    private static final int[][] EAN_L = {
+            {3, 2, 1, 1}, {2, 2, 2, 1}, {2, 1, 2, 2}, {1, 4, 1, 1}, {1, 1, 3, 2},
+            {1, 2, 3, 1}, {1, 1, 1, 4}, {1, 3, 1, 2}, {1, 2, 1, 3}, {3, 1, 1, 2},
+    };
+    private static final int[][] EAN_G = new int[10][];
+    // L/G parity of the six left digits (bit 5 = first, 1 = G) gives away the leading digit
+    private static final int[] EAN_FIRST_DIGIT_PARITY = {
+            0b000000, 0b001011, 0b001101, 0b001110, 0b010011,
+            0b011001, 0b011100, 0b010101, 0b010110, 0b011010,
+    };
+    private static final int EAN_RUNS = 3 + 24 + 5 + 24 + 3;
+
+    static {
+        for (int d = 0; d < 10; d++) {
+            int[] l = EAN_L[d];
+            EAN_G[d] = new int[]{l[3], l[2], l[1], l[0]};
+        }
+    }
+
+    private static Result decodeEan(int[] runs, int runCount, int start) {
+        if (start + EAN_RUNS > runCount) return null;
+        if (variance(runs, start, EAN_GUARD, MAX_INDIVIDUAL_VARIANCE) > EAN_MAX_VARIANCE) return null;
+
+        int total = 0;
+        for (int i = start; i < start + EAN_RUNS; i++) total += runs[i];
+        float module = total / 95f;
+        // quiet zones either side (the spec wants 7+; photos crop tighter)
+        if (start > 0 && runs[start - 1] < module * 3) return null;
+        int after = start + EAN_RUNS;
+        if (after < runCount && runs[after] < module * 3) return null;
+        if (variance(runs, start + 27, EAN_MIDDLE, MAX_INDIVIDUAL_VARIANCE) > EAN_MAX_VARIANCE) return null;
+        if (variance(runs, start + 56, EAN_GUARD, MAX_INDIVIDUAL_VARIANCE) > EAN_MAX_VARIANCE) return null;
+
+        char[] digits = new char[13];
+        int parity = 0;
+        for (int d = 0; d < 6; d++) {
+            int offset = start + 3 + d * 4;
+            int l = bestMatch(runs, offset, EAN_L, EAN_MAX_VARIANCE);
+            int g = bestMatch(runs, offset, EAN_G, EAN_MAX_VARIANCE);
+            if (l < 0 && g < 0) return null;
+            boolean isG = g >= 0 && (l < 0 || variance(runs, offset, EAN_G[g], MAX_INDIVIDUAL_VARIANCE)
+                    < variance(runs, offset, EAN_L[l], MAX_INDIVIDUAL_VARIANCE));
+            digits[d + 1] = (char) ('0' + (isG ? g : l));
+            parity = (parity << 1) | (isG ? 1 : 0);
+        }
+        for (int d = 0; d < 6; d++) {
+            int r = bestMatch(runs, start + 32 + d * 4, EAN_L, EAN_MAX_VARIANCE);
+            if (r < 0) return null;
+            digits[d + 7] = (char) ('0' + r);
+        }
+        int first = -1;
+        for (int d = 0; d < 10; d++) {
+            if (EAN_FIRST_DIGIT_PARITY[d] == parity) first = d;
+        }
+        if (first < 0) return null;
+        digits[0] = (char) ('0' + first);
+
+        String text = new String(digits);
+        if (!eanChecksumOk(text)) return null;
+        // UPC-A is EAN-13 with a leading zero
+        return first == 0 ? new Result(Format.UPC_A, text.substring(1)) : new Result(Format.EAN_13, text);
+    }
+
+    /** Whether the last digit of an EAN-13 / UPC-A / EAN-8 number is its check digit. */
+    static boolean eanChecksumOk(String digits) {
+        int sum = 0;
+        int n = digits.length();
+        for (int i = n - 2, weight = 3; i >= 0; i--, weight = 4 - weight) {
+            sum += (digits.charAt(i) - '0') * weight;
+        }
+        return (10 - sum % 10) % 10 == digits.charAt(n - 1) - '0';
+    }
+
+    // -------------------- Code 128 --------------------
+
+    // bar/space widths of values 0–105, bar first; every symbol is 11 modules
+    static final int[][] CODE128 = {
+            {2, 1, 2, 2, 2, 2}, {2, 2, 2, 1, 2, 2}, {2, 2, 2, 2, 2, 1}, {1, 2, 1, 2, 2, 3}, {1, 2, 1, 3, 2, 2},
+            {1, 3, 1, 2, 2, 2}, {1, 2, 2, 2, 1, 3}, {1, 2, 2, 3, 1, 2}, {1, 3, 2, 2, 1, 2}, {2, 2, 1, 2, 1, 3},
+            {2, 2, 1, 3, 1, 2}, {2, 3, 1, 2, 1, 2}, {1, 1, 2, 2, 3, 2}, {1, 2, 2, 1, 3, 2}, {1, 2, 2, 2, 3, 1},
+            {1, 1, 3, 2, 2, 2}, {1, 2, 3, 1, 2, 2}, {1, 2, 3, 2, 2, 1}, {2, 2, 3, 2, 1, 1}, {2, 2, 1, 1, 3, 2},
+            {2, 2, 1, 2, 3, 1}, {2, 1, 3, 2, 1, 2}, {2, 2, 3, 1, 1, 2}, {3, 1, 2, 1, 3, 1}, {3, 1, 1, 2, 2, 2},
+            {3, 2, 1, 1, 2, 2}, {3, 2, 1, 2, 2, 1}, {3, 1, 2, 2, 1, 2}, {3, 2, 2, 1, 1, 2}, {3, 2, 2, 2, 1, 1},
+            {2, 1, 2, 1, 2, 3}, {2, 1, 2, 3, 2, 1}, {2, 3, 2, 1, 2, 1}, {1, 1, 1, 3, 2, 3}, {1, 3, 1, 1, 2, 3},
+            {1, 3, 1, 3, 2, 1}, {1, 1, 2, 3, 1, 3}, {1, 3, 2, 1, 1, 3}, {1, 3, 2, 3, 1, 1}, {2, 1, 1, 3, 1, 3},
+            {2, 3, 1, 1, 1, 3}, {2, 3, 1, 3, 1, 1}, {1, 1, 2, 1, 3, 3}, {1, 1, 2, 3, 3, 1}, {1, 3, 2, 1, 3, 1},
+            {1, 1, 3, 1, 2, 3}, {1, 1, 3, 3, 2, 1}, {1, 3, 3, 1, 2, 1}, {3, 1, 3, 1, 2, 1}, {2, 1, 1, 3, 3, 1},
+            {2, 3, 1, 1, 3, 1}, {2, 1, 3, 1, 1, 3}, {2, 1, 3, 3, 1, 1}, {2, 1, 3, 1, 3, 1}, {3, 1, 1, 1, 2, 3},
+            {3, 1, 1, 3, 2, 1}, {3, 3, 1, 1, 2, 1}, {3, 1, 2, 1, 1, 3}, {3, 1, 2, 3, 1, 1}, {3, 3, 2, 1, 1, 1},
+            {3, 1, 4, 1, 1, 1}, {2, 2, 1, 4, 1, 1}, {4, 3, 1, 1, 1, 1}, {1, 1, 1, 2, 2, 4}, {1, 1, 1, 4, 2, 2},
+            {1, 2, 1, 1, 2, 4}, {1, 2, 1, 4, 2, 1}, {1, 4, 1, 1, 2, 2}, {1, 4, 1, 2, 2, 1}, {1, 1, 2, 2, 1, 4},
+            {1, 1, 2, 4, 1, 2}, {1, 2, 2, 1, 1, 4}, {1, 2, 2, 4, 1, 1}, {1, 4, 2, 1, 1, 2}, {1, 4, 2, 2, 1, 1},
+            {2, 4, 1, 2, 1, 1}, {2, 2, 1, 1, 1, 4}, {4, 1, 3, 1, 1, 1}, {2, 4, 1, 1, 1, 2}, {1, 3, 4, 1, 1, 1},
+            {1, 1, 1, 2, 4, 2}, {1, 2, 1, 1, 4, 2}, {1, 2, 1, 2, 4, 1}, {1, 1, 4, 2, 1, 2}, {1, 2, 4, 1, 1, 2},
+            {1, 2, 4, 2, 1, 1}, {4, 1, 1, 2, 1, 2}, {4, 2, 1, 1, 1, 2}, {4, 2, 1, 2, 1, 1}, {2, 1, 2, 1, 4, 1},
+            {2, 1, 4, 1, 2, 1}, {4, 1, 2, 1, 2, 1}, {1, 1, 1, 1, 4, 3}, {1, 1, 1, 3, 4, 1}, {1, 3, 1, 1, 4, 1},
+            {1, 1, 4, 1, 1, 3}, {1, 1, 4, 3, 1, 1}, {4, 1, 1, 1, 1, 3}, {4, 1, 1, 3, 1, 1}, {1, 1, 3, 1, 4, 1},
+            {1, 1, 4, 1, 3, 1}, {3, 1, 1, 1, 4, 1}, {4, 1, 1, 1, 3, 1}, {2, 1, 1, 4, 1, 2}, {2, 1, 1, 2, 1, 4},
+            {2, 1, 1, 2, 3, 2},
+    };
+    static final int[] CODE128_STOP = {2, 3, 3, 1, 1, 1, 2};
+    static final int CODE128_START_A = 103;
+    static final int CODE128_START_B = 104;
+    static final int CODE128_START_C = 105;
+
+    private static final int SHIFT = 98;
+    private static final int CODE_C = 99;
+    private static final int CODE_B = 100;
+    private static final int CODE_A = 101;
+    private static final int FNC_1 = 102;
+
+    private static Result decodeCode128(int[] runs, int runCount, int start) {
+        if (start + 6 + 6 + 7 > runCount) return null;      // start, check, stop at least
+        int startCode = -1;
+        float best = CODE128_MAX_VARIANCE;
+        for (int code = CODE128_START_A; code <= CODE128_START_C; code++) {
+            float v = variance(runs, start, CODE128[code], MAX_INDIVIDUAL_VARIANCE);
+            if (v < best) {
+                best = v;
+                startCode = code;
+            }
+        }
+        if (startCode < 0) return null;
+        int startWidth = 0;
+        for (int i = start; i < start + 6; i++) startWidth += runs[i];
+        if (start > 0 && runs[start - 1] < startWidth / 2) return null;       // quiet zone
+
+        int[] values = new int[(runCount - start) / 6];
+        int count = 0;
+        int pos = start + 6;
+        while (true) {
+            if (pos + 7 <= runCount
+                    && variance(runs, pos, CODE128_STOP, MAX_INDIVIDUAL_VARIANCE) < CODE128_MAX_VARIANCE) {
+                break;
+            }
+            if (pos + 6 > runCount) return null;
+            int value = bestMatch(runs, pos, CODE128, CODE128_MAX_VARIANCE);
+            if (value < 0 || value >= CODE128_START_A) return null;
+            values[count++] = value;
+            pos += 6;
+        }
+        if (count < 1) return null;
+
+        // the last symbol is the check value: start + sum(value × position) mod 103
+        int check = values[--count];
+        int sum = startCode;
+        for (int i = 0; i < count; i++) sum += values[i] * (i + 1);
+        if (sum % 103 != check) return null;
+
+        String text = code128Text(startCode, values, count);
+        return text == null || text.isEmpty() ? null : new Result(Format.CODE_128, text);
+    }
+
+    private static String code128Text(int startCode, int[] values, int count) {
+        StringBuilder text = new StringBuilder(count * 2);
+        int set = startCode;                  // CODE128_START_A / _B / _C
+        boolean shifted = false;
+        for (int i = 0; i < count; i++) {
+            int value = values[i];
+            int current = set;
+            if (shifted) {
+                current = set == CODE128_START_A ? CODE128_START_B : CODE128_START_A;
+                shifted = false;
+            }
+            if (current == CODE128_START_C) {
+                if (value < 100) {
+                    if (value < 10) text.append('0');
+                    text.append(value);
+                } else if (value == CODE_B) {
+                    set = CODE128_START_B;
+                } else if (value == CODE_A) {
+                    set = CODE128_START_A;
+                } else if (value != FNC_1) {
+                    return null;
+                }
+                continue;
+            }
+            if (value < 96) {
+                boolean control = current == CODE128_START_A && value >= 64;
+                text.append((char) (control ? value - 64 : value + 32));
+            } else if (value == SHIFT) {
+                shifted = true;
+            } else if (value == CODE_C) {
+                set = CODE128_START_C;
+            } else if (value == CODE_B && current == CODE128_START_A) {
+                set = CODE128_START_B;
+            } else if (value == CODE_A && current == CODE128_START_B) {
+                set = CODE128_START_A;
+            }
+            // FNC1–4 carry no text
+        }
+        return text.toString();
+    }
+
+    // -------------------- width matching --------------------
+
+    /** Index of the closest pattern for the runs at {@code offset}, or -1 if none is close enough. */
+    private static int bestMatch(int[] runs, int offset, int[][] patterns, float maxVariance) {
+        int best = -1;
+        float bestVariance = maxVariance;
+        for (int i = 0; i < patterns.length; i++) {
+            float v = variance(runs, offset, patterns[i], MAX_INDIVIDUAL_VARIANCE);
+            if (v < bestVariance) {
+                bestVariance = v;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * How far the runs at {@code offset} are from {@code pattern} scaled to the same total
+     * width, as a fraction of that width; {@link #NO_MATCH} if any one run is off by more
+     * than {@code maxIndividual} modules.
+     */
+    static float variance(int[] runs, int offset, int[] pattern, float maxIndividual) {
+        int total = 0;
+        int modules = 0;
+        for (int i = 0; i < pattern.length; i++) {
+            total += runs[offset + i];
+            modules += pattern[i];
+        }
+        if (total < modules) return NO_MATCH;       // under a pixel per module
+        float unit = total / (float) modules;
+        float limit = maxIndividual * unit;
+        float sum = 0;
+        for (int i = 0; i < pattern.length; i++) {
+            float diff = Math.abs(runs[offset + i] - pattern[i] * unit);
+            if (diff > limit) return NO_MATCH;
+            sum += diff;
+        }
+        return sum / total;
+    }
+}
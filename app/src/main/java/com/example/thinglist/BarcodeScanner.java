@@ -0,0 +1,110 @@
+package com.example.thinglist;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Process;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads the barcode in a saved photo, on the device, with {@link BarcodeDecoder}. The
+ * photo is decoded at about 2000 pixels on its long side – plenty of pixels per bar for a
+ * barcode that fills a fair part of the frame – and the scan lines are split across a
+ * pool with a thread per core.
+ *
+ * <pre>
+ * BarcodeScanner.get(requireContext()).scan(imagePath)
+ *         .whenCompleteAsync((read, error) -> { ... }, ContextCompat.getMainExecutor(context));
+ * </pre>
+ */
+public final class BarcodeScanner {
+
+    // the sampled photo keeps at least this on its short side
+    private static final int SCAN_SIDE = 800;
+
+    private static BarcodeScanner instance;
+
+    private final BitmapPool pool = BitmapPool.get();
+    // decodes the photo and scans a share of the lines itself
+    private final ExecutorService scanner;
+    // the rest of the lines; separate, so a scan never waits on its own queue
+    private final ExecutorService lines;
+    private final BarcodeDecoder decoder;
+
+    private BarcodeScanner() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        scanner = Executors.newSingleThreadExecutor(runnable -> newThread(runnable, "BarcodeScanner"));
+        lines = Executors.newFixedThreadPool(Math.max(1, cores - 1),
+                runnable -> newThread(runnable, "BarcodeScanner-lines"));
+        decoder = new BarcodeDecoder(lines, cores);
+    }
+
+    private static Thread newThread(Runnable runnable, String name) {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public static synchronized BarcodeScanner get(Context context) {
+        if (instance == null) {
+            instance = new BarcodeScanner();
+        }
+        return instance;
+    }
+
+    /**
+     * The barcode in the photo at {@code path}, or null when none could be read. Fails only
+     * if the photo itself can't be decoded.
+     */
+    CompletableFuture<BarcodeDecoder.Result> scan(String path) {
+        return CompletableFuture.supplyAsync(() -> {
+            Bitmap bitmap = ImageLoader.decodeSampled(path, SCAN_SIDE, SCAN_SIDE, pool);
+            if (bitmap == null) throw new CompletionException(new IllegalArgumentException("Can't decode " + path));
+            try {
+                return decoder.decode(new BitmapImage(bitmap));
+            } finally {
+                pool.put(bitmap);       // only the scan ever saw it
+            }
+        }, scanner);
+    }
+
+    /** A bitmap's pixels a line at a time; reading is safe from several threads at once. */
+    private static final class BitmapImage implements BarcodeDecoder.Image {
+        private final Bitmap bitmap;
+        private final int width;
+        private final int height;
+
+        BitmapImage(Bitmap bitmap) {
+            this.bitmap = bitmap;
+            this.width = bitmap.getWidth();
+            this.height = bitmap.getHeight();
+        }
+
+        @Override
+        public int width() {
+            return width;
+        }
+
+        @Override
+        public int height() {
+            return height;
+        }
+
+        @Override
+        public void readRow(int y, int[] argb) {
+            bitmap.getPixels(argb, 0, width, 0, y, width, 1);
+        }
+
+        @Override
+        public void readColumn(int x, int[] argb) {
+            // a stride of 1 lays the column out as one line
+            bitmap.getPixels(argb, 0, 1, x, 0, 1, height);
+        }
+    }
+}
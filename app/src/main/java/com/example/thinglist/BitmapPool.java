@@ -0,0 +1,62 @@
+package com.example.thinglist;
+
+import android.graphics.Bitmap;
+
+/**
+ * Mutable bitmaps that no view or cache uses any more, kept for the next decode to write
+ * into ({@code BitmapFactory.Options.inBitmap}) instead of allocating a new one. Moving
+ * between the detail, preview and edit screens then reuses the same few buffers rather
+ * than leaving a full-size bitmap behind for the GC every time.
+ *
+ * Capped at a sixteenth of the heap; see {@link SizeBucketPool} for how buffers are picked.
+ * {@link ImageLoader} decides when a bitmap is free to come back here.
+ */
+public final class BitmapPool {
+
+    private static BitmapPool instance;
+
+    private final SizeBucketPool<Bitmap> pool;
+
+    private BitmapPool(long maxBytes) {
+        pool = new SizeBucketPool<>(maxBytes, Bitmap::getAllocationByteCount, Bitmap::recycle);
+    }
+
+    public static synchronized BitmapPool get() {
+        if (instance == null) {
+            instance = new BitmapPool(Runtime.getRuntime().maxMemory() / 16);
+        }
+        return instance;
+    }
+
+    /** A pooled bitmap with room for {@code bytes}, to decode into; null if there's none. */
+    Bitmap take(int bytes) {
+        return pool.take(bytes);
+    }
+
+    /** Gives {@code bitmap} back. Nothing may draw or read it afterwards. */
+    void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return;
+        pool.put(bitmap);
+    }
+
+    /** Frees every pooled bitmap, e.g. when the system is low on memory. */
+    public void clear() {
+        pool.clear();
+    }
+
+    // -------------------- metrics --------------------
+
+    /** Share of decodes that reused a pooled bitmap. */
+    public double hitRate() {
+        return pool.hitRate();
+    }
+
+    /** Bytes of bitmaps currently waiting in the pool. */
+    public long retainedBytes() {
+        return pool.retainedBytes();
+    }
+
+    public int size() {
+        return pool.size();
+    }
+}
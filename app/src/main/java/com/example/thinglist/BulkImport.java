@@ -0,0 +1,94 @@
+package com.example.thinglist;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns a list of inputs (gallery picks) into draft items on a worker pool, a fixed number
+ * at a time.
+ *
+ * Rather than one task per input – hundreds of them queued, each free to start decoding –
+ * it starts {@code workers} loops that each take the next input when they're done with the
+ * last. So however long the list, no more than {@code workers} images are being read,
+ * decoded or thumbnailed at once, and the memory that takes is known up front.
+ */
+final class BulkImport<T> {
+
+    /** The work for one input, on a worker thread. */
+    interface Step<T> {
+        ThingItem run(T input, int index) throws Exception;
+    }
+
+    /** Called on the worker threads, once per input, in whatever order they finish. */
+    interface Listener {
+        void onItem(int index, ThingItem item);
+
+        void onFailed(int index, Exception error);
+    }
+
+    private final List<T> inputs;
+    private final Step<T> step;
+    private final Listener listener;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private volatile boolean cancelled;
+
+    BulkImport(List<T> inputs, Step<T> step, Listener listener) {
+        this.inputs = inputs;
+        this.step = step;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts {@code workers} loops on {@code executor}; completes once every input is done
+     * (or, after {@link #cancel}, once the ones already started are).
+     */
+    CompletableFuture<Void> start(Executor executor, int workers) {
+        int loops = Math.min(workers, inputs.size());
+        if (loops <= 0) {
+            done.complete(null);
+            return done;
+        }
+        running.set(loops);
+        for (int i = 0; i < loops; i++) executor.execute(this::work);
+        return done;
+    }
+
+    private void work() {
+        try {
+            int index;
+            while (!cancelled && (index = next.getAndIncrement()) < inputs.size()) {
+                ThingItem item;
+                try {
+                    item = step.run(inputs.get(index), index);
+                } catch (Exception e) {
+                    completed.incrementAndGet();
+                    listener.onFailed(index, e);
+                    continue;
+                }
+                completed.incrementAndGet();
+                listener.onItem(index, item);
+            }
+        } finally {
+            if (running.decrementAndGet() == 0) done.complete(null);
+        }
+    }
+
+    /** Starts no more inputs; the ones being worked on still finish. */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /** Inputs finished so far, failed ones included. */
+    int completed() {
+        return completed.get();
+    }
+
+    int total() {
+        return inputs.size();
+    }
+}
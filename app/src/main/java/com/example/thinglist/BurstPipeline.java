@@ -0,0 +1,272 @@
+package com.example.thinglist;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns burst captures into draft items while the camera keeps shooting: each capture goes
+ * through store (hash, fsync, move into the photo store), thumbnail and draft stages, each
+ * on its own thread, so shot 5 is being stored while shot 4 is thumbnailed.
+ *
+ * Stages are joined by bounded queues. A full queue makes the stage in front of it wait,
+ * all the way back to {@link #submit}, which then says no rather than block – the caller
+ * holds on to the capture (it's a file, not a bitmap) and tries again after the next draft.
+ *
+ * Every stage keeps its queue depth and how long jobs waited for it and spent in it
+ * ({@link #metrics}), to tell which stage to speed up or which queue to lengthen.
+ */
+final class BurstPipeline {
+
+    /** The work itself; each method runs on its own stage's thread. */
+    interface Steps {
+        /** Moves the capture into the photo store; returns the stored photo's path. */
+        String store(File capture) throws Exception;
+
+        /** Makes the photo's thumbnails. */
+        void thumbnail(String path) throws Exception;
+
+        /** The draft item for the {@code index}th capture of the burst (from 1). */
+        ThingItem draft(String path, int index) throws Exception;
+    }
+
+    /** Called on the draft stage's thread. */
+    interface Listener {
+        void onDraft(ThingItem draft);
+
+        void onFailed(File capture, Exception error);
+    }
+
+    /** One stage's numbers so far, copied out. */
+    static final class StageMetrics {
+        final String name;
+        final int depth;
+        final int maxDepth;
+        final int processed;
+        final long waitNanos;
+        final long serviceNanos;
+        final long maxServiceNanos;
+
+        StageMetrics(String name, int depth, int maxDepth, int processed,
+                     long waitNanos, long serviceNanos, long maxServiceNanos) {
+            this.name = name;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.processed = processed;
+            this.waitNanos = waitNanos;
+            this.serviceNanos = serviceNanos;
+            this.maxServiceNanos = maxServiceNanos;
+        }
+
+        double averageWaitMs() {
+            return processed == 0 ? 0 : waitNanos / 1e6 / processed;
+        }
+
+        double averageServiceMs() {
+            return processed == 0 ? 0 : serviceNanos / 1e6 / processed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: queue %d (max %d), %d done, wait %.1f ms, work %.1f ms (max %.1f)",
+                    name, depth, maxDepth, processed, averageWaitMs(), averageServiceMs(), maxServiceNanos / 1e6);
+        }
+    }
+
+    // one capture on its way through
+    private static final class Job {
+        final File capture;
+        final int index;
+        String path;
+        long queuedAt;
+
+        Job(File capture, int index) {
+            this.capture = capture;
+            this.index = index;
+        }
+    }
+
+    private static final Job STOP = new Job(null, 0);
+
+    private abstract class Stage implements Runnable {
+        final String name;
+        final BlockingQueue<Job> queue;
+        Stage next;
+        // written by this stage's thread (maxDepth by whoever feeds it), read by metrics()
+        private volatile int processed;
+        private volatile int maxDepth;
+        private volatile long waitNanos;
+        private volatile long serviceNanos;
+        private volatile long maxServiceNanos;
+
+        Stage(String name, int capacity) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        abstract void work(Job job) throws Exception;
+
+        @Override
+        public void run() {
+            while (true) {
+                Job job = take();
+                if (job == STOP) {
+                    if (next != null) next.put(STOP);
+                    else stopped.complete(null);
+                    return;
+                }
+                long started = System.nanoTime();
+                boolean ok;
+                try {
+                    work(job);
+                    ok = true;
+                } catch (Exception e) {
+                    ok = false;
+                    pending.decrementAndGet();
+                    listener.onFailed(job.capture, e);
+                }
+                long done = System.nanoTime();
+                waitNanos += started - job.queuedAt;
+                serviceNanos += done - started;
+                maxServiceNanos = Math.max(maxServiceNanos, done - started);
+                processed++;
+                if (!ok) continue;
+                if (next != null) next.put(job);
+                else pending.decrementAndGet();   // out the end: drafted and handed over
+            }
+        }
+
+        // blocks while the next stage is full: that's the back pressure
+        void put(Job job) {
+            job.queuedAt = System.nanoTime();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    queue.put(job);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            noteDepth();
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        boolean offer(Job job) {
+            job.queuedAt = System.nanoTime();
+            if (!queue.offer(job)) return false;
+            noteDepth();
+            return true;
+        }
+
+        private void noteDepth() {
+            int depth = queue.size();
+            if (depth > maxDepth) maxDepth = depth;
+        }
+
+        private Job take() {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    // only STOP ends a stage
+                }
+            }
+        }
+
+        StageMetrics metrics() {
+            return new StageMetrics(name, queue.size(), maxDepth, processed,
+                    waitNanos, serviceNanos, maxServiceNanos);
+        }
+    }
+
+    private final Listener listener;
+    private final ThreadFactory threads;
+    private final List<Stage> stages = new ArrayList<>(3);
+    private final AtomicInteger pending = new AtomicInteger();
+    private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+    private int submitted;
+    private boolean shutdown;
+
+    /**
+     * @param queueCapacity how many captures may wait in front of each stage
+     * @param threads       makes the three stage threads
+     */
+    BurstPipeline(Steps steps, Listener listener, int queueCapacity, ThreadFactory threads) {
+        this.listener = listener;
+        this.threads = threads;
+
+        Stage store = new Stage("store", queueCapacity) {
+            @Override
+            void work(Job job) throws Exception {
+                job.path = steps.store(job.capture);
+            }
+        };
+        Stage thumbnail = new Stage("thumbnail", queueCapacity) {
+            @Override
+            void work(Job job) throws Exception {
+                steps.thumbnail(job.path);
+            }
+        };
+        Stage draft = new Stage("draft", queueCapacity) {
+            @Override
+            void work(Job job) throws Exception {
+                listener.onDraft(steps.draft(job.path, job.index));
+            }
+        };
+        store.next = thumbnail;
+        thumbnail.next = draft;
+        stages.add(store);
+        stages.add(thumbnail);
+        stages.add(draft);
+        for (Stage stage : stages) threads.newThread(stage).start();
+    }
+
+    /**
+     * Queues a capture, or returns false if the store stage's queue is full (or the pipeline
+     * is shut down) – never blocks.
+     */
+    synchronized boolean submit(File capture) {
+        if (shutdown) return false;
+        Job job = new Job(capture, submitted + 1);
+        pending.incrementAndGet();
+        if (!stages.get(0).offer(job)) {
+            pending.decrementAndGet();
+            return false;
+        }
+        submitted++;
+        return true;
+    }
+
+    /** Captures accepted but not yet a draft (or a failure). */
+    int pending() {
+        return pending.get();
+    }
+
+    List<StageMetrics> metrics() {
+        List<StageMetrics> out = new ArrayList<>(stages.size());
+        for (Stage stage : stages) out.add(stage.metrics());
+        return out;
+    }
+
+    /**
+     * Takes no more captures; completes once everything already accepted has come out the
+     * other end and the stage threads have ended. Doesn't block the caller.
+     */
+    CompletableFuture<Void> shutdown() {
+        synchronized (this) {
+            if (!shutdown) {
+                shutdown = true;
+                // put() would block the caller behind a full queue; let a stage thread wait instead
+                threads.newThread(() -> stages.get(0).put(STOP)).start();
+            }
+        }
+        return stopped;
+    }
+}
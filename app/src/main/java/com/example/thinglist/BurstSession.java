@@ -0,0 +1,207 @@
+package com.example.thinglist;
+
+import android.content.Context;
+import android.os.Process;
+
+import androidx.core.content.ContextCompat;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * One burst of photos: captures go in as the camera returns them ({@link #add}), drafts come
+ * out of a {@link BurstPipeline} behind it, and {@link DraftReviewFragment} saves them all at
+ * the end.
+ *
+ * The pipeline's queues are short, so a fast shooter can get ahead of it; the captures it
+ * turns away wait here as files (a few bytes of memory each, not a decoded photo) and go
+ * in as drafts come out. Everything here is main thread only – the pipeline's callbacks are
+ * posted over.
+ */
+public final class BurstSession implements DraftBatch {
+
+    /** Captures that may wait in front of each pipeline stage. */
+    private static final int QUEUE_CAPACITY = 4;
+
+    private static BurstSession instance;
+
+    private final Context appContext;
+    private final Executor main;
+    private final List<ThingItem> drafts = new ArrayList<>();
+    private final ArrayDeque<File> backlog = new ArrayDeque<>();
+    private BurstPipeline pipeline;
+    private CompletableFuture<List<ThingItem>> finished;
+    private boolean shuttingDown;
+    private int burst;          // bumped by clear(), so a dropped burst's late drafts are ignored
+    private int failures;
+    private Listener listener;
+
+    private BurstSession(Context appContext) {
+        this.appContext = appContext;
+        this.main = ContextCompat.getMainExecutor(appContext);
+    }
+
+    public static synchronized BurstSession get(Context context) {
+        if (instance == null) {
+            instance = new BurstSession(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** Starts a new burst, unless one is still being shot; a reviewed one left behind is dropped. */
+    void start() {
+        if (finished != null) clear();
+        if (pipeline != null) return;
+        ImageStore images = ImageStore.get(appContext);
+        ThumbnailCache thumbnails = ThumbnailCache.get(appContext);
+        int thisBurst = burst;
+        pipeline = new BurstPipeline(new BurstPipeline.Steps() {
+            @Override
+            public String store(File capture) throws Exception {
+                return images.adopt(capture);
+            }
+
+            @Override
+            public void thumbnail(String path) {
+                thumbnails.generateAll(path);
+            }
+
+            @Override
+            public ThingItem draft(String path, int index) {
+                return new ThingItem("Photo " + index, "", "", "", "Active", path);
+            }
+        }, new BurstPipeline.Listener() {
+            @Override
+            public void onDraft(ThingItem draft) {
+                main.execute(() -> {
+                    if (burst != thisBurst) return;
+                    drafts.add(draft);
+                    changed();
+                });
+            }
+
+            @Override
+            public void onFailed(File capture, Exception error) {
+                error.printStackTrace();
+                if (capture != null) capture.delete();
+                main.execute(() -> {
+                    if (burst != thisBurst) return;
+                    failures++;
+                    changed();
+                });
+            }
+        }, QUEUE_CAPACITY, runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "BurstSession");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    boolean isActive() {
+        return pipeline != null;
+    }
+
+    /**
+     * Hands a finished capture to the pipeline, or holds on to it while the pipeline is full.
+     * Returns false, having deleted the capture, if there's no burst going to take it.
+     */
+    boolean add(File capture) {
+        if (pipeline == null || finished != null) {
+            capture.delete();
+            return false;
+        }
+        if (!backlog.isEmpty() || !pipeline.submit(capture)) backlog.addLast(capture);
+        return true;
+    }
+
+    /** Captures not yet turned into drafts. */
+    @Override
+    public int pending() {
+        return backlog.size() + (pipeline != null ? pipeline.pending() : 0);
+    }
+
+    @Override
+    public int failures() {
+        return failures;
+    }
+
+    /** Drafts so far, in capture order. */
+    @Override
+    public List<ThingItem> drafts() {
+        return Collections.unmodifiableList(drafts);
+    }
+
+    @Override
+    public void remove(ThingItem draft) {
+        drafts.remove(draft);
+    }
+
+    /** Per-stage queue depth and latency, one line per stage; empty with no burst going. */
+    @Override
+    public String details() {
+        if (pipeline == null) return "";
+        StringBuilder lines = new StringBuilder();
+        for (BurstPipeline.StageMetrics stage : pipeline.metrics()) {
+            if (lines.length() > 0) lines.append('\n');
+            lines.append(stage);
+        }
+        return lines.toString();
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Takes no more captures; completes once every capture already taken is a draft. */
+    @Override
+    public CompletableFuture<List<ThingItem>> finish() {
+        if (finished == null) {
+            finished = new CompletableFuture<>();
+            if (pipeline == null) finished.complete(new ArrayList<>(drafts));
+            else drain();
+        }
+        return finished;
+    }
+
+    @Override
+    public void clear() {
+        if (pipeline != null) pipeline.shutdown();
+        for (File capture : backlog) capture.delete();
+        backlog.clear();
+        drafts.clear();
+        pipeline = null;
+        finished = null;
+        shuttingDown = false;
+        failures = 0;
+        listener = null;
+        burst++;
+    }
+
+    private void changed() {
+        drain();
+        if (listener != null) listener.onChanged();
+    }
+
+    // a draft (or failure) just freed a place in the pipeline
+    private void drain() {
+        if (pipeline == null) return;
+        while (!backlog.isEmpty() && pipeline.submit(backlog.peekFirst())) {
+            backlog.pollFirst();
+        }
+        if (finished != null && backlog.isEmpty() && !shuttingDown) {
+            shuttingDown = true;
+            CompletableFuture<List<ThingItem>> done = finished;
+            // callbacks are posted before the pipeline stops, so every draft is in by then
+            pipeline.shutdown().thenRunAsync(() -> done.complete(new ArrayList<>(drafts)), main);
+        }
+    }
+}
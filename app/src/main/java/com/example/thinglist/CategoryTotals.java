@@ -0,0 +1,192 @@
+package com.example.thinglist;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Running count / quantity / value sums per category (the item's status), kept up to
+ * date by the store on every insert, update and delete. Header totals and category
+ * breakdowns are then O(1) reads instead of a loop over every item.
+ *
+ * Value is priceCents × quantity, so the sums are exact.
+ */
+public final class CategoryTotals implements ItemStore.Index {
+
+    /** Immutable sums for one category (or for everything). */
+    public static final class Sum {
+        public static final Sum ZERO = new Sum(0, 0, 0);
+
+        public final int count;
+        public final long quantity;
+        public final long valueCents;
+
+        Sum(int count, long quantity, long valueCents) {
+            this.count = count;
+            this.quantity = quantity;
+            this.valueCents = valueCents;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Sum)) return false;
+            Sum other = (Sum) o;
+            return count == other.count && quantity == other.quantity
+                    && valueCents == other.valueCents;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, quantity, valueCents);
+        }
+
+        @Override
+        public String toString() {
+            return count + " items, qty " + quantity + ", " + valueCents + "c";
+        }
+    }
+
+    // mutable running sums; only touched with this object locked
+    private static final class Bucket {
+        int count;
+        long quantity;
+        long valueCents;
+
+        void add(ThingItem item, int sign) {
+            count += sign;
+            quantity += (long) sign * item.quantity;
+            valueCents += sign * valueOf(item);
+        }
+
+        Sum toSum() {
+            return new Sum(count, quantity, valueCents);
+        }
+    }
+
+    private final Bucket overall = new Bucket();
+    private final Map<String, Bucket> byCategory = new HashMap<>();
+
+    // -------------------- reads --------------------
+
+    public synchronized Sum overall() {
+        return overall.toSum();
+    }
+
+    /** Sums for items whose status equals {@code category}; {@link Sum#ZERO} if there are none. */
+    public synchronized Sum forCategory(String category) {
+        Bucket bucket = byCategory.get(category);
+        return bucket == null ? Sum.ZERO : bucket.toSum();
+    }
+
+    /** Sums for items whose status is any of {@code categories}. */
+    public synchronized Sum forCategories(Collection<String> categories) {
+        Bucket sum = new Bucket();
+        for (String category : categories) {
+            Bucket bucket = byCategory.get(category);
+            if (bucket == null) continue;
+            sum.count += bucket.count;
+            sum.quantity += bucket.quantity;
+            sum.valueCents += bucket.valueCents;
+        }
+        return sum.toSum();
+    }
+
+    /**
+     * Sums for just the items in {@code ids}, looked up in {@code snapshot} – for filters
+     * the running sums can't answer, like a search. O(matches).
+     */
+    static Sum sumOf(IdBitmap ids, ItemSnapshot snapshot) {
+        Bucket sum = new Bucket();
+        ids.forEach(id -> {
+            ThingItem item = snapshot.get(id);
+            if (item != null) sum.add(item, 1);
+            return true;
+        });
+        return sum.toSum();
+    }
+
+    /** Every non-empty category with its sums (a copy; safe to keep). */
+    public synchronized Map<String, Sum> breakdown() {
+        Map<String, Sum> result = new HashMap<>();
+        for (Map.Entry<String, Bucket> e : byCategory.entrySet()) {
+            result.put(e.getKey(), e.getValue().toSum());
+        }
+        return result;
+    }
+
+    // -------------------- ItemStore.Index --------------------
+
+    @Override
+    public synchronized void onPut(ThingItem previous, ThingItem item) {
+        if (previous != null) subtract(previous);
+        add(item);
+    }
+
+    @Override
+    public synchronized void onRemove(ThingItem previous) {
+        if (previous != null) subtract(previous);
+    }
+
+    private void add(ThingItem item) {
+        overall.add(item, 1);
+        Bucket bucket = byCategory.get(item.status);
+        if (bucket == null) {
+            bucket = new Bucket();
+            byCategory.put(item.status, bucket);
+        }
+        bucket.add(item, 1);
+    }
+
+    private void subtract(ThingItem item) {
+        overall.add(item, -1);
+        Bucket bucket = byCategory.get(item.status);
+        if (bucket == null) return;
+        bucket.add(item, -1);
+        if (bucket.count == 0) byCategory.remove(item.status);
+    }
+
+    private static long valueOf(ThingItem item) {
+        return item.priceCents * item.quantity;
+    }
+
+    // -------------------- consistency check --------------------
+
+    /** Full recompute over {@code items}, the slow way. */
+    static Map<String, Sum> recompute(Iterable<ThingItem> items) {
+        Map<String, Bucket> buckets = new HashMap<>();
+        for (ThingItem item : items) {
+            Bucket bucket = buckets.get(item.status);
+            if (bucket == null) {
+                bucket = new Bucket();
+                buckets.put(item.status, bucket);
+            }
+            bucket.add(item, 1);
+        }
+        Map<String, Sum> result = new HashMap<>();
+        for (Map.Entry<String, Bucket> e : buckets.entrySet()) {
+            result.put(e.getKey(), e.getValue().toSum());
+        }
+        return result;
+    }
+
+    /**
+     * True if the running sums match a full recompute over {@code items} (e.g. a snapshot
+     * taken while no writes were in flight). Used by tests and debug checks.
+     */
+    public boolean isConsistentWith(Iterable<ThingItem> items) {
+        Map<String, Sum> expected = recompute(items);
+        int count = 0;
+        long quantity = 0;
+        long value = 0;
+        for (Sum sum : expected.values()) {
+            count += sum.count;
+            quantity += sum.quantity;
+            value += sum.valueCents;
+        }
+        synchronized (this) {
+            return breakdown().equals(expected)
+                    && overall().equals(new Sum(count, quantity, value));
+        }
+    }
+}
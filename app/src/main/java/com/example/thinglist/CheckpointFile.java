@@ -0,0 +1,176 @@
+package com.example.thinglist;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped snapshot of every live item, written by ItemStore on checkpoint.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header:  magic (int), format (int), file length (long), max id (long), live count (int)
+ *   slots:   one int per id 1..maxId – file offset of that item's record, 0 if there is none
+ *   records: record length (int) + ItemCodec payload, in id order
+ * </pre>
+ * Opening only maps the file and checks the header, so it costs the same for 10 items
+ * or 100k. Records are decoded one at a time when somebody asks for them.
+ */
+final class CheckpointFile implements Closeable {
+
+    private static final int MAGIC  = 0x544C434B; // "TLCK"
+    private static final int FORMAT = 1;
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+
+    /** Supplies the ItemCodec payload for each id, or null for ids with no live item. */
+    interface Source {
+        byte[] payload(long id);
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final long maxId;
+    private final int liveCount;
+
+    private CheckpointFile(FileChannel channel, MappedByteBuffer map, long maxId, int liveCount) {
+        this.channel = channel;
+        this.map = map;
+        this.maxId = maxId;
+        this.liveCount = liveCount;
+    }
+
+    /** Maps an existing checkpoint, or returns null if the file is missing. */
+    static CheckpointFile open(File file) throws IOException {
+        if (!file.exists()) return null;
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Checkpoint too short: " + file);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != FORMAT) {
+                throw new IOException("Not a checkpoint file: " + file);
+            }
+            if (map.getLong(8) != size) {
+                throw new IOException("Checkpoint length mismatch: " + file);
+            }
+            long maxId = map.getLong(16);
+            int liveCount = map.getInt(24);
+            if (HEADER_BYTES + maxId * 4 > size) {
+                throw new IOException("Checkpoint slot table truncated: " + file);
+            }
+            return new CheckpointFile(channel, map, maxId, liveCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a checkpoint covering ids 1..maxId and fsyncs it.
+     * Callers write to a temp file and rename it into place.
+     */
+    static void write(File file, long maxId, Source source) throws IOException {
+        if (maxId > Integer.MAX_VALUE / 4) throw new IOException("Too many ids: " + maxId);
+        try (FileChannel out = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+
+            long recordsStart = HEADER_BYTES + maxId * 4;
+            ByteBuffer slots = ByteBuffer.allocate((int) (maxId * 4));
+            ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+            long offset = recordsStart;
+            int live = 0;
+
+            out.position(recordsStart);
+            for (long id = 1; id <= maxId; id++) {
+                byte[] payload = source.payload(id);
+                if (payload == null) {
+                    slots.putInt(0);
+                    continue;
+                }
+                if (offset > Integer.MAX_VALUE) throw new IOException("Checkpoint too large");
+                slots.putInt((int) offset);
+                if (pending.remaining() < 4 + payload.length) {
+                    pending.flip();
+                    writeFully(out, pending);
+                    pending.clear();
+                }
+                if (pending.remaining() < 4 + payload.length) {
+                    // bigger than the whole buffer, write it straight through
+                    writeFully(out, ByteBuffer.allocate(4).putInt(payload.length).flip());
+                    writeFully(out, ByteBuffer.wrap(payload));
+                } else {
+                    pending.putInt(payload.length).put(payload);
+                }
+                offset += 4 + payload.length;
+                live++;
+            }
+            pending.flip();
+            writeFully(out, pending);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT).putLong(offset).putLong(maxId).putInt(live);
+            header.flip();
+            slots.flip();
+            out.position(0);
+            writeFully(out, header);
+            writeFully(out, slots);
+            out.force(true);
+        }
+    }
+
+    long maxId() {
+        return maxId;
+    }
+
+    int liveCount() {
+        return liveCount;
+    }
+
+    boolean contains(long id) {
+        return slotOffset(id) != 0;
+    }
+
+    /** Decodes the item with this id straight out of the mapping, or null. */
+    ThingItem get(long id) {
+        int offset = slotOffset(id);
+        if (offset == 0) return null;
+        ByteBuffer record = map.duplicate();
+        record.position(offset + 4);
+        record.limit(offset + 4 + map.getInt(offset));
+        return ItemCodec.decode(record).item;
+    }
+
+    /** Raw payload bytes for the id (no decoding), or null. Used to carry records into the next checkpoint. */
+    byte[] payload(long id) {
+        int offset = slotOffset(id);
+        if (offset == 0) return null;
+        byte[] payload = new byte[map.getInt(offset)];
+        ByteBuffer record = map.duplicate();
+        record.position(offset + 4);
+        record.get(payload);
+        return payload;
+    }
+
+    private int slotOffset(long id) {
+        if (id < 1 || id > maxId) return 0;
+        return map.getInt((int) (HEADER_BYTES + (id - 1) * 4));
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself is released when the buffer is collected.
+        channel.close();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.thinglist;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** SHA-256 content hashes as lower-case hex – the names of stored images and thumbnails. */
+final class ContentHash {
+
+    static final int HEX_LENGTH = 64;
+
+    private ContentHash() { }
+
+    static String of(byte[] data, int offset, int length) {
+        MessageDigest digest = sha256();
+        digest.update(data, offset, length);
+        return hex(digest.digest());
+    }
+
+    static String of(File file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) digest.update(buffer, 0, n);
+        }
+        return hex(digest.digest());
+    }
+
+    /** Wraps {@code out} so what goes through it is hashed on the way; see {@link #of(DigestOutputStream)}. */
+    static DigestOutputStream hashing(OutputStream out) {
+        return new DigestOutputStream(out, sha256());
+    }
+
+    /** Hash of everything written through {@code out} so far. */
+    static String of(DigestOutputStream out) {
+        return hex(out.getMessageDigest().digest());
+    }
+
+    /** Whether {@code name} looks like a hash produced here. */
+    static boolean isHash(String name) {
+        if (name.length() != HEX_LENGTH) return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);    // every Java and Android runtime has it
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(HEX_LENGTH);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.thinglist;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Currency text for amounts in cents, one shared instance per locale.
+ *
+ * The locale's currency pattern (symbol, separators, grouping, fraction digits) is read
+ * from {@link NumberFormat} once; after that, formatting is integer math into a reused
+ * buffer, with no double rounding and no formatter per call. Recently formatted amounts
+ * are kept in a small fixed-size cache, so a price shown again (scrolling back, a
+ * repaint, the same price on many rows) returns the same String without allocating.
+ *
+ * Output is identical to {@code NumberFormat.getCurrencyInstance(locale).format(cents / 100.0)}.
+ * Locales whose pattern we can't reproduce (checked on creation) simply go through
+ * that NumberFormat.
+ */
+public final class CurrencyFormatter {
+
+    private static final ConcurrentHashMap<Locale, CurrencyFormatter> BY_LOCALE =
+            new ConcurrentHashMap<>();
+
+    // 2-way cache of formatted amounts: each amount hashes to a pair of slots, newest first
+    private static final int CACHE_SLOTS = 2048;
+    // beyond this, cents / 100.0 is no longer exact and NumberFormat's rounding applies
+    private static final long MAX_EXACT_CENTS = 1L << 52;
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(32));
+    private static final ThreadLocal<char[]> DIGITS =
+            ThreadLocal.withInitial(() -> new char[40]);
+
+    /** One cached amount. Immutable, so a slot can be read without locking. */
+    private static final class Entry {
+        final long cents;
+        final String text;
+
+        Entry(long cents, String text) {
+            this.cents = cents;
+            this.text = text;
+        }
+    }
+
+    private final Locale locale;
+    private final NumberFormat reference;     // fallback; not thread-safe, guarded by itself
+    private final Entry[] cache = new Entry[CACHE_SLOTS];
+
+    private boolean fast;
+    private String positivePrefix;
+    private String positiveSuffix;
+    private String negativePrefix;
+    private String negativeSuffix;
+    private char zeroDigit;
+    private char decimalSeparator;
+    private char groupingSeparator;
+    private int groupingSize;                 // 0 = no grouping
+    private int fractionDigits;
+
+    private CurrencyFormatter(Locale locale) {
+        this.locale = locale;
+        this.reference = NumberFormat.getCurrencyInstance(locale);
+        if (reference instanceof DecimalFormat) {
+            DecimalFormat df = (DecimalFormat) reference;
+            DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+            positivePrefix = df.getPositivePrefix();
+            positiveSuffix = df.getPositiveSuffix();
+            negativePrefix = df.getNegativePrefix();
+            negativeSuffix = df.getNegativeSuffix();
+            zeroDigit = symbols.getZeroDigit();
+            decimalSeparator = symbols.getMonetaryDecimalSeparator();
+            groupingSeparator = symbols.getGroupingSeparator();
+            groupingSize = df.isGroupingUsed() ? df.getGroupingSize() : 0;
+            fractionDigits = df.getMaximumFractionDigits();
+            fast = df.getMinimumFractionDigits() == fractionDigits
+                    && fractionDigits <= 3
+                    && df.getMinimumIntegerDigits() == 1
+                    && reproducesReference();
+        }
+    }
+
+    /** The shared formatter for {@code locale}. */
+    public static CurrencyFormatter forLocale(Locale locale) {
+        CurrencyFormatter formatter = BY_LOCALE.get(locale);
+        if (formatter == null) {
+            formatter = BY_LOCALE.computeIfAbsent(locale, CurrencyFormatter::new);
+        }
+        return formatter;
+    }
+
+    /** The shared formatter for the current default locale. */
+    public static CurrencyFormatter getDefault() {
+        return forLocale(Locale.getDefault());
+    }
+
+    public Locale locale() {
+        return locale;
+    }
+
+    /** Formatted {@code cents}, e.g. "$1,234.50" in the US. Cache hits don't allocate. */
+    public String format(long cents) {
+        int slot = (int) ((cents * 0x9E3779B97F4A7C15L) >>> 32) & (CACHE_SLOTS - 2);
+        Entry first = cache[slot];
+        if (first != null && first.cents == cents) return first.text;
+        Entry second = cache[slot + 1];
+        if (second != null && second.cents == cents) return second.text;
+
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        String text = formatTo(cents, buffer).toString();
+        // the older of the pair drops out (racing threads may lose an entry – that's fine)
+        cache[slot + 1] = first;
+        cache[slot] = new Entry(cents, text);
+        return text;
+    }
+
+    /** Appends formatted {@code cents} to {@code out}, without going through a String. */
+    public StringBuilder formatTo(long cents, StringBuilder out) {
+        if (!fast || cents > MAX_EXACT_CENTS || cents < -MAX_EXACT_CENTS) {
+            synchronized (reference) {
+                return out.append(reference.format(cents / 100.0));
+            }
+        }
+
+        boolean negative = cents < 0;
+        long abs = negative ? -cents : cents;
+        long units = abs / 100;
+        long fraction = abs % 100;
+        if (fractionDigits == 0) {
+            // NumberFormat rounds half-even
+            if (fraction > 50 || (fraction == 50 && (units & 1) == 1)) units++;
+        } else if (fractionDigits == 1) {
+            long tenths = fraction / 10;
+            long rest = fraction % 10;
+            if (rest > 5 || (rest == 5 && (tenths & 1) == 1)) tenths++;
+            if (tenths == 10) {
+                units++;
+                tenths = 0;
+            }
+            fraction = tenths;
+        } else if (fractionDigits == 3) {
+            fraction *= 10;
+        }
+
+        out.append(negative ? negativePrefix : positivePrefix);
+        appendUnits(units, out);
+        if (fractionDigits > 0) {
+            out.append(decimalSeparator);
+            char[] digits = DIGITS.get();
+            for (int i = fractionDigits - 1; i >= 0; i--) {
+                digits[i] = (char) (zeroDigit + fraction % 10);
+                fraction /= 10;
+            }
+            out.append(digits, 0, fractionDigits);
+        }
+        return out.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    private void appendUnits(long units, StringBuilder out) {
+        char[] digits = DIGITS.get();
+        int pos = digits.length;
+        int inGroup = 0;
+        do {
+            if (groupingSize > 0 && inGroup == groupingSize) {
+                digits[--pos] = groupingSeparator;
+                inGroup = 0;
+            }
+            digits[--pos] = (char) (zeroDigit + units % 10);
+            units /= 10;
+            inGroup++;
+        } while (units != 0);
+        out.append(digits, pos, digits.length - pos);
+    }
+
+    /** Whether our integer path prints exactly what the NumberFormat does for this locale. */
+    private boolean reproducesReference() {
+        long[] probes = {0, 1, -1, 5, 50, 99, 100, -150, 150, 250, 1005, 12345, -12345,
+                123456789, -123456789, 100_000_000_000L, 999_999_999_999L};
+        StringBuilder sb = new StringBuilder();
+        for (long cents : probes) {
+            sb.setLength(0);
+            fast = true;
+            String ours = formatTo(cents, sb).toString();
+            fast = false;
+            if (!ours.equals(reference.format(cents / 100.0))) return false;
+        }
+        return true;
+    }
+}
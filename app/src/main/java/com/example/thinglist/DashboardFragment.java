@@ -1,36 +1,72 @@
 package com.example.thinglist;
 
 import android.os.Bundle;
-import android.view.Gravity;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.TableLayout;
-import android.widget.TableRow;
+import android.widget.EditText;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.thinglist.InventoryAdapter.InventoryItem;
 import com.google.android.material.button.MaterialButton;
 
-import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class DashboardFragment extends Fragment {
 
+    // Items per page, and how many rows before the end the next page is fetched
+    private static final int PAGE_SIZE = 40;
+    private static final int PREFETCH_ROWS = 15;
+
     private TextView tvItemCount;
     private TextView tvMonetaryValue;
-    private TableLayout tableInventory;
-
-    private List<InventoryItem> allItems;
-    private List<InventoryItem> displayedItems;
+    private RecyclerView recyclerInventory;
+    private InventoryAdapter adapter;
+
+    // The loaded window: the first pages of the current query in display order.
+    // Only these are held in memory – the rest is paged in while scrolling.
+    private final List<InventoryItem> displayedItems = new ArrayList<>();
+    private final Map<Long, InventoryItem> loadedById = new HashMap<>();
+    // Where the next page starts (null = everything matching is loaded)
+    private String nextPageToken;
+    private boolean windowLoaded;
+
+    // Types ticked in the filter dialog (empty = all types)
+    private final Set<String> selectedTypes = new LinkedHashSet<>();
+    // Text typed in the search box
+    private String searchText = "";
+    // Order picked in the sort dialog (null = order added)
+    private SortIndex.Key sortKey;
+    private boolean sortDescending;
+
+    // Repository version the window reflects
+    private long loadedVersion = -1;
+    // Set while waiting for the repository's indexes to finish building
+    private boolean waitingForIndexes;
+
+    // Repository commits arrive on its writer thread – hop to main before touching views
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ItemStore.ChangeListener repoListener = (snapshot, changes) ->
+            mainHandler.post(() -> {
+                if (isResumed()) refreshDataAndUi();
+            });
 
     public DashboardFragment() { }
 
@@ -44,148 +80,259 @@ public class DashboardFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        tvItemCount     = view.findViewById(R.id.tvItemCount);
-        tvMonetaryValue = view.findViewById(R.id.tvMonetaryValue);
-        tableInventory  = view.findViewById(R.id.tableInventory);
+        tvItemCount       = view.findViewById(R.id.tvItemCount);
+        tvMonetaryValue   = view.findViewById(R.id.tvMonetaryValue);
+        recyclerInventory = view.findViewById(R.id.recyclerInventory);
 
         MaterialButton btnSort   = view.findViewById(R.id.btnSort);
         MaterialButton btnFilter = view.findViewById(R.id.btnFilter);
+        EditText etSearch        = view.findViewById(R.id.etSearch);
+
+        // Row click → open details for this item (with imagePath)
+        adapter = new InventoryAdapter(this::openItemDetail);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        recyclerInventory.setLayoutManager(layoutManager);
+        recyclerInventory.setAdapter(adapter);
+
+        // Fetch the next page before the user actually reaches the end
+        recyclerInventory.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (dy > 0 && lastVisible >= adapter.getItemCount() - PREFETCH_ROWS) {
+                    loadNextPage();
+                }
+            }
+        });
 
-        // Initial load: demo + user-added items
-        refreshDataAndUi();
+        // The window survives the view: show it again right away, onResume catches up
+        if (windowLoaded) publish();
 
         btnSort.setOnClickListener(v -> showSortDialog());
         btnFilter.setOnClickListener(v -> showFilterDialog());
+
+        // Search as you type – each keystroke is one index lookup, no scan
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchText = s.toString();
+                refilter();
+            }
+        });
     }
 
     @Override
     public void onResume() {
         super.onResume();
-        // When you come back from Add/Edit/Detail, pull latest items
+        ItemRepository.addChangeListener(repoListener);
+        // When you come back from Add/Edit/Detail, apply whatever changed meanwhile
         refreshDataAndUi();
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        ItemRepository.removeChangeListener(repoListener);
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        recyclerInventory.setAdapter(null);
+        recyclerInventory = null;
+        adapter = null;
+    }
+
     // -----------------------
-    //  DATA + TABLE + TOTALS
+    //  DATA + LIST + TOTALS
     // -----------------------
 
-    /** Rebuilds allItems from demo + repository, then refreshes the table and stats. */
+    /**
+     * Brings the loaded window, the list and the totals up to date with the repository.
+     * Normally that means applying just the inserts/updates/removes since the last
+     * visit; the window is only re-fetched on first load, when a change may move
+     * items across it, or if we fell too far behind the change feed.
+     */
     private void refreshDataAndUi() {
-        allItems = buildInventoryFromDemoAndRepo();
-        displayedItems = new ArrayList<>(allItems);
-        populateTableAndTotals(displayedItems);
-    }
-
-    /** Combine hardcoded demo inventory with items from ItemRepository. */
-    private List<InventoryItem> buildInventoryFromDemoAndRepo() {
-        List<InventoryItem> list = new ArrayList<>();
-
-        // 1) Demo data
-        list.addAll(getDemoInventory());
-
-        // 2) User-added items stored as ThingItem in ItemRepository
-        List<ThingItem> repoItems = ItemRepository.getItems();
-        for (ThingItem ti : repoItems) {
-            if (ti == null) continue;
-
-            String name        = ti.name;
-            String description = ti.description;
-            String priceStr    = ti.price;      // text from EditItem
-            String status      = ti.status;     // use as type/category
-            String imagePath   = ti.imagePath;  // 🔹 KEEP the photo path
-            int quantity       = 1;             // you can extend later
-
-            double priceVal = 0.0;
-            if (priceStr != null) {
-                String clean = priceStr.replace("$", "").replace(",", "").trim();
-                try {
-                    priceVal = Double.parseDouble(clean);
-                } catch (NumberFormatException ignored) { }
+        if (!indexesReady()) return;
+        boolean changed = true;
+        if (!windowLoaded) {
+            reloadWindow(PAGE_SIZE);
+        } else if (ItemRepository.snapshot().version() != loadedVersion) {
+            List<ItemChange> changes = ItemRepository.changesSince(loadedVersion);
+            if (changes == null || !applyChanges(changes)) {
+                reloadWindow(displayedItems.size());
             }
-
-            list.add(new InventoryItem(
-                    name != null ? name : "Untitled Item",
-                    quantity,
-                    status != null ? status : "Misc",
-                    description != null ? description : "",
-                    priceVal,
-                    imagePath
-            ));
+        } else {
+            changed = false;
         }
 
-        return list;
+        if (changed) publish();
+        showTotals();
     }
 
-    private void populateTableAndTotals(List<InventoryItem> items) {
-        NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.getDefault());
-        int totalQuantity = 0;
-        double totalValue = 0.0;
-
-        // Remove all data rows, keep header (index 0)
-        int childCount = tableInventory.getChildCount();
-        if (childCount > 1) {
-            tableInventory.removeViews(1, childCount - 1);
+    /**
+     * Whether the repository's indexes are built. If not, the first page waits for them
+     * instead of building them here, on the main thread, and is shown once they're done.
+     */
+    private boolean indexesReady() {
+        CompletableFuture<Void> ready = ItemRepository.indexesReady();
+        if (ready.isDone()) return true;
+        if (!waitingForIndexes) {
+            waitingForIndexes = true;
+            ready.whenComplete((ignored, error) -> mainHandler.post(() -> {
+                waitingForIndexes = false;
+                if (isResumed()) refreshDataAndUi();
+            }));
         }
+        return false;
+    }
 
-        int paddingDp = 4;
-        int paddingPx = (int) (paddingDp * requireContext()
-                .getResources().getDisplayMetrics().density);
-
-        for (InventoryItem item : items) {
-            TableRow row = new TableRow(requireContext());
-            row.setLayoutParams(new TableRow.LayoutParams(
-                    TableRow.LayoutParams.WRAP_CONTENT,
-                    TableRow.LayoutParams.WRAP_CONTENT));
-
-            // Row click → open details for this item (with imagePath)
-            row.setTag(item);
-            row.setClickable(true);
-            row.setOnClickListener(v -> {
-                InventoryItem clicked = (InventoryItem) v.getTag();
-                openItemDetail(clicked);
-            });
-
-            // Name
-            row.addView(makeCell(item.name, false, paddingPx));
-
-            // Qty
-            row.addView(makeCell(String.valueOf(item.quantity), true, paddingPx));
+    /** Re-fetches the first {@code count} matching items (at least one page) in the current order. */
+    private void reloadWindow(int count) {
+        ItemPage page = ItemRepository.page(currentQuery(), sortKey, sortDescending,
+                Math.max(count, PAGE_SIZE), null);
+
+        displayedItems.clear();
+        loadedById.clear();
+        for (ThingItem ti : page.items) {
+            InventoryItem item = fromThingItem(ti);
+            displayedItems.add(item);
+            loadedById.put(item.id, item);
+        }
+        nextPageToken = page.nextToken;
+        loadedVersion = page.version;
+        windowLoaded = true;
+    }
 
-            // Type
-            row.addView(makeCell(item.type, false, paddingPx));
+    /** Appends the next page to the window. */
+    private void loadNextPage() {
+        if (!windowLoaded || nextPageToken == null) return;
+        // catch up first, so the token still describes the end of the window
+        refreshDataAndUi();
+        if (nextPageToken == null) return;
+
+        ItemPage page = ItemRepository.page(currentQuery(), sortKey, sortDescending,
+                PAGE_SIZE, nextPageToken);
+        for (ThingItem ti : page.items) {
+            if (loadedById.containsKey(ti.id)) continue;
+            InventoryItem item = fromThingItem(ti);
+            displayedItems.add(item);
+            loadedById.put(item.id, item);
+        }
+        nextPageToken = page.nextToken;
+        // anything committed in between is picked up by the next refresh
+        publish();
+    }
 
-            // Description
-            row.addView(makeCell(item.description, false, paddingPx));
+    /**
+     * Hands the window to the list. The adapter diffs it against what it shows on a
+     * background thread and then only touches the rows that changed.
+     */
+    private void publish() {
+        if (adapter != null) adapter.submitList(new ArrayList<>(displayedItems));
+    }
 
-            // Price (per item)
-            row.addView(makeCell(currency.format(item.price), true, paddingPx));
+    /** Convert a repository item into a list item. */
+    private InventoryItem fromThingItem(ThingItem ti) {
+        String name        = ti.name;
+        String description = ti.description;
+        String status      = ti.status;     // use as type/category (never null, see ThingItem)
+        String imagePath   = ti.imagePath;  // 🔹 KEEP the photo path
+
+        // price was parsed once when the item was saved – nothing to parse here
+        return new InventoryItem(
+                ti.id,
+                name != null ? name : "Untitled Item",
+                ti.quantity,
+                status,
+                description != null ? description : "",
+                ti.priceCents,
+                imagePath
+        );
+    }
 
-            tableInventory.addView(row);
+    /**
+     * Applies change-feed deltas to the window. Returns false, having changed nothing,
+     * when some change may move an item into, out of or within the window – then the
+     * window has to be re-fetched.
+     */
+    private boolean applyChanges(List<ItemChange> changes) {
+        // the indexes are already up to date with the repository – just ask
+        IdBitmap matches = ItemRepository.query(currentQuery());
+        for (ItemChange change : changes) {
+            if (change.type == ItemChange.Type.REMOVE) continue;
+            boolean loaded = loadedById.containsKey(change.id);
+            boolean matching = matches.contains(change.id);
+            if (sortKey != null && (loaded || matching)) return false;   // position may change
+            if (loaded && !matching) return false;                       // leaves the window
+            // in insertion order a new id goes last; an older one that starts matching
+            // lands somewhere inside the window
+            if (!loaded && matching && change.type != ItemChange.Type.INSERT) return false;
+        }
 
-            totalQuantity += item.quantity;
-            totalValue += item.price * item.quantity;
+        for (ItemChange change : changes) {
+            InventoryItem existing = loadedById.get(change.id);
+
+            if (change.type == ItemChange.Type.REMOVE) {
+                if (existing != null) {
+                    loadedById.remove(change.id);
+                    displayedItems.remove(existing);
+                }
+            } else if (existing != null) {
+                // UPDATE: same position, new contents
+                InventoryItem updated = fromThingItem(change.item);
+                displayedItems.set(displayedItems.indexOf(existing), updated);
+                loadedById.put(updated.id, updated);
+            } else if (matches.contains(change.id) && nextPageToken == null) {
+                // a new item joins the end – unless that end isn't loaded yet
+                InventoryItem added = fromThingItem(change.item);
+                displayedItems.add(added);
+                loadedById.put(added.id, added);
+            }
+            loadedVersion = change.version;
         }
+        return true;
+    }
 
-        tvItemCount.setText(String.valueOf(totalQuantity));
-        tvMonetaryValue.setText(currency.format(totalValue));
+    /** Type filter + search as one repository query. */
+    private ItemQuery currentQuery() {
+        return ItemQuery.builder()
+                .categories(selectedTypes)
+                .text(searchText)
+                .build();
     }
 
-    private TextView makeCell(String text, boolean alignEnd, int paddingPx) {
-        TextView tv = new TextView(requireContext());
-        tv.setText(text);
-        tv.setPadding(paddingPx, paddingPx, paddingPx, paddingPx);
-        if (alignEnd) {
-            tv.setGravity(Gravity.END);
-        }
-        return tv;
+    /** Re-applies type filter + search and redraws the list. */
+    private void refilter() {
+        if (!indexesReady()) return;     // the first page picks up the filter and search
+        reloadWindow(PAGE_SIZE);
+        publish();
+        showTotals();
+    }
+
+    /**
+     * Header totals for exactly the rows the list shows (type filter + search). A type filter
+     * alone is read off the repository's running totals; a search adds up its matches.
+     */
+    private void showTotals() {
+        CategoryTotals.Sum sum = ItemRepository.totals(currentQuery());
+        tvItemCount.setText(String.valueOf(sum.quantity));
+        tvMonetaryValue.setText(CurrencyFormatter.getDefault().format(sum.valueCents));
     }
 
     /**
      * Open ItemDetailFragment for a clicked row.
-     * Demo items have imagePath = null, user-added ones have real paths.
+     * Demo items have imagePath = null, user-added ones usually have real paths.
      */
     private void openItemDetail(InventoryItem item) {
-        String priceStr = String.format(Locale.getDefault(), "%.2f", item.price);
+        String priceStr = Money.toPlainString(item.priceCents);
 
         String name        = item.name;
         String description = item.description;
@@ -227,30 +374,32 @@ public class DashboardFragment extends Fragment {
                 .setItems(options, (dialog, which) -> {
                     switch (which) {
                         case 0: // Name
-                            Collections.sort(displayedItems,
-                                    Comparator.comparing(item -> item.name.toLowerCase()));
+                            sortKey = SortIndex.Key.NAME;
+                            sortDescending = false;
                             break;
                         case 1: // Quantity desc
-                            Collections.sort(displayedItems,
-                                    (a, b) -> Integer.compare(b.quantity, a.quantity));
+                            sortKey = SortIndex.Key.QUANTITY;
+                            sortDescending = true;
                             break;
                         case 2: // Type
-                            Collections.sort(displayedItems,
-                                    Comparator.comparing(item -> item.type.toLowerCase()));
+                            sortKey = SortIndex.Key.TYPE;
+                            sortDescending = false;
                             break;
                         case 3: // Price desc
-                            Collections.sort(displayedItems,
-                                    (a, b) -> Double.compare(b.price, a.price));
+                            sortKey = SortIndex.Key.PRICE;
+                            sortDescending = true;
                             break;
                     }
-                    populateTableAndTotals(displayedItems);
+                    if (!indexesReady()) return;     // the first page uses the new order
+                    // same window size in the new order; the diff just moves the rows
+                    reloadWindow(displayedItems.size());
+                    publish();
                 })
                 .show();
     }
 
     private void showFilterDialog() {
         String[] options = {
-                "All",
                 "Electronics",
                 "Stationery",
                 "Kitchenware",
@@ -258,93 +407,30 @@ public class DashboardFragment extends Fragment {
                 "Sports",
                 "Accessories",
                 "Bags",
-                "Misc"
+                ThingItem.DEFAULT_STATUS
         };
 
+        // Tick any number of types; none ticked = all types
+        boolean[] checked = new boolean[options.length];
+        for (int i = 0; i < options.length; i++) {
+            checked[i] = selectedTypes.contains(options[i]);
+        }
+
         new AlertDialog.Builder(requireContext())
                 .setTitle("Filter by type")
-                .setItems(options, (dialog, which) -> {
-                    String selected = options[which];
-
-                    // Always rebuild allItems so we include any newly added repo items
-                    allItems = buildInventoryFromDemoAndRepo();
-                    displayedItems.clear();
-
-                    if ("All".equals(selected)) {
-                        displayedItems.addAll(allItems);
-                    } else {
-                        for (InventoryItem item : allItems) {
-                            if (item.type.equals(selected)) {
-                                displayedItems.add(item);
-                            }
-                        }
+                .setMultiChoiceItems(options, checked, (dialog, which, isChecked) ->
+                        checked[which] = isChecked)
+                .setPositiveButton("Apply", (dialog, which) -> {
+                    selectedTypes.clear();
+                    for (int i = 0; i < options.length; i++) {
+                        if (checked[i]) selectedTypes.add(options[i]);
                     }
-                    populateTableAndTotals(displayedItems);
+                    refilter();
+                })
+                .setNeutralButton("All", (dialog, which) -> {
+                    selectedTypes.clear();
+                    refilter();
                 })
                 .show();
     }
-
-    // -----------------------
-    //  DEMO DATA
-    // -----------------------
-
-    private List<InventoryItem> getDemoInventory() {
-        List<InventoryItem> list = new ArrayList<>();
-        list.add(new InventoryItem("Wireless Mouse", 45, "Electronics",
-                "Ergonomic wireless mouse with USB receiver", 29.99, null));
-        list.add(new InventoryItem("Notebook Set", 120, "Stationery",
-                "Pack of 3 ruled notebooks, A5 size", 12.50, null));
-        list.add(new InventoryItem("Coffee Mug", 78, "Kitchenware",
-                "Ceramic mug with heat-resistant handle", 8.99, null));
-        list.add(new InventoryItem("USB-C Cable", 200, "Electronics",
-                "6ft braided charging cable", 15.99, null));
-        list.add(new InventoryItem("Desk Lamp", 34, "Furniture",
-                "LED desk lamp with adjustable brightness", 45.00, null));
-        list.add(new InventoryItem("Water Bottle", 92, "Sports",
-                "Stainless steel insulated bottle, 32oz", 24.99, null));
-        list.add(new InventoryItem("Keyboard", 28, "Electronics",
-                "Mechanical keyboard with RGB lighting", 89.99, null));
-        list.add(new InventoryItem("Sticky Notes", 150, "Stationery",
-                "Colorful sticky notes, 400 sheets", 6.99, null));
-        list.add(new InventoryItem("Phone Stand", 65, "Accessories",
-                "Adjustable aluminum phone holder", 18.99, null));
-        list.add(new InventoryItem("Backpack", 42, "Bags",
-                "Laptop backpack with USB charging port", 55.00, null));
-        list.add(new InventoryItem("Headphones", 56, "Electronics",
-                "Wireless over-ear headphones with ANC", 129.99, null));
-        list.add(new InventoryItem("Pen Set", 180, "Stationery",
-                "Set of 10 ballpoint pens, black ink", 9.99, null));
-        list.add(new InventoryItem("Monitor Stand", 38, "Furniture",
-                "Wooden monitor riser with storage", 35.00, null));
-        list.add(new InventoryItem("Yoga Mat", 71, "Sports",
-                "Non-slip exercise mat with carrying strap", 32.50, null));
-        list.add(new InventoryItem("Webcam", 25, "Electronics",
-                "1080p HD webcam with built-in microphone", 69.99, null));
-
-        return list;
-    }
-
-    // Simple model with imagePath
-    private static class InventoryItem {
-        String name;
-        int quantity;
-        String type;
-        String description;
-        double price;
-        String imagePath;
-
-        InventoryItem(String name,
-                      int quantity,
-                      String type,
-                      String description,
-                      double price,
-                      String imagePath) {
-            this.name = name;
-            this.quantity = quantity;
-            this.type = type;
-            this.description = description;
-            this.price = price;
-            this.imagePath = imagePath;
-        }
-    }
 }
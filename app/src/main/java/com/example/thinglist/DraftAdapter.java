@@ -0,0 +1,98 @@
+package com.example.thinglist;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.ImageButton;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * Rows of the draft review list: the draft's thumbnail, its name (edited in place on the
+ * draft itself) and a remove button. Drafts are only appended or removed one at a time, so
+ * there's nothing to diff.
+ */
+final class DraftAdapter extends RecyclerView.Adapter<DraftAdapter.DraftHolder> {
+
+    interface OnRemove {
+        void onRemove(ThingItem draft);
+    }
+
+    private final List<ThingItem> drafts;     // the DraftBatch's; read only here
+    private final LifecycleOwner owner;
+    private final ImageLoader images;
+    private final OnRemove onRemove;
+
+    DraftAdapter(List<ThingItem> drafts, LifecycleOwner owner, ImageLoader images, OnRemove onRemove) {
+        this.drafts = drafts;
+        this.owner = owner;
+        this.images = images;
+        this.onRemove = onRemove;
+    }
+
+    @Override
+    public int getItemCount() {
+        return drafts.size();
+    }
+
+    @NonNull
+    @Override
+    public DraftHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View row = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_draft, parent, false);
+        DraftHolder holder = new DraftHolder(row);
+        holder.name.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (holder.draft != null) holder.draft.name = s.toString().trim();
+            }
+        });
+        holder.remove.setOnClickListener(v -> {
+            if (holder.draft != null) onRemove.onRemove(holder.draft);
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull DraftHolder holder, int position) {
+        ThingItem draft = drafts.get(position);
+        holder.draft = null;            // setText below mustn't write into the old draft
+        holder.name.setText(draft.name);
+        holder.draft = draft;
+        images.load(owner, draft.imagePath, holder.photo);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull DraftHolder holder) {
+        images.clear(holder.photo);
+        holder.draft = null;
+    }
+
+    static final class DraftHolder extends RecyclerView.ViewHolder {
+        final ImageView photo;
+        final EditText name;
+        final ImageButton remove;
+        ThingItem draft;
+
+        DraftHolder(View row) {
+            super(row);
+            photo  = row.findViewById(R.id.ivDraftPhoto);
+            name   = row.findViewById(R.id.etDraftName);
+            remove = row.findViewById(R.id.btnRemoveDraft);
+        }
+    }
+}
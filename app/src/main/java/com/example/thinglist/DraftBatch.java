@@ -0,0 +1,38 @@
+package com.example.thinglist;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Draft items being made in the background for {@link DraftReviewFragment} to show as they
+ * arrive and save together at the end – a burst ({@link BurstSession}) or a gallery import
+ * ({@link GalleryImport}). Main thread only.
+ */
+interface DraftBatch {
+
+    /** Told on the main thread whenever a draft arrives, fails or is removed. */
+    interface Listener {
+        void onChanged();
+    }
+
+    /** Drafts so far. Edits to them are what {@link #finish} hands back. */
+    List<ThingItem> drafts();
+
+    /** Drafts still being made. */
+    int pending();
+
+    int failures();
+
+    /** Extra progress lines for the review screen; empty if there's nothing to add. */
+    String details();
+
+    void remove(ThingItem draft);
+
+    void setListener(Listener listener);
+
+    /** Takes nothing new; completes on the main thread with the drafts once they're all made. */
+    CompletableFuture<List<ThingItem>> finish();
+
+    /** Forgets the batch. Its photos that don't end up in an item are swept later, like retakes. */
+    void clear();
+}
@@ -0,0 +1,157 @@
+package com.example.thinglist;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The end of a burst or a gallery import: every photo as a draft item, named "Photo N" until
+ * renamed here. Opens straight away – drafts still being made show up as they arrive, and
+ * Save only turns on once the last one is in. Saving adds them all in one commit.
+ */
+public class DraftReviewFragment extends Fragment {
+
+    private static final String ARG_SOURCE = "source";
+    static final String SOURCE_BURST = "burst";
+    static final String SOURCE_GALLERY = "gallery";
+
+    private DraftBatch session;
+    private DraftAdapter adapter;
+    private TextView tvStatus;
+    private ImageButton btnSave;
+    private int shown;          // drafts the adapter has been told about
+    private boolean saving;
+
+    public DraftReviewFragment() {
+        // required empty constructor
+    }
+
+    /** @param source {@link #SOURCE_BURST} or {@link #SOURCE_GALLERY} */
+    public static DraftReviewFragment newInstance(String source) {
+        DraftReviewFragment fragment = new DraftReviewFragment();
+        Bundle b = new Bundle();
+        b.putString(ARG_SOURCE, source);
+        fragment.setArguments(b);
+        return fragment;
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_draft_review, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        String source = getArguments() != null ? getArguments().getString(ARG_SOURCE) : null;
+        session = SOURCE_GALLERY.equals(source)
+                ? GalleryImport.get(requireContext())
+                : BurstSession.get(requireContext());
+
+        tvStatus = view.findViewById(R.id.tvDraftStatus);
+        btnSave  = view.findViewById(R.id.btnSaveDrafts);
+
+        RecyclerView list = view.findViewById(R.id.rvDrafts);
+        list.setLayoutManager(new LinearLayoutManager(requireContext()));
+        adapter = new DraftAdapter(session.drafts(), getViewLifecycleOwner(),
+                ImageLoader.get(requireContext()), this::removeDraft);
+        list.setAdapter(adapter);
+        shown = session.drafts().size();
+
+        view.findViewById(R.id.btnBackDrafts).setOnClickListener(v -> {
+            session.clear();
+            requireActivity().onBackPressed();
+        });
+        btnSave.setOnClickListener(v -> saveAll());
+
+        session.setListener(this::onSessionChanged);
+        session.finish().thenRun(() -> {
+            if (getView() == null) return;
+            btnSave.setEnabled(true);
+            btnSave.setAlpha(1f);
+            updateStatus();
+        });
+        updateStatus();
+    }
+
+    @Override
+    public void onDestroyView() {
+        session.setListener(null);
+        super.onDestroyView();
+    }
+
+    private void onSessionChanged() {
+        int count = session.drafts().size();
+        if (count > shown) adapter.notifyItemRangeInserted(shown, count - shown);
+        shown = count;
+        updateStatus();
+    }
+
+    private void removeDraft(ThingItem draft) {
+        int position = session.drafts().indexOf(draft);
+        if (position < 0) return;
+        session.remove(draft);
+        adapter.notifyItemRemoved(position);
+        shown--;
+        updateStatus();
+    }
+
+    private void updateStatus() {
+        StringBuilder status = new StringBuilder();
+        status.append(session.drafts().size()).append(" photos");
+        int pending = session.pending();
+        if (pending > 0) status.append(", ").append(pending).append(" still saving");
+        if (session.failures() > 0) status.append(", ").append(session.failures()).append(" failed");
+        String details = session.details();
+        if (!details.isEmpty()) status.append('\n').append(details);
+        tvStatus.setText(status);
+    }
+
+    private void saveAll() {
+        if (saving) return;
+        List<ThingItem> items = new ArrayList<>();
+        for (ThingItem draft : session.drafts()) {
+            if (draft.name == null || draft.name.isEmpty()) draft.name = "Photo";
+            items.add(draft);
+        }
+        if (items.isEmpty()) {
+            session.clear();
+            requireActivity().onBackPressed();
+            return;
+        }
+        saving = true;
+
+        Context appContext = requireContext().getApplicationContext();
+        ItemRepository.saveAll(items).whenCompleteAsync((saved, error) -> {
+            saving = false;
+            if (error != null) {
+                error.printStackTrace();
+                Toast.makeText(appContext, "Couldn't save items", Toast.LENGTH_LONG).show();
+                return;
+            }
+            session.clear();
+            Toast.makeText(appContext, "Added " + saved.size() + " items", Toast.LENGTH_SHORT).show();
+            if (isAdded() && !isStateSaved() && requireActivity() instanceof MainActivity) {
+                ((MainActivity) requireActivity()).openDashboardScreen();
+            }
+        }, ContextCompat.getMainExecutor(appContext));
+    }
+}
@@ -2,9 +2,9 @@ package com.example.thinglist;
 
 import android.app.Activity;
 import android.app.AlertDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
@@ -22,12 +22,12 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 public class EditItemFragment extends Fragment {
 
@@ -39,10 +39,16 @@ public class EditItemFragment extends Fragment {
 
     // current image file we’re using for this item
     private String imagePath;
+    // a photo still being written by ImageStore; imagePath is set when it lands
+    private CompletableFuture<String> pendingImage;
 
     // launchers for camera / gallery
     private ActivityResultLauncher<Intent> cameraLauncher;
     private ActivityResultLauncher<Intent> galleryLauncher;
+    // file the camera app writes the full-size photo into (kept across process death)
+    private File captureFile;
+
+    private static final String STATE_CAPTURE_FILE = "state_capture_file";
 
     public EditItemFragment() { }
 
@@ -55,6 +61,10 @@ public class EditItemFragment extends Fragment {
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        if (savedInstanceState != null) {
+            String capture = savedInstanceState.getString(STATE_CAPTURE_FILE);
+            captureFile = capture != null ? new File(capture) : null;
+        }
 
         // Camera result
         cameraLauncher = registerForActivityResult(
@@ -69,6 +79,12 @@ public class EditItemFragment extends Fragment {
         );
     }
 
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (captureFile != null) outState.putString(STATE_CAPTURE_FILE, captureFile.getPath());
+    }
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater,
@@ -100,6 +116,7 @@ public class EditItemFragment extends Fragment {
         //  - if we already have an image -> open preview
         //  - if no image yet -> offer camera / gallery
         ivItemPhoto.setOnClickListener(v -> {
+            if (pendingImage != null) return;    // still being saved
             if (!TextUtils.isEmpty(imagePath)) {
                 showImagePreview();
             } else {
@@ -118,17 +135,17 @@ public class EditItemFragment extends Fragment {
         String autoName  = args.getString("autoName", "");
         String autoDesc  = args.getString("autoDescription", "");
         String autoPrice = args.getString("autoPrice", "");
+        String barcode   = args.getString("autoBarcode", "");
         imagePath        = args.getString("imagePath", null);
 
         if (!TextUtils.isEmpty(autoName))  etName.setText(autoName);
         if (!TextUtils.isEmpty(autoDesc))  etDescription.setText(autoDesc);
         if (!TextUtils.isEmpty(autoPrice)) etPrice.setText(autoPrice);
+        if (!TextUtils.isEmpty(barcode))   fillFromCatalog(barcode);
 
         if (!TextUtils.isEmpty(imagePath)) {
-            Bitmap bmp = BitmapFactory.decodeFile(imagePath);
-            if (bmp != null) {
-                ivItemPhoto.setImageBitmap(bmp);
-            }
+            // decoded off the main thread at the view's size
+            ImageLoader.get(requireContext()).load(getViewLifecycleOwner(), imagePath, ivItemPhoto);
         }
 
         if (!TextUtils.isEmpty(method) && getContext() != null) {
@@ -144,6 +161,26 @@ public class EditItemFragment extends Fragment {
         }
     }
 
+    /** Looks the barcode up in the offline catalog and fills in what the user hasn't changed */
+    private void fillFromCatalog(String barcode) {
+        String name  = safeText(etName);
+        String desc  = safeText(etDescription);
+        String price = safeText(etPrice);
+        Context appContext = requireContext().getApplicationContext();
+        ProductLookup.get(appContext).lookup(barcode).whenCompleteAsync((product, error) -> {
+            if (error != null) error.printStackTrace();
+            if (product == null || getView() == null) return;
+            // a field the user has typed into since (or restored after rotation) stays theirs
+            if (safeText(etName).equals(name)) etName.setText(product.name);
+            if (safeText(etDescription).equals(desc) && !product.description.isEmpty()) {
+                etDescription.setText(product.description);
+            }
+            if (safeText(etPrice).equals(price) && product.priceCents > 0) {
+                etPrice.setText(Money.toPlainString(product.priceCents));
+            }
+        }, ContextCompat.getMainExecutor(appContext));
+    }
+
     // -------------------- Save button --------------------
 
     private void onSaveClicked() {
@@ -159,25 +196,38 @@ public class EditItemFragment extends Fragment {
             return;
         }
 
-        // 🔹 Save to simple in-memory repo so Dashboard can show it
-        ThingItem item = new ThingItem(name, desc, price, loc, status, imagePath);
-        ItemRepository.addItem(item);
-
-        // 🔹 Navigate to details, including imagePath
-        Fragment detail = ItemDetailFragment.newInstance(
-                name,
-                desc,
-                price,
-                loc,
-                status,
-                imagePath
-        );
-
-        requireActivity().getSupportFragmentManager()
-                .beginTransaction()
-                .replace(R.id.fragment_container_view, detail)
-                .addToBackStack(null)
-                .commit();
+        // 🔹 A photo still being written is waited for, so the item never points at a half file
+        CompletableFuture<String> image = pendingImage != null
+                ? pendingImage.exceptionally(error -> null)
+                : CompletableFuture.completedFuture(imagePath);
+        Context appContext = requireContext().getApplicationContext();
+        image.thenAcceptAsync(path -> {
+            // 🔹 Queue the save – the disk write happens on the repository's writer thread
+            ThingItem item = new ThingItem(name, desc, price, loc, status, path);
+            ItemRepository.save(item).whenCompleteAsync((saved, error) -> {
+                if (error != null) {
+                    error.printStackTrace();
+                    Toast.makeText(appContext, "Couldn't save item", Toast.LENGTH_LONG).show();
+                }
+            }, ContextCompat.getMainExecutor(appContext));
+
+            // 🔹 Navigate to details, including imagePath
+            if (!isAdded() || isStateSaved()) return;
+            Fragment detail = ItemDetailFragment.newInstance(
+                    name,
+                    desc,
+                    price,
+                    loc,
+                    status,
+                    path
+            );
+
+            requireActivity().getSupportFragmentManager()
+                    .beginTransaction()
+                    .replace(R.id.fragment_container_view, detail)
+                    .addToBackStack(null)
+                    .commit();
+        }, ContextCompat.getMainExecutor(appContext));
     }
 
     private String safeText(EditText et) {
@@ -208,6 +258,17 @@ public class EditItemFragment extends Fragment {
                     Toast.LENGTH_SHORT).show();
             return;
         }
+        // full size, written by the camera app straight into our file
+        ImageStore images = ImageStore.get(requireContext());
+        try {
+            captureFile = images.newCaptureFile();
+        } catch (IOException e) {
+            e.printStackTrace();
+            Toast.makeText(requireContext(), "Failed to save image", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        intent.putExtra(MediaStore.EXTRA_OUTPUT, images.uriFor(captureFile));
+        intent.addFlags(Intent.FLAG_GRANT_WRITE_URI_PERMISSION);
         cameraLauncher.launch(intent);
     }
 
@@ -220,8 +281,21 @@ public class EditItemFragment extends Fragment {
     // -------------------- Handle camera / gallery results --------------------
 
     private void handleCameraResult(ActivityResult result) {
-        if (result.getResultCode() != Activity.RESULT_OK) return;
+        File capture = captureFile;
+        captureFile = null;
+        if (result.getResultCode() != Activity.RESULT_OK) {
+            if (capture != null) capture.delete();
+            return;
+        }
 
+        if (capture != null && capture.length() > 0) {
+            // shown (downsampled) once it's stored, like a gallery pick
+            ImageLoader.get(requireContext()).clear(ivItemPhoto);
+            showWhenSaved(savePhoto(ImageStore.get(requireContext()).save(capture)));
+            return;
+        }
+        // some camera apps ignore EXTRA_OUTPUT and only return a small "data" bitmap
+        if (capture != null) capture.delete();
         Intent data = result.getData();
         Bitmap thumbnail = null;
         if (data != null && data.getExtras() != null) {
@@ -232,10 +306,9 @@ public class EditItemFragment extends Fragment {
         }
         if (thumbnail == null) return;
 
-        imagePath = saveBitmapToCache(thumbnail);
-        if (imagePath != null) {
-            ivItemPhoto.setImageBitmap(thumbnail);
-        }
+        ImageLoader.get(requireContext()).clear(ivItemPhoto);
+        ivItemPhoto.setImageBitmap(thumbnail);
+        savePhoto(ImageStore.get(requireContext()).save(thumbnail));
     }
 
     private void handleGalleryResult(ActivityResult result) {
@@ -246,52 +319,38 @@ public class EditItemFragment extends Fragment {
         Uri uri = data.getData();
         if (uri == null) return;
 
-        try (InputStream is = requireContext().getContentResolver().openInputStream(uri)) {
-            Bitmap bmp = BitmapFactory.decodeStream(is);
-            if (bmp != null) {
-                imagePath = saveBitmapToCache(bmp);
-                if (imagePath != null) {
-                    ivItemPhoto.setImageBitmap(bmp);
-                }
+        // read, stored and shown without decoding anything on the main thread
+        showWhenSaved(savePhoto(ImageStore.get(requireContext()).save(uri)));
+    }
+
+    private void showWhenSaved(CompletableFuture<String> saved) {
+        saved.thenAccept(path -> {
+            if (path != null && getView() != null) {
+                ImageLoader.get(requireContext()).load(getViewLifecycleOwner(), path, ivItemPhoto);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        });
     }
 
-    private String saveBitmapToCache(Bitmap bmp) {
-        try {
-            File cacheDir = requireContext().getCacheDir();
-            File imgFile = new File(cacheDir,
-                    "item_edit_" + System.currentTimeMillis() + ".jpg");
-            FileOutputStream fos = new FileOutputStream(imgFile);
-            bmp.compress(Bitmap.CompressFormat.JPEG, 90, fos);
-            fos.flush();
-            fos.close();
-            return imgFile.getAbsolutePath();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+    /** Tracks a photo being stored; imagePath only changes once the file is safely on disk. */
+    private CompletableFuture<String> savePhoto(CompletableFuture<String> saving) {
+        pendingImage = saving;
+        Context appContext = requireContext().getApplicationContext();
+        return saving.handleAsync((path, error) -> {
+            if (pendingImage == saving) pendingImage = null;
+            if (error != null) {
+                error.printStackTrace();
+                Toast.makeText(appContext, "Failed to save image", Toast.LENGTH_SHORT).show();
+                return null;
+            }
+            imagePath = path;
+            return path;
+        }, ContextCompat.getMainExecutor(appContext));
     }
 
-    // -------------------- Simple image preview dialog --------------------
+    // -------------------- Zoomable image preview --------------------
 
     private void showImagePreview() {
-        if (TextUtils.isEmpty(imagePath)) return;
-
-        Bitmap bmp = BitmapFactory.decodeFile(imagePath);
-        if (bmp == null) return;
-
-        ImageView iv = new ImageView(requireContext());
-        iv.setImageBitmap(bmp);
-        iv.setAdjustViewBounds(true);
-        iv.setScaleType(ImageView.ScaleType.FIT_CENTER);
-        iv.setPadding(16, 16, 16, 16);
-
-        new AlertDialog.Builder(requireContext())
-                .setView(iv)
-                .setPositiveButton("Close", null)
-                .show();
+        // zoomable, decoding only the visible part of the full-size photo
+        PhotoViewer.show(this, imagePath);
     }
 }
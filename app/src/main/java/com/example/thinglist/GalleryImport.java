@@ -0,0 +1,165 @@
+package com.example.thinglist;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Process;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Many gallery photos at once, one draft item each. Each photo is read, downsampled if it
+ * isn't a JPEG, hashed into the {@link ImageStore} and thumbnailed start to finish on one
+ * thread of a pool sized to the cores, so its bytes and bitmaps never wait in a queue
+ * between steps.
+ *
+ * {@link BulkImport} keeps one photo per thread in flight, so memory is the same for 5
+ * photos as for 500, and doesn't grow with their size: a 64 KB copy buffer per thread
+ * (photos are streamed to a file, see ImageStore) and one sampled bitmap per core. Drafts show up in {@link DraftReviewFragment} as they're made, in the
+ * order they finish.
+ */
+public final class GalleryImport implements DraftBatch {
+
+    private static GalleryImport instance;
+
+    private final Context appContext;
+    private final Executor main;
+    private final ExecutorService workers;
+    private final int threads;
+    private final List<ThingItem> drafts = new ArrayList<>();
+    private BulkImport<Uri> bulk;
+    private CompletableFuture<List<ThingItem>> finished;
+    private int batch;          // bumped by clear(), so a dropped import's late drafts are ignored
+    private int failures;
+    private long startedAt;
+    private long endedAt;
+    private Listener listener;
+
+    private GalleryImport(Context appContext) {
+        this.appContext = appContext;
+        this.main = ContextCompat.getMainExecutor(appContext);
+        threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "GalleryImport");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized GalleryImport get(Context context) {
+        if (instance == null) {
+            instance = new GalleryImport(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** Starts importing {@code uris}, dropping whatever an earlier import left behind. */
+    void start(List<Uri> uris) {
+        clear();
+        ImageStore images = ImageStore.get(appContext);
+        ThumbnailCache thumbnails = ThumbnailCache.get(appContext);
+        int thisBatch = batch;
+        bulk = new BulkImport<>(new ArrayList<>(uris), (uri, index) -> {
+            String path = images.adopt(uri);
+            thumbnails.generateAll(path);
+            return new ThingItem("Photo " + (index + 1), "", "", "", "Active", path);
+        }, new BulkImport.Listener() {
+            @Override
+            public void onItem(int index, ThingItem item) {
+                main.execute(() -> {
+                    if (batch != thisBatch) return;
+                    drafts.add(item);
+                    changed();
+                });
+            }
+
+            @Override
+            public void onFailed(int index, Exception error) {
+                error.printStackTrace();
+                main.execute(() -> {
+                    if (batch != thisBatch) return;
+                    failures++;
+                    changed();
+                });
+            }
+        });
+        startedAt = System.nanoTime();
+        endedAt = 0;
+        CompletableFuture<Void> done = bulk.start(workers, threads);
+        CompletableFuture<List<ThingItem>> result = new CompletableFuture<>();
+        finished = result;
+        // listener callbacks are posted before this, so every draft is in by then
+        done.thenRunAsync(() -> {
+            if (batch != thisBatch) return;
+            endedAt = System.nanoTime();
+            result.complete(new ArrayList<>(drafts));
+        }, main);
+    }
+
+    @Override
+    public List<ThingItem> drafts() {
+        return Collections.unmodifiableList(drafts);
+    }
+
+    @Override
+    public int pending() {
+        return bulk != null ? bulk.total() - bulk.completed() : 0;
+    }
+
+    @Override
+    public int failures() {
+        return failures;
+    }
+
+    /** How far along, and how fast. */
+    @Override
+    public String details() {
+        if (bulk == null) return "";
+        int done = bulk.completed();
+        double seconds = ((endedAt != 0 ? endedAt : System.nanoTime()) - startedAt) / 1e9;
+        return String.format(Locale.US, "Imported %d of %d on %d threads (%.1f photos/s)",
+                done, bulk.total(), threads, seconds > 0 ? done / seconds : 0);
+    }
+
+    @Override
+    public void remove(ThingItem draft) {
+        drafts.remove(draft);
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public CompletableFuture<List<ThingItem>> finish() {
+        if (finished == null) finished = CompletableFuture.completedFuture(new ArrayList<>(drafts));
+        return finished;
+    }
+
+    @Override
+    public void clear() {
+        if (bulk != null) bulk.cancel();
+        bulk = null;
+        drafts.clear();
+        finished = null;
+        failures = 0;
+        listener = null;
+        batch++;
+    }
+
+    private void changed() {
+        if (listener != null) listener.onChanged();
+    }
+}
@@ -0,0 +1,484 @@
+package com.example.thinglist;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compressed set of item ids, roaring-style. Ids are split by their high bits into
+ * 65536-wide chunks; a chunk is a sorted char array while it holds few ids and turns
+ * into a 1024-word bitset once the array would be bigger than that. Ids are dense and
+ * start at 1, so a whole inventory is usually one or two chunks.
+ *
+ * Not thread-safe. Indexes guard the bitmaps they own; query results are fresh
+ * bitmaps that belong to the caller.
+ */
+public final class IdBitmap {
+
+    /** Callback for {@link #forEach}; return false to stop early. */
+    public interface IdVisitor {
+        boolean visit(long id);
+    }
+
+    private static final int ARRAY_MAX = 4096;   // 4096 chars = 8KB, same as a bitset
+    private static final int WORDS = 1024;       // 65536 bits
+
+    // chunk i covers ids keys[i] << 16 .. + 65535; chunks[i] is a char[] or a long[]
+    private int[] keys = new int[2];
+    private Object[] chunks = new Object[2];
+    private int[] sizes = new int[2];
+    private int chunkCount;
+    private int cardinality;
+
+    public IdBitmap() { }
+
+    public static IdBitmap of(long... ids) {
+        IdBitmap bitmap = new IdBitmap();
+        for (long id : ids) bitmap.add(id);
+        return bitmap;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    // -------------------- single ids --------------------
+
+    public boolean contains(long id) {
+        int i = findChunk(high(id));
+        if (i < 0) return false;
+        char low = low(id);
+        Object chunk = chunks[i];
+        if (chunk instanceof long[]) {
+            return (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunk, 0, sizes[i], low) >= 0;
+    }
+
+    /** Returns false if the id was already there. */
+    public boolean add(long id) {
+        if (id < 0) throw new IllegalArgumentException("Negative id " + id);
+        int key = high(id);
+        int i = findChunk(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertChunk(i, key, new char[4], 0);
+        }
+        char low = low(id);
+        Object chunk = chunks[i];
+        if (chunk instanceof long[]) {
+            long[] words = (long[]) chunk;
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) return false;
+            words[low >>> 6] |= bit;
+        } else {
+            char[] values = (char[]) chunk;
+            int size = sizes[i];
+            int pos = Arrays.binarySearch(values, 0, size, low);
+            if (pos >= 0) return false;
+            pos = -pos - 1;
+            if (size == ARRAY_MAX) {
+                long[] words = toWords(values, size);
+                words[low >>> 6] |= 1L << low;
+                chunks[i] = words;
+            } else {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+                    chunks[i] = values;
+                }
+                System.arraycopy(values, pos, values, pos + 1, size - pos);
+                values[pos] = low;
+            }
+        }
+        sizes[i]++;
+        cardinality++;
+        return true;
+    }
+
+    /** Returns false if the id wasn't there. */
+    public boolean remove(long id) {
+        int i = findChunk(high(id));
+        if (i < 0) return false;
+        char low = low(id);
+        Object chunk = chunks[i];
+        if (chunk instanceof long[]) {
+            long[] words = (long[]) chunk;
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) return false;
+            words[low >>> 6] &= ~bit;
+            // back to an array well below the switch point, so add/remove can't thrash
+            if (sizes[i] - 1 <= ARRAY_MAX / 2) {
+                chunks[i] = toValues(words, sizes[i] - 1);
+            }
+        } else {
+            char[] values = (char[]) chunk;
+            int pos = Arrays.binarySearch(values, 0, sizes[i], low);
+            if (pos < 0) return false;
+            System.arraycopy(values, pos + 1, values, pos, sizes[i] - pos - 1);
+        }
+        sizes[i]--;
+        cardinality--;
+        if (sizes[i] == 0) removeChunk(i);
+        return true;
+    }
+
+    // -------------------- iteration --------------------
+
+    /** Visits ids in ascending order. */
+    public void forEach(IdVisitor visitor) {
+        for (int i = 0; i < chunkCount; i++) {
+            long base = (long) keys[i] << 16;
+            Object chunk = chunks[i];
+            if (chunk instanceof long[]) {
+                long[] words = (long[]) chunk;
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        int bit = Long.numberOfTrailingZeros(word);
+                        if (!visitor.visit(base + (w << 6) + bit)) return;
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) chunk;
+                for (int k = 0; k < sizes[i]; k++) {
+                    if (!visitor.visit(base + values[k])) return;
+                }
+            }
+        }
+    }
+
+    /** Smallest id {@code >= from}, or -1 if there is none. */
+    public long nextId(long from) {
+        if (from < 0) from = 0;
+        int key = high(from);
+        int i = findChunk(key);
+        if (i < 0) {
+            i = -i - 1;
+            from = i < chunkCount ? (long) keys[i] << 16 : -1;
+            if (from < 0) return -1;
+        }
+        for (; i < chunkCount; i++) {
+            long base = (long) keys[i] << 16;
+            int low = from > base ? (int) (from - base) : 0;
+            Object chunk = chunks[i];
+            if (chunk instanceof long[]) {
+                long[] words = (long[]) chunk;
+                int w = low >>> 6;
+                long word = words[w] & (-1L << low);
+                while (true) {
+                    if (word != 0) return base + (w << 6) + Long.numberOfTrailingZeros(word);
+                    if (++w == WORDS) break;
+                    word = words[w];
+                }
+            } else {
+                char[] values = (char[]) chunk;
+                int pos = Arrays.binarySearch(values, 0, sizes[i], (char) low);
+                if (pos < 0) pos = -pos - 1;
+                if (pos < sizes[i]) return base + values[pos];
+            }
+        }
+        return -1;
+    }
+
+    public long[] toArray() {
+        long[] out = new long[cardinality];
+        int[] n = {0};
+        forEach(id -> {
+            out[n[0]++] = id;
+            return true;
+        });
+        return out;
+    }
+
+    public IdBitmap copy() {
+        IdBitmap copy = new IdBitmap();
+        copy.keys = Arrays.copyOf(keys, Math.max(2, chunkCount));
+        copy.sizes = Arrays.copyOf(sizes, Math.max(2, chunkCount));
+        copy.chunks = new Object[Math.max(2, chunkCount)];
+        for (int i = 0; i < chunkCount; i++) copy.chunks[i] = cloneChunk(chunks[i], sizes[i]);
+        copy.chunkCount = chunkCount;
+        copy.cardinality = cardinality;
+        return copy;
+    }
+
+    // -------------------- set operations --------------------
+
+    /** Adds every id of {@code other} to this bitmap. */
+    public void or(IdBitmap other) {
+        for (int j = 0; j < other.chunkCount; j++) {
+            int i = findChunk(other.keys[j]);
+            if (i < 0) {
+                insertChunk(-i - 1, other.keys[j], cloneChunk(other.chunks[j], other.sizes[j]),
+                        other.sizes[j]);
+                cardinality += other.sizes[j];
+                continue;
+            }
+            int before = sizes[i];
+            Object theirs = other.chunks[j];
+            if (chunks[i] instanceof char[] && theirs instanceof char[]
+                    && before + other.sizes[j] <= ARRAY_MAX) {
+                // two small arrays: a sorted merge, no bitset round trip
+                char[] merged = new char[Math.max(4, before + other.sizes[j])];
+                int size = merge((char[]) chunks[i], before, (char[]) theirs, other.sizes[j], merged);
+                chunks[i] = merged;
+                sizes[i] = size;
+                cardinality += size - before;
+                continue;
+            }
+            long[] words = wordsForWrite(i);
+            int size;
+            if (theirs instanceof long[]) {
+                long[] w2 = (long[]) theirs;
+                size = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] |= w2[w];
+                    size += Long.bitCount(words[w]);
+                }
+            } else {
+                char[] values = (char[]) theirs;
+                size = before;
+                for (int k = 0; k < other.sizes[j]; k++) {
+                    char v = values[k];
+                    long bit = 1L << v;
+                    if ((words[v >>> 6] & bit) == 0) {
+                        words[v >>> 6] |= bit;
+                        size++;
+                    }
+                }
+            }
+            setChunk(i, words, size);
+            cardinality += size - before;
+        }
+    }
+
+    /**
+     * Union of many bitmaps at once. Cheaper than repeated {@link #or} when there are lots
+     * of small inputs (e.g. every term under a short prefix): each chunk is collected in a
+     * plain bitset and only converted once at the end.
+     */
+    public static IdBitmap union(Iterable<IdBitmap> bitmaps) {
+        Map<Integer, long[]> collected = new TreeMap<>();
+        for (IdBitmap bitmap : bitmaps) {
+            for (int j = 0; j < bitmap.chunkCount; j++) {
+                long[] words = collected.get(bitmap.keys[j]);
+                if (words == null) {
+                    words = new long[WORDS];
+                    collected.put(bitmap.keys[j], words);
+                }
+                Object chunk = bitmap.chunks[j];
+                if (chunk instanceof long[]) {
+                    long[] w2 = (long[]) chunk;
+                    for (int w = 0; w < WORDS; w++) words[w] |= w2[w];
+                } else {
+                    char[] values = (char[]) chunk;
+                    for (int k = 0; k < bitmap.sizes[j]; k++) {
+                        char v = values[k];
+                        words[v >>> 6] |= 1L << v;
+                    }
+                }
+            }
+        }
+        IdBitmap result = new IdBitmap();
+        for (Map.Entry<Integer, long[]> e : collected.entrySet()) {
+            long[] words = e.getValue();
+            int size = 0;
+            for (long word : words) size += Long.bitCount(word);
+            result.insertChunk(result.chunkCount, e.getKey(), words, size);
+            result.setChunk(result.chunkCount - 1, words, size);
+            result.cardinality += size;
+        }
+        return result;
+    }
+
+    /** Keeps only the ids that are also in {@code other}. */
+    public void and(IdBitmap other) {
+        int out = 0;
+        cardinality = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            int j = other.findChunk(keys[i]);
+            if (j < 0) continue;
+            Object mine = chunks[i];
+            Object theirs = other.chunks[j];
+            Object result;
+            int size;
+            if (mine instanceof long[] && theirs instanceof long[]) {
+                long[] words = (long[]) mine;
+                long[] w2 = (long[]) theirs;
+                size = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= w2[w];
+                    size += Long.bitCount(words[w]);
+                }
+                result = size > ARRAY_MAX / 2 ? words : toValues(words, size);
+            } else {
+                // at least one side is an array: keep its values the other side has
+                boolean mineIsArray = mine instanceof char[];
+                char[] values = (char[]) (mineIsArray ? mine : theirs);
+                int count = mineIsArray ? sizes[i] : other.sizes[j];
+                Object probe = mineIsArray ? theirs : mine;
+                int probeSize = mineIsArray ? other.sizes[j] : sizes[i];
+                char[] kept = mineIsArray ? values : new char[Math.min(count, ARRAY_MAX)];
+                size = 0;
+                for (int k = 0; k < count; k++) {
+                    if (chunkContains(probe, probeSize, values[k])) kept[size++] = values[k];
+                }
+                result = kept;
+            }
+            if (size == 0) continue;
+            keys[out] = keys[i];
+            chunks[out] = result;
+            sizes[out] = size;
+            out++;
+            cardinality += size;
+        }
+        for (int i = out; i < chunkCount; i++) chunks[i] = null;
+        chunkCount = out;
+    }
+
+    /** Removes every id that is in {@code other}. */
+    public void andNot(IdBitmap other) {
+        for (int j = 0; j < other.chunkCount && chunkCount > 0; j++) {
+            int i = findChunk(other.keys[j]);
+            if (i < 0) continue;
+            long[] words = wordsForWrite(i);
+            int before = sizes[i];
+            Object theirs = other.chunks[j];
+            int size;
+            if (theirs instanceof long[]) {
+                long[] w2 = (long[]) theirs;
+                size = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= ~w2[w];
+                    size += Long.bitCount(words[w]);
+                }
+            } else {
+                char[] values = (char[]) theirs;
+                size = before;
+                for (int k = 0; k < other.sizes[j]; k++) {
+                    char v = values[k];
+                    long bit = 1L << v;
+                    if ((words[v >>> 6] & bit) != 0) {
+                        words[v >>> 6] &= ~bit;
+                        size--;
+                    }
+                }
+            }
+            cardinality -= before - size;
+            if (size == 0) {
+                removeChunk(i);
+            } else {
+                setChunk(i, words, size);
+            }
+        }
+    }
+
+    // -------------------- chunk plumbing --------------------
+
+    private static int high(long id) {
+        return (int) (id >>> 16);
+    }
+
+    private static char low(long id) {
+        return (char) id;
+    }
+
+    private int findChunk(int key) {
+        return Arrays.binarySearch(keys, 0, chunkCount, key);
+    }
+
+    private void insertChunk(int i, int key, Object chunk, int size) {
+        if (chunkCount == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            chunks = Arrays.copyOf(chunks, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, chunkCount - i);
+        System.arraycopy(chunks, i, chunks, i + 1, chunkCount - i);
+        System.arraycopy(sizes, i, sizes, i + 1, chunkCount - i);
+        keys[i] = key;
+        chunks[i] = chunk;
+        sizes[i] = size;
+        chunkCount++;
+    }
+
+    private void removeChunk(int i) {
+        System.arraycopy(keys, i + 1, keys, i, chunkCount - i - 1);
+        System.arraycopy(chunks, i + 1, chunks, i, chunkCount - i - 1);
+        System.arraycopy(sizes, i + 1, sizes, i, chunkCount - i - 1);
+        chunks[--chunkCount] = null;
+    }
+
+    /** Chunk i as a bitset we may modify (converting an array chunk if needed). */
+    private long[] wordsForWrite(int i) {
+        Object chunk = chunks[i];
+        return chunk instanceof long[] ? (long[]) chunk : toWords((char[]) chunk, sizes[i]);
+    }
+
+    /** Stores a bitset result, shrinking it back to an array if it got sparse. */
+    private void setChunk(int i, long[] words, int size) {
+        chunks[i] = size > ARRAY_MAX / 2 ? words : toValues(words, size);
+        sizes[i] = size;
+    }
+
+    private static boolean chunkContains(Object chunk, int size, char low) {
+        if (chunk instanceof long[]) {
+            return (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunk, 0, size, low) >= 0;
+    }
+
+    private static Object cloneChunk(Object chunk, int size) {
+        if (chunk instanceof long[]) return ((long[]) chunk).clone();
+        return Arrays.copyOf((char[]) chunk, Math.max(size, 4));
+    }
+
+    /** Sorted union of two sorted arrays into {@code out}; returns the count. */
+    private static int merge(char[] a, int na, char[] b, int nb, char[] out) {
+        int n = 0;
+        int x = 0;
+        int y = 0;
+        while (x < na && y < nb) {
+            char va = a[x];
+            char vb = b[y];
+            if (va <= vb) {
+                out[n++] = va;
+                x++;
+                if (va == vb) y++;
+            } else {
+                out[n++] = vb;
+                y++;
+            }
+        }
+        while (x < na) out[n++] = a[x++];
+        while (y < nb) out[n++] = b[y++];
+        return n;
+    }
+
+    private static long[] toWords(char[] values, int size) {
+        long[] words = new long[WORDS];
+        for (int k = 0; k < size; k++) {
+            char v = values[k];
+            words[v >>> 6] |= 1L << v;
+        }
+        return words;
+    }
+
+    private static char[] toValues(long[] words, int size) {
+        char[] values = new char[Math.max(size, 4)];
+        int n = 0;
+        for (int w = 0; w < WORDS && n < size; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+}
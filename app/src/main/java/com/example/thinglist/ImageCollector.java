@@ -0,0 +1,170 @@
+package com.example.thinglist;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Mark-and-sweep for photo files nothing points at any more: retakes, abandoned edits,
+ * deleted items. The mark is every {@code imagePath} in the repositories' snapshots; the
+ * sweep walks the photo folders and deletes files that aren't marked and haven't been
+ * touched for a grace period – long enough for a photo saved moments ago to reach an item.
+ *
+ * A {@link Run} works a batch of files per {@link Run#step} call, so the caller decides how
+ * much to do at once and a big folder never holds a thread for long. If a repository has
+ * been written to since the last step, the mark is redone before anything else is deleted.
+ */
+final class ImageCollector {
+
+    /** Which files in a folder are photos this collector may delete. */
+    interface Candidates {
+        boolean accept(String fileName);
+    }
+
+    /** What one run found, so far or in total. */
+    static final class Result {
+        int scanned;
+        int deleted;
+        long bytesReclaimed;
+
+        @Override
+        public String toString() {
+            return "scanned " + scanned + ", deleted " + deleted + ", reclaimed " + bytesReclaimed + " bytes";
+        }
+    }
+
+    private final List<File> dirs;
+    private final Candidates candidates;
+    private final List<Supplier<ItemSnapshot>> references;
+    private final long graceMs;
+
+    ImageCollector(List<File> dirs, Candidates candidates,
+                   List<Supplier<ItemSnapshot>> references, long graceMs) {
+        this.dirs = dirs;
+        this.candidates = candidates;
+        this.references = references;
+        this.graceMs = graceMs;
+    }
+
+    /** A new collection; nothing is read until its first step. */
+    Run start(long now) {
+        return new Run(now - graceMs);
+    }
+
+    final class Run {
+        private final long cutoff;
+        private final Result result = new Result();
+        private final long[] markedVersions = new long[references.size()];
+        private Set<String> marked;
+        private int dirIndex;
+        private DirectoryStream<Path> listing;
+        private Iterator<Path> files;
+        private boolean done;
+
+        private Run(long cutoff) {
+            this.cutoff = cutoff;
+        }
+
+        /** Looks at up to {@code maxFiles} files; false once the whole sweep is done. */
+        boolean step(int maxFiles) throws IOException {
+            if (done) return false;
+            if (marked == null || referencesChanged()) mark();
+
+            int looked = 0;
+            while (looked < maxFiles) {
+                if (files == null || !files.hasNext()) {
+                    if (!nextDir()) {
+                        done = true;
+                        return false;
+                    }
+                    continue;
+                }
+                Path path = files.next();
+                looked++;
+                sweep(path.toFile());
+            }
+            return true;
+        }
+
+        Result result() {
+            return result;
+        }
+
+        /** Stops early, e.g. when the app goes away mid-run. */
+        void close() {
+            done = true;
+            closeListing();
+        }
+
+        // -------------------- mark --------------------
+
+        private boolean referencesChanged() {
+            for (int i = 0; i < markedVersions.length; i++) {
+                if (references.get(i).get().version() != markedVersions[i]) return true;
+            }
+            return false;
+        }
+
+        private void mark() {
+            Set<String> paths = new HashSet<>();
+            for (int i = 0; i < markedVersions.length; i++) {
+                ItemSnapshot snapshot = references.get(i).get();
+                markedVersions[i] = snapshot.version();
+                snapshot.scan(item -> {
+                    if (item.imagePath != null && !item.imagePath.isEmpty()) {
+                        paths.add(new File(item.imagePath).getAbsolutePath());
+                    }
+                    return true;
+                });
+            }
+            marked = paths;
+        }
+
+        // -------------------- sweep --------------------
+
+        private void sweep(File file) {
+            if (!candidates.accept(file.getName()) || !file.isFile()) return;
+            result.scanned++;
+            if (marked.contains(file.getAbsolutePath())) return;
+            long modified = file.lastModified();
+            if (modified == 0 || modified > cutoff) return;      // gone already, or too new
+
+            long bytes = file.length();
+            if (file.delete()) {
+                result.deleted++;
+                result.bytesReclaimed += bytes;
+            }
+        }
+
+        private boolean nextDir() throws IOException {
+            closeListing();
+            while (dirIndex < dirs.size()) {
+                File dir = dirs.get(dirIndex++);
+                if (!dir.isDirectory()) continue;
+                // streamed, not listed up front: a huge folder costs one batch at a time
+                listing = Files.newDirectoryStream(dir.toPath());
+                files = listing.iterator();
+                return true;
+            }
+            return false;
+        }
+
+        private void closeListing() {
+            if (listing == null) return;
+            try {
+                listing.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            listing = null;
+            files = null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.thinglist;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Directory of item photos, each named by the SHA-256 of its bytes ({@code <hash>.jpg}).
+ * The same photo saved twice is stored once: the second save finds the file already there
+ * and just returns it.
+ *
+ * A file only appears under its final name once its bytes are on disk – written to a temp
+ * file, fsynced, then renamed – so a path handed out by {@link #put} survives a crash or
+ * power cut. Leftover temp files are cleaned up when the store is opened.
+ *
+ * Only file bookkeeping lives here; {@link ImageStore} does the encoding.
+ */
+final class ImageFileStore {
+
+    private static final String EXTENSION = ".jpg";
+
+    private final File dir;
+
+    ImageFileStore(File dir) {
+        this.dir = dir;
+        dir.mkdirs();
+
+        File[] leftovers = dir.listFiles((d, name) -> name.endsWith(".tmp"));
+        if (leftovers == null) return;
+        for (File f : leftovers) f.delete();      // a write that never finished
+    }
+
+    /** Stores {@code length} bytes of {@code data} and returns the file they live in. */
+    File put(byte[] data, int length) throws IOException {
+        String hash = ContentHash.of(data, 0, length);
+        File target = new File(dir, hash + EXTENSION);
+        if (target.isFile() && target.length() == length) {
+            touch(target);      // already stored
+            return target;
+        }
+
+        File tmp = new File(dir, hash + "." + Thread.currentThread().getId() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(data, 0, length);
+            out.getFD().sync();
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Couldn't move image into place: " + target);
+        }
+        syncDirectory();
+        return target;
+    }
+
+    /**
+     * Moves a finished file – e.g. a camera capture – into the store under its hash, or just
+     * deletes it if the store already has those bytes. {@code source} must be on the same
+     * filesystem as the store.
+     */
+    File adopt(File source) throws IOException {
+        return adopt(source, ContentHash.of(source));
+    }
+
+    /** {@link #adopt(File)} for a file whose hash is already known, e.g. worked out as it was written. */
+    File adopt(File source, String hash) throws IOException {
+        File target = new File(dir, hash + EXTENSION);
+        if (target.isFile() && target.length() == source.length()) {
+            source.delete();
+            touch(target);
+            return target;
+        }
+        // whoever wrote it may not have synced it
+        try (FileOutputStream out = new FileOutputStream(source, true)) {
+            out.getFD().sync();
+        }
+        if (!source.renameTo(target)) {
+            throw new IOException("Couldn't move image into place: " + target);
+        }
+        syncDirectory();
+        return target;
+    }
+
+    /** The hash an image in this store is named by, or null if {@code file} isn't one. */
+    static String hashOf(File file) {
+        return hashOf(file.getName());
+    }
+
+    static String hashOf(String name) {
+        if (!name.endsWith(EXTENSION)) return null;
+        String stem = name.substring(0, name.length() - EXTENSION.length());
+        return ContentHash.isHash(stem) ? stem : null;
+    }
+
+    File dir() {
+        return dir;
+    }
+
+    // a file handed out again is new as far as ImageCollector's grace period goes: the
+    // item about to point at it may not be in the repository yet
+    private static void touch(File file) {
+        file.setLastModified(System.currentTimeMillis());
+    }
+
+    // the rename itself lives in the directory entry, so that needs flushing too
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not every filesystem lets a directory be opened; the file data is synced regardless
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.example.thinglist;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.DisplayMetrics;
+import android.util.LruCache;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.core.view.OneShotPreDrawListener;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads item photos off the main thread, decoded no larger than where they're shown.
+ *
+ * Targets small enough for a {@link ThumbnailCache} variant decode that instead of the
+ * original. Each load reads the image bounds first, picks the largest power-of-two
+ * {@code inSampleSize} that still covers the target size, and decodes at that size.
+ * Results go into a memory cache bounded by bitmap bytes (least recently used goes
+ * first), so showing the same photo again is a cache hit on the main thread.
+ *
+ * Every request belongs to a {@link LifecycleOwner} – pass a fragment's
+ * {@code getViewLifecycleOwner()} – and is cancelled when that owner is destroyed,
+ * so a finished decode never touches a dead view.
+ *
+ * Decodes write into bitmaps from the {@link BitmapPool} where one fits. A bitmap goes
+ * back to the pool once nothing holds it any more: not the memory cache, not an ImageView
+ * (a view lets go when it's detached, and reloads if it's attached again), and not a
+ * callback's owner (it lets go when destroyed). Callers must not keep loaded bitmaps
+ * past their owner.
+ *
+ * <pre>
+ * ImageLoader.get(requireContext()).load(getViewLifecycleOwner(), imagePath, ivPhoto);
+ * </pre>
+ */
+public final class ImageLoader {
+
+    /** Gets the decoded bitmap (or null if the file couldn't be decoded), on the main thread. */
+    public interface Callback {
+        void onLoaded(Bitmap bitmap);
+    }
+
+    private static ImageLoader instance;
+
+    private final LruCache<String, Bitmap> memoryCache;
+    private final BitmapPool pool = BitmapPool.get();
+    // how many holders each decoded bitmap has; it goes to the pool at zero (guarded by itself)
+    private final IdentityHashMap<Bitmap, Integer> holders = new IdentityHashMap<>();
+    private final ThumbnailCache thumbnails;
+    private final ExecutorService decoder;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final DisplayMetrics displayMetrics;
+    // open requests per owner, and the one currently aimed at each ImageView (main thread only)
+    private final Map<LifecycleOwner, Set<Request>> byOwner = new HashMap<>();
+    private final Map<ImageView, Request> byTarget = new HashMap<>();
+    // what each view shows, and the bitmaps callbacks got, per owner (main thread only)
+    private final Map<ImageView, Shown> shownIn = new HashMap<>();
+    private final Map<LifecycleOwner, List<Bitmap>> deliveredTo = new HashMap<>();
+
+    private ImageLoader(Context appContext) {
+        displayMetrics = appContext.getResources().getDisplayMetrics();
+        thumbnails = ThumbnailCache.get(appContext);
+
+        // an eighth of the heap for decoded photos
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+        memoryCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                release(oldValue);
+            }
+        };
+
+        // two decodes at a time: decoding is memory-bound, more threads just means more peak RAM
+        decoder = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "ImageLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized ImageLoader get(Context context) {
+        if (instance == null) {
+            instance = new ImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // -------------------- loading --------------------
+
+    /**
+     * Shows {@code path} in {@code target}, sized to the view (measured first if it hasn't
+     * been laid out yet). Replaces any earlier load into the same view.
+     */
+    public void load(@NonNull LifecycleOwner owner, String path, @NonNull ImageView target) {
+        Request previous = byTarget.remove(target);
+        if (previous != null) previous.cancel();
+        if (path == null || path.isEmpty()) return;
+
+        Request request = new Request(owner, path, bitmap -> show(owner, path, target, bitmap));
+        request.target = target;
+        byTarget.put(target, request);
+        track(request);
+        if (!request.active()) return;
+
+        if (target.getWidth() > 0 && target.getHeight() > 0) {
+            start(request, target.getWidth(), target.getHeight());
+        } else {
+            OneShotPreDrawListener.add(target, () -> {
+                if (!request.active()) return;
+                int width = target.getWidth() > 0 ? target.getWidth() : displayMetrics.widthPixels;
+                int height = target.getHeight() > 0 ? target.getHeight() : displayMetrics.heightPixels;
+                start(request, width, height);
+            });
+        }
+    }
+
+    /**
+     * Cancels any load into {@code target} and lets go of what it shows, e.g. before setting
+     * its image some other way.
+     */
+    public void clear(@NonNull ImageView target) {
+        Request previous = byTarget.remove(target);
+        if (previous != null) previous.cancel();
+        Shown shown = shownIn.get(target);
+        if (shown != null) {
+            target.setImageDrawable(null);
+            shown.forget();
+        }
+    }
+
+    /** Decodes {@code path} to fit {@code width} × {@code height} and hands it to {@code callback}. */
+    public void load(@NonNull LifecycleOwner owner, String path, int width, int height,
+                     @NonNull Callback callback) {
+        if (path == null || path.isEmpty()) {
+            callback.onLoaded(null);
+            return;
+        }
+        Request request = new Request(owner, path, callback);
+        track(request);
+        if (request.active()) start(request, width, height);
+    }
+
+    /** Decodes {@code path} to fit the screen, e.g. for a full-size preview. */
+    public void loadFullScreen(@NonNull LifecycleOwner owner, String path, @NonNull Callback callback) {
+        load(owner, path, displayMetrics.widthPixels, displayMetrics.heightPixels, callback);
+    }
+
+    private void start(Request request, int width, int height) {
+        String key = request.path + '@' + width + 'x' + height;
+        Bitmap cached;
+        synchronized (holders) {
+            // held for the request before the cache can evict (and pool) it on another thread
+            cached = memoryCache.get(key);
+            if (cached != null) retain(cached);
+        }
+        if (cached != null) {
+            request.deliver(cached);
+            return;
+        }
+        request.future = decoder.submit(() -> {
+            if (!request.active()) return;
+            // a small target decodes a small file: the thumbnail, if one covers it
+            File thumbnail = thumbnails.variantFor(request.path, width, height);
+            Bitmap bitmap = thumbnail != null ? decodeSampled(thumbnail.getPath(), width, height, pool) : null;
+            if (bitmap == null) bitmap = decodeSampled(request.path, width, height, pool);
+            if (bitmap != null) {
+                retain(bitmap);     // the request's hold
+                retain(bitmap);     // the cache's hold, released in entryRemoved
+                memoryCache.put(key, bitmap);
+            }
+            Bitmap decoded = bitmap;
+            mainHandler.post(() -> request.deliver(decoded));
+        });
+    }
+
+    private void show(LifecycleOwner owner, String path, ImageView target, Bitmap bitmap) {
+        if (bitmap == null) return;
+        target.setImageBitmap(bitmap);
+        Shown shown = shownIn.get(target);
+        if (shown == null) {
+            shown = new Shown(owner, target);
+            shownIn.put(target, shown);
+            target.addOnAttachStateChangeListener(shown);
+        }
+        Bitmap previous = shown.bitmap;
+        shown.owner = owner;
+        shown.path = path;
+        shown.bitmap = bitmap;
+        if (previous != null) release(previous);
+    }
+
+    /** A view's current picture; lets go of the bitmap while the view is off screen. */
+    private final class Shown implements View.OnAttachStateChangeListener {
+        final ImageView view;
+        LifecycleOwner owner;
+        String path;
+        Bitmap bitmap;       // null while detached
+
+        Shown(LifecycleOwner owner, ImageView view) {
+            this.owner = owner;
+            this.view = view;
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(@NonNull View v) {
+            if (bitmap == null) return;
+            view.setImageDrawable(null);       // nothing may draw it once it's pooled
+            release(bitmap);
+            bitmap = null;
+        }
+
+        @Override
+        public void onViewAttachedToWindow(@NonNull View v) {
+            if (bitmap != null || byTarget.containsKey(view)) return;
+            if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) return;
+            load(owner, path, view);           // most likely a memory cache hit
+        }
+
+        void forget() {
+            view.removeOnAttachStateChangeListener(this);
+            shownIn.remove(view);
+            if (bitmap != null) release(bitmap);
+            bitmap = null;
+        }
+    }
+
+    // -------------------- decoding --------------------
+
+    /**
+     * Decodes {@code path} at the smallest power-of-two reduction that still covers the size,
+     * into a bitmap from {@code pool} when one is big enough (null: always allocate).
+     */
+    static Bitmap decodeSampled(String path, int width, int height, BitmapPool pool) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;       // header only – no pixels allocated
+        BitmapFactory.decodeFile(path, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSizeFor(options.outWidth, options.outHeight, width, height);
+        if (pool == null) return BitmapFactory.decodeFile(path, options);
+
+        // mutable, so it can be pooled (and decoded into) afterwards
+        options.inMutable = true;
+        int sampledWidth = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+        int sampledHeight = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+        options.inBitmap = pool.take(sampledWidth * sampledHeight * 4);      // ARGB_8888
+        try {
+            return BitmapFactory.decodeFile(path, options);
+        } catch (IllegalArgumentException e) {
+            // the decoder didn't take the pooled bitmap after all; give it back and allocate
+            pool.put(options.inBitmap);
+            options.inBitmap = null;
+            return BitmapFactory.decodeFile(path, options);
+        }
+    }
+
+    /** Largest power of two that keeps both sides at or above the requested size. */
+    static int sampleSizeFor(int sourceWidth, int sourceHeight, int width, int height) {
+        int sampleSize = 1;
+        while (sourceWidth / (sampleSize * 2) >= width && sourceHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // -------------------- requests and cancellation --------------------
+
+    private void track(Request request) {
+        Lifecycle lifecycle = request.owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            request.cancel();
+            return;
+        }
+        Set<Request> requests = byOwner.get(request.owner);
+        if (requests == null) {
+            requests = new HashSet<>();
+            byOwner.put(request.owner, requests);
+            lifecycle.addObserver(new DefaultLifecycleObserver() {
+                @Override
+                public void onDestroy(@NonNull LifecycleOwner owner) {
+                    cancelAll(owner);
+                }
+            });
+        }
+        requests.add(request);
+    }
+
+    private void cancelAll(LifecycleOwner owner) {
+        Set<Request> requests = byOwner.remove(owner);
+        if (requests != null) {
+            for (Request request : new ArrayList<>(requests)) request.cancel();
+        }
+        // the owner is gone, so are its views and whatever its callbacks did with their bitmaps
+        for (Shown shown : new ArrayList<>(shownIn.values())) {
+            if (shown.owner == owner) shown.forget();
+        }
+        List<Bitmap> delivered = deliveredTo.remove(owner);
+        if (delivered != null) {
+            for (Bitmap bitmap : delivered) release(bitmap);
+        }
+    }
+
+    // -------------------- holders and pooling --------------------
+
+    private void retain(Bitmap bitmap) {
+        synchronized (holders) {
+            holders.merge(bitmap, 1, Integer::sum);
+        }
+    }
+
+    private void release(Bitmap bitmap) {
+        synchronized (holders) {
+            Integer count = holders.get(bitmap);
+            if (count == null) return;
+            if (count > 1) {
+                holders.put(bitmap, count - 1);
+                return;
+            }
+            holders.remove(bitmap);
+        }
+        pool.put(bitmap);
+    }
+
+    private void finished(Request request) {
+        Set<Request> requests = byOwner.get(request.owner);
+        if (requests != null) requests.remove(request);
+        if (request.target != null && byTarget.get(request.target) == request) {
+            byTarget.remove(request.target);
+        }
+    }
+
+    /** One pending load. Everything except {@link #cancelled} is touched on the main thread only. */
+    private final class Request {
+        final LifecycleOwner owner;
+        final String path;
+        final Callback callback;
+        ImageView target;
+        Future<?> future;
+        volatile boolean cancelled;
+
+        Request(LifecycleOwner owner, String path, Callback callback) {
+            this.owner = owner;
+            this.path = path;
+            this.callback = callback;
+        }
+
+        boolean active() {
+            return !cancelled;
+        }
+
+        void deliver(Bitmap bitmap) {
+            if (cancelled) {
+                if (bitmap != null) release(bitmap);
+                return;
+            }
+            finished(this);
+            if (bitmap != null && target == null) {
+                // a callback's bitmap is held until its owner goes away
+                List<Bitmap> delivered = deliveredTo.get(owner);
+                if (delivered == null) {
+                    delivered = new ArrayList<>();
+                    deliveredTo.put(owner, delivered);
+                }
+                delivered.add(bitmap);
+            }
+            callback.onLoaded(bitmap);
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (future != null) future.cancel(false);
+            finished(this);
+        }
+    }
+
+    /** Drops every cached and pooled bitmap, e.g. when the system is low on memory. */
+    public void clearMemory() {
+        memoryCache.evictAll();
+        pool.clear();
+    }
+
+    /** Bytes of decoded bitmaps currently cached. */
+    public int memoryCacheBytes() {
+        return memoryCache.size();
+    }
+}
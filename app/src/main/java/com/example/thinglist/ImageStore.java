@@ -0,0 +1,305 @@
+package com.example.thinglist;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Process;
+
+import androidx.core.content.FileProvider;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Saves item photos into the app's own storage (not the cache dir, which the system may
+ * clear), off the main thread. JPEG encoding runs on a small worker pool; files are named
+ * by content hash, so the same photo is stored once ({@link ImageFileStore}).
+ *
+ * The returned future completes with the photo's path only after the file has been
+ * fsynced, so a path that reaches {@link ItemRepository} always points at a whole file.
+ *
+ * Camera captures are written at full size by the camera app straight into a file from
+ * {@link #newCaptureFile} (shared through {@link #uriFor}), then moved into the store by
+ * {@link #save(File)} – no bitmap passes through the app at all. Everything else is
+ * streamed into a temp file next to the captures, hashed as it's written, and moved in the
+ * same way, so no photo is ever held in memory whole however big it is.
+ *
+ * Photos no item points at any more are deleted by {@link #collectOrphans}, in small
+ * batches between the other work on the pool ({@link ImageCollector}).
+ *
+ * <pre>
+ * ImageStore.get(requireContext()).save(bitmap)
+ *         .whenCompleteAsync((path, error) -> { ... }, ContextCompat.getMainExecutor(context));
+ * </pre>
+ */
+public final class ImageStore {
+
+    private static final int JPEG_QUALITY = 90;
+    // gallery pictures that have to be re-encoded are brought down to this first
+    private static final int MAX_IMPORT_SIDE = 2048;
+    // a capture this old was never picked up (the app died while the camera was open)
+    private static final long STALE_CAPTURE_MS = 24 * 60 * 60 * 1000L;
+    // an unreferenced photo younger than this may still be on its way into an item
+    private static final long ORPHAN_GRACE_MS = 24 * 60 * 60 * 1000L;
+    private static final int COLLECT_BATCH = 64;
+
+    private static ImageStore instance;
+
+    private final ImageFileStore files;
+    private final File captures;
+    private final String fileProviderAuthority;
+    private final ThumbnailCache thumbnails;
+    private final ContentResolver resolver;
+    private final Context appContext;
+    private final ImageCollector collector;
+    private final AtomicBoolean collecting = new AtomicBoolean();
+    private volatile long reclaimedBytes;
+    private final ExecutorService encoder;
+    // copy buffer for streaming pictures in; fixed size, whatever the picture
+    private final ThreadLocal<byte[]> chunks = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    private ImageStore(Context appContext) {
+        files = new ImageFileStore(new File(appContext.getFilesDir(), "images"));
+        // same filesystem as the store, so adopting a capture is a rename
+        captures = new File(appContext.getFilesDir(), "captures");
+        fileProviderAuthority = appContext.getPackageName() + ".fileprovider";
+        // photos from before this store lived in the cache dir as item_*.jpg / item_edit_*.jpg
+        collector = new ImageCollector(
+                Arrays.asList(files.dir(), appContext.getCacheDir()),
+                name -> name.endsWith(".jpg")
+                        && (name.startsWith("item_") || ImageFileStore.hashOf(name) != null),
+                Arrays.asList(ItemRepository::snapshot, VaultRepository::snapshot),
+                ORPHAN_GRACE_MS);
+        thumbnails = ThumbnailCache.get(appContext);
+        resolver = appContext.getContentResolver();
+        this.appContext = appContext;
+
+        // encoding is CPU-bound; leave a core for the UI
+        int workers = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+        encoder = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "ImageStore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        encoder.execute(this::deleteStaleCaptures);
+    }
+
+    public static synchronized ImageStore get(Context context) {
+        if (instance == null) {
+            instance = new ImageStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Encodes {@code bitmap} as JPEG and stores it. Don't recycle the bitmap until the
+     * future is done.
+     */
+    public CompletableFuture<String> save(Bitmap bitmap) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return withThumbnails(store(bitmap));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, encoder);
+    }
+
+    /**
+     * Stores the picture behind {@code uri}, e.g. from the gallery. JPEGs are kept byte for
+     * byte (no second lossy encode); anything else is decoded, downsampled and encoded.
+     */
+    public CompletableFuture<String> save(Uri uri) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return withThumbnails(adopt(uri));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, encoder);
+    }
+
+    // -------------------- full-size capture --------------------
+
+    /** A new, empty file for the camera app to write a full-size photo into. */
+    public File newCaptureFile() throws IOException {
+        captures.mkdirs();
+        return File.createTempFile("capture_", ".jpg", captures);
+    }
+
+    /** The content:// uri to hand the camera for {@code captureFile} (EXTRA_OUTPUT). */
+    public Uri uriFor(File captureFile) {
+        return FileProvider.getUriForFile(appContext, fileProviderAuthority, captureFile);
+    }
+
+    /** Moves a finished capture into the store; the capture file is gone afterwards. */
+    public CompletableFuture<String> save(File capture) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String path = files.adopt(capture).getAbsolutePath();
+                thumbnails.generateAsync(path);
+                return path;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, encoder);
+    }
+
+    /**
+     * {@link #save(File)} on the calling thread, without the thumbnails – for callers that
+     * run their own pipeline ({@link BurstSession}).
+     */
+    String adopt(File capture) throws IOException {
+        return files.adopt(capture).getAbsolutePath();
+    }
+
+    /**
+     * {@link #save(Uri)} on the calling thread, without the thumbnails – for imports that
+     * run on their own pool ({@link GalleryImport}).
+     */
+    String adopt(Uri uri) throws IOException {
+        File copy = newTempFile();
+        try {
+            String hash;
+            try (InputStream in = resolver.openInputStream(uri);
+                 DigestOutputStream out = ContentHash.hashing(new FileOutputStream(copy))) {
+                if (in == null) throw new IOException("Couldn't open " + uri);
+                byte[] chunk = chunks.get();
+                int n;
+                while ((n = in.read(chunk)) > 0) out.write(chunk, 0, n);
+                hash = ContentHash.of(out);
+            }
+            // JPEGs byte for byte, anything else downsampled and encoded
+            if (!isJpeg(copy)) return reencode(copy);
+            return files.adopt(copy, hash).getAbsolutePath();
+        } finally {
+            copy.delete();      // already moved into the store, unless something failed
+        }
+    }
+
+    private void deleteStaleCaptures() {
+        File[] leftovers = captures.listFiles();
+        if (leftovers == null) return;
+        long cutoff = System.currentTimeMillis() - STALE_CAPTURE_MS;
+        for (File f : leftovers) {
+            if (f.lastModified() < cutoff) f.delete();
+        }
+    }
+
+    // -------------------- orphaned photos --------------------
+
+    /**
+     * Deletes photos that no item points at and that are older than a day, a batch at a time
+     * on the worker pool – each batch goes to the back of the queue, so saves never wait
+     * behind the whole sweep. Completes with what was reclaimed; a run already going
+     * completes this one with nothing.
+     */
+    CompletableFuture<ImageCollector.Result> collectOrphans() {
+        CompletableFuture<ImageCollector.Result> done = new CompletableFuture<>();
+        // with the durable store missing, nothing would be marked and everything swept
+        if (!ItemRepository.isDurable() || !collecting.compareAndSet(false, true)) {
+            done.complete(new ImageCollector.Result());
+            return done;
+        }
+        ImageCollector.Run run = collector.start(System.currentTimeMillis());
+        encoder.execute(() -> collectStep(run, done));
+        return done;
+    }
+
+    private void collectStep(ImageCollector.Run run, CompletableFuture<ImageCollector.Result> done) {
+        try {
+            if (run.step(COLLECT_BATCH)) {
+                encoder.execute(() -> collectStep(run, done));
+                return;
+            }
+            reclaimedBytes += run.result().bytesReclaimed;
+            done.complete(run.result());
+        } catch (IOException | RuntimeException e) {
+            run.close();
+            done.completeExceptionally(e);
+        }
+        collecting.set(false);
+    }
+
+    /** Bytes of orphaned photos deleted since the app started. */
+    public long reclaimedBytes() {
+        return reclaimedBytes;
+    }
+
+    // -------------------- worker side --------------------
+
+    private String withThumbnails(String path) {
+        // small/medium variants now, so lists never decode the full photo
+        thumbnails.generateAsync(path);
+        return path;
+    }
+
+    // encoded straight into a file and hashed on the way, then moved into the store
+    private String store(Bitmap bitmap) throws IOException {
+        File jpeg = newTempFile();
+        try {
+            String hash;
+            try (DigestOutputStream out = ContentHash.hashing(
+                    new BufferedOutputStream(new FileOutputStream(jpeg)))) {
+                if (!bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out)) {
+                    throw new IOException("JPEG encode failed");
+                }
+                hash = ContentHash.of(out);
+            }
+            return files.adopt(jpeg, hash).getAbsolutePath();
+        } finally {
+            jpeg.delete();
+        }
+    }
+
+    private String reencode(File source) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(source.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) throw new IOException("Not an image");
+
+        options.inJustDecodeBounds = false;
+        float scale = Math.min(1f, MAX_IMPORT_SIDE / (float) Math.max(options.outWidth, options.outHeight));
+        options.inSampleSize = ImageLoader.sampleSizeFor(options.outWidth, options.outHeight,
+                Math.round(options.outWidth * scale), Math.round(options.outHeight * scale));
+        Bitmap bitmap = BitmapFactory.decodeFile(source.getPath(), options);
+        if (bitmap == null) throw new IOException("Couldn't decode image");
+        try {
+            return store(bitmap);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    // in captures/, so moving it into the store is a rename; swept with stale captures if left behind
+    private File newTempFile() throws IOException {
+        captures.mkdirs();
+        return File.createTempFile("import_", ".tmp", captures);
+    }
+
+    private static boolean isJpeg(File file) throws IOException {
+        byte[] b = new byte[3];
+        try (InputStream in = new FileInputStream(file)) {
+            int n = 0;
+            int read;
+            while (n < b.length && (read = in.read(b, n, b.length - n)) > 0) n += read;
+            return n == b.length && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF;
+        }
+    }
+}
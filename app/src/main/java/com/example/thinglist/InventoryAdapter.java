@@ -0,0 +1,144 @@
+package com.example.thinglist;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Objects;
+
+/**
+ * Dashboard inventory rows. Rows are recycled through {@link RowHolder}s, and every
+ * {@link #submitList} is diffed against the previous list on a background thread, so a
+ * re-sort only moves rows and one new item only inserts one row.
+ *
+ * Items are immutable: a changed item is a new {@link InventoryItem} with the same id,
+ * which is how the diff tells "same row, new content" from "new row".
+ */
+final class InventoryAdapter extends ListAdapter<InventoryAdapter.InventoryItem, InventoryAdapter.RowHolder> {
+
+    interface OnItemClickListener {
+        void onItemClick(InventoryItem item);
+    }
+
+    private static final DiffUtil.ItemCallback<InventoryItem> DIFF =
+            new DiffUtil.ItemCallback<InventoryItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull InventoryItem a, @NonNull InventoryItem b) {
+                    return a.id == b.id;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull InventoryItem a, @NonNull InventoryItem b) {
+                    return a.equals(b);
+                }
+            };
+
+    private final OnItemClickListener clickListener;
+    // shared and cached: rows showing the same price get the same String
+    private final CurrencyFormatter currency = CurrencyFormatter.getDefault();
+
+    InventoryAdapter(OnItemClickListener clickListener) {
+        super(DIFF);
+        this.clickListener = clickListener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
+    }
+
+    @NonNull
+    @Override
+    public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View row = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_inventory_row, parent, false);
+        RowHolder holder = new RowHolder(row);
+        row.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                clickListener.onItemClick(getItem(position));
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+        InventoryItem item = getItem(position);
+        holder.name.setText(item.name);
+        holder.quantity.setText(String.valueOf(item.quantity));
+        holder.type.setText(item.type);
+        holder.description.setText(item.description);
+        holder.price.setText(currency.format(item.priceCents));
+    }
+
+    static final class RowHolder extends RecyclerView.ViewHolder {
+        final TextView name;
+        final TextView quantity;
+        final TextView type;
+        final TextView description;
+        final TextView price;
+
+        RowHolder(View row) {
+            super(row);
+            name        = row.findViewById(R.id.tvRowName);
+            quantity    = row.findViewById(R.id.tvRowQty);
+            type        = row.findViewById(R.id.tvRowType);
+            description = row.findViewById(R.id.tvRowDescription);
+            price       = row.findViewById(R.id.tvRowPrice);
+        }
+    }
+
+    // Simple model with imagePath
+    static final class InventoryItem {
+        final long id;            // repository id
+        final String name;
+        final int quantity;
+        final String type;
+        final String description;
+        final long priceCents;
+        final String imagePath;
+
+        InventoryItem(long id,
+                      String name,
+                      int quantity,
+                      String type,
+                      String description,
+                      long priceCents,
+                      String imagePath) {
+            this.id = id;
+            this.name = name;
+            this.quantity = quantity;
+            this.type = type;
+            this.description = description;
+            this.priceCents = priceCents;
+            this.imagePath = imagePath;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof InventoryItem)) return false;
+            InventoryItem other = (InventoryItem) o;
+            return id == other.id
+                    && quantity == other.quantity
+                    && priceCents == other.priceCents
+                    && Objects.equals(name, other.name)
+                    && Objects.equals(type, other.type)
+                    && Objects.equals(description, other.description)
+                    && Objects.equals(imagePath, other.imagePath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.thinglist;
+
+/**
+ * One entry in the repository's change feed: what happened to which item, and the
+ * snapshot version that first contains it. Items are identified by their stable id.
+ */
+public final class ItemChange {
+
+    public enum Type { INSERT, UPDATE, REMOVE }
+
+    public final long version;
+    public final Type type;
+    public final long id;
+    public final ThingItem item;   // new state for INSERT/UPDATE, null for REMOVE
+
+    ItemChange(long version, Type type, long id, ThingItem item) {
+        this.version = version;
+        this.type = type;
+        this.id = id;
+        this.item = item;
+    }
+}
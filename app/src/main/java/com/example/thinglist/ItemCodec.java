@@ -0,0 +1,132 @@
+package com.example.thinglist;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of a single item record, used by the on-disk item log.
+ *
+ * Payload layout: op (1 byte), id (8 bytes), then for PUT the item fields:
+ * name, description, price text, priceCents (long), quantity (int), dateAdded (long),
+ * location, status, imagePath.
+ * Strings are written as an int byte length followed by UTF-8 (-1 means null).
+ *
+ * Records written before the typed fields existed use {@link #OP_PUT_V1} (strings only).
+ * They still decode – the price text is parsed once at that point – and
+ * {@link #upgrade(byte[])} rewrites them in the current layout when a checkpoint is taken.
+ */
+final class ItemCodec {
+
+    static final byte OP_PUT_V1 = 1;   // legacy: six strings, no typed fields
+    static final byte OP_DELETE = 2;
+    static final byte OP_PUT    = 3;
+
+    private ItemCodec() { }
+
+    /** One decoded record: a PUT carries the item, a DELETE only the id. */
+    static final class Entry {
+        final byte op;
+        final long id;
+        final ThingItem item;
+
+        Entry(byte op, long id, ThingItem item) {
+            this.op = op;
+            this.id = id;
+            this.item = item;
+        }
+    }
+
+    static byte[] encodePut(ThingItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(OP_PUT);
+            out.writeLong(item.id);
+            writeString(out, item.name);
+            writeString(out, item.description);
+            writeString(out, item.price);
+            out.writeLong(item.priceCents);
+            out.writeInt(item.quantity);
+            out.writeLong(item.dateAdded);
+            writeString(out, item.location);
+            writeString(out, item.status);
+            writeString(out, item.imagePath);
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] encodeDelete(long id) {
+        return ByteBuffer.allocate(9).put(OP_DELETE).putLong(id).array();
+    }
+
+    /** Decodes a payload starting at the buffer's position. */
+    static Entry decode(ByteBuffer buf) {
+        byte op = buf.get();
+        long id = buf.getLong();
+        if (op == OP_DELETE) {
+            return new Entry(op, id, null);
+        }
+        ThingItem item;
+        if (op == OP_PUT) {
+            String name = readString(buf);
+            String description = readString(buf);
+            String price = readString(buf);
+            long priceCents = buf.getLong();
+            int quantity = buf.getInt();
+            long dateAdded = buf.getLong();
+            item = new ThingItem(name, description, price, priceCents, quantity, dateAdded,
+                    readString(buf), readString(buf), readString(buf));
+        } else if (op == OP_PUT_V1) {
+            String name = readString(buf);
+            String description = readString(buf);
+            String price = readString(buf);
+            // old records never stored a quantity or date: one of it, date unknown
+            item = new ThingItem(name, description, price, Money.parseCents(price), 1, 0L,
+                    readString(buf), readString(buf), readString(buf));
+        } else {
+            throw new IllegalArgumentException("Unknown record op " + op);
+        }
+        item.id = id;
+        return new Entry(OP_PUT, id, item);
+    }
+
+    /** Re-encodes a legacy PUT payload in the current layout; anything else is returned as-is. */
+    static byte[] upgrade(byte[] payload) {
+        if (payload == null || payload.length == 0 || payload[0] != OP_PUT_V1) {
+            return payload;
+        }
+        return encodePut(decode(ByteBuffer.wrap(payload)).item);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) return null;
+        if (len > buf.remaining()) {
+            throw new IllegalArgumentException("String length " + len + " past end of record");
+        }
+        if (buf.hasArray()) {
+            String s = new String(buf.array(), buf.arrayOffset() + buf.position(), len,
+                    StandardCharsets.UTF_8);
+            buf.position(buf.position() + len);
+            return s;
+        }
+        byte[] utf8 = new byte[len];
+        buf.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
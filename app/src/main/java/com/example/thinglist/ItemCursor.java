@@ -0,0 +1,65 @@
+package com.example.thinglist;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a sorted order: the sort value and id of the last item handed out.
+ * Paging resumes strictly after it, so items added or removed meanwhile never cause a
+ * page to repeat or skip anything that is still there.
+ *
+ * Serialized as the opaque continuation token {@link ItemPage#nextToken}.
+ */
+final class ItemCursor {
+
+    final SortIndex.Key key;      // null = id (insertion) order
+    final boolean descending;
+    final long id;
+    final String text;            // NAME/TYPE value
+    final long number;            // PRICE/QUANTITY value
+
+    private ItemCursor(SortIndex.Key key, boolean descending, long id, String text, long number) {
+        this.key = key;
+        this.descending = descending;
+        this.id = id;
+        this.text = text;
+        this.number = number;
+    }
+
+    /** Cursor just past {@code item} in the given order. */
+    static ItemCursor after(SortIndex.Key key, boolean descending, ThingItem item) {
+        String text = null;
+        long number = 0;
+        if (key == SortIndex.Key.NAME) text = item.name;
+        else if (key == SortIndex.Key.TYPE) text = item.status;
+        else if (key == SortIndex.Key.PRICE) number = item.priceCents;
+        else if (key == SortIndex.Key.QUANTITY) number = item.quantity;
+        return new ItemCursor(key, descending, item.id, text, number);
+    }
+
+    boolean isFor(SortIndex.Key key, boolean descending) {
+        return this.key == key && this.descending == descending;
+    }
+
+    String encode() {
+        String encodedText = text == null ? "" : Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(text.getBytes(StandardCharsets.UTF_8));
+        return (key == null ? "ID" : key.name()) + ':' + (descending ? 'd' : 'a') + ':'
+                + id + ':' + number + ':' + encodedText;
+    }
+
+    static ItemCursor decode(String token) {
+        String[] parts = token.split(":", -1);
+        if (parts.length != 5) throw new IllegalArgumentException("Bad page token " + token);
+        try {
+            SortIndex.Key key = "ID".equals(parts[0]) ? null : SortIndex.Key.valueOf(parts[0]);
+            String text = parts[4].isEmpty() ? null
+                    : new String(Base64.getUrlDecoder().decode(parts[4]), StandardCharsets.UTF_8);
+            return new ItemCursor(key, "d".equals(parts[1]), Long.parseLong(parts[2]), text,
+                    Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            // also covers NumberFormatException and bad base64
+            throw new IllegalArgumentException("Bad page token " + token, e);
+        }
+    }
+}
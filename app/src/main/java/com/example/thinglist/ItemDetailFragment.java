@@ -1,7 +1,5 @@
 package com.example.thinglist;
 
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
@@ -15,7 +13,6 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 
 public class ItemDetailFragment extends Fragment {
@@ -103,12 +100,9 @@ public class ItemDetailFragment extends Fragment {
         tvPrice.setText(isEmpty(price) ? "Purchase Price:" : price);
         tvLocation.setText(isEmpty(location) ? "Location:" : location);
 
-        // Bind image
+        // Bind image – decoded off the main thread at the view's size
         if (!TextUtils.isEmpty(imagePath)) {
-            Bitmap bmp = BitmapFactory.decodeFile(imagePath);
-            if (bmp != null) {
-                ivPhoto.setImageBitmap(bmp);
-            }
+            ImageLoader.get(requireContext()).load(getViewLifecycleOwner(), imagePath, ivPhoto);
         }
 
         // Tap to preview image fullscreen-ish
@@ -142,22 +136,8 @@ public class ItemDetailFragment extends Fragment {
     }
 
     private void showImagePreview() {
-        if (TextUtils.isEmpty(imagePath)) return;
-        Bitmap bmp = BitmapFactory.decodeFile(imagePath);
-        if (bmp == null) return;
-
-        ImageView iv = new ImageView(requireContext());
-        iv.setImageBitmap(bmp);
-        iv.setAdjustViewBounds(true);
-        iv.setScaleType(ImageView.ScaleType.FIT_CENTER);
-        int pad = (int) (16 * requireContext().getResources()
-                .getDisplayMetrics().density);
-        iv.setPadding(pad, pad, pad, pad);
-
-        new AlertDialog.Builder(requireContext())
-                .setView(iv)
-                .setPositiveButton("Close", null)
-                .show();
+        // zoomable, decoding only the visible part of the full-size photo
+        PhotoViewer.show(this, imagePath);
     }
 
     private boolean isEmpty(String s) {
@@ -0,0 +1,140 @@
+package com.example.thinglist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The secondary indexes of one {@link ItemStore}. Each is attached the first time it is
+ * asked for (which feeds it every current item once) and kept current by the store after that.
+ * Attaching walks the whole store, so {@link #buildAll} does it up front on a background
+ * thread; screens wait for that rather than attach on the main thread. An index the store
+ * dropped for throwing is built again, from scratch, the next time it's asked for.
+ */
+final class ItemIndexes {
+
+    private final ItemStore store;
+    private CategoryTotals totals;
+    private TextIndex text;
+    private QueryIndex query;
+    private SortIndex sort;
+
+    ItemIndexes(ItemStore store) {
+        this.store = store;
+    }
+
+    synchronized CategoryTotals totals() {
+        if (totals == null || !store.isAttached(totals)) {
+            totals = new CategoryTotals();
+            store.addIndex(totals);
+        }
+        return totals;
+    }
+
+    synchronized TextIndex text() {
+        if (text == null || !store.isAttached(text)) {
+            text = new TextIndex();
+            store.addIndex(text);
+        }
+        return text;
+    }
+
+    synchronized QueryIndex query() {
+        if (query == null || !store.isAttached(query)) {
+            query = new QueryIndex();
+            store.addIndex(query);
+        }
+        return query;
+    }
+
+    /** Sort orders collated for the current default locale; rebuilt if the user changes it. */
+    synchronized SortIndex sort() {
+        Locale locale = Locale.getDefault();
+        if (sort == null || !sort.locale().equals(locale) || !store.isAttached(sort)) {
+            if (sort != null) store.removeIndex(sort);
+            sort = new SortIndex(locale);
+            store.addIndex(sort);
+        }
+        return sort;
+    }
+
+    /** Attaches every index now. Blocks for a walk of the whole store per index. */
+    void buildAll() {
+        totals();
+        text();
+        query();
+        sort();
+    }
+
+    /**
+     * Count, quantity and value of exactly the items matching {@code q}. A filter on
+     * categories alone is read off the running totals; anything narrower (a search, say)
+     * adds up the matching items.
+     */
+    CategoryTotals.Sum sum(ItemQuery q) {
+        boolean categoriesOnly = q.text == null && q.location == null
+                && q.minPriceCents == Long.MIN_VALUE && q.maxPriceCents == Long.MAX_VALUE;
+        if (categoriesOnly) {
+            return q.statuses == null ? totals().overall() : totals().forCategories(q.statuses);
+        }
+        return CategoryTotals.sumOf(run(q), store.snapshot());
+    }
+
+    /** Ids matching {@code q}, in ascending (= insertion) order. */
+    IdBitmap run(ItemQuery q) {
+        return q.run(query(), text());
+    }
+
+    /**
+     * One keyset page of the items matching {@code q}, ordered by {@code key} (null = the
+     * order they were added, ascending only). {@code token} is null for the first page,
+     * otherwise the {@link ItemPage#nextToken} of the previous one.
+     */
+    ItemPage page(ItemQuery q, SortIndex.Key key, boolean descending, int pageSize, String token) {
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize " + pageSize);
+        if (key == null && descending) {
+            throw new IllegalArgumentException("Insertion order is ascending only");
+        }
+        ItemCursor after = token == null ? null : ItemCursor.decode(token);
+        if (after != null && !after.isFor(key, descending)) {
+            throw new IllegalArgumentException("Token is for a different order");
+        }
+
+        IdBitmap matches = run(q);
+        // one extra id tells us whether there is another page
+        long[] ids;
+        if (key == null) {
+            ids = new long[pageSize + 1];
+            int n = 0;
+            long next = matches.nextId(after == null ? 0 : after.id + 1);
+            while (next >= 0 && n < ids.length) {
+                ids[n++] = next;
+                next = matches.nextId(next + 1);
+            }
+            if (n < ids.length) ids = Arrays.copyOf(ids, n);
+        } else {
+            ids = sort().page(key, descending, after, pageSize + 1, matches);
+        }
+
+        // read after the indexes, and the store publishes a change before it tells them about
+        // it, so every id they returned is in here unless deleted since
+        ItemSnapshot snapshot = store.snapshot();
+        int count = Math.min(pageSize, ids.length);
+        List<ThingItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ThingItem item = snapshot.get(ids[i]);
+            if (item != null) items.add(item);
+        }
+
+        String next = null;
+        if (ids.length > pageSize) {
+            next = items.isEmpty()
+                    ? token   // the whole page was deleted under us: ask again from the same spot
+                    : ItemCursor.after(key, descending, items.get(items.size() - 1)).encode();
+        }
+        return new ItemPage(Collections.unmodifiableList(items), next, matches.cardinality(),
+                snapshot.version());
+    }
+}
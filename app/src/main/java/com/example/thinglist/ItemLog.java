@@ -0,0 +1,147 @@
+package com.example.thinglist;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record file behind ItemStore.
+ *
+ * Every record is framed as: payload length (int), CRC32 of the payload (int), payload.
+ * A torn write at the end of the file (crash mid-append) shows up as a short frame
+ * or a bad checksum; replay() stops there and truncates the file back to the last
+ * good record, so the store always reopens.
+ */
+final class ItemLog implements Closeable {
+
+    static final int FRAME_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    interface Visitor {
+        void onRecord(ItemCodec.Entry entry);
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+
+    /** Opens (or creates) the log, positioned for appending at the end. */
+    ItemLog(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Feeds every intact record to the visitor, in file order.
+     * Anything after the first damaged frame is cut off.
+     *
+     * @return number of records replayed
+     */
+    int replay(Visitor visitor) throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        int count = 0;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+
+        while (offset + FRAME_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, offset);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES
+                    || offset + FRAME_HEADER_BYTES + length > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, offset + FRAME_HEADER_BYTES);
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            payload.flip();
+            ItemCodec.Entry entry;
+            try {
+                entry = ItemCodec.decode(payload);
+            } catch (RuntimeException e) {
+                break;
+            }
+            visitor.onRecord(entry);
+            count++;
+            offset += FRAME_HEADER_BYTES + length;
+        }
+
+        if (offset < size) {
+            // Torn tail from an interrupted append – drop it.
+            channel.truncate(offset);
+            channel.force(true);
+        }
+        channel.position(offset);
+        return count;
+    }
+
+    /** Appends one record. Not durable until {@link #sync()}. */
+    void append(byte[] payload) throws IOException {
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+        frame.putInt(payload.length);
+        frame.putInt((int) crc.getValue());
+        frame.put(payload);
+        frame.flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    /** Drops everything after {@code size} and continues appending from there. */
+    void truncate(long size) throws IOException {
+        channel.truncate(size);
+        channel.position(size);
+    }
+
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    /** Copies the raw bytes from {@code from} to the end of this log into {@code target}. */
+    void copyTailTo(ItemLog target, long from) throws IOException {
+        long end = channel.size();
+        long pos = from;
+        while (pos < end) {
+            pos += channel.transferTo(pos, end - pos, target.channel);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer dst, long position) throws IOException {
+        while (dst.hasRemaining()) {
+            int n = channel.read(dst, position);
+            if (n < 0) throw new IOException("Unexpected end of " + file);
+            position += n;
+        }
+    }
+}
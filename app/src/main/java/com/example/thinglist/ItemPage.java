@@ -0,0 +1,26 @@
+package com.example.thinglist;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paged query (see {@link ItemRepository#page}). Pass
+ * {@link #nextToken} back to get the items that follow; it is null on the last page.
+ */
+public final class ItemPage {
+
+    public final List<ThingItem> items;   // unmodifiable, in the requested order
+    public final String nextToken;        // null = no more items
+    public final int totalMatches;        // items matching the query, across all pages
+    public final long version;            // snapshot version the items were read from
+
+    ItemPage(List<ThingItem> items, String nextToken, int totalMatches, long version) {
+        this.items = items;
+        this.nextToken = nextToken;
+        this.totalMatches = totalMatches;
+        this.version = version;
+    }
+
+    public boolean hasMore() {
+        return nextToken != null;
+    }
+}
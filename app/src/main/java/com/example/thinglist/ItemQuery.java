@@ -0,0 +1,122 @@
+package com.example.thinglist;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A combined filter over items, answered from the repository's bitmap indexes.
+ * Every predicate that is set must match (AND); leaving one out means "any".
+ *
+ * <pre>
+ * ItemQuery query = ItemQuery.builder()
+ *         .categories("Electronics", "Bags")   // item.status IN (...)
+ *         .priceBetween(1_000, 5_000)          // cents, inclusive
+ *         .location("Office")
+ *         .text("lamp")
+ *         .build();
+ * IdBitmap ids = ItemRepository.query(query);
+ * </pre>
+ *
+ * Categories match {@code ThingItem.status}, which is the dashboard's "type" and the
+ * vault's category.
+ */
+public final class ItemQuery {
+
+    public static final ItemQuery ALL = builder().build();
+
+    final Set<String> statuses;     // null = any
+    final String location;          // null = any
+    final long minPriceCents;
+    final long maxPriceCents;
+    final String text;              // null/blank = any
+
+    private ItemQuery(Builder b) {
+        this.statuses = b.statuses;
+        this.location = b.location;
+        this.minPriceCents = b.minPriceCents;
+        this.maxPriceCents = b.maxPriceCents;
+        this.text = b.text;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** A builder pre-filled with this query's predicates, to change one of them. */
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.statuses = statuses;
+        b.location = location;
+        b.minPriceCents = minPriceCents;
+        b.maxPriceCents = maxPriceCents;
+        b.text = text;
+        return b;
+    }
+
+    /** The matching ids: index lookups and bitmap intersections, no item is looked at. */
+    IdBitmap run(QueryIndex index, TextIndex textIndex) {
+        IdBitmap result = index.evaluate(this);
+        if (text != null && !result.isEmpty()) {
+            IdBitmap textMatches = textIndex.search(text);
+            if (textMatches != null) result.and(textMatches);
+        }
+        return result;
+    }
+
+    public static final class Builder {
+        private Set<String> statuses;
+        private String location;
+        private long minPriceCents = Long.MIN_VALUE;
+        private long maxPriceCents = Long.MAX_VALUE;
+        private String text;
+
+        private Builder() { }
+
+        /** Item status/type/category is one of these. No categories at all = any. */
+        public Builder categories(String... categories) {
+            return categories(Arrays.asList(categories));
+        }
+
+        public Builder categories(Collection<String> categories) {
+            this.statuses = categories == null || categories.isEmpty()
+                    ? null
+                    : new LinkedHashSet<>(categories);
+            return this;
+        }
+
+        /** Location equals this, ignoring case. Null or blank = any. */
+        public Builder location(String location) {
+            this.location = location == null || location.trim().isEmpty() ? null : location;
+            return this;
+        }
+
+        /** Price in cents within [min, max], both inclusive. */
+        public Builder priceBetween(long minCents, long maxCents) {
+            this.minPriceCents = minCents;
+            this.maxPriceCents = maxCents;
+            return this;
+        }
+
+        public Builder minPrice(long minCents) {
+            this.minPriceCents = minCents;
+            return this;
+        }
+
+        public Builder maxPrice(long maxCents) {
+            this.maxPriceCents = maxCents;
+            return this;
+        }
+
+        /** Every word must prefix a word of the name, description or location. */
+        public Builder text(String text) {
+            this.text = text == null || text.trim().isEmpty() ? null : text;
+            return this;
+        }
+
+        public ItemQuery build() {
+            return new ItemQuery(this);
+        }
+    }
+}
@@ -1,30 +1,234 @@
 package com.example.thinglist;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Very simple in-memory storage for items created in the app.
- * This is NOT persistent – it resets when the app process is killed,
- * but it's perfect for your class demo.
+ * App-wide access to the user's items.
+ * Backed by a durable {@link ItemStore} once {@link #init(File)} has been called
+ * (MainActivity does this on startup); before that it only keeps items in memory.
+ *
+ * Writes go through a {@link WriteBehindQueue}, so saving never blocks the caller on disk I/O.
  */
 public class ItemRepository {
 
-    private static final List<ThingItem> ITEMS = new ArrayList<>();
+    private static final String STORE_DIR = "items";
+
+    private static ItemStore store = ItemStore.inMemory();
+    private static WriteBehindQueue writes = startQueue(store);
+    private static boolean durable;
+    private static ItemIndexes indexes = new ItemIndexes(store);
+    private static CompletableFuture<Void> indexesReady = buildIndexes(indexes);
+
+    /** Opens the on-disk store under the app's files dir. Safe to call more than once. */
+    public static synchronized void init(File filesDir) {
+        if (durable) return;
+        try {
+            ItemStore opened = ItemStore.open(new File(filesDir, STORE_DIR));
+            writes.close();
+            store.close();
+            store = opened;
+            writes = startQueue(opened);
+            indexes = new ItemIndexes(opened);
+            indexesReady = buildIndexes(indexes);
+            durable = true;
+        } catch (IOException e) {
+            // keep running on the in-memory store rather than crash the app
+            e.printStackTrace();
+        }
+        seedIfNew();
+    }
+
+    /** Whether items live on disk – false if {@link #init} hasn't run or couldn't open the store. */
+    static synchronized boolean isDurable() {
+        return durable;
+    }
+
+    /** A store that has never held anything gets the demo inventory, once. */
+    private static void seedIfNew() {
+        if (store.snapshot().maxId() > 0) return;
+        for (ThingItem item : SampleData.inventory()) {
+            addItem(item);
+        }
+    }
+
+    /**
+     * Queues an insert/update and returns straight away. The item gets its id immediately;
+     * the future completes once it is on disk (or fails with the IOException).
+     */
+    public static CompletableFuture<ThingItem> save(ThingItem item) {
+        return queue().put(item);
+    }
+
+    /**
+     * Queues several items as one batch – a whole receipt, say. They're committed together,
+     * with one fsync, and show up in the next snapshot all at once.
+     */
+    public static CompletableFuture<List<ThingItem>> saveAll(List<ThingItem> items) {
+        return queue().putAll(items);
+    }
+
+    public static CompletableFuture<ThingItem> remove(long id) {
+        return queue().remove(id);
+    }
+
+    /** Barrier: completes once every write queued so far has been committed. */
+    public static CompletableFuture<Void> flush() {
+        return queue().flush();
+    }
 
     public static void addItem(ThingItem item) {
         if (item != null) {
-            ITEMS.add(item);
+            save(item).exceptionally(error -> {
+                error.printStackTrace();
+                return null;
+            });
         }
     }
 
+    /** Unmodifiable list of the current items. Cheap to call repeatedly while nothing changes. */
     public static List<ThingItem> getItems() {
-        // return a copy so callers don't accidentally modify internal list
-        return new ArrayList<>(ITEMS);
+        return store().items();
+    }
+
+    /**
+     * Current immutable, versioned view of the items. O(1) and lock-free; compare
+     * {@link ItemSnapshot#version()} with the last one you saw to skip redundant work.
+     */
+    public static ItemSnapshot snapshot() {
+        return store().snapshot();
+    }
+
+    /**
+     * Inserts/updates/removes committed after {@code version}, oldest first, or null if
+     * that is too far back and the caller should reload from {@link #snapshot()}.
+     */
+    public static List<ItemChange> changesSince(long version) {
+        return store().changesSince(version);
+    }
+
+    /** Listener runs on the writer thread; post to the main thread before touching views. */
+    public static void addChangeListener(ItemStore.ChangeListener listener) {
+        store().addChangeListener(listener);
+    }
+
+    public static void removeChangeListener(ItemStore.ChangeListener listener) {
+        store().removeChangeListener(listener);
     }
 
     public static void clear() {
-        ITEMS.clear();
+        for (ThingItem item : getItems()) {
+            remove(item.id);
+        }
+    }
+
+    /**
+     * Running count/quantity/value per category, updated by every write. The first call
+     * feeds it all current items; after that every read is O(1).
+     */
+    public static CategoryTotals totals() {
+        return indexes().totals();
+    }
+
+    /** Count, quantity and value of the items matching {@code query} – what a filtered list shows. */
+    public static CategoryTotals.Sum totals(ItemQuery query) {
+        return indexes().sum(query);
+    }
+
+    /**
+     * Full-text index over name, description and location (see {@link TextIndex}).
+     * Built on first use, then kept current by every write.
+     */
+    public static TextIndex textIndex() {
+        return indexes().text();
+    }
+
+    /** Items matching every word of {@code query} as a prefix, in id order. Blank query = everything. */
+    public static List<ThingItem> search(String query) {
+        ItemSnapshot snapshot = snapshot();
+        IdBitmap ids = textIndex().search(query);
+        if (ids == null) return snapshot.asList();
+        List<ThingItem> result = new ArrayList<>(ids.cardinality());
+        ids.forEach(id -> {
+            ThingItem item = snapshot.get(id);
+            if (item != null) result.add(item);
+            return true;
+        });
+        return result;
+    }
+
+    /** Sorted orders by name/type/price/quantity (see {@link SortIndex}). */
+    public static SortIndex sortIndex() {
+        return indexes().sort();
+    }
+
+    /**
+     * Ids of the items matching every predicate of {@code query}, ascending, answered by
+     * intersecting index bitmaps. Look the items up in {@link #snapshot()}.
+     */
+    public static IdBitmap query(ItemQuery query) {
+        return indexes().run(query);
+    }
+
+    /**
+     * Keyset paging: the next {@code pageSize} items matching {@code query} in {@code key}
+     * order (null = order added), after the position in {@code token} (null = first page).
+     * Only the page's items are looked up, so screens can load just what they show.
+     */
+    public static ItemPage page(ItemQuery query, SortIndex.Key key, boolean descending,
+                                int pageSize, String token) {
+        return indexes().page(query, key, descending, pageSize, token);
+    }
+
+    /**
+     * Completes once the totals, search, filter and sort indexes are built. Until then the
+     * methods that use them build what they need on the calling thread – a walk of the whole
+     * store – so the main thread should wait for this first.
+     */
+    public static synchronized CompletableFuture<Void> indexesReady() {
+        return indexesReady;
+    }
+
+    /** Writes a checkpoint in the background so the next cold start has little log to replay. */
+    public static void checkpoint() {
+        store().requestCheckpoint();
+    }
+
+    // off the main thread: the first screen's page then costs a lookup, not a store walk
+    private static CompletableFuture<Void> buildIndexes(ItemIndexes target) {
+        CompletableFuture<Void> built = new CompletableFuture<>();
+        Thread builder = new Thread(() -> {
+            try {
+                target.buildAll();
+                built.complete(null);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                built.completeExceptionally(e);
+            }
+        }, "ItemRepository-indexes");
+        builder.setDaemon(true);
+        builder.start();
+        return built;
+    }
+
+    private static WriteBehindQueue startQueue(ItemStore target) {
+        WriteBehindQueue queue = new WriteBehindQueue(target);
+        queue.start();
+        return queue;
+    }
+
+    private static synchronized ItemStore store() {
+        return store;
+    }
+
+    private static synchronized ItemIndexes indexes() {
+        return indexes;
+    }
+
+    private static synchronized WriteBehindQueue queue() {
+        return writes;
     }
 }
@@ -0,0 +1,132 @@
+package com.example.thinglist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable view of every item at one point in time, tagged with a version number that
+ * goes up with each committed write.
+ *
+ * Getting one from {@link ItemStore#snapshot()} is a single volatile read, and it stays
+ * valid no matter what is written afterwards, so screens can hold on to it, compare
+ * versions to skip redundant work, and read it from any thread without locking.
+ *
+ * The ThingItem objects themselves are shared, not copied: treat them as read-only and
+ * save a new object to change an item.
+ */
+public final class ItemSnapshot implements Iterable<ThingItem> {
+
+    /** Overlay value for an item that is in the checkpoint but was deleted afterwards. */
+    static final ThingItem TOMBSTONE = new ThingItem(null, null, null, null, null, null);
+
+    static final ItemSnapshot EMPTY =
+            new ItemSnapshot(0, null, PersistentIdMap.empty(), 0, 0);
+
+    private final long version;
+    private final CheckpointFile base;                 // may be null
+    private final PersistentIdMap<ThingItem> overlay;  // changes on top of base
+    private final long maxId;
+    private final int size;
+
+    // built on first asList() call; racing threads just build the same list twice
+    private volatile List<ThingItem> list;
+
+    ItemSnapshot(long version,
+                 CheckpointFile base,
+                 PersistentIdMap<ThingItem> overlay,
+                 long maxId,
+                 int size) {
+        this.version = version;
+        this.base = base;
+        this.overlay = overlay;
+        this.maxId = maxId;
+        this.size = size;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    long maxId() {
+        return maxId;
+    }
+
+    public ThingItem get(long id) {
+        ThingItem changed = overlay.get(id);
+        if (changed == TOMBSTONE) return null;
+        if (changed != null) return changed;
+        return base != null ? base.get(id) : null;
+    }
+
+    public boolean contains(long id) {
+        ThingItem changed = overlay.get(id);
+        if (changed != null) return changed != TOMBSTONE;
+        return base != null && base.contains(id);
+    }
+
+    /**
+     * Visits items in id (= insertion) order, decoding checkpointed ones as it goes,
+     * so stopping after the first few rows never touches the rest of the file.
+     */
+    public void scan(ItemStore.ItemVisitor visitor) {
+        for (long id = 1; id <= maxId; id++) {
+            ThingItem item = get(id);
+            if (item != null && !visitor.visit(item)) return;
+        }
+    }
+
+    /** Unmodifiable list of all items in id order, built once per snapshot. */
+    public List<ThingItem> asList() {
+        List<ThingItem> result = list;
+        if (result == null) {
+            List<ThingItem> built = new ArrayList<>(size);
+            scan(built::add);
+            result = Collections.unmodifiableList(built);
+            list = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<ThingItem> iterator() {
+        List<ThingItem> built = list;
+        if (built != null) return built.iterator();
+
+        return new Iterator<ThingItem>() {
+            private long nextId = 1;
+            private ThingItem next = advance();
+
+            private ThingItem advance() {
+                while (nextId <= maxId) {
+                    ThingItem item = get(nextId++);
+                    if (item != null) return item;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ThingItem next() {
+                if (next == null) throw new NoSuchElementException();
+                ThingItem current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+}
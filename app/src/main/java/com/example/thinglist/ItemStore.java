@@ -0,0 +1,570 @@
+package com.example.thinglist;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable item storage: a memory-mapped {@link CheckpointFile} with every item as of the
+ * last checkpoint, plus an append-only {@link ItemLog} of the changes made since.
+ *
+ * Reads go through {@link #snapshot()}, an immutable versioned view that is swapped in
+ * after every commit; readers never take the store lock. Writes are serialized on it.
+ *
+ * Opening the store maps the checkpoint and replays only the (short) log; items that
+ * live in the checkpoint are decoded when they are first read. Once the log grows past
+ * {@link #CHECKPOINT_LOG_BYTES} a new checkpoint is written on a background thread and
+ * the log is trimmed down to whatever was appended meanwhile, which also drops the dead
+ * records left behind by overwrites and deletes.
+ *
+ * A store opened with {@link #inMemory()} has no files and behaves like the old
+ * ArrayList-based repository.
+ */
+public class ItemStore implements Closeable {
+
+    static final String LOG_FILE        = "items.log";
+    static final String CHECKPOINT_FILE = "items.ckpt";
+    private static final String LOG_TMP        = "items.log.new";
+    private static final String CHECKPOINT_TMP = "items.ckpt.tmp";
+
+    /** Log size that triggers a background checkpoint. Bounds the replay work on cold start. */
+    static final long CHECKPOINT_LOG_BYTES = 256 * 1024;
+
+    private static final ThingItem TOMBSTONE = ItemSnapshot.TOMBSTONE;
+
+    /** How many recent changes {@link #changesSince} can hand out before callers must reload. */
+    static final int JOURNAL_CAPACITY = 1024;
+
+    /** Callback for {@link #scan}; return false to stop early. */
+    public interface ItemVisitor {
+        boolean visit(ThingItem item);
+    }
+
+    /**
+     * Told about every commit that changed something. Runs on the writing thread with
+     * the store locked, so keep it short (e.g. post to the main thread). Anything it throws
+     * is logged; the commit has happened regardless.
+     */
+    public interface ChangeListener {
+        void onItemsChanged(ItemSnapshot snapshot, List<ItemChange> changes);
+    }
+
+    /**
+     * Secondary structure kept in step with the items (totals, search, sort orders...).
+     * Called on the writing thread with the store locked, after the change is durable and
+     * published in {@link #snapshot()}; implementations guard their own state for readers. An index that throws is detached
+     * (see {@link #isAttached}) and has to be built again.
+     */
+    public interface Index {
+        /** {@code previous} is the replaced item, or null for an insert. */
+        void onPut(ThingItem previous, ThingItem item);
+
+        void onRemove(ThingItem previous);
+    }
+
+    private final File dir;
+    private ItemLog log;
+    private CheckpointFile base;
+
+    // Writer-side state, guarded by the store lock. Changes since the checkpoint, by id.
+    private PersistentIdMap<ThingItem> overlay = PersistentIdMap.empty();
+    private int liveCount;
+    // handed out by reserveId() without the store lock, so a caller never waits on a commit's fsync
+    private final AtomicLong nextId = new AtomicLong(1);
+    private long version;
+
+    // What readers see; replaced (never mutated) after each commit.
+    private volatile ItemSnapshot current = ItemSnapshot.EMPTY;
+
+    // Recent changes, oldest first. Holds every change with version > journalFloor, up to
+    // journalTop. Guarded by journalLock, not the store lock, so readers of the change feed
+    // never wait behind a commit's fsync.
+    private final Object journalLock = new Object();
+    private final ArrayDeque<ItemChange> journal = new ArrayDeque<>();
+    private long journalFloor;
+    private long journalTop;
+    private int indexesBuilding;    // while > 0 the journal isn't trimmed (see addIndex)
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // changed under the store lock; copy-on-write so isAttached() needn't take it
+    private final List<Index> indexes = new CopyOnWriteArrayList<>();
+
+    private boolean checkpointing;
+    private final Object checkpointLock = new Object();
+    private final ExecutorService background;
+
+    private ItemStore(File dir) {
+        this.dir = dir;
+        this.background = dir == null ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ItemStore-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Non-durable store, e.g. for tests or before the app has a files dir. */
+    public static ItemStore inMemory() {
+        return new ItemStore(null);
+    }
+
+    /** Opens the store in {@code dir}: maps the checkpoint and replays the log on top of it. */
+    public static ItemStore open(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        ItemStore store = new ItemStore(dir);
+
+        // Leftovers from a checkpoint that crashed before its renames; the live files are intact.
+        Files.deleteIfExists(new File(dir, CHECKPOINT_TMP).toPath());
+        Files.deleteIfExists(new File(dir, LOG_TMP).toPath());
+
+        store.base = CheckpointFile.open(new File(dir, CHECKPOINT_FILE));
+        if (store.base != null) {
+            store.nextId.set(store.base.maxId() + 1);
+            store.liveCount = store.base.liveCount();
+        }
+        store.log = new ItemLog(new File(dir, LOG_FILE));
+        store.log.replay(store::applyReplayed);
+        store.publish();
+        store.journalFloor = store.version;
+        store.journalTop = store.version;
+        return store;
+    }
+
+    // -------------------- reads --------------------
+
+    /** Current immutable view of all items. O(1), lock-free, safe from any thread. */
+    public ItemSnapshot snapshot() {
+        return current;
+    }
+
+    public ThingItem get(long id) {
+        return current.get(id);
+    }
+
+    /** See {@link ItemSnapshot#scan}. */
+    public void scan(ItemVisitor visitor) {
+        current.scan(visitor);
+    }
+
+    /** All live items in insertion order (unmodifiable). */
+    public List<ThingItem> items() {
+        return current.asList();
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    // -------------------- change feed --------------------
+
+    /**
+     * Every change committed after {@code version}, oldest first, or null if the journal
+     * no longer reaches back that far (the caller should then reload from a snapshot).
+     */
+    public List<ItemChange> changesSince(long version) {
+        synchronized (journalLock) {
+            if (version < journalFloor || version > journalTop) return null;
+            List<ItemChange> result = new ArrayList<>();
+            // newest entries are at the tail, so walk backwards and stop early
+            Iterator<ItemChange> it = journal.descendingIterator();
+            while (it.hasNext()) {
+                ItemChange change = it.next();
+                if (change.version <= version) break;
+                result.add(change);
+            }
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // -------------------- indexes --------------------
+
+    /**
+     * Attaches an index and feeds it every current item. That touches the whole store once,
+     * so call it off the main thread. The walk runs over a snapshot without the store lock –
+     * commits carry on meanwhile and are replayed into the index from the journal before
+     * it's attached, so the lock is only held for what changed during the walk.
+     */
+    public void addIndex(Index index) {
+        ItemSnapshot fed;
+        synchronized (this) {
+            fed = current;
+            indexesBuilding++;
+        }
+        try {
+            for (ThingItem item : fed) {
+                index.onPut(null, item);
+            }
+            synchronized (this) {
+                catchUp(index, fed);
+                indexes.add(index);
+            }
+        } finally {
+            synchronized (this) {
+                indexesBuilding--;
+            }
+        }
+    }
+
+    // replays into a freshly fed index whatever was committed after it was fed from
+    private void catchUp(Index index, ItemSnapshot fed) {
+        List<ItemChange> missed = changesSince(fed.version());
+        if (missed == null) throw new IllegalStateException("Journal trimmed while building an index");
+        // the index holds each item as of the latest change it has seen
+        Map<Long, ThingItem> seen = new HashMap<>();
+        for (ItemChange change : missed) {
+            ThingItem previous = seen.containsKey(change.id) ? seen.get(change.id) : fed.get(change.id);
+            if (change.type == ItemChange.Type.REMOVE) {
+                if (previous != null) index.onRemove(previous);
+            } else {
+                index.onPut(previous, change.item);
+            }
+            seen.put(change.id, change.item);
+        }
+    }
+
+    public synchronized void removeIndex(Index index) {
+        indexes.remove(index);
+    }
+
+    /** False once an index has been removed, or dropped for throwing during a commit. */
+    public boolean isAttached(Index index) {
+        return indexes.contains(index);
+    }
+
+    // -------------------- writes --------------------
+
+    /**
+     * Inserts or replaces an item. Items without an id get the next free one.
+     * Returns once the record is fsynced.
+     */
+    public synchronized ThingItem put(ThingItem item) throws IOException {
+        if (item.id <= 0) {
+            item.id = reserveId();
+        }
+        commit(Collections.singletonList(new ItemCodec.Entry(ItemCodec.OP_PUT, item.id, item)));
+        return item;
+    }
+
+    /** Deletes an item by id. Returns false if there was nothing to delete. */
+    public synchronized boolean remove(long id) throws IOException {
+        if (!contains(id)) return false;
+        commit(Collections.singletonList(new ItemCodec.Entry(ItemCodec.OP_DELETE, id, null)));
+        return true;
+    }
+
+    /**
+     * Hands out the next id without writing anything, for callers that need it before the
+     * commit. Lock-free: doesn't wait for a commit in progress.
+     */
+    long reserveId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Writes a batch of puts/deletes with a single fsync (group commit), then applies them
+     * in order. Either the whole batch reaches the index or none of it does; once the fsync
+     * is done the commit has happened and this doesn't throw.
+     */
+    synchronized void commit(List<ItemCodec.Entry> batch) throws IOException {
+        if (log != null) {
+            long mark = log.size();
+            try {
+                for (ItemCodec.Entry entry : batch) {
+                    log.append(entry.op == ItemCodec.OP_PUT
+                            ? ItemCodec.encodePut(entry.item)
+                            : ItemCodec.encodeDelete(entry.id));
+                }
+                log.sync();
+            } catch (IOException e) {
+                // don't let a later fsync make half of this batch durable
+                try {
+                    log.truncate(mark);
+                } catch (IOException ignored) { }
+                throw e;
+            }
+        }
+        long newVersion = version + 1;
+        List<ItemChange> changes = new ArrayList<>(batch.size());
+        // what each change replaced, for the indexes
+        List<ThingItem> previous = indexes.isEmpty() ? null : new ArrayList<>(batch.size());
+        for (ItemCodec.Entry entry : batch) {
+            // keep our own copy so callers can't change stored items (and indexes) behind our back
+            ThingItem stored = entry.op == ItemCodec.OP_PUT ? entry.item.copy() : null;
+            ThingItem replaced = previous == null ? null : lookup(entry.id);
+            ItemChange.Type type = stored != null
+                    ? applyPut(stored)
+                    : applyDelete(entry.id);
+            if (type != null) {
+                changes.add(new ItemChange(newVersion, type, entry.id, stored));
+                if (previous != null) previous.add(replaced);
+            }
+        }
+        if (!changes.isEmpty()) {
+            // journal first: any version a reader can see is already in the change feed
+            record(changes, newVersion);
+            publish();
+            // indexes last: any id an index hands out is in the snapshot read after it
+            if (previous != null) {
+                for (int i = 0; i < changes.size(); i++) {
+                    for (Index index : indexes) {
+                        update(index, previous.get(i), changes.get(i).item);
+                    }
+                }
+            }
+            for (ChangeListener listener : listeners) {
+                try {
+                    listener.onItemsChanged(current, changes);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        maybeScheduleCheckpoint();
+    }
+
+    // The batch is on disk by now, so nothing past this point may fail the commit: an index
+    // that throws is detached instead, since it's no longer in step with the items.
+    private void update(Index index, ThingItem previous, ThingItem stored) {
+        try {
+            if (stored != null) {
+                index.onPut(previous, stored);
+            } else {
+                index.onRemove(previous);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            indexes.remove(index);
+        }
+    }
+
+    public synchronized void clear() throws IOException {
+        List<ItemCodec.Entry> deletes = new ArrayList<>();
+        for (ThingItem item : current) {
+            deletes.add(new ItemCodec.Entry(ItemCodec.OP_DELETE, item.id, null));
+        }
+        if (!deletes.isEmpty()) commit(deletes);
+    }
+
+    private boolean contains(long id) {
+        ThingItem changed = overlay.get(id);
+        if (changed != null) return changed != TOMBSTONE;
+        return base != null && base.contains(id);
+    }
+
+    /** Current item with this id as the writer sees it (may be ahead of the published snapshot). */
+    private ThingItem lookup(long id) {
+        ThingItem changed = overlay.get(id);
+        if (changed != null) return changed == TOMBSTONE ? null : changed;
+        return base != null ? base.get(id) : null;
+    }
+
+    private ItemChange.Type applyPut(ThingItem item) {
+        boolean existed = contains(item.id);
+        if (!existed) liveCount++;
+        overlay = overlay.with(item.id, item);
+        bumpNextId(item.id);
+        return existed ? ItemChange.Type.UPDATE : ItemChange.Type.INSERT;
+    }
+
+    private ItemChange.Type applyDelete(long id) {
+        if (!contains(id)) return null;
+        liveCount--;
+        overlay = overlay.with(id, base != null && base.contains(id) ? TOMBSTONE : null);
+        return ItemChange.Type.REMOVE;
+    }
+
+    // ids come from outside too (replay, reserved ids), so never hand one out twice
+    private void bumpNextId(long id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    private void publish() {
+        current = new ItemSnapshot(++version, base, overlay, nextId.get() - 1, liveCount);
+    }
+
+    private void record(List<ItemChange> changes, long newVersion) {
+        synchronized (journalLock) {
+            journal.addAll(changes);
+            journalTop = newVersion;
+            while (journal.size() > JOURNAL_CAPACITY && indexesBuilding == 0) {
+                journalFloor = journal.removeFirst().version;
+            }
+        }
+    }
+
+    private void applyReplayed(ItemCodec.Entry entry) {
+        if (entry.op == ItemCodec.OP_PUT) {
+            applyPut(entry.item);
+        } else {
+            applyDelete(entry.id);
+            bumpNextId(entry.id);
+        }
+    }
+
+    // -------------------- checkpoint --------------------
+
+    /** Schedules a checkpoint on the background thread if there is anything in the log. */
+    public void requestCheckpoint() {
+        synchronized (this) {
+            if (log == null || checkpointing || overlay.isEmpty()) return;
+            checkpointing = true;
+        }
+        runCheckpointInBackground();
+    }
+
+    private void maybeScheduleCheckpoint() throws IOException {
+        if (log == null || checkpointing) return;
+        if (log.size() < CHECKPOINT_LOG_BYTES) return;
+        checkpointing = true;
+        runCheckpointInBackground();
+    }
+
+    private void runCheckpointInBackground() {
+        background.execute(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Writes every live item to a new checkpoint, then trims the log down to the records
+     * appended while that was happening. The checkpoint itself is written without holding
+     * the store lock; unchanged records are copied over from the old checkpoint as raw bytes.
+     *
+     * Crash safety: the checkpoint is renamed into place before the log is replaced, and
+     * replaying a log that is older than the checkpoint just re-applies the same puts and
+     * deletes, so every intermediate state reopens to the same items.
+     */
+    void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            PersistentIdMap<ThingItem> changes;
+            CheckpointFile oldBase;
+            long maxId;
+            long mark;
+            synchronized (this) {
+                if (log == null) return;
+                checkpointing = true;
+                changes = overlay;   // immutable, no copy needed
+                oldBase = base;
+                maxId = nextId.get() - 1;
+                mark = log.size();
+            }
+
+            try {
+                File tmp = new File(dir, CHECKPOINT_TMP);
+                CheckpointFile.write(tmp, maxId, id -> {
+                    ThingItem changed = changes.get(id);
+                    if (changed == TOMBSTONE) return null;
+                    if (changed != null) return ItemCodec.encodePut(changed);
+                    // unchanged records are copied raw; legacy ones get migrated on the way
+                    return oldBase != null ? ItemCodec.upgrade(oldBase.payload(id)) : null;
+                });
+
+                synchronized (this) {
+                    if (log == null) return;   // closed meanwhile
+
+                    // Records appended since the mark become the whole new log.
+                    File newLog = new File(dir, LOG_TMP);
+                    Files.deleteIfExists(newLog.toPath());
+                    try (ItemLog trimmed = new ItemLog(newLog)) {
+                        log.copyTailTo(trimmed, mark);
+                        trimmed.sync();
+                    }
+
+                    File logFile = log.getFile();
+                    File checkpointFile = new File(dir, CHECKPOINT_FILE);
+                    log.close();
+                    Files.move(tmp.toPath(), checkpointFile.toPath(),
+                            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(newLog.toPath(), logFile.toPath(),
+                            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    syncDirectory();
+
+                    base = CheckpointFile.open(checkpointFile);
+                    if (oldBase != null) oldBase.close();
+
+                    // Rebuild the overlay from the trimmed log; everything else is in the checkpoint now.
+                    PersistentIdMap<ThingItem> rebuilt = PersistentIdMap.empty();
+                    log = new ItemLog(logFile);
+                    List<ItemCodec.Entry> tail = new ArrayList<>();
+                    log.replay(tail::add);
+                    for (ItemCodec.Entry entry : tail) {
+                        ThingItem value = entry.op == ItemCodec.OP_PUT ? entry.item
+                                : base.contains(entry.id) ? TOMBSTONE : null;
+                        rebuilt = rebuilt.with(entry.id, value);
+                    }
+                    overlay = rebuilt;
+
+                    // Same items as before, just stored differently, so the version stays put.
+                    current = new ItemSnapshot(version, base, overlay, nextId.get() - 1, liveCount);
+                }
+            } finally {
+                synchronized (this) {
+                    checkpointing = false;
+                }
+            }
+        }
+    }
+
+    /** Waits for a queued or running background checkpoint, if any. Mostly for tests. */
+    void awaitBackgroundWork() throws InterruptedException {
+        if (background == null) return;
+        try {
+            background.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void syncDirectory() {
+        // Makes the renames themselves durable. Not every platform lets us open a directory.
+        try (FileChannel d = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException ignored) { }
+    }
+
+    // -------------------- lifecycle --------------------
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (background != null) {
+            background.shutdown();
+        }
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+        if (base != null) {
+            base.close();
+            base = null;
+        }
+    }
+}
@@ -34,6 +34,9 @@ public class MainActivity extends AppCompatActivity {
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_main);
 
+        // Load saved items from disk before any screen asks for them
+        ItemRepository.init(getFilesDir());
+
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
             Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
             v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
@@ -51,6 +54,25 @@ public class MainActivity extends AppCompatActivity {
         // First screen: Login (navbar hidden)
         if (savedInstanceState == null) {
             openFragment(new LoginFragment());
+            // once per launch: clear out photos from retakes, abandoned edits and deleted items
+            ImageStore.get(this).collectOrphans();
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // App going to the background – make sure queued saves hit the disk,
+        // then fold the log into a checkpoint
+        ItemRepository.flush().thenRun(ItemRepository::checkpoint);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // decoded and pooled photos are the easiest memory to give back – they reload on demand
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            ImageLoader.get(this).clearMemory();
         }
     }
 
@@ -0,0 +1,45 @@
+package com.example.thinglist;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Helpers for prices kept as a whole number of minor currency units (cents).
+ * Parsing happens once, when an item is saved; everything after that is long math.
+ */
+public final class Money {
+
+    private Money() { }
+
+    /**
+     * Parses user-typed price text like "19.99", "$1,200" or " 45 " into cents.
+     * Anything after the second decimal is rounded half-up. Unparseable or empty text is 0.
+     */
+    public static long parseCents(String text) {
+        if (text == null) return 0;
+        StringBuilder clean = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '.' || c == '-') {
+                clean.append(c);
+            }
+            // currency symbols, grouping commas and spaces are dropped
+        }
+        if (clean.length() == 0) return 0;
+        try {
+            return new BigDecimal(clean.toString())
+                    .movePointRight(2)
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    /** Plain "1234.50" style text for cents, e.g. to pre-fill an edit field. */
+    public static String toPlainString(long cents) {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "-" : "") + (abs / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.thinglist;
+
+/**
+ * Immutable sparse array keyed by item id: a 32-way trie where every update copies only
+ * the nodes on the path to the changed slot (about log32(n) small arrays) and shares the
+ * rest with the previous version. Old versions stay valid forever, which is what lets
+ * readers hold on to an {@link ItemSnapshot} without locking.
+ */
+final class PersistentIdMap<V> {
+
+    private static final int BITS  = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK  = WIDTH - 1;
+
+    private static final PersistentIdMap<Object> EMPTY =
+            new PersistentIdMap<>(new Object[WIDTH], 0, 0);
+
+    private final Object[] root;
+    private final int shift;    // bits consumed above the leaf level
+    private final int count;    // non-null slots
+
+    private PersistentIdMap(Object[] root, int shift, int count) {
+        this.root = root;
+        this.shift = shift;
+        this.count = count;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIdMap<V> empty() {
+        return (PersistentIdMap<V>) EMPTY;
+    }
+
+    int size() {
+        return count;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long id) {
+        if (id < 0 || id >= capacity(shift)) return null;
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(int) ((id >>> level) & MASK)];
+            if (node == null) return null;
+        }
+        return (V) node[(int) (id & MASK)];
+    }
+
+    /** Returns a map with {@code id} set to {@code value} (null clears the slot). */
+    PersistentIdMap<V> with(long id, V value) {
+        if (id < 0) throw new IllegalArgumentException("Negative id " + id);
+
+        Object[] newRoot = root;
+        int newShift = shift;
+        while (id >= capacity(newShift)) {
+            if (value == null) return this;   // clearing a slot we don't have
+            Object[] taller = new Object[WIDTH];
+            taller[0] = newRoot;
+            newRoot = taller;
+            newShift += BITS;
+        }
+
+        Object old = get(id);
+        if (old == value) return this;
+        int newCount = count + (old == null ? 1 : 0) - (value == null ? 1 : 0);
+        return new PersistentIdMap<>(assoc(newRoot, newShift, id, value), newShift, newCount);
+    }
+
+    private static Object[] assoc(Object[] node, int level, long id, Object value) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        int slot = (int) ((id >>> level) & MASK);
+        if (level == 0) {
+            copy[slot] = value;
+        } else {
+            copy[slot] = assoc((Object[]) copy[slot], level - BITS, id, value);
+        }
+        return copy;
+    }
+
+    private static long capacity(int shift) {
+        int bits = shift + BITS;
+        return bits >= 63 ? Long.MAX_VALUE : 1L << bits;
+    }
+}
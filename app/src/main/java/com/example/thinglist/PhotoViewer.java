@@ -0,0 +1,32 @@
+package com.example.thinglist;
+
+import android.app.Dialog;
+import android.content.Context;
+import android.text.TextUtils;
+
+import androidx.fragment.app.Fragment;
+
+/**
+ * Full-screen, zoomable view of an item photo ({@link TiledImageView}). Opens on a
+ * screen-sized preview and sharpens tile by tile as the user zooms in. Tap or back closes it.
+ */
+final class PhotoViewer {
+
+    private PhotoViewer() { }
+
+    static void show(Fragment fragment, String imagePath) {
+        if (TextUtils.isEmpty(imagePath)) return;
+        Context context = fragment.requireContext();
+        // the preview belongs to the fragment's view, which outlives the dialog
+        ImageLoader.get(context).loadFullScreen(fragment.getViewLifecycleOwner(), imagePath, preview -> {
+            if (preview == null || !fragment.isAdded()) return;
+
+            TiledImageView viewer = new TiledImageView(context);
+            viewer.setImage(imagePath, preview);
+            Dialog dialog = new Dialog(context, android.R.style.Theme_Black_NoTitleBar_Fullscreen);
+            dialog.setContentView(viewer);
+            viewer.setOnClickListener(v -> dialog.dismiss());
+            dialog.show();
+        });
+    }
+}
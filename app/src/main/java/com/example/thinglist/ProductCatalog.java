@@ -0,0 +1,175 @@
+package com.example.thinglist;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped catalog of products by GTIN (the number in an EAN-13, UPC-A or
+ * EAN-8 barcode), built offline by {@link ProductCatalogBuilder}.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header:  magic (int), format (int), record count (int), record size (int)
+ *   records: fixed width, sorted by GTIN, no duplicates
+ *            GTIN (long), price in cents (long),
+ *            name (1 length byte + up to 63 bytes UTF-8),
+ *            description (1 length byte + up to 111 bytes UTF-8)
+ * </pre>
+ * Fixed-width records make a lookup a plain binary search over the mapping: {@link #find}
+ * reads a long per step and allocates nothing, so it costs the same few page touches for
+ * a thousand products or ten million. Only the product that's found is turned into objects.
+ */
+final class ProductCatalog implements Closeable {
+
+    private static final int MAGIC  = 0x544C5043; // "TLPC"
+    private static final int FORMAT = 1;
+    static final int HEADER_BYTES = 4 + 4 + 4 + 4;
+
+    static final int NAME_BYTES = 64;
+    static final int DESCRIPTION_BYTES = 112;
+    private static final int GTIN_AT = 0;
+    private static final int PRICE_AT = 8;
+    private static final int NAME_AT = 16;
+    private static final int DESCRIPTION_AT = NAME_AT + NAME_BYTES;
+    static final int RECORD_BYTES = DESCRIPTION_AT + DESCRIPTION_BYTES;
+
+    /** One catalog entry. */
+    static final class Product {
+        final long gtin;
+        final String name;
+        final String description;
+        final long priceCents;
+
+        Product(long gtin, String name, String description, long priceCents) {
+            this.gtin = gtin;
+            this.name = name;
+            this.description = description;
+            this.priceCents = priceCents;
+        }
+
+        @Override
+        public String toString() {
+            return gtin + " " + name + " (" + Money.toPlainString(priceCents) + ")";
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int count;
+
+    private ProductCatalog(FileChannel channel, MappedByteBuffer map, int count) {
+        this.channel = channel;
+        this.map = map;
+        this.count = count;
+    }
+
+    /** Maps an existing catalog, or returns null if the file is missing. */
+    static ProductCatalog open(File file) throws IOException {
+        if (!file.exists()) return null;
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Catalog too short: " + file);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != FORMAT) {
+                throw new IOException("Not a product catalog: " + file);
+            }
+            int count = map.getInt(8);
+            if (map.getInt(12) != RECORD_BYTES || count < 0
+                    || HEADER_BYTES + (long) count * RECORD_BYTES != size) {
+                throw new IOException("Catalog length mismatch: " + file);
+            }
+            return new ProductCatalog(channel, map, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** The header for a catalog of {@code count} records, for the builder. */
+    static ByteBuffer header(int count) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(FORMAT).putInt(count).putInt(RECORD_BYTES);
+        header.flip();
+        return header;
+    }
+
+    int size() {
+        return count;
+    }
+
+    // -------------------- lookup --------------------
+
+    /** Index of the record for {@code gtin}, or -1. No allocation; safe from any thread. */
+    int find(long gtin) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long at = map.getLong(HEADER_BYTES + mid * RECORD_BYTES + GTIN_AT);
+            if (at < gtin) {
+                low = mid + 1;
+            } else if (at > gtin) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /** The product for a scanned barcode's text, or null if it isn't a GTIN or isn't listed. */
+    Product lookup(CharSequence barcode) {
+        long gtin = gtinOf(barcode);
+        int index = gtin < 0 ? -1 : find(gtin);
+        return index < 0 ? null : product(index);
+    }
+
+    Product product(int index) {
+        int record = HEADER_BYTES + index * RECORD_BYTES;
+        return new Product(map.getLong(record + GTIN_AT),
+                text(record + NAME_AT),
+                text(record + DESCRIPTION_AT),
+                map.getLong(record + PRICE_AT));
+    }
+
+    long gtin(int index) {
+        return map.getLong(HEADER_BYTES + index * RECORD_BYTES + GTIN_AT);
+    }
+
+    private String text(int offset) {
+        int length = map.get(offset) & 0xFF;
+        byte[] bytes = new byte[length];
+        ByteBuffer field = map.duplicate();     // own position, so lookups can run in parallel
+        field.position(offset + 1);
+        field.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The GTIN in a barcode's text: 8 to 14 digits, read as a number, so a UPC-A and the
+     * same code as a 0-prefixed EAN-13 or GTIN-14 are the same key. -1 for anything else.
+     */
+    static long gtinOf(CharSequence text) {
+        int length = text.length();
+        if (length < 8 || length > 14) return -1;
+        long gtin = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            gtin = gtin * 10 + (c - '0');
+        }
+        return gtin;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.thinglist;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds a {@link ProductCatalog} file from CSV, offline – on a desktop, not on the phone:
+ * <pre>
+ *   java -cp app/build/intermediates/javac/debug/classes \
+ *        com.example.thinglist.ProductCatalogBuilder products.csv products.bin
+ * </pre>
+ * Columns are {@code gtin,name,description,price}, optionally under a header line; fields
+ * may be quoted, with {@code ""} for a quote inside. Rows without a valid GTIN are skipped,
+ * and the first row wins when a GTIN repeats. Names and descriptions longer than their
+ * fixed slots are cut at a character boundary.
+ *
+ * Rows are written out fixed-width as they're read, then put in GTIN order through the
+ * mapping; only the GTINs and the sort order (20 bytes a row) are held in memory, so a catalog of
+ * millions of rows builds in a small heap.
+ */
+final class ProductCatalogBuilder {
+
+    /** How a build went. */
+    static final class Stats {
+        int rows;
+        int skipped;
+        int duplicates;
+
+        @Override
+        public String toString() {
+            return rows + " products, " + skipped + " rows skipped, " + duplicates + " duplicates dropped";
+        }
+    }
+
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - ProductCatalog.HEADER_BYTES)
+            / ProductCatalog.RECORD_BYTES;
+
+    private ProductCatalogBuilder() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ProductCatalogBuilder <products.csv> <catalog.bin>");
+            System.exit(2);
+        }
+        try (Reader csv = Files.newBufferedReader(new File(args[0]).toPath(), StandardCharsets.UTF_8)) {
+            System.out.println(build(csv, new File(args[1])));
+        }
+    }
+
+    /**
+     * Reads every row of {@code csv} and writes the catalog to {@code out}, via a temp file
+     * renamed into place once it's synced.
+     */
+    static Stats build(Reader csv, File out) throws IOException {
+        Stats stats = new Stats();
+        File unsorted = new File(out.getPath() + ".rows");
+        File tmp = new File(out.getPath() + ".tmp");
+        try {
+            long[] gtins = writeRows(csv, unsorted, stats);
+            writeSorted(unsorted, gtins, tmp, stats);
+            Files.move(tmp.toPath(), out.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            unsorted.delete();
+            tmp.delete();
+        }
+        return stats;
+    }
+
+    // -------------------- pass 1: rows as read --------------------
+
+    private static long[] writeRows(Reader csv, File unsorted, Stats stats) throws IOException {
+        long[] gtins = new long[1024];
+        int count = 0;
+        BufferedReader lines = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+        ByteBuffer pending = ByteBuffer.allocate(ProductCatalog.RECORD_BYTES * 512);
+        List<String> fields = new ArrayList<>(4);
+        boolean first = true;
+
+        try (FileChannel rows = FileChannel.open(unsorted.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (readRow(lines, fields)) {
+                if (fields.size() == 1 && fields.get(0).trim().isEmpty()) continue;    // blank line
+                long gtin = ProductCatalog.gtinOf(fields.get(0).trim());
+                if (gtin < 0) {
+                    if (!first) stats.skipped++;        // the first line may be a header
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if (count == MAX_RECORDS) throw new IOException("More than " + MAX_RECORDS + " products");
+                if (count == gtins.length) gtins = Arrays.copyOf(gtins, count * 2);
+                gtins[count++] = gtin;
+
+                if (pending.remaining() < ProductCatalog.RECORD_BYTES) {
+                    pending.flip();
+                    writeFully(rows, pending);
+                    pending.clear();
+                }
+                putRecord(pending, gtin,
+                        field(fields, 1), field(fields, 2), Money.parseCents(field(fields, 3)));
+            }
+            pending.flip();
+            writeFully(rows, pending);
+        }
+        return Arrays.copyOf(gtins, count);
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    private static void putRecord(ByteBuffer out, long gtin, String name, String description, long priceCents) {
+        out.putLong(gtin).putLong(priceCents);
+        putText(out, name, ProductCatalog.NAME_BYTES);
+        putText(out, description, ProductCatalog.DESCRIPTION_BYTES);
+    }
+
+    // length byte, UTF-8, zero padding to the slot's width
+    private static void putText(ByteBuffer out, String text, int slot) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, slot - 1);
+        // don't split a multi-byte character: back up over continuation bytes
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) length--;
+        out.put((byte) length).put(bytes, 0, length);
+        for (int i = 1 + length; i < slot; i++) out.put((byte) 0);
+    }
+
+    /**
+     * Reads one CSV row into {@code fields}; false at the end of input. A quoted field may
+     * run over several lines.
+     */
+    static boolean readRow(BufferedReader in, List<String> fields) throws IOException {
+        fields.clear();
+        String line = in.readLine();
+        if (line == null) return false;
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) break;
+                line = in.readLine();       // newline inside quotes
+                if (line == null) break;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return true;
+    }
+
+    // -------------------- pass 2: GTIN order --------------------
+
+    private static void writeSorted(File unsorted, long[] gtins, File tmp, Stats stats) throws IOException {
+        int[] order = new int[gtins.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        sort(gtins.clone(), order, 0, order.length - 1);
+
+        try (FileChannel in = FileChannel.open(unsorted.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            MappedByteBuffer rows = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            ByteBuffer record = rows.duplicate();
+            ByteBuffer pending = ByteBuffer.allocate(ProductCatalog.RECORD_BYTES * 512);
+
+            out.position(ProductCatalog.HEADER_BYTES);
+            int written = 0;
+            long previous = -1;
+            for (int row : order) {
+                if (gtins[row] == previous) {
+                    stats.duplicates++;         // sorted by row too, so the first one is kept
+                    continue;
+                }
+                previous = gtins[row];
+                if (pending.remaining() < ProductCatalog.RECORD_BYTES) {
+                    pending.flip();
+                    writeFully(out, pending);
+                    pending.clear();
+                }
+                int at = row * ProductCatalog.RECORD_BYTES;
+                record.limit(at + ProductCatalog.RECORD_BYTES).position(at);
+                pending.put(record);
+                written++;
+            }
+            pending.flip();
+            writeFully(out, pending);
+
+            out.position(0);
+            writeFully(out, ProductCatalog.header(written));
+            out.force(true);
+            stats.rows = written;
+        }
+    }
+
+    // quicksort of rows by (gtin, row); keys moves along with order
+    private static void sort(long[] keys, int[] order, int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            long pivotKey = keys[mid];
+            int pivotRow = order[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (less(keys[i], order[i], pivotKey, pivotRow)) i++;
+                while (less(pivotKey, pivotRow, keys[j], order[j])) j--;
+                if (i <= j) swap(keys, order, i++, j--);
+            }
+            // recurse into the smaller side, loop on the bigger one
+            if (j - low < high - i) {
+                sort(keys, order, low, j);
+                low = i;
+            } else {
+                sort(keys, order, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && less(keys[j], order[j], keys[j - 1], order[j - 1]); j--) {
+                swap(keys, order, j, j - 1);
+            }
+        }
+    }
+
+    private static boolean less(long key, int row, long otherKey, int otherRow) {
+        return key < otherKey || (key == otherKey && row < otherRow);
+    }
+
+    private static void swap(long[] keys, int[] order, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int row = order[a];
+        order[a] = order[b];
+        order[b] = row;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.thinglist;
+
+import android.content.Context;
+import android.os.Process;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Finds the product behind a scanned barcode in the offline {@link ProductCatalog}.
+ *
+ * The catalog lives at {@code files/catalog/products.bin}. An APK can't map its assets
+ * (they're compressed), so a {@code products.bin} shipped in assets is copied there on
+ * first use; with neither, every lookup finds nothing. The catalog is opened once and
+ * stays mapped. Lookups run on a background thread, since the first touches of a cold
+ * mapping read from flash.
+ */
+public final class ProductLookup {
+
+    private static final String ASSET = "products.bin";
+
+    private static ProductLookup instance;
+
+    private final Context appContext;
+    private final File file;
+    private final ExecutorService worker;
+    private ProductCatalog catalog;      // worker thread only
+    private boolean opened;
+
+    private ProductLookup(Context appContext) {
+        this.appContext = appContext;
+        file = new File(new File(appContext.getFilesDir(), "catalog"), ASSET);
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "ProductLookup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized ProductLookup get(Context context) {
+        if (instance == null) {
+            instance = new ProductLookup(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** The catalog entry for a barcode's text, or null if it isn't listed (or there's no catalog). */
+    CompletableFuture<ProductCatalog.Product> lookup(String barcode) {
+        return CompletableFuture.supplyAsync(() -> {
+            ProductCatalog catalog = catalog();
+            return catalog != null ? catalog.lookup(barcode) : null;
+        }, worker);
+    }
+
+    private ProductCatalog catalog() {
+        if (!opened) {
+            opened = true;
+            try {
+                if (!file.exists()) copyFromAssets();
+                catalog = ProductCatalog.open(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return catalog;
+    }
+
+    private void copyFromAssets() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (InputStream in = appContext.getAssets().open(ASSET)) {
+            file.getParentFile().mkdirs();
+            Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel synced = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE)) {
+                synced.force(true);     // whole before it gets the real name
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileNotFoundException e) {
+            // no catalog shipped with this build
+        } finally {
+            tmp.delete();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.thinglist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-value id bitmaps for the fields {@link ItemQuery} can filter on, kept in step with
+ * the store: one bitmap per status, one per location, and one per price bucket.
+ * A query intersects a handful of these instead of looking at item objects.
+ *
+ * Price buckets are logarithmic with four steps per power of two, so a price range is
+ * the union of the buckets strictly inside it plus the (small) two edge buckets, whose
+ * ids are checked against a dense id → price array.
+ */
+public final class QueryIndex implements ItemStore.Index {
+
+    private final IdBitmap all = new IdBitmap();
+    private final Map<String, IdBitmap> byStatus = new HashMap<>();
+    private final Map<String, IdBitmap> byLocation = new HashMap<>();
+    private IdBitmap[] byPriceBucket = new IdBitmap[0];
+    private long[] priceById = new long[64];
+
+    // -------------------- queries --------------------
+
+    /** Ids matching every predicate of {@code query} except free text (see {@link ItemQuery#run}). */
+    synchronized IdBitmap evaluate(ItemQuery query) {
+        List<IdBitmap> parts = new ArrayList<>(3);
+
+        if (query.statuses != null) {
+            List<IdBitmap> any = new ArrayList<>();
+            for (String status : query.statuses) {
+                IdBitmap ids = byStatus.get(status);
+                if (ids != null) any.add(ids);
+            }
+            parts.add(IdBitmap.union(any));
+        }
+        if (query.location != null) {
+            IdBitmap ids = byLocation.get(locationKey(query.location));
+            parts.add(ids != null ? ids : new IdBitmap());
+        }
+        if (query.minPriceCents != Long.MIN_VALUE || query.maxPriceCents != Long.MAX_VALUE) {
+            parts.add(priceRange(query.minPriceCents, query.maxPriceCents));
+        }
+
+        if (parts.isEmpty()) return all.copy();
+        // smallest first, so every AND works on as few ids as possible
+        parts.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        IdBitmap result = parts.get(0).copy();
+        for (int i = 1; i < parts.size() && !result.isEmpty(); i++) {
+            result.and(parts.get(i));
+        }
+        return result;
+    }
+
+    /** Every live id. */
+    public synchronized IdBitmap allIds() {
+        return all.copy();
+    }
+
+    private IdBitmap priceRange(long min, long max) {
+        IdBitmap result = new IdBitmap();
+        if (min > max) return result;
+        int low = bucketOf(min);
+        int high = Math.min(bucketOf(max), byPriceBucket.length - 1);
+
+        List<IdBitmap> inside = new ArrayList<>();
+        for (int b = low + 1; b < high; b++) {
+            if (byPriceBucket[b] != null) inside.add(byPriceBucket[b]);
+        }
+        result = IdBitmap.union(inside);
+
+        // the edge buckets also hold prices just outside the range: check those one by one
+        for (int b : new int[] {low, high}) {
+            if (b >= byPriceBucket.length || byPriceBucket[b] == null) continue;
+            IdBitmap edge = result;
+            byPriceBucket[b].forEach(id -> {
+                long price = priceById[(int) id];
+                if (price >= min && price <= max) edge.add(id);
+                return true;
+            });
+            if (low == high) break;
+        }
+        return result;
+    }
+
+    // -------------------- ItemStore.Index --------------------
+
+    @Override
+    public synchronized void onPut(ThingItem previous, ThingItem item) {
+        if (previous != null) unindex(previous);
+        all.add(item.id);
+        bitmapFor(byStatus, item.status).add(item.id);
+        bitmapFor(byLocation, locationKey(item.location)).add(item.id);
+
+        int bucket = bucketOf(item.priceCents);
+        if (bucket >= byPriceBucket.length) {
+            byPriceBucket = Arrays.copyOf(byPriceBucket, bucket + 1);
+        }
+        if (byPriceBucket[bucket] == null) byPriceBucket[bucket] = new IdBitmap();
+        byPriceBucket[bucket].add(item.id);
+
+        if (item.id >= priceById.length) {
+            priceById = Arrays.copyOf(priceById, (int) Math.max(item.id + 1, priceById.length * 2L));
+        }
+        priceById[(int) item.id] = item.priceCents;
+    }
+
+    @Override
+    public synchronized void onRemove(ThingItem previous) {
+        if (previous != null) unindex(previous);
+    }
+
+    private void unindex(ThingItem item) {
+        all.remove(item.id);
+        removeFrom(byStatus, item.status, item.id);
+        removeFrom(byLocation, locationKey(item.location), item.id);
+        int bucket = bucketOf(item.priceCents);
+        if (bucket < byPriceBucket.length && byPriceBucket[bucket] != null) {
+            byPriceBucket[bucket].remove(item.id);
+        }
+    }
+
+    private static IdBitmap bitmapFor(Map<String, IdBitmap> map, String key) {
+        IdBitmap ids = map.get(key);
+        if (ids == null) {
+            ids = new IdBitmap();
+            map.put(key, ids);
+        }
+        return ids;
+    }
+
+    private static void removeFrom(Map<String, IdBitmap> map, String key, long id) {
+        IdBitmap ids = map.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) map.remove(key);
+    }
+
+    /** Locations match ignoring case and surrounding spaces. */
+    static String locationKey(String location) {
+        return location == null ? "" : location.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 0 for prices ≤ 0, otherwise 1 + 4 × floor(log2(price)) + the next two bits below the
+     * top one. Never decreases as the price grows, which is what {@link #priceRange} relies on.
+     */
+    static int bucketOf(long cents) {
+        if (cents <= 0) return 0;
+        int exp = 63 - Long.numberOfLeadingZeros(cents);
+        long mantissa = exp >= 2 ? (cents >>> (exp - 2)) & 3 : (cents << (2 - exp)) & 3;
+        return 1 + exp * 4 + (int) mantissa;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.thinglist;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Adds every item on a receipt to the inventory in one go: the text is streamed through
+ * {@link ReceiptParser} on a background thread and the items are saved as a single batch
+ * ({@link ItemRepository#saveAll}), so they appear together or not at all.
+ */
+public final class ReceiptImporter {
+
+    /** What an import added. */
+    static final class Result {
+        final ReceiptParser.Receipt receipt;
+        final List<ThingItem> items;
+
+        Result(ReceiptParser.Receipt receipt, List<ThingItem> items) {
+            this.receipt = receipt;
+            this.items = items;
+        }
+    }
+
+    private static ReceiptImporter instance;
+
+    private final ContentResolver resolver;
+    private final ExecutorService worker;
+
+    private ReceiptImporter(Context appContext) {
+        resolver = appContext.getContentResolver();
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "ReceiptImporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized ReceiptImporter get(Context context) {
+        if (instance == null) {
+            instance = new ReceiptImporter(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Reads the receipt text behind {@code uri} (UTF-8) and saves its items. Completes once
+     * they're committed; with no items found, nothing is written.
+     */
+    CompletableFuture<Result> importText(Uri uri) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<ReceiptParser.LineItem> lines = new ArrayList<>();
+            ReceiptParser.Receipt receipt;
+            try (InputStream in = resolver.openInputStream(uri)) {
+                if (in == null) throw new IOException("Can't open " + uri);
+                Reader text = new InputStreamReader(in, StandardCharsets.UTF_8);
+                receipt = ReceiptParser.parse(text, lines::add);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            List<ThingItem> items = new ArrayList<>(lines.size());
+            for (ReceiptParser.LineItem line : lines) items.add(line.toThingItem(receipt));
+            return new Result(receipt, items);
+        }, worker).thenCompose(result -> result.items.isEmpty()
+                ? CompletableFuture.completedFuture(result)
+                : ItemRepository.saveAll(result.items).thenApply(saved -> result));
+    }
+}
@@ -0,0 +1,509 @@
+package com.example.thinglist;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Turns the text of a till receipt into line items, a line at a time, as it streams in.
+ *
+ * Receipts don't agree on a format, so this goes by what they have in common: an item line
+ * ends in an amount (maybe followed by a tax flag like {@code A} or {@code T}), and the
+ * quantity, when there is one, is written {@code 2 @ 1.99}, {@code 2 x 1.99}, {@code 2x},
+ * or {@code QTY 2} – on the item's line or on the line under its name. Lines from the
+ * subtotal on are summary and payment, not items; a discount or other negative amount is
+ * taken off the item above it. The first line with words in it, before any item, is taken
+ * as the store's name, and the first date anywhere as the purchase date.
+ *
+ * Text is scanned in place in a reused line buffer; the only allocations are the
+ * descriptions of the items found. Not thread-safe – one parser per receipt.
+ */
+final class ReceiptParser {
+
+    /** One item bought. Prices in cents. */
+    static final class LineItem {
+        final String description;
+        final int quantity;
+        final long unitPriceCents;
+        final long totalCents;
+
+        LineItem(String description, int quantity, long unitPriceCents, long totalCents) {
+            this.description = description;
+            this.quantity = quantity;
+            this.unitPriceCents = unitPriceCents;
+            this.totalCents = totalCents;
+        }
+
+        /** The item as a new inventory entry, noting where and when it was bought. */
+        ThingItem toThingItem(Receipt receipt) {
+            StringBuilder note = new StringBuilder("From receipt");
+            if (receipt.store != null) note.append(" – ").append(receipt.store);
+            if (receipt.date != null) note.append(", ").append(receipt.date);
+            ThingItem item = new ThingItem(description, note.toString(),
+                    Money.toPlainString(unitPriceCents), "", "Active", null);
+            item.quantity = quantity;
+            return item;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof LineItem)) return false;
+            LineItem other = (LineItem) o;
+            return description.equals(other.description) && quantity == other.quantity
+                    && unitPriceCents == other.unitPriceCents && totalCents == other.totalCents;
+        }
+
+        @Override
+        public int hashCode() {
+            return description.hashCode() * 31 + (int) totalCents;
+        }
+
+        @Override
+        public String toString() {
+            return description + " " + quantity + " x " + Money.toPlainString(unitPriceCents)
+                    + " = " + Money.toPlainString(totalCents);
+        }
+    }
+
+    /** The header and summary lines; -1 for amounts the receipt didn't show. */
+    static final class Receipt {
+        String store;
+        LocalDate date;
+        int items;
+        long subtotalCents = -1;
+        long taxCents = -1;
+        long totalCents = -1;
+    }
+
+    /** Gets each item once nothing further down can change it. */
+    interface Listener {
+        void onItem(LineItem item);
+    }
+
+    private static final int NONE = -1;
+
+    private final Listener listener;
+    private final Receipt receipt = new Receipt();
+    private char[] line = new char[128];
+    private int length;
+    private boolean summary;       // past the subtotal/total: no more items
+
+    // the last item, held back in case a discount or quantity line for it follows
+    private String heldDescription;
+    private int heldQuantity;
+    private long heldUnit;
+    private long heldTotal;
+    // a line with words but no amount, which the next line may price
+    private String unpriced;
+    // a line with only a quantity, "2 @ 4.99", for the item on the next line
+    private int nextQuantity;
+    private long nextUnit;
+
+    // set by trailingAmount
+    private long amount;
+    // set by quantity
+    private int quantity;
+    private long unitPrice;
+    private int quantityFrom;
+    private int quantityTo;
+
+    ReceiptParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Parses the whole of {@code in}. */
+    static Receipt parse(Reader in, Listener listener) throws IOException {
+        ReceiptParser parser = new ReceiptParser(listener);
+        char[] chunk = new char[8192];
+        int n;
+        while ((n = in.read(chunk)) > 0) parser.feed(chunk, 0, n);
+        return parser.finish();
+    }
+
+    /** Takes the next piece of text; lines may be split anywhere between calls. */
+    void feed(char[] chars, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            if (c == '\n') {
+                line(line, length);
+                length = 0;
+            } else if (c != '\r') {
+                if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                line[length++] = c;
+            }
+        }
+    }
+
+    /** Ends the text: the last line and the held-back item go out. */
+    Receipt finish() {
+        if (length > 0) line(line, length);
+        length = 0;
+        release();
+        return receipt;
+    }
+
+    // -------------------- one line --------------------
+
+    private void line(char[] c, int end) {
+        int from = 0;
+        while (from < end && c[from] <= ' ') from++;
+        while (end > from && c[end - 1] <= ' ') end--;
+        if (from == end) return;
+
+        String above = unpriced;
+        int carried = nextQuantity;
+        unpriced = null;
+        nextQuantity = 0;
+        if (receipt.date == null) receipt.date = findDate(c, from, end);
+
+        int amountAt = trailingAmount(c, from, end);
+        if (amountAt == NONE) {
+            if (!summary && hasLetters(c, from, end)) {
+                if (receipt.store == null && receipt.items == 0 && heldDescription == null) {
+                    receipt.store = new String(c, from, end - from);
+                } else {
+                    unpriced = new String(c, from, end - from);
+                }
+            }
+            return;
+        }
+        int textEnd = trimEnd(c, from, amountAt);
+
+        switch (keyword(c, from, textEnd)) {
+            case SUBTOTAL:
+                receipt.subtotalCents = amount;
+                summary = true;
+                return;
+            case TOTAL:
+                receipt.totalCents = amount;
+                summary = true;
+                return;
+            case TAX:
+                receipt.taxCents = amount;
+                summary = true;
+                return;
+            case PAYMENT:
+                summary = true;
+                return;
+            case DISCOUNT:
+                if (!summary) discount(Math.abs(amount));
+                return;
+            default:
+                break;
+        }
+        if (summary) return;
+        if (amount < 0) {
+            discount(-amount);
+            return;
+        }
+
+        quantity(c, from, textEnd);
+        // the description is whatever isn't the quantity
+        int descFrom = from;
+        int descTo = textEnd;
+        if (quantityFrom != NONE) {
+            if (quantityFrom - from > descTo - quantityTo) {
+                descTo = trimEnd(c, from, quantityFrom);
+            } else {
+                descFrom = trimStart(c, quantityTo, textEnd);
+            }
+        }
+        String description;
+        if (hasLetters(c, descFrom, descTo)) {
+            description = new String(c, descFrom, descTo - descFrom);
+        } else if (descFrom < descTo) {
+            return;                     // "***** 19.99": not something bought
+        } else if (quantityFrom != NONE && unitPrice == NONE) {
+            // "2 @ 4.99" over the name: the amount is what one costs
+            nextQuantity = quantity;
+            nextUnit = amount;
+            return;
+        } else if (above != null) {
+            description = above;        // "2 @ 1.99   3.98" under the name
+        } else {
+            return;                     // an amount with nothing to say what it was
+        }
+        if (carried > 0 && quantityFrom == NONE) {
+            quantity = carried;
+            unitPrice = nextUnit;
+        }
+        item(description, amount);
+    }
+
+    private void item(String description, long total) {
+        release();
+        heldDescription = description;
+        heldTotal = total;
+        heldQuantity = quantity;
+        heldUnit = unitPrice != NONE ? unitPrice : (total + quantity / 2) / quantity;
+    }
+
+    private void discount(long cents) {
+        if (heldDescription == null) return;
+        heldTotal = Math.max(0, heldTotal - cents);
+        heldUnit = (heldTotal + heldQuantity / 2) / heldQuantity;
+    }
+
+    private void release() {
+        if (heldDescription == null) return;
+        receipt.items++;
+        listener.onItem(new LineItem(heldDescription, heldQuantity, heldUnit, heldTotal));
+        heldDescription = null;
+    }
+
+    // -------------------- amounts --------------------
+
+    /**
+     * Finds an amount like {@code 3.49}, {@code $1,299.00}, {@code -0.50} or {@code 0.50-} at
+     * the end of the line, after an optional one- or two-letter tax flag. Returns where it
+     * starts and leaves its value in {@link #amount}, or returns NONE.
+     */
+    private int trailingAmount(char[] c, int from, int end) {
+        // tax flag: "3.49 A", "3.49 TX", "3.49A", "3.49 *"
+        int flag = end;
+        while (flag > from && end - flag < 2 && (isLetter(c[flag - 1]) || c[flag - 1] == '*')) flag--;
+        if (flag < end) {
+            int beforeFlag = trimEnd(c, from, flag);
+            if (beforeFlag > from && (isDigit(c[beforeFlag - 1]) || c[beforeFlag - 1] == '-')) end = beforeFlag;
+        }
+
+        boolean negative = false;
+        if (end > from && c[end - 1] == '-') {
+            negative = true;
+            end--;
+        }
+        // two decimals after a point or comma
+        if (end - from < 4 || !isDigit(c[end - 1]) || !isDigit(c[end - 2])
+                || (c[end - 3] != '.' && c[end - 3] != ',') || !isDigit(c[end - 4])) {
+            return NONE;
+        }
+        long cents = (c[end - 2] - '0') * 10 + (c[end - 1] - '0');
+        long whole = 0;
+        long scale = 1;
+        int i = end - 4;
+        int digitsInGroup = 0;
+        for (; i >= from; i--) {
+            char ch = c[i];
+            if (isDigit(ch)) {
+                if (scale > 100_000_000L) return NONE;       // no till sells a ten-million-dollar item
+                whole += (ch - '0') * scale;
+                scale *= 10;
+                digitsInGroup++;
+            } else if ((ch == ',' || ch == '.') && digitsInGroup == 3 && i > from && isDigit(c[i - 1])) {
+                digitsInGroup = 0;                          // thousands separator
+            } else {
+                break;
+            }
+        }
+        if (i >= from && (c[i] == '$' || c[i] == '€' || c[i] == '£')) i--;
+        if (i >= from && c[i] == '-') {
+            negative = true;
+            i--;
+        }
+        // the amount is a word of its own, not the tail of a code like "A12.50"
+        if (i >= from && c[i] > ' ') return NONE;
+        amount = (whole * 100 + cents) * (negative ? -1 : 1);
+        return i + 1;
+    }
+
+    /**
+     * Looks for a quantity in {@code [from, to)}: "2 @ 1.99", "2 x 1.99", "2x", "2 X", or
+     * "QTY 2". Sets {@link #quantity} (1 if there's none), {@link #unitPrice} (NONE unless
+     * written) and where the quantity text is, so it can be cut from the description.
+     */
+    private void quantity(char[] c, int from, int to) {
+        quantity = 1;
+        unitPrice = NONE;
+        quantityFrom = NONE;
+        quantityTo = NONE;
+
+        for (int i = from; i < to; i++) {
+            char ch = c[i];
+            // "QTY 2", "Qty: 2"
+            if ((ch == 'Q' || ch == 'q') && i + 3 <= to && matches(c, i, "QTY")
+                    && (i == from || c[i - 1] == ' ')) {
+                int j = i + 3;
+                if (j < to && c[j] == ':') j++;
+                j = trimStart(c, j, to);
+                int digits = digitsAt(c, j, to);
+                if (digits > 0 && digits <= 3 && (j + digits == to || c[j + digits] == ' ')) {
+                    quantity = Math.max(1, parseInt(c, j, j + digits));
+                    quantityFrom = i;
+                    quantityTo = j + digits;
+                    return;
+                }
+            }
+            // "2 @", "2 x", "2x", "2X" – a small whole number at the start of a word
+            if (isDigit(ch) && (i == from || c[i - 1] == ' ')) {
+                int digits = digitsAt(c, i, to);
+                if (digits > 3) {
+                    i += digits - 1;
+                    continue;
+                }
+                int j = i + digits;
+                int k = j < to && c[j] == ' ' ? j + 1 : j;
+                if (k < to && (c[k] == '@' || c[k] == 'x' || c[k] == 'X')
+                        && (k + 1 == to || c[k + 1] == ' ' || isDigit(c[k + 1]) || c[k + 1] == '$')) {
+                    quantity = Math.max(1, parseInt(c, i, j));
+                    quantityFrom = i;
+                    quantityTo = k + 1;
+                    // and maybe the unit price after it: "2 @ 1.99", "2 x $1.99 ea"
+                    int p = trimStart(c, k + 1, to);
+                    if (p < to && c[p] == '$') p++;
+                    int end = p;
+                    while (end < to && (isDigit(c[end]) || c[end] == '.' || c[end] == ',')) end++;
+                    long price = priceAt(c, p, end);
+                    if (price != NONE) {
+                        unitPrice = price;
+                        quantityTo = end;
+                        int ea = trimStart(c, end, to);
+                        if (ea + 2 <= to && matches(c, ea, "EA")) quantityTo = ea + 2;
+                        else if (ea + 3 <= to && matches(c, ea, "/EA")) quantityTo = ea + 3;
+                    }
+                    return;
+                }
+                i += digits - 1;
+            }
+        }
+    }
+
+    /** "1.99", "1,99" or "1,099.00" exactly, in cents; NONE otherwise. */
+    private static long priceAt(char[] c, int from, int to) {
+        if (to - from < 4 || (c[to - 3] != '.' && c[to - 3] != ',') || !isDigit(c[from])) return NONE;
+        long cents = 0;
+        for (int i = from; i < to; i++) {
+            if (i == to - 3) continue;
+            if ((c[i] == ',' || c[i] == '.') && i < to - 3 && (to - 3 - i) % 4 == 0) continue;    // thousands
+            if (!isDigit(c[i]) || cents > 1_000_000_000L) return NONE;
+            cents = cents * 10 + (c[i] - '0');
+        }
+        return cents;
+    }
+
+    // -------------------- keywords --------------------
+
+    private static final int OTHER = 0;
+    private static final int SUBTOTAL = 1;
+    private static final int TOTAL = 2;
+    private static final int TAX = 3;
+    private static final int PAYMENT = 4;
+    private static final int DISCOUNT = 5;
+
+    private static final String[] SUBTOTAL_WORDS = {"SUBTOTAL", "SUB TOTAL", "SUB-TOTAL"};
+    private static final String[] TOTAL_WORDS = {"TOTAL", "GRAND TOTAL", "AMOUNT DUE", "BALANCE DUE", "TOTAL DUE"};
+    private static final String[] TAX_WORDS = {"TAX", "SALES TAX", "VAT", "GST", "HST", "PST"};
+    // only words no product is named after: a payment line can come without a total above it
+    private static final String[] PAYMENT_WORDS = {"CASH", "CHANGE", "VISA", "MASTERCARD", "AMEX",
+            "DEBIT", "TENDER", "PAYMENT", "BALANCE"};
+    private static final String[] DISCOUNT_WORDS = {"DISCOUNT", "SAVINGS", "YOU SAVED", "COUPON", "PROMO",
+            "MEMBER SAVINGS", "INSTANT SAVINGS", "TOTAL SAVINGS", "TOTAL DISCOUNT"};
+
+    // what the start of a line's text says it is
+    private static int keyword(char[] c, int from, int to) {
+        if (startsWithAny(c, from, to, SUBTOTAL_WORDS)) return SUBTOTAL;
+        if (startsWithAny(c, from, to, DISCOUNT_WORDS)) return DISCOUNT;     // before "TOTAL SAVINGS" reads as a total
+        if (startsWithAny(c, from, to, TOTAL_WORDS)) return TOTAL;
+        if (startsWithAny(c, from, to, TAX_WORDS)) return TAX;
+        if (startsWithAny(c, from, to, PAYMENT_WORDS)) return PAYMENT;
+        return OTHER;
+    }
+
+    // whole words only: "TAXI FARE" isn't tax
+    private static boolean startsWithAny(char[] c, int from, int to, String[] words) {
+        for (String word : words) {
+            int end = from + word.length();
+            if (end <= to && matches(c, from, word) && (end == to || !isLetter(c[end]))) return true;
+        }
+        return false;
+    }
+
+    /** Case-insensitive match of {@code upper} (upper case) at {@code at}; the caller checks bounds. */
+    private static boolean matches(char[] c, int at, String upper) {
+        for (int i = 0; i < upper.length(); i++) {
+            if (Character.toUpperCase(c[at + i]) != upper.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // -------------------- dates --------------------
+
+    /**
+     * The first date in the line: 2024-03-05, 03/05/2024, 03/05/24, 5.3.2024 … With slashes
+     * or dashes the month comes first, as US tills print them, unless the first number
+     * can't be a month; with dots the day comes first, as in Europe.
+     */
+    static LocalDate findDate(char[] c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isDigit(c[i]) || (i > from && isDigit(c[i - 1]))) continue;
+            int a = digitsAt(c, i, to);
+            int j = i + a;
+            if (a > 4 || j >= to || !isDateSeparator(c[j])) continue;
+            char separator = c[j];
+            int b = digitsAt(c, j + 1, to);
+            int k = j + 1 + b;
+            if (b < 1 || b > 2 || k >= to || c[k] != separator) continue;
+            int d = digitsAt(c, k + 1, to);
+            int end = k + 1 + d;
+            if (end < to && isDigit(c[end])) continue;
+            int first = parseInt(c, i, j);
+            int second = parseInt(c, j + 1, k);
+            int third = parseInt(c, k + 1, end);
+            try {
+                if (a == 4 && (d == 1 || d == 2)) return LocalDate.of(first, second, third);
+                if (a > 2 || (d != 2 && d != 4)) continue;
+                int year = d == 2 ? 2000 + third : third;
+                return first > 12 || separator == '.'
+                        ? LocalDate.of(year, second, first)
+                        : LocalDate.of(year, first, second);
+            } catch (DateTimeException e) {
+                // 13/13/2024 and the like – not a date after all
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDateSeparator(char c) {
+        return c == '/' || c == '-' || c == '.';
+    }
+
+    // -------------------- characters --------------------
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c > 127 && Character.isLetter(c));
+    }
+
+    private static boolean hasLetters(char[] c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (isLetter(c[i])) return true;
+        }
+        return false;
+    }
+
+    private static int digitsAt(char[] c, int from, int to) {
+        int i = from;
+        while (i < to && isDigit(c[i])) i++;
+        return i - from;
+    }
+
+    private static int parseInt(char[] c, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) value = value * 10 + (c[i] - '0');
+        return value;
+    }
+
+    private static int trimStart(char[] c, int from, int to) {
+        while (from < to && c[from] == ' ') from++;
+        return from;
+    }
+
+    private static int trimEnd(char[] c, int from, int to) {
+        while (to > from && (c[to - 1] == ' ' || c[to - 1] == '\t')) to--;
+        return to;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.thinglist;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hard-coded demo content. The inventory is written into a brand-new repository once,
+ * the vault items are loaded into the (in-memory) vault store on every start.
+ *
+ * Replace this later with real DB/API data.
+ */
+final class SampleData {
+
+    private SampleData() { }
+
+    /** Dashboard demo inventory. Status doubles as the item type; prices in cents. */
+    static List<ThingItem> inventory() {
+        List<ThingItem> list = new ArrayList<>();
+        list.add(stock("Wireless Mouse", 45, "Electronics",
+                "Ergonomic wireless mouse with USB receiver", 2999));
+        list.add(stock("Notebook Set", 120, "Stationery",
+                "Pack of 3 ruled notebooks, A5 size", 1250));
+        list.add(stock("Coffee Mug", 78, "Kitchenware",
+                "Ceramic mug with heat-resistant handle", 899));
+        list.add(stock("USB-C Cable", 200, "Electronics",
+                "6ft braided charging cable", 1599));
+        list.add(stock("Desk Lamp", 34, "Furniture",
+                "LED desk lamp with adjustable brightness", 4500));
+        list.add(stock("Water Bottle", 92, "Sports",
+                "Stainless steel insulated bottle, 32oz", 2499));
+        list.add(stock("Keyboard", 28, "Electronics",
+                "Mechanical keyboard with RGB lighting", 8999));
+        list.add(stock("Sticky Notes", 150, "Stationery",
+                "Colorful sticky notes, 400 sheets", 699));
+        list.add(stock("Phone Stand", 65, "Accessories",
+                "Adjustable aluminum phone holder", 1899));
+        list.add(stock("Backpack", 42, "Bags",
+                "Laptop backpack with USB charging port", 5500));
+        list.add(stock("Headphones", 56, "Electronics",
+                "Wireless over-ear headphones with ANC", 12999));
+        list.add(stock("Pen Set", 180, "Stationery",
+                "Set of 10 ballpoint pens, black ink", 999));
+        list.add(stock("Monitor Stand", 38, "Furniture",
+                "Wooden monitor riser with storage", 3500));
+        list.add(stock("Yoga Mat", 71, "Sports",
+                "Non-slip exercise mat with carrying strap", 3250));
+        list.add(stock("Webcam", 25, "Electronics",
+                "1080p HD webcam with built-in microphone", 6999));
+        return list;
+    }
+
+    /** Vault demo items. Status is the vault category, dateAdded the date it was stored. */
+    static List<ThingItem> vault() {
+        List<ThingItem> list = new ArrayList<>();
+        list.add(vaultItem("Passport (John Doe)", "Valid until 2029",
+                "Documents", "Section A", LocalDate.of(2024, 3, 4), 0));
+        list.add(vaultItem("Emergency Cash Reserve", "Emergency fund -\nmixed denominations",
+                "Cash", "Compartment C", LocalDate.of(2024, 1, 31), 500000));
+        list.add(vaultItem("Silver Coins Collection", "Rare silver dollar collection\n(24 coins)",
+                "Cash", "Compartment D", LocalDate.of(2024, 1, 19), 240000));
+        list.add(vaultItem("Gold Wedding Band", "18K gold wedding band,\ncustom engraved",
+                "Jewelry", "Drawer 1A", LocalDate.of(2024, 1, 14), 350000));
+        list.add(vaultItem("Diamond Earrings", "2ct diamond stud earrings,\nplatinum setting",
+                "Jewelry", "Drawer 1B", LocalDate.of(2023, 12, 9), 820000));
+        list.add(vaultItem("Property Deed", "Original property deed for 123 Main Street",
+                "Documents", "Section B", LocalDate.of(2023, 11, 21), 0));
+        list.add(vaultItem("Vintage Rolex", "Rolex Submariner\n1960s vintage",
+                "Jewelry", "Watch Box", LocalDate.of(2023, 9, 17), 1500000));
+        list.add(vaultItem("Birth Certificates", "Family birth certificates (3)",
+                "Documents", "Section A", LocalDate.of(2023, 8, 29), 0));
+        return list;
+    }
+
+    private static ThingItem stock(String name, int quantity, String type,
+                                   String description, long priceCents) {
+        return new ThingItem(name, description, Money.toPlainString(priceCents), priceCents,
+                quantity, System.currentTimeMillis(), "", type, null);
+    }
+
+    private static ThingItem vaultItem(String title, String subtitle, String category,
+                                       String location, LocalDate date, long valueCents) {
+        long millis = date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new ThingItem(title, subtitle, Money.toPlainString(valueCents), valueCents,
+                1, millis, location, category, null);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.thinglist;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Byte-capped pool of reusable buffers (decoded bitmaps, in practice), bucketed by size
+ * class – powers of two – so finding one big enough doesn't mean looking at all of them.
+ *
+ * {@link #take} only hands out something at most one size class larger than asked for,
+ * i.e. never more than 4× the bytes, so a thumbnail decode can't sit on a full-screen
+ * buffer. Over the cap, the longest-pooled entries are evicted first.
+ *
+ * Thread-safe. Keeps hit/miss counts for {@link #hitRate}.
+ */
+final class SizeBucketPool<T> {
+
+    /** How big a pooled thing is, in bytes. */
+    interface Sizer<T> {
+        int bytes(T item);
+    }
+
+    /** Gets whatever the pool drops – evicted or cleared – e.g. to free it for good. */
+    interface Evictor<T> {
+        void evicted(T item);
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        final int bytes;
+        final long stamp;
+
+        Entry(T item, int bytes, long stamp) {
+            this.item = item;
+            this.bytes = bytes;
+            this.stamp = stamp;
+        }
+    }
+
+    /** One per size class {@link #bucketOf} can return, 0 to 32. */
+    private static final int BUCKETS = 33;
+
+    private final long maxBytes;
+    private final Sizer<T> sizer;
+    private final Evictor<T> evictor;
+    // bucket i holds sizes in (2^(i-1), 2^i]; oldest first within a bucket
+    private final List<ArrayDeque<Entry<T>>> buckets = new ArrayList<>(BUCKETS);
+    private long retainedBytes;
+    private int count;
+    private long nextStamp;
+    private long hits;
+    private long misses;
+
+    SizeBucketPool(long maxBytes, Sizer<T> sizer, Evictor<T> evictor) {
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        this.evictor = evictor;
+        for (int i = 0; i < BUCKETS; i++) buckets.add(new ArrayDeque<>());
+    }
+
+    /** Pools {@code item} for reuse; it's evicted right away if it alone is over the cap. */
+    void put(T item) {
+        int bytes = sizer.bytes(item);
+        Iterable<T> evicted;
+        synchronized (this) {
+            buckets.get(bucketOf(bytes)).addLast(new Entry<>(item, bytes, nextStamp++));
+            retainedBytes += bytes;
+            count++;
+            evicted = trim(maxBytes);
+        }
+        for (T e : evicted) evictor.evicted(e);     // outside the lock: recycling can be slow
+    }
+
+    /** Something with at least {@code bytes}, removed from the pool – or null on a miss. */
+    synchronized T take(int bytes) {
+        if (bytes <= 0) return null;
+        int bucket = bucketOf(bytes);
+        for (int b = bucket; b <= Math.min(bucket + 1, BUCKETS - 1); b++) {
+            // most recently pooled first, it's the likeliest to still be in CPU cache
+            Iterator<Entry<T>> it = buckets.get(b).descendingIterator();
+            while (it.hasNext()) {
+                Entry<T> entry = it.next();
+                if (entry.bytes >= bytes) {
+                    it.remove();
+                    retainedBytes -= entry.bytes;
+                    count--;
+                    hits++;
+                    return entry.item;
+                }
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /** Drops everything pooled. */
+    void clear() {
+        Iterable<T> evicted;
+        synchronized (this) {
+            evicted = trim(0);
+        }
+        for (T e : evicted) evictor.evicted(e);
+    }
+
+    // -------------------- metrics --------------------
+
+    synchronized long retainedBytes() {
+        return retainedBytes;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    /** Share of {@link #take} calls that found something, 0 before the first one. */
+    synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    // -------------------- internals --------------------
+
+    private ArrayDeque<T> trim(long limit) {
+        ArrayDeque<T> evicted = new ArrayDeque<>();
+        while (retainedBytes > limit) {
+            // the oldest entry overall is the oldest head among the buckets
+            ArrayDeque<Entry<T>> oldest = null;
+            for (ArrayDeque<Entry<T>> bucket : buckets) {
+                Entry<T> head = bucket.peekFirst();
+                if (head != null && (oldest == null || head.stamp < oldest.peekFirst().stamp)) {
+                    oldest = bucket;
+                }
+            }
+            if (oldest == null) break;
+            Entry<T> entry = oldest.pollFirst();
+            retainedBytes -= entry.bytes;
+            count--;
+            evicted.add(entry.item);
+        }
+        return evicted;
+    }
+
+    static int bucketOf(int bytes) {
+        return bytes <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(bytes - 1);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.thinglist;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Items kept in sorted order by name, type, price and quantity, updated on every write,
+ * so showing a different order is a walk over an existing index rather than a sort.
+ *
+ * Names and types are compared through {@link CollationKey}s computed once per item
+ * when it is written (locale-aware, ignoring case), so comparisons are plain byte
+ * compares. Ties are broken by id, which makes every order total and stable.
+ */
+public final class SortIndex implements ItemStore.Index {
+
+    public enum Key { NAME, TYPE, PRICE, QUANTITY }
+
+    /** One item's sort keys, shared by all four orders. */
+    private static final class Entry {
+        final long id;
+        final CollationKey name;
+        final CollationKey type;
+        final long priceCents;
+        final int quantity;
+
+        Entry(long id, CollationKey name, CollationKey type, long priceCents, int quantity) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.priceCents = priceCents;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final Comparator<Entry> BY_NAME = (a, b) -> {
+        int c = a.name.compareTo(b.name);
+        return c != 0 ? c : Long.compare(a.id, b.id);
+    };
+    private static final Comparator<Entry> BY_TYPE = (a, b) -> {
+        int c = a.type.compareTo(b.type);
+        return c != 0 ? c : Long.compare(a.id, b.id);
+    };
+    private static final Comparator<Entry> BY_PRICE = (a, b) -> {
+        int c = Long.compare(a.priceCents, b.priceCents);
+        return c != 0 ? c : Long.compare(a.id, b.id);
+    };
+    private static final Comparator<Entry> BY_QUANTITY = (a, b) -> {
+        int c = Integer.compare(a.quantity, b.quantity);
+        return c != 0 ? c : Long.compare(a.id, b.id);
+    };
+
+    private final Locale locale;
+    private final Collator collator;
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private final TreeSet<Entry> byName = new TreeSet<>(BY_NAME);
+    private final TreeSet<Entry> byType = new TreeSet<>(BY_TYPE);
+    private final TreeSet<Entry> byPrice = new TreeSet<>(BY_PRICE);
+    private final TreeSet<Entry> byQuantity = new TreeSet<>(BY_QUANTITY);
+
+    public SortIndex(Locale locale) {
+        this.locale = locale;
+        this.collator = Collator.getInstance(locale);
+        // "apple" and "Apple" sort together; accents still count
+        collator.setStrength(Collator.SECONDARY);
+    }
+
+    public Locale locale() {
+        return locale;
+    }
+
+    // -------------------- reads --------------------
+
+    /** Every id in {@code key} order. */
+    public long[] order(Key key, boolean descending) {
+        return order(key, descending, null);
+    }
+
+    /** The ids of {@code subset} (null = all) in {@code key} order. One pass, no sorting. */
+    public synchronized long[] order(Key key, boolean descending, IdBitmap subset) {
+        NavigableSet<Entry> set = descending ? setFor(key).descendingSet() : setFor(key);
+        long[] ids = new long[subset == null ? set.size() : Math.min(set.size(), subset.cardinality())];
+        int n = 0;
+        for (Entry e : set) {
+            if (subset != null && !subset.contains(e.id)) continue;
+            ids[n++] = e.id;
+            if (n == ids.length) break;
+        }
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * Up to {@code limit} ids of {@code subset} (null = all) in {@code key} order, strictly
+     * after {@code after} (null = from the start). Cost is the ids walked, not the index size.
+     */
+    synchronized long[] page(Key key, boolean descending, ItemCursor after, int limit,
+                             IdBitmap subset) {
+        NavigableSet<Entry> set = descending ? setFor(key).descendingSet() : setFor(key);
+        if (after != null) set = set.tailSet(probe(key, after), false);
+        long[] ids = new long[limit];
+        int n = 0;
+        for (Entry e : set) {
+            if (n == limit) break;
+            if (subset == null || subset.contains(e.id)) ids[n++] = e.id;
+        }
+        return n == limit ? ids : Arrays.copyOf(ids, n);
+    }
+
+    /** An entry that sorts exactly where the cursor's item did (only the key field is set). */
+    private Entry probe(Key key, ItemCursor cursor) {
+        switch (key) {
+            case NAME:
+                return new Entry(cursor.id, collate(cursor.text), null, 0, 0);
+            case TYPE:
+                return new Entry(cursor.id, null, collate(cursor.text), 0, 0);
+            case PRICE:
+                return new Entry(cursor.id, null, null, cursor.number, 0);
+            default:
+                return new Entry(cursor.id, null, null, 0, (int) cursor.number);
+        }
+    }
+
+    private CollationKey collate(String text) {
+        return collator.getCollationKey(text == null ? "" : text);
+    }
+
+    private TreeSet<Entry> setFor(Key key) {
+        switch (key) {
+            case NAME:  return byName;
+            case TYPE:  return byType;
+            case PRICE: return byPrice;
+            default:    return byQuantity;
+        }
+    }
+
+    // -------------------- ItemStore.Index --------------------
+
+    @Override
+    public synchronized void onPut(ThingItem previous, ThingItem item) {
+        remove(item.id);
+        Entry e = new Entry(item.id,
+                collate(item.name),
+                collate(item.status),
+                item.priceCents,
+                item.quantity);
+        byId.put(item.id, e);
+        byName.add(e);
+        byType.add(e);
+        byPrice.add(e);
+        byQuantity.add(e);
+    }
+
+    @Override
+    public synchronized void onRemove(ThingItem previous) {
+        if (previous != null) remove(previous.id);
+    }
+
+    private void remove(long id) {
+        Entry e = byId.remove(id);
+        if (e == null) return;
+        byName.remove(e);
+        byType.remove(e);
+        byPrice.remove(e);
+        byQuantity.remove(e);
+    }
+}
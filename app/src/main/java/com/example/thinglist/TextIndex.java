@@ -0,0 +1,125 @@
+package com.example.thinglist;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Inverted full-text index over an item's name, description and location, kept in
+ * step with the store. Words are lower-cased and stripped of accents ("Café" → "cafe");
+ * every query word is matched as a prefix, so results can be shown as the user types.
+ *
+ * Terms live in a sorted map, so the terms starting with a prefix are one contiguous
+ * sub-map; their id bitmaps are OR-ed together, and the words of a query are AND-ed.
+ */
+public final class TextIndex implements ItemStore.Index {
+
+    private final TreeMap<String, IdBitmap> postings = new TreeMap<>();
+
+    // -------------------- queries --------------------
+
+    /**
+     * Ids of the items containing every word of {@code query} (each as a prefix), or
+     * null if the query has no words at all – i.e. it doesn't restrict anything.
+     */
+    public IdBitmap search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) return null;
+
+        IdBitmap result = null;
+        synchronized (this) {
+            for (String word : words) {
+                // every term in [word, word + '\uffff') starts with word
+                IdBitmap matches = IdBitmap.union(
+                        postings.subMap(word, true, word + '\uffff', false).values());
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.and(matches);
+                }
+                if (result.isEmpty()) break;
+            }
+        }
+        return result;
+    }
+
+    /** Number of distinct terms. */
+    public synchronized int termCount() {
+        return postings.size();
+    }
+
+    // -------------------- ItemStore.Index --------------------
+
+    @Override
+    public synchronized void onPut(ThingItem previous, ThingItem item) {
+        if (previous != null) unindex(previous);
+        for (String term : termsOf(item)) {
+            IdBitmap ids = postings.get(term);
+            if (ids == null) {
+                ids = new IdBitmap();
+                postings.put(term, ids);
+            }
+            ids.add(item.id);
+        }
+    }
+
+    @Override
+    public synchronized void onRemove(ThingItem previous) {
+        if (previous != null) unindex(previous);
+    }
+
+    private void unindex(ThingItem item) {
+        for (String term : termsOf(item)) {
+            IdBitmap ids = postings.get(term);
+            if (ids != null && ids.remove(item.id) && ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    // -------------------- tokenizing --------------------
+
+    private static List<String> termsOf(ThingItem item) {
+        List<String> terms = new ArrayList<>();
+        addTokens(item.name, terms);
+        addTokens(item.description, terms);
+        addTokens(item.location, terms);
+        return terms;
+    }
+
+    /** Lower-cased, accent-free words of {@code text}, in order. */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        addTokens(text, words);
+        return words;
+    }
+
+    private static void addTokens(String text, List<String> out) {
+        if (text == null || text.isEmpty()) return;
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                out.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    private static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        // plain ASCII is by far the common case – skip the normalizer for it
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7f) {
+                return Normalizer.normalize(lower, Normalizer.Form.NFD)
+                        .replaceAll("\\p{M}+", "");
+            }
+        }
+        return lower;
+    }
+}
@@ -2,9 +2,16 @@ package com.example.thinglist;
 
 public class ThingItem {
 
+    /** Category for items saved without one, so the list, filters and totals all agree. */
+    public static final String DEFAULT_STATUS = "Misc";
+
+    public long id;          // assigned by ItemRepository on first save (0 = not saved yet)
     public String name;
     public String description;
-    public String price;     // keep as String because EditItem uses a text field
+    public String price;     // text as typed in EditItem, kept for display
+    public long priceCents;  // price parsed once, in minor currency units (see setPrice)
+    public int quantity;
+    public long dateAdded;   // epoch millis when the item was created
     public String location;
     public String status;
     public String imagePath; // local file path for the photo (can be null)
@@ -15,11 +22,42 @@ public class ThingItem {
                      String location,
                      String status,
                      String imagePath) {
+        this(name, description, price, Money.parseCents(price), 1,
+                System.currentTimeMillis(), location, status, imagePath);
+    }
+
+    /** All fields already typed – used when decoding stored records, so nothing is re-parsed. */
+    ThingItem(String name,
+              String description,
+              String price,
+              long priceCents,
+              int quantity,
+              long dateAdded,
+              String location,
+              String status,
+              String imagePath) {
         this.name = name;
         this.description = description;
         this.price = price;
+        this.priceCents = priceCents;
+        this.quantity = quantity;
+        this.dateAdded = dateAdded;
         this.location = location;
-        this.status = status;
+        this.status = status == null || status.trim().isEmpty() ? DEFAULT_STATUS : status;
         this.imagePath = imagePath;
     }
+
+    /** Field-by-field copy, id included. */
+    ThingItem copy() {
+        ThingItem copy = new ThingItem(name, description, price, priceCents, quantity,
+                dateAdded, location, status, imagePath);
+        copy.id = id;
+        return copy;
+    }
+
+    /** Changes the price text and its parsed value together. */
+    public void setPrice(String text) {
+        this.price = text;
+        this.priceCents = Money.parseCents(text);
+    }
 }
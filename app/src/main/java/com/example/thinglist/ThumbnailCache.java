@@ -0,0 +1,135 @@
+package com.example.thinglist;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Process;
+
+import com.example.thinglist.ThumbnailStore.Variant;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Small and medium JPEG thumbnails of item photos, kept on disk next to the app's data
+ * and keyed by the original's content hash, so a photo saved twice shares thumbnails.
+ *
+ * Thumbnails are made right after a photo is saved ({@link #generateAsync}). Anything
+ * missing later – evicted, or a photo from before this cache existed – is made again the
+ * first time it's asked for ({@link #variantFor}).
+ */
+public final class ThumbnailCache {
+
+    private static final long MAX_BYTES = 32L * 1024 * 1024;
+    private static final int JPEG_QUALITY = 85;
+
+    private static ThumbnailCache instance;
+
+    private final ThumbnailStore store;
+    private final ExecutorService generator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, "ThumbnailCache");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // saved photos never change under the same path, so their hash can be remembered
+    private final ConcurrentHashMap<String, String> hashByPath = new ConcurrentHashMap<>();
+
+    private ThumbnailCache(Context appContext) {
+        store = new ThumbnailStore(new File(appContext.getFilesDir(), "thumbnails"), MAX_BYTES);
+    }
+
+    public static synchronized ThumbnailCache get(Context context) {
+        if (instance == null) {
+            instance = new ThumbnailCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** Makes every variant of a just-saved photo in the background. */
+    public void generateAsync(String originalPath) {
+        if (originalPath == null) return;
+        generator.execute(() -> generateAll(originalPath));
+    }
+
+    /** Makes every variant of {@code originalPath} on the calling thread; blocks. */
+    void generateAll(String originalPath) {
+        if (originalPath == null) return;
+        for (Variant variant : Variant.values()) {
+            variantFor(originalPath, variant);
+        }
+    }
+
+    /**
+     * The smallest thumbnail of {@code originalPath} that covers {@code width} × {@code height},
+     * made now if it's missing; null if the original itself is needed. Blocks – call it
+     * off the main thread.
+     */
+    public File variantFor(String originalPath, int width, int height) {
+        Variant variant = Variant.smallestFitting(width, height);
+        return variant == null ? null : variantFor(originalPath, variant);
+    }
+
+    private File variantFor(String originalPath, Variant variant) {
+        try {
+            String hash = hashOf(originalPath);
+            if (hash == null) return null;
+            File cached = store.get(hash, variant);
+            return cached != null ? cached : generate(originalPath, hash, variant);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private String hashOf(String path) throws IOException {
+        String hash = hashByPath.get(path);
+        if (hash == null) {
+            File file = new File(path);
+            if (!file.isFile()) return null;
+            // ImageStore files are already named by their hash; older photos get hashed once
+            String stem = ImageFileStore.hashOf(file);
+            hash = stem != null ? stem : ContentHash.of(file);
+            hashByPath.put(path, hash);
+        }
+        return hash;
+    }
+
+    private File generate(String originalPath, String hash, Variant variant) throws IOException {
+        // sampled decode first, so a 12 MP original never sits in memory at full size
+        BitmapPool pool = BitmapPool.get();
+        Bitmap decoded = ImageLoader.decodeSampled(originalPath, variant.maxSide, variant.maxSide, pool);
+        if (decoded == null) return null;
+
+        Bitmap scaled = decoded;
+        int longest = Math.max(decoded.getWidth(), decoded.getHeight());
+        if (longest > variant.maxSide) {
+            float scale = variant.maxSide / (float) longest;
+            scaled = Bitmap.createScaledBitmap(decoded,
+                    Math.max(1, Math.round(decoded.getWidth() * scale)),
+                    Math.max(1, Math.round(decoded.getHeight() * scale)),
+                    true);
+            pool.put(decoded);     // only needed for the scale; the next decode can reuse it
+        }
+        try {
+            Bitmap thumbnail = scaled;
+            return store.put(hash, variant, out -> {
+                if (!thumbnail.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out)) {
+                    throw new IOException("JPEG encode failed");
+                }
+            });
+        } finally {
+            if (scaled == decoded) pool.put(scaled);
+            else scaled.recycle();
+        }
+    }
+
+    /** Bytes of thumbnails currently on disk. */
+    public long diskBytes() {
+        return store.sizeBytes();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.thinglist;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Size-capped directory of image thumbnails, named by the content hash of the original
+ * and the variant ({@code <hash>_small.jpg}). When the total goes over the cap, the least
+ * recently used files are deleted. Use order survives restarts through the files'
+ * modification times.
+ *
+ * Only file bookkeeping lives here; {@link ThumbnailCache} makes the actual thumbnails.
+ */
+final class ThumbnailStore {
+
+    /** Thumbnail sizes, by longest side in pixels. */
+    enum Variant {
+        SMALL(192),      // list rows, cards
+        MEDIUM(768);     // detail / edit photo
+
+        final int maxSide;
+
+        Variant(int maxSide) {
+            this.maxSide = maxSide;
+        }
+
+        /** The smallest variant that still covers {@code width} × {@code height}, or null if none does. */
+        static Variant smallestFitting(int width, int height) {
+            int needed = Math.max(width, height);
+            for (Variant v : values()) {
+                if (v.maxSide >= needed) return v;
+            }
+            return null;
+        }
+    }
+
+    /** Writes one thumbnail's bytes. */
+    interface Writer {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // don't rewrite a file's mtime on every read; an hour is plenty for LRU purposes
+    private static final long TOUCH_INTERVAL_MS = 60 * 60 * 1000L;
+
+    private final File dir;
+    private final long maxBytes;
+    // file name → size, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    ThumbnailStore(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        dir.mkdirs();
+
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File f : files) {
+            if (f.getName().endsWith(".tmp")) {
+                f.delete();      // a write that never finished
+                continue;
+            }
+            entries.put(f.getName(), f.length());
+            totalBytes += f.length();
+        }
+        trim();
+    }
+
+    /** The cached thumbnail, or null if it isn't there (any more). Counts as a use. */
+    synchronized File get(String hash, Variant variant) {
+        String name = nameOf(hash, variant);
+        Long size = entries.get(name);
+        if (size == null) return null;
+        File f = new File(dir, name);
+        if (!f.exists()) {
+            entries.remove(name);
+            totalBytes -= size;
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - f.lastModified() > TOUCH_INTERVAL_MS) f.setLastModified(now);
+        return f;
+    }
+
+    /**
+     * Stores a thumbnail written by {@code writer}, then evicts least recently used ones
+     * until the store is under its cap again. The file appears under its final name only
+     * once it is complete.
+     */
+    File put(String hash, Variant variant, Writer writer) throws IOException {
+        String name = nameOf(hash, variant);
+        File target = new File(dir, name);
+        File tmp = new File(dir, name + "." + Thread.currentThread().getId() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            writer.writeTo(out);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Couldn't move thumbnail into place: " + target);
+        }
+
+        synchronized (this) {
+            Long previous = entries.put(name, target.length());
+            if (previous != null) totalBytes -= previous;
+            totalBytes += target.length();
+            trim();
+        }
+        return target;
+    }
+
+    synchronized long sizeBytes() {
+        return totalBytes;
+    }
+
+    synchronized int count() {
+        return entries.size();
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            new File(dir, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private static String nameOf(String hash, Variant variant) {
+        return hash + "_" + variant.name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.thinglist;
+
+import java.util.List;
+
+/**
+ * Splits a large image into square tiles per zoom level, for decoding only what's on
+ * screen. At sample size {@code s} each tile covers {@code TILE_SIZE * s} source pixels a
+ * side and decodes to at most {@code TILE_SIZE}² pixels, so a tile costs the same memory at
+ * every zoom.
+ *
+ * All coordinates are in source image pixels.
+ */
+final class TileGrid {
+
+    static final int TILE_SIZE = 512;
+
+    /** One tile at one sample size. Equal tiles are the same region at the same resolution. */
+    static final class Tile {
+        final int sampleSize;
+        final int left;
+        final int top;
+        final int right;
+        final int bottom;
+
+        Tile(int sampleSize, int left, int top, int right, int bottom) {
+            this.sampleSize = sampleSize;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        /** Bytes of the decoded tile, ARGB_8888, rounding the sampled size up. */
+        int decodedBytes() {
+            int width = (right - left + sampleSize - 1) / sampleSize;
+            int height = (bottom - top + sampleSize - 1) / sampleSize;
+            return width * height * 4;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Tile)) return false;
+            Tile other = (Tile) o;
+            return sampleSize == other.sampleSize && left == other.left && top == other.top;
+        }
+
+        @Override
+        public int hashCode() {
+            return (sampleSize * 31 + left) * 31 + top;
+        }
+
+        @Override
+        public String toString() {
+            return "Tile[" + sampleSize + ": " + left + "," + top + "-" + right + "," + bottom + "]";
+        }
+    }
+
+    final int width;
+    final int height;
+
+    TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Largest power-of-two sample size that still gives at least one decoded pixel per
+     * screen pixel at {@code scale} (screen pixels per source pixel).
+     */
+    static int sampleSizeFor(float scale) {
+        int sampleSize = 1;
+        while (sampleSize * 2 * scale <= 1f) sampleSize *= 2;
+        return sampleSize;
+    }
+
+    /** Adds the tiles at {@code sampleSize} overlapping the given region, clipped to the image. */
+    void visibleTiles(int sampleSize, float left, float top, float right, float bottom, List<Tile> out) {
+        int extent = TILE_SIZE * sampleSize;
+        int firstCol = Math.max(0, (int) Math.floor(left / extent));
+        int firstRow = Math.max(0, (int) Math.floor(top / extent));
+        int lastCol = Math.min((width - 1) / extent, (int) Math.ceil(right / extent) - 1);
+        int lastRow = Math.min((height - 1) / extent, (int) Math.ceil(bottom / extent) - 1);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int x = col * extent;
+                int y = row * extent;
+                out.add(new Tile(sampleSize, x, y, Math.min(width, x + extent), Math.min(height, y + extent)));
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.thinglist;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Process;
+import android.util.LruCache;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.example.thinglist.TileGrid.Tile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pinch-, drag- and double-tap-zoomable photo that stays sharp at any zoom without ever
+ * decoding the whole full-size image. A screen-sized preview is drawn underneath; once
+ * zoomed in past what the preview can show, only the tiles on screen are decoded, at the
+ * resolution the current zoom needs ({@link TileGrid}), through a region decoder on a
+ * background thread. Decoded tiles are kept in a byte-capped cache and handed back to the
+ * {@link BitmapPool} when evicted.
+ *
+ * Everything except the decoding itself happens on the main thread.
+ */
+public class TiledImageView extends View {
+
+    // most zoomed in: two screen pixels per photo pixel
+    private static final float MAX_SCALE = 2f;
+    private static final float DOUBLE_TAP_ZOOM = 3f;
+
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF dst = new RectF();
+    private final BitmapPool pool = BitmapPool.get();
+    private final LruCache<Tile, Bitmap> tiles;
+    private final Set<Tile> requested = new HashSet<>();
+    private final List<Tile> visible = new ArrayList<>();
+    // what's on screen now, read by the decoder thread to skip tiles scrolled away
+    private volatile Set<Tile> wanted = Collections.emptySet();
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+
+    private ExecutorService tileDecoder;
+    private BitmapRegionDecoder regionDecoder;     // decoder thread only
+    private Bitmap preview;
+    private TileGrid grid;                         // null until the decoder has opened the file
+    private int imageWidth;
+    private int imageHeight;
+    // screen = image * scale + translation
+    private float scale;
+    private float translateX;
+    private float translateY;
+    private float minScale;
+    private boolean closed;
+
+    public TiledImageView(Context context) {
+        super(context);
+
+        // an eighth of the heap for tiles – about a screenful at two zoom levels on most phones
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+        tiles = new LruCache<Tile, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Tile tile, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Tile tile, Bitmap oldValue, Bitmap newValue) {
+                pool.put(oldValue);     // main thread, so it's no longer drawn after this
+            }
+        };
+
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(@NonNull ScaleGestureDetector detector) {
+                zoomTo(scale * detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
+        });
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onScroll(MotionEvent e1, @NonNull MotionEvent e2, float dx, float dy) {
+                translateX -= dx;
+                translateY -= dy;
+                clampTranslation();
+                invalidate();
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(@NonNull MotionEvent e) {
+                boolean zoomedIn = scale > minScale * 1.5f;
+                zoomTo(zoomedIn ? minScale : minScale * DOUBLE_TAP_ZOOM, e.getX(), e.getY());
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapConfirmed(@NonNull MotionEvent e) {
+                return performClick();
+            }
+        });
+    }
+
+    /**
+     * Shows the photo at {@code path}. {@code preview} is the whole photo at about screen
+     * size (e.g. from {@link ImageLoader#loadFullScreen}); it's shown right away and stays
+     * the owner's – this view never recycles or pools it.
+     */
+    public void setImage(String path, Bitmap preview) {
+        this.preview = preview;
+        imageWidth = preview.getWidth();
+        imageHeight = preview.getHeight();
+        fitToView();
+        invalidate();
+
+        tileDecoder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "TiledImageView");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tileDecoder.execute(() -> {
+            try {
+                regionDecoder = BitmapRegionDecoder.newInstance(path);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;                 // the preview is all there is
+            }
+            int width = regionDecoder.getWidth();
+            int height = regionDecoder.getHeight();
+            post(() -> onSizeKnown(width, height));
+        });
+    }
+
+    // the preview stood in for the photo until now; keep what's on screen where it is
+    private void onSizeKnown(int width, int height) {
+        if (closed) return;
+        float factor = imageWidth / (float) width;
+        imageWidth = width;
+        imageHeight = height;
+        scale *= factor;
+        minScale *= factor;
+        grid = new TileGrid(width, height);
+        invalidate();
+    }
+
+    // -------------------- drawing --------------------
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (preview == null) return;
+
+        canvas.save();
+        canvas.translate(translateX, translateY);
+        canvas.scale(scale, scale);
+        dst.set(0, 0, imageWidth, imageHeight);
+        canvas.drawBitmap(preview, null, dst, paint);
+
+        int sampleSize = TileGrid.sampleSizeFor(scale);
+        // tiles only once the zoom asks for more pixels than the preview has
+        if (grid != null && imageWidth / sampleSize > preview.getWidth()) {
+            visible.clear();
+            grid.visibleTiles(sampleSize, -translateX / scale, -translateY / scale,
+                    (getWidth() - translateX) / scale, (getHeight() - translateY) / scale, visible);
+            if (!wanted.containsAll(visible) || wanted.size() != visible.size()) {
+                wanted = new HashSet<>(visible);
+            }
+            for (Tile tile : visible) {
+                Bitmap bitmap = tiles.get(tile);
+                if (bitmap == null) {
+                    request(tile);      // the preview shows through until it's there
+                    continue;
+                }
+                dst.set(tile.left, tile.top, tile.right, tile.bottom);
+                canvas.drawBitmap(bitmap, null, dst, paint);
+            }
+        } else if (!wanted.isEmpty()) {
+            wanted = Collections.emptySet();
+        }
+        canvas.restore();
+    }
+
+    private void request(Tile tile) {
+        if (!requested.add(tile)) return;
+        tileDecoder.execute(() -> {
+            Bitmap bitmap = wanted.contains(tile) ? decode(tile) : null;
+            post(() -> {
+                requested.remove(tile);
+                if (bitmap == null) return;
+                if (closed) {
+                    pool.put(bitmap);
+                    return;
+                }
+                tiles.put(tile, bitmap);
+                invalidate();
+            });
+        });
+    }
+
+    // decoder thread
+    private Bitmap decode(Tile tile) {
+        if (regionDecoder == null) return null;
+        Rect region = new Rect(tile.left, tile.top, tile.right, tile.bottom);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = tile.sampleSize;
+        options.inMutable = true;
+        options.inBitmap = pool.take(tile.decodedBytes());
+        try {
+            return regionDecoder.decodeRegion(region, options);
+        } catch (IllegalArgumentException e) {
+            // the pooled bitmap didn't suit this tile; give it back and allocate
+            pool.put(options.inBitmap);
+            options.inBitmap = null;
+            return regionDecoder.decodeRegion(region, options);
+        }
+    }
+
+    // -------------------- zoom and pan --------------------
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        scaleDetector.onTouchEvent(event);
+        gestureDetector.onTouchEvent(event);
+        return true;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        fitToView();
+    }
+
+    private void fitToView() {
+        if (imageWidth == 0 || getWidth() == 0) return;
+        minScale = Math.min(getWidth() / (float) imageWidth, getHeight() / (float) imageHeight);
+        scale = minScale;
+        clampTranslation();
+    }
+
+    /** Zooms to {@code target} keeping the image point under ({@code focusX}, {@code focusY}) in place. */
+    private void zoomTo(float target, float focusX, float focusY) {
+        float newScale = Math.max(minScale, Math.min(Math.max(minScale, MAX_SCALE), target));
+        translateX = focusX - (focusX - translateX) * (newScale / scale);
+        translateY = focusY - (focusY - translateY) * (newScale / scale);
+        scale = newScale;
+        clampTranslation();
+        invalidate();
+    }
+
+    // centred when smaller than the view, edge to edge otherwise
+    private void clampTranslation() {
+        float width = imageWidth * scale;
+        float height = imageHeight * scale;
+        translateX = width <= getWidth()
+                ? (getWidth() - width) / 2
+                : Math.max(getWidth() - width, Math.min(0, translateX));
+        translateY = height <= getHeight()
+                ? (getHeight() - height) / 2
+                : Math.max(getHeight() - height, Math.min(0, translateY));
+    }
+
+    // -------------------- teardown --------------------
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        closed = true;
+        wanted = Collections.emptySet();
+        tiles.evictAll();
+        preview = null;
+        if (tileDecoder != null) {
+            // after whatever decode is running; queued ones see wanted is empty and skip
+            tileDecoder.execute(() -> {
+                if (regionDecoder != null) regionDecoder.recycle();
+            });
+            tileDecoder.shutdown();
+        }
+    }
+}
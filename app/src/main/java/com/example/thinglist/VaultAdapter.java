@@ -0,0 +1,100 @@
+package com.example.thinglist;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Vault cards for one category. The card list only grows (pages are appended), so
+ * there is nothing to diff – new pages are a single range insert.
+ *
+ * Cards come from {@code spareCards} (inflated ahead of time off the main thread, see
+ * VaultFragment) when there are any, and are inflated here otherwise.
+ */
+final class VaultAdapter extends RecyclerView.Adapter<VaultAdapter.CardHolder> {
+
+    private final List<VaultItem> items = new ArrayList<>();
+    private final Deque<View> spareCards;
+    private final CurrencyFormatter currency = CurrencyFormatter.getDefault();
+
+    VaultAdapter(Deque<View> spareCards) {
+        this.spareCards = spareCards;
+        setHasStableIds(true);
+    }
+
+    void append(List<VaultItem> page) {
+        int start = items.size();
+        items.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
+    @Override
+    public int getItemCount() {
+        return items.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return items.get(position).id();
+    }
+
+    @NonNull
+    @Override
+    public CardHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View card = spareCards.pollFirst();
+        if (card == null) {
+            card = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_vault_card, parent, false);
+        }
+        return new CardHolder(card);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CardHolder holder, int position) {
+        VaultItem item = items.get(position);
+        holder.title.setText(item.title());
+        holder.subtitle.setText(item.subtitle());
+        holder.category.setText(item.category());
+        holder.location.setText("📍 " + item.location());
+        holder.date.setText(item.date());
+
+        if (item.valueCents() > 0) {
+            holder.value.setVisibility(View.VISIBLE);
+            holder.value.setText(currency.format(item.valueCents()));
+        } else {
+            holder.value.setVisibility(View.GONE);
+        }
+    }
+
+    static final class CardHolder extends RecyclerView.ViewHolder {
+        final TextView title;
+        final TextView subtitle;
+        final TextView category;
+        final TextView location;
+        final TextView date;
+        final TextView value;
+
+        CardHolder(View card) {
+            super(card);
+            title    = card.findViewById(R.id.tvItemTitle);
+            subtitle = card.findViewById(R.id.tvItemSubtitle);
+            category = card.findViewById(R.id.tvItemCategoryTag);
+            location = card.findViewById(R.id.tvItemLocation);
+            date     = card.findViewById(R.id.tvItemDate);
+            value    = card.findViewById(R.id.tvItemValue);
+        }
+    }
+
+    // simple data model
+    record VaultItem(long id, String title, String subtitle, String category,
+                     String location, String date, long valueCents) {
+    }
+}
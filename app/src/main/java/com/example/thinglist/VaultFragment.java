@@ -4,30 +4,53 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.LinearLayout;
+import android.widget.FrameLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.thinglist.VaultAdapter.VaultItem;
 import com.google.android.material.chip.ChipGroup;
 
-import java.text.NumberFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class VaultFragment extends Fragment {
 
+    // Chip categories; "All" means no filter
+    private static final String[] CATEGORIES =
+            {"All", "Documents", "Jewelry", "Cash", "Electronics", "Art", "Other"};
+
+    // Cards per page, and how many cards before the end the next page is fetched
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_ROWS = 8;
+    // Cards inflated in the background up front – about a screenful per hidden category
+    private static final int SPARE_CARDS = 30;
+
     private TextView tvTotalItems;
     private TextView tvTotalValue;
     private TextView tvItemCount;
     private ChipGroup chipGroupCategories;
-    private LinearLayout layoutVaultItems;
+    private FrameLayout layoutVaultLists;
 
-    // our in-memory data source (later you can replace with DB / API)
-    private final List<VaultItem> allItems = new ArrayList<>();
+    // Every category's list draws its cards from the same pool
+    private final RecyclerView.RecycledViewPool cardPool = new RecyclerView.RecycledViewPool();
+    private final Deque<View> spareCards = new ArrayDeque<>();
+    private final Map<String, CategoryList> lists = new HashMap<>();
+    private DateTimeFormatter dateFormat;
 
     public VaultFragment() {
         // Required empty public constructor
@@ -50,16 +73,20 @@ public class VaultFragment extends Fragment {
         tvTotalValue       = view.findViewById(R.id.tvTotalValue);
         tvItemCount        = view.findViewById(R.id.tvItemCount);
         chipGroupCategories = view.findViewById(R.id.chipGroupCategories);
-        layoutVaultItems    = view.findViewById(R.id.layoutVaultItems);
+        layoutVaultLists    = view.findViewById(R.id.layoutVaultLists);
 
-        // 1) Load your items (right now hard-coded sample data)
-        seedItems();
+        dateFormat = DateTimeFormatter.ofPattern("M/d/yyyy", Locale.getDefault());
+        cardPool.setMaxRecycledViews(0, SPARE_CARDS);
 
-        // 2) Update header with TOTALS for all items
+        // 1) Update header with TOTALS for all items
         updateHeaderTotals();
 
-        // 3) Show list filtered by "All"
-        updateList("All");
+        // 2) Show list filtered by "All"
+        showCategory("All");
+
+        // 3) Inflate spare cards off the main thread, then use them to pre-bind the
+        //    other categories, so switching chips is just a visibility change
+        inflateSpareCards();
 
         // 4) Filter when chips change
         chipGroupCategories.setOnCheckedStateChangeListener((group, checkedIds) -> {
@@ -73,145 +100,136 @@ public class VaultFragment extends Fragment {
                 else if (id == R.id.chipArt)       category = "Art";
                 else if (id == R.id.chipOther)     category = "Other";
             }
-            updateList(category);        // list + "X items" label
+            showCategory(category);      // list + "X items" label
             updateHeaderTotals();        // header always reflects ALL items
         });
     }
 
-    /** Replace this later with real DB/API data */
-    private void seedItems() {
-        allItems.clear();
-
-        allItems.add(new VaultItem(
-                "Passport (John Doe)",
-                "Valid until 2029",
-                "Documents",
-                "Section A",
-                "3/4/2024",
-                0
-        ));
-        allItems.add(new VaultItem(
-                "Emergency Cash Reserve",
-                "Emergency fund -\nmixed denominations",
-                "Cash",
-                "Compartment C",
-                "1/31/2024",
-                5000
-        ));
-        allItems.add(new VaultItem(
-                "Silver Coins Collection",
-                "Rare silver dollar collection\n(24 coins)",
-                "Cash",
-                "Compartment D",
-                "1/19/2024",
-                2400
-        ));
-        allItems.add(new VaultItem(
-                "Gold Wedding Band",
-                "18K gold wedding band,\ncustom engraved",
-                "Jewelry",
-                "Drawer 1A",
-                "1/14/2024",
-                3500
-        ));
-        allItems.add(new VaultItem(
-                "Diamond Earrings",
-                "2ct diamond stud earrings,\nplatinum setting",
-                "Jewelry",
-                "Drawer 1B",
-                "12/9/2023",
-                8200
-        ));
-        allItems.add(new VaultItem(
-                "Property Deed",
-                "Original property deed for 123 Main Street",
-                "Documents",
-                "Section B",
-                "11/21/2023",
-                0
-        ));
-        allItems.add(new VaultItem(
-                "Vintage Rolex",
-                "Rolex Submariner\n1960s vintage",
-                "Jewelry",
-                "Watch Box",
-                "9/17/2023",
-                15000
-        ));
-        allItems.add(new VaultItem(
-                "Birth Certificates",
-                "Family birth certificates (3)",
-                "Documents",
-                "Section A",
-                "8/29/2023",
-                0
-        ));
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // the lists and cards belong to this view; a new view builds its own
+        lists.clear();
+        spareCards.clear();
+        cardPool.clear();
+    }
+
+    /** Display data for one card (dates formatted once here). */
+    private VaultItem toVaultItem(ThingItem item) {
+        String date = Instant.ofEpochMilli(item.dateAdded)
+                .atZone(ZoneId.systemDefault())
+                .format(dateFormat);
+        return new VaultItem(item.id, item.name, item.description,
+                item.status, item.location, date, item.priceCents);
     }
 
+
     /** Header = TOTAL items + TOTAL value (ignores filters) */
     private void updateHeaderTotals() {
-        // total number of items
-        tvTotalItems.setText(String.valueOf(allItems.size()));
-
-        // sum of all item values
-        double sum = 0;
-        for (VaultItem item : allItems) {
-            sum += item.value;
-        }
-        tvTotalValue.setText(formatCurrency(sum));
+        // kept up to date by the vault store on every write – no loop over the items
+        CategoryTotals.Sum all = VaultRepository.totals().overall();
+        tvTotalItems.setText(String.valueOf(all.count));
+        tvTotalValue.setText(formatCurrency(all.valueCents));
     }
 
     /** List + "X items" label = depends on current filter */
-    private void updateList(String categoryFilter) {
-        layoutVaultItems.removeAllViews();
-        LayoutInflater inflater = LayoutInflater.from(requireContext());
+    private void showCategory(String category) {
+        CategoryList shown = listFor(category);
+        for (CategoryList list : lists.values()) {
+            // hidden lists stay laid out (INVISIBLE, not GONE), so their cards stay bound
+            list.view.setVisibility(list == shown ? View.VISIBLE : View.INVISIBLE);
+        }
 
-        List<VaultItem> filtered = new ArrayList<>();
+        // "X items" label counts every match, not just the cards loaded so far
+        tvItemCount.setText(shown.totalMatches + " items");
+    }
 
-        for (VaultItem item : allItems) {
-            if (!"All".equals(categoryFilter)
-                    && !item.category.equalsIgnoreCase(categoryFilter)) {
-                continue;
-            }
-            filtered.add(item);
-
-            View card = inflater.inflate(R.layout.item_vault_card,
-                    layoutVaultItems, false);
-
-            TextView tvTitle    = card.findViewById(R.id.tvItemTitle);
-            TextView tvSubtitle = card.findViewById(R.id.tvItemSubtitle);
-            TextView tvCategory = card.findViewById(R.id.tvItemCategoryTag);
-            TextView tvLocation = card.findViewById(R.id.tvItemLocation);
-            TextView tvDate     = card.findViewById(R.id.tvItemDate);
-            TextView tvValue    = card.findViewById(R.id.tvItemValue);
-
-            tvTitle.setText(item.title);
-            tvSubtitle.setText(item.subtitle);
-            tvCategory.setText(item.category);
-            tvLocation.setText("📍 " + item.location);
-            tvDate.setText(item.date);
-
-            if (item.value > 0) {
-                tvValue.setVisibility(View.VISIBLE);
-                tvValue.setText(formatCurrency(item.value));
-            } else {
-                tvValue.setVisibility(View.GONE);
-            }
+    private CategoryList listFor(String category) {
+        CategoryList list = lists.get(category);
+        if (list == null) {
+            list = new CategoryList(category);
+            lists.put(category, list);
+        }
+        return list;
+    }
 
-            layoutVaultItems.addView(card);
+    private void inflateSpareCards() {
+        AsyncLayoutInflater inflater = new AsyncLayoutInflater(requireContext());
+        // any of the lists works as parent: it only supplies the card's layout params
+        RecyclerView parent = listFor("All").view;
+        int[] pending = {SPARE_CARDS};
+        for (int i = 0; i < SPARE_CARDS; i++) {
+            inflater.inflate(R.layout.item_vault_card, parent, (card, resId, p) -> {
+                if (getView() == null) return;   // view went away meanwhile
+                spareCards.add(card);
+                if (--pending[0] == 0) prebindHiddenCategories();
+            });
         }
+    }
 
-        // "X items" label uses filtered list length
-        tvItemCount.setText(filtered.size() + " items");
+    private void prebindHiddenCategories() {
+        for (String category : CATEGORIES) {
+            if (!lists.containsKey(category)) {
+                listFor(category).view.setVisibility(View.INVISIBLE);
+            }
+        }
     }
 
-    private String formatCurrency(double value) {
-        NumberFormat format = NumberFormat.getCurrencyInstance(Locale.getDefault());
-        return format.format(value);
+    private String formatCurrency(long cents) {
+        return CurrencyFormatter.getDefault().format(cents);
     }
 
-    // simple data model
-        private record VaultItem(String title, String subtitle, String category, String location,
-                                 String date, double value) {
+    /**
+     * One chip's list: a RecyclerView over the cards loaded so far, paging in more from
+     * VaultRepository as you near the end.
+     */
+    private final class CategoryList {
+        final ItemQuery query;
+        final RecyclerView view;
+        final VaultAdapter adapter;
+        String nextPageToken;
+        int totalMatches;
+
+        CategoryList(String category) {
+            // the vault store's bitmap index answers the chip filter – no pass over the items
+            query = "All".equals(category)
+                    ? ItemQuery.ALL
+                    : ItemQuery.builder().categories(category).build();
+            adapter = new VaultAdapter(spareCards);
+
+            LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+            view = new RecyclerView(requireContext());
+            view.setLayoutManager(layoutManager);
+            view.setRecycledViewPool(cardPool);
+            view.setAdapter(adapter);
+            view.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                    int lastVisible = layoutManager.findLastVisibleItemPosition();
+                    if (dy > 0 && lastVisible >= adapter.getItemCount() - PREFETCH_ROWS) {
+                        loadNextPage();
+                    }
+                }
+            });
+            layoutVaultLists.addView(view, new FrameLayout.LayoutParams(
+                    FrameLayout.LayoutParams.MATCH_PARENT,
+                    FrameLayout.LayoutParams.MATCH_PARENT));
+
+            ItemPage first = VaultRepository.page(query, null, false, PAGE_SIZE, null);
+            totalMatches = first.totalMatches;
+            append(first);
+        }
+
+        void loadNextPage() {
+            if (nextPageToken == null) return;
+            append(VaultRepository.page(query, null, false, PAGE_SIZE, nextPageToken));
+        }
+
+        private void append(ItemPage page) {
+            List<VaultItem> cards = new ArrayList<>(page.items.size());
+            for (ThingItem item : page.items) cards.add(toVaultItem(item));
+            adapter.append(cards);
+            nextPageToken = page.nextToken;
+        }
     }
 }
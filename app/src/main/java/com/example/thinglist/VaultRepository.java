@@ -0,0 +1,55 @@
+package com.example.thinglist;
+
+import java.io.IOException;
+
+/**
+ * The vault's items. Only sample data for now, held in an in-memory {@link ItemStore}
+ * so the vault gets the same snapshots, totals and indexes as the main inventory.
+ * Items are stored as ThingItems with the vault category in {@code status}.
+ */
+public class VaultRepository {
+
+    private static ItemStore store;
+    private static ItemIndexes indexes;
+
+    public static ItemSnapshot snapshot() {
+        return store().snapshot();
+    }
+
+    /** Running totals per vault category (see {@link CategoryTotals}). */
+    public static CategoryTotals totals() {
+        return indexes().totals();
+    }
+
+    /** Ids of the vault items matching {@code query}, ascending. */
+    public static IdBitmap query(ItemQuery query) {
+        return indexes().run(query);
+    }
+
+    /** Keyset-paged vault items, see {@link ItemRepository#page}. */
+    public static ItemPage page(ItemQuery query, SortIndex.Key key, boolean descending,
+                                int pageSize, String token) {
+        return indexes().page(query, key, descending, pageSize, token);
+    }
+
+    static synchronized ItemStore store() {
+        if (store == null) {
+            store = ItemStore.inMemory();
+            try {
+                for (ThingItem item : SampleData.vault()) {
+                    store.put(item);
+                }
+            } catch (IOException e) {
+                // an in-memory store has no file to fail on
+                e.printStackTrace();
+            }
+            indexes = new ItemIndexes(store);
+        }
+        return store;
+    }
+
+    private static synchronized ItemIndexes indexes() {
+        store();
+        return indexes;
+    }
+}
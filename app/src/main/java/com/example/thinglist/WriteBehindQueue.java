@@ -0,0 +1,166 @@
+package com.example.thinglist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Single writer thread in front of an {@link ItemStore}.
+ *
+ * Callers enqueue puts/removes and get a future back straight away. The writer drains
+ * whatever is pending and hands it to the store as one batch, so a burst of saves costs
+ * one fsync (group commit) instead of one per item, and none of it runs on the UI thread.
+ */
+final class WriteBehindQueue implements Closeable {
+
+    /** Upper bound on requests folded into one commit (a {@link #putAll} is one request). */
+    static final int MAX_BATCH = 256;
+
+    private static final class Pending {
+        final List<ItemCodec.Entry> entries;      // empty for a flush barrier
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(List<ItemCodec.Entry> entries) {
+            this.entries = entries;
+        }
+    }
+
+    private final ItemStore store;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private boolean closed;
+    private volatile Pending stopMarker;
+
+    // Only touched by the writer thread; read by tests.
+    private volatile long commits;
+
+    WriteBehindQueue(ItemStore store) {
+        this.store = store;
+        this.writer = new Thread(this::runWriter, "ItemStore-writer");
+        this.writer.setDaemon(true);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    /**
+     * Queues an insert/update. New items get their id right away, so callers can
+     * refer to the item before it has reached the disk.
+     */
+    CompletableFuture<ThingItem> put(ThingItem item) {
+        return enqueue(new Pending(Collections.singletonList(putEntry(item)))).thenApply(ignored -> item);
+    }
+
+    /**
+     * Queues several inserts/updates that are committed together: all of them reach the
+     * store in the same commit, or none do.
+     */
+    CompletableFuture<List<ThingItem>> putAll(List<ThingItem> items) {
+        List<ItemCodec.Entry> entries = new ArrayList<>(items.size());
+        for (ThingItem item : items) entries.add(putEntry(item));
+        return enqueue(new Pending(entries)).thenApply(ignored -> items);
+    }
+
+    private ItemCodec.Entry putEntry(ThingItem item) {
+        if (item.id <= 0) {
+            item.id = store.reserveId();
+        }
+        return new ItemCodec.Entry(ItemCodec.OP_PUT, item.id, item);
+    }
+
+    CompletableFuture<ThingItem> remove(long id) {
+        return enqueue(new Pending(Collections.singletonList(
+                new ItemCodec.Entry(ItemCodec.OP_DELETE, id, null)))).thenApply(ignored -> null);
+    }
+
+    /** Completes once everything queued before this call has been committed. */
+    CompletableFuture<Void> flush() {
+        return enqueue(new Pending(Collections.emptyList()));
+    }
+
+    /** Blocking {@link #flush()}, for tests and shutdown paths. */
+    void awaitFlush() throws IOException, InterruptedException {
+        try {
+            flush().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    long commits() {
+        return commits;
+    }
+
+    private synchronized CompletableFuture<Void> enqueue(Pending pending) {
+        if (closed) {
+            pending.done.completeExceptionally(new IOException("Write queue is closed"));
+            return pending.done;
+        }
+        queue.add(pending);
+        return pending.done;
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        List<ItemCodec.Entry> entries = new ArrayList<>(MAX_BATCH);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;   // only close() stops us, via the stop marker
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            for (Pending p : batch) {
+                if (p == stopMarker) stop = true;
+                entries.addAll(p.entries);
+            }
+            Exception failure = null;
+            if (!entries.isEmpty()) {
+                try {
+                    store.commit(entries);
+                    commits++;
+                } catch (IOException | RuntimeException e) {
+                    // a bug in an index or listener fails this batch, not every later write
+                    failure = e;
+                }
+            }
+            for (Pending p : batch) {
+                if (failure != null && !p.entries.isEmpty()) {
+                    p.done.completeExceptionally(failure);
+                } else {
+                    p.done.complete(null);
+                }
+            }
+            batch.clear();
+            entries.clear();
+        }
+    }
+
+    /** Commits everything already queued, then stops the writer thread. Later writes fail. */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            stopMarker = new Pending(Collections.emptyList());
+            queue.add(stopMarker);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing writes", e);
+        }
+    }
+}
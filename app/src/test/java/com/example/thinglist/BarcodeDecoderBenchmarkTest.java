@@ -0,0 +1,115 @@
+package com.example.thinglist;
+
+import com.example.thinglist.BarcodeDecoder.Format;
+import com.example.thinglist.BarcodeDecoder.Result;
+import com.example.thinglist.SyntheticBarcodes.Picture;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rough JVM benchmark: decoding camera-sized (1280×960) synthetic barcode photos – EAN-13,
+ * UPC-A and Code 128 at different sizes, offsets and noise levels, some upside down or
+ * sideways, some with no barcode at all. The budget is 50 ms a decode on a mid-range phone;
+ * a desktop JVM is quicker, so this only catches the decoder getting a lot slower.
+ */
+public class BarcodeDecoderBenchmarkTest {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 960;
+    private static final int PICTURES = 48;
+    private static final double BUDGET_MS = 50;
+
+    @BeforeClass
+    public static void onlyWhenAsked() {
+        Benchmarks.assumeEnabled();
+    }
+
+    @Test
+    public void decodesACorpusWithinBudget() {
+        Random random = new Random(121);
+        List<Picture> pictures = new ArrayList<>();
+        List<Result> expected = new ArrayList<>();
+        for (int i = 0; i < PICTURES; i++) {
+            Result result;
+            boolean[] modules;
+            switch (i % 4) {
+                case 0: {
+                    String ean = digits(random, 12);
+                    ean = ean.charAt(0) == '0' ? "4" + ean.substring(1) : ean;
+                    ean += SyntheticBarcodes.eanCheckDigit(ean);
+                    modules = SyntheticBarcodes.ean13(ean);
+                    result = new Result(Format.EAN_13, ean);
+                    break;
+                }
+                case 1: {
+                    String upc = digits(random, 11);
+                    upc += SyntheticBarcodes.eanCheckDigit(upc);
+                    modules = SyntheticBarcodes.ean13("0" + upc);
+                    result = new Result(Format.UPC_A, upc);
+                    break;
+                }
+                case 2: {
+                    String text = i % 8 == 2 ? digits(random, 12) : "BOX-" + digits(random, 5);
+                    modules = SyntheticBarcodes.code128(text);
+                    result = new Result(Format.CODE_128, text);
+                    break;
+                }
+                default:
+                    pictures.add(SyntheticBarcodes.clutter(WIDTH, HEIGHT, random));
+                    expected.add(null);
+                    continue;
+            }
+            // between about a third and two thirds of the frame wide
+            float moduleWidth = (WIDTH * (0.35f + random.nextFloat() * 0.3f)) / modules.length;
+            float left = 40 + random.nextFloat() * (WIDTH - 80 - moduleWidth * modules.length);
+            Picture picture = SyntheticBarcodes.render(modules, WIDTH, HEIGHT, moduleWidth, left,
+                    HEIGHT * (0.2f + random.nextFloat() * 0.3f), 4 + random.nextInt(16), random);
+            if (i % 5 == 1) picture = picture.flipped();
+            if (i % 7 == 2) picture = picture.rotated();
+            pictures.add(picture);
+            expected.add(result);
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, cores - 1));
+        try {
+            BarcodeDecoder decoder = new BarcodeDecoder(workers, cores);
+
+            // warm up the JIT
+            for (int round = 0; round < 3; round++) {
+                for (Picture picture : pictures) decoder.decode(picture);
+            }
+
+            long slowest = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < pictures.size(); i++) {
+                long one = System.nanoTime();
+                Result result = decoder.decode(pictures.get(i));
+                slowest = Math.max(slowest, System.nanoTime() - one);
+                assertEquals("picture " + i, expected.get(i), result);
+            }
+            double average = (System.nanoTime() - start) / 1e6 / pictures.size();
+
+            System.out.printf("barcode decode, %d pictures of %dx%d on %d threads: %.2f ms average, %.2f ms slowest%n",
+                    pictures.size(), WIDTH, HEIGHT, cores, average, slowest / 1e6);
+            assertTrue("average " + average + " ms", average < BUDGET_MS);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static String digits(Random random, int count) {
+        StringBuilder out = new StringBuilder(count);
+        for (int i = 0; i < count; i++) out.append((char) ('0' + random.nextInt(10)));
+        return out.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.thinglist;
+
+import com.example.thinglist.BarcodeDecoder.Format;
+import com.example.thinglist.BarcodeDecoder.Result;
+import com.example.thinglist.SyntheticBarcodes.Picture;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class BarcodeDecoderTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(3);
+    private final BarcodeDecoder decoder = new BarcodeDecoder(workers, 4);
+    private final Random random = new Random(21);
+
+    @After
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private Picture picture(boolean[] modules) {
+        return SyntheticBarcodes.render(modules, 800, 600, 2.5f, 120, 300, 12, random);
+    }
+
+    @Test
+    public void readsEan13() {
+        String ean = "400638133393";
+        ean += SyntheticBarcodes.eanCheckDigit(ean);
+        assertEquals(new Result(Format.EAN_13, ean), decoder.decode(picture(SyntheticBarcodes.ean13(ean))));
+    }
+
+    @Test
+    public void readsUpcAAsTwelveDigits() {
+        String upc = "03600029145";
+        upc += SyntheticBarcodes.eanCheckDigit(upc);
+        Result result = decoder.decode(picture(SyntheticBarcodes.ean13("0" + upc)));
+        assertEquals(new Result(Format.UPC_A, upc), result);
+    }
+
+    @Test
+    public void readsCode128InSetsBAndC() {
+        assertEquals(new Result(Format.CODE_128, "ThingList-42"),
+                decoder.decode(picture(SyntheticBarcodes.code128("ThingList-42"))));
+        assertEquals(new Result(Format.CODE_128, "00123456789012"),
+                decoder.decode(picture(SyntheticBarcodes.code128("00123456789012"))));
+    }
+
+    @Test
+    public void readsUpsideDownAndSidewaysBarcodes() {
+        String ean = "590123412345";
+        ean += SyntheticBarcodes.eanCheckDigit(ean);
+        Picture upright = picture(SyntheticBarcodes.ean13(ean));
+        Result expected = new Result(Format.EAN_13, ean);
+
+        assertEquals(expected, decoder.decode(upright.flipped()));
+        assertEquals(expected, decoder.decode(upright.rotated()));
+    }
+
+    @Test
+    public void wrongCheckDigitIsNotARead() {
+        String ean = "400638133393";
+        char wrong = (char) ('0' + (SyntheticBarcodes.eanCheckDigit(ean) - '0' + 1) % 10);
+        assertNull(decoder.decode(picture(SyntheticBarcodes.ean13(ean + wrong))));
+    }
+
+    @Test
+    public void nothingInClutter() {
+        assertNull(decoder.decode(SyntheticBarcodes.clutter(640, 480, random)));
+    }
+
+    @Test
+    public void eanChecksum() {
+        assertTrue(BarcodeDecoder.eanChecksumOk("4006381333931"));
+        assertTrue(BarcodeDecoder.eanChecksumOk("036000291452"));     // UPC-A
+        assertFalse(BarcodeDecoder.eanChecksumOk("4006381333932"));
+    }
+
+    @Test
+    public void code128TableIsWellFormed() {
+        Set<String> seen = new HashSet<>();
+        for (int value = 0; value < BarcodeDecoder.CODE128.length; value++) {
+            int[] widths = BarcodeDecoder.CODE128[value];
+            int modules = 0;
+            int barModules = 0;
+            for (int i = 0; i < widths.length; i++) {
+                modules += widths[i];
+                if (i % 2 == 0) barModules += widths[i];
+            }
+            assertEquals("value " + value, 11, modules);
+            assertEquals("value " + value + " bar parity", 0, barModules % 2);
+            assertTrue("value " + value + " repeats", seen.add(java.util.Arrays.toString(widths)));
+        }
+        assertEquals(106, BarcodeDecoder.CODE128.length);
+    }
+
+    @Test
+    public void scanLinesStartInTheMiddle() {
+        int[] lines = BarcodeDecoder.lineOrder(1000, 500);
+        assertEquals(BarcodeDecoder.ROWS + BarcodeDecoder.COLUMNS, lines.length);
+        assertEquals(250, lines[0]);
+        assertTrue(Math.abs(lines[1] - 250) < Math.abs(lines[BarcodeDecoder.ROWS - 1] - 250));
+        assertEquals(-(500 + 1), lines[BarcodeDecoder.ROWS]);      // then columns, also middle first
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.thinglist;
+
+import org.junit.Assume;
+
+/**
+ * The *BenchmarkTest classes build catalogs of millions of rows and assert on timings, so
+ * they're slow and only as steady as the machine. They're skipped unless asked for:
+ * {@code ./gradlew test -Pbenchmarks}.
+ */
+final class Benchmarks {
+
+    static final String PROPERTY = "thinglist.benchmarks";
+
+    private Benchmarks() { }
+
+    /** Call from a benchmark's {@code @BeforeClass}. */
+    static void assumeEnabled() {
+        Assume.assumeTrue("benchmarks only run with -Pbenchmarks", Boolean.getBoolean(PROPERTY));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BulkImportTest {
+
+    // more threads than any import asks for, so only BulkImport limits the parallelism
+    private final ExecutorService pool = Executors.newFixedThreadPool(16);
+
+    private final List<Integer> imported = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+
+    private final BulkImport.Listener listener = new BulkImport.Listener() {
+        @Override
+        public void onItem(int index, ThingItem item) {
+            assertEquals("Photo " + (index + 1), item.name);
+            imported.add(index);
+        }
+
+        @Override
+        public void onFailed(int index, Exception error) {
+            failed.add(index);
+        }
+    };
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static List<String> inputs(int count) {
+        List<String> inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) inputs.add("content://media/" + i);
+        return inputs;
+    }
+
+    @Test
+    public void neverRunsMoreThanItsWorkers() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger mostInFlight = new AtomicInteger();
+        BulkImport<String> bulk = new BulkImport<>(inputs(300), (uri, index) -> {
+            int now = inFlight.incrementAndGet();
+            mostInFlight.accumulateAndGet(now, Math::max);
+            Thread.sleep(1);
+            inFlight.decrementAndGet();
+            return new ThingItem("Photo " + (index + 1), "", "", "", "Active", uri);
+        }, listener);
+
+        bulk.start(pool, 4).get(10, TimeUnit.SECONDS);
+
+        assertEquals(300, imported.size());
+        assertEquals(300, bulk.completed());
+        assertTrue(failed.isEmpty());
+        assertTrue(String.valueOf(mostInFlight.get()), mostInFlight.get() <= 4);
+        assertTrue(String.valueOf(mostInFlight.get()), mostInFlight.get() > 1);
+        List<Integer> sorted = new ArrayList<>(imported);
+        Collections.sort(sorted);
+        for (int i = 0; i < 300; i++) assertEquals(i, (int) sorted.get(i));
+    }
+
+    @Test
+    public void aFailedImageDoesNotStopTheRest() throws Exception {
+        BulkImport<String> bulk = new BulkImport<>(inputs(10), (uri, index) -> {
+            if (index % 3 == 0) throw new IllegalStateException("not an image");
+            return new ThingItem("Photo " + (index + 1), "", "", "", "Active", uri);
+        }, listener);
+
+        bulk.start(pool, 3).get(10, TimeUnit.SECONDS);
+
+        Collections.sort(failed);
+        assertEquals(Arrays.asList(0, 3, 6, 9), failed);
+        assertEquals(6, imported.size());
+        assertEquals(10, bulk.completed());
+    }
+
+    @Test
+    public void cancelLetsStartedImagesFinish() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        BulkImport<String> bulk = new BulkImport<>(inputs(50), (uri, index) -> {
+            started.countDown();
+            release.await();
+            return new ThingItem("Photo " + (index + 1), "", "", "", "Active", uri);
+        }, listener);
+
+        CompletableFuture<Void> done = bulk.start(pool, 2);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        bulk.cancel();
+        release.countDown();
+        done.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, imported.size());
+        assertEquals(50, bulk.total());
+    }
+
+    @Test
+    public void nothingPickedIsDoneStraightAway() {
+        BulkImport<String> bulk = new BulkImport<>(inputs(0), (uri, index) -> null, listener);
+        assertTrue(bulk.start(pool, 4).isDone());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BurstPipelineTest {
+
+    private final List<ThingItem> drafts = Collections.synchronizedList(new ArrayList<>());
+    private final List<File> failed = Collections.synchronizedList(new ArrayList<>());
+
+    private final BurstPipeline.Listener listener = new BurstPipeline.Listener() {
+        @Override
+        public void onDraft(ThingItem draft) {
+            drafts.add(draft);
+        }
+
+        @Override
+        public void onFailed(File capture, Exception error) {
+            failed.add(capture);
+        }
+    };
+
+    private static final ThreadFactory THREADS = runnable -> {
+        Thread thread = new Thread(runnable, "BurstPipelineTest");
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    /** Steps that only pass names along; {@code gate} holds up the store stage until opened. */
+    private static BurstPipeline.Steps steps(CountDownLatch gate) {
+        return new BurstPipeline.Steps() {
+            @Override
+            public String store(File capture) throws Exception {
+                gate.await();
+                if (capture.getName().startsWith("bad")) throw new IOException("disk full");
+                return "/images/" + capture.getName();
+            }
+
+            @Override
+            public void thumbnail(String path) { }
+
+            @Override
+            public ThingItem draft(String path, int index) {
+                return new ThingItem("Photo " + index, "", "", "", "Draft", path);
+            }
+        };
+    }
+
+    @Test
+    public void everyCaptureBecomesADraftInOrder() throws Exception {
+        BurstPipeline pipeline = new BurstPipeline(steps(new CountDownLatch(0)), listener, 4, THREADS);
+        for (int i = 1; i <= 20; i++) {
+            while (!pipeline.submit(new File("shot" + i + ".jpg"))) Thread.sleep(1);
+        }
+        pipeline.shutdown().get(5, TimeUnit.SECONDS);
+
+        assertEquals(20, drafts.size());
+        assertEquals(0, pipeline.pending());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("Photo " + (i + 1), drafts.get(i).name);
+            assertEquals("/images/shot" + (i + 1) + ".jpg", drafts.get(i).imagePath);
+        }
+        for (BurstPipeline.StageMetrics stage : pipeline.metrics()) {
+            assertEquals(stage.name, 20, stage.processed);
+            assertEquals(0, stage.depth);
+        }
+    }
+
+    @Test
+    public void fullQueueRefusesInsteadOfBlocking() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        BurstPipeline pipeline = new BurstPipeline(steps(gate), listener, 2, THREADS);
+
+        int accepted = 0;
+        while (pipeline.submit(new File("shot" + (accepted + 1) + ".jpg"))) {
+            accepted++;
+            assertTrue("never refused", accepted < 10);
+        }
+        // one being stored, two waiting
+        assertTrue(String.valueOf(accepted), accepted == 2 || accepted == 3);
+        assertEquals(accepted, pipeline.pending());
+        assertEquals(2, pipeline.metrics().get(0).maxDepth);
+
+        gate.countDown();
+        pipeline.shutdown().get(5, TimeUnit.SECONDS);
+        assertEquals(accepted, drafts.size());
+        assertFalse(pipeline.submit(new File("late.jpg")));
+    }
+
+    @Test
+    public void aFailedCaptureDoesNotStopTheRest() throws Exception {
+        BurstPipeline pipeline = new BurstPipeline(steps(new CountDownLatch(0)), listener, 4, THREADS);
+        assertTrue(pipeline.submit(new File("shot1.jpg")));
+        assertTrue(pipeline.submit(new File("bad2.jpg")));
+        assertTrue(pipeline.submit(new File("shot3.jpg")));
+        pipeline.shutdown().get(5, TimeUnit.SECONDS);
+
+        assertEquals(Collections.singletonList(new File("bad2.jpg")), failed);
+        assertEquals(2, drafts.size());
+        assertEquals("Photo 3", drafts.get(1).name);
+        assertEquals(0, pipeline.pending());
+        assertEquals(2, pipeline.metrics().get(2).processed);
+    }
+
+    @Test
+    public void aThrowingListenerCountsTheCaptureOnce() throws Exception {
+        BurstPipeline.Listener throwing = new BurstPipeline.Listener() {
+            @Override
+            public void onDraft(ThingItem draft) {
+                if (draft.name.equals("Photo 1")) throw new IllegalStateException("listener bug");
+                drafts.add(draft);
+            }
+
+            @Override
+            public void onFailed(File capture, Exception error) {
+                failed.add(capture);
+            }
+        };
+        BurstPipeline pipeline = new BurstPipeline(steps(new CountDownLatch(0)), throwing, 4, THREADS);
+        assertTrue(pipeline.submit(new File("shot1.jpg")));
+        assertTrue(pipeline.submit(new File("shot2.jpg")));
+        pipeline.shutdown().get(5, TimeUnit.SECONDS);
+
+        assertEquals(Collections.singletonList(new File("shot1.jpg")), failed);
+        assertEquals(1, drafts.size());
+        assertEquals(0, pipeline.pending());
+    }
+}
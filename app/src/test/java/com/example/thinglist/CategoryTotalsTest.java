@@ -0,0 +1,117 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CategoryTotalsTest {
+
+    private static final String[] CATEGORIES = {"Electronics", "Kitchenware", "Sports", "Bags"};
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("totals").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File c : children) c.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void insertUpdateDeleteAdjustTheSums() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        CategoryTotals totals = new CategoryTotals();
+        store.addIndex(totals);
+
+        ThingItem mouse = store.put(item("Mouse", "Electronics", 2999, 2));
+        store.put(item("Mug", "Kitchenware", 899, 4));
+        assertEquals(new CategoryTotals.Sum(1, 2, 5998), totals.forCategory("Electronics"));
+        assertEquals(new CategoryTotals.Sum(2, 6, 5998 + 3596), totals.overall());
+
+        // move the mouse to another category with a new price
+        ThingItem moved = item("Mouse", "Sports", 1000, 1);
+        moved.id = mouse.id;
+        store.put(moved);
+        assertEquals(CategoryTotals.Sum.ZERO, totals.forCategory("Electronics"));
+        assertEquals(new CategoryTotals.Sum(1, 1, 1000), totals.forCategory("Sports"));
+
+        store.remove(mouse.id);
+        assertEquals(new CategoryTotals.Sum(1, 4, 3596), totals.overall());
+        assertFalse(totals.breakdown().containsKey("Sports"));
+        assertTrue(totals.isConsistentWith(store.snapshot()));
+    }
+
+    @Test
+    public void mutatingASavedItemDoesNotSkewTheTotals() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        CategoryTotals totals = new CategoryTotals();
+        store.addIndex(totals);
+
+        ThingItem lamp = store.put(item("Lamp", "Furniture", 4500, 1));
+        lamp.quantity = 10;   // caller keeps editing its own object, then saves again
+        store.put(lamp);
+        assertEquals(new CategoryTotals.Sum(1, 10, 45000), totals.overall());
+        assertTrue(totals.isConsistentWith(store.snapshot()));
+    }
+
+    @Test
+    public void randomWritesStayConsistentWithFullRecompute() throws IOException {
+        Random random = new Random(7);
+        List<Long> live = new ArrayList<>();
+        try (ItemStore store = ItemStore.open(dir)) {
+            // some items already on disk before the index is attached
+            for (int i = 0; i < 200; i++) {
+                live.add(store.put(randomItem(random)).id);
+            }
+            store.checkpoint();
+
+            CategoryTotals totals = new CategoryTotals();
+            store.addIndex(totals);
+            assertTrue(totals.isConsistentWith(store.snapshot()));
+
+            for (int i = 0; i < 2000; i++) {
+                int op = random.nextInt(3);
+                if (op == 0 || live.isEmpty()) {
+                    live.add(store.put(randomItem(random)).id);
+                } else if (op == 1) {
+                    ThingItem update = randomItem(random);
+                    update.id = live.get(random.nextInt(live.size()));
+                    store.put(update);
+                } else {
+                    store.remove(live.remove(random.nextInt(live.size())));
+                }
+                if (i % 500 == 0) store.checkpoint();
+            }
+            assertTrue(totals.isConsistentWith(store.snapshot()));
+            assertEquals(live.size(), totals.overall().count);
+        }
+    }
+
+    private static ThingItem randomItem(Random random) {
+        return item("Item " + random.nextInt(1000),
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                random.nextInt(100_000), 1 + random.nextInt(20));
+    }
+
+    private static ThingItem item(String name, String category, long priceCents, int quantity) {
+        ThingItem item = new ThingItem(name, "", Money.toPlainString(priceCents), "Home", category, null);
+        item.quantity = quantity;
+        return item;
+    }
+}
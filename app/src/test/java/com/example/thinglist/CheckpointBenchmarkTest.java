@@ -0,0 +1,112 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rough JVM benchmark: time-to-first-row when opening a large inventory from the
+ * memory-mapped checkpoint vs. parsing every record out of the log.
+ */
+public class CheckpointBenchmarkTest {
+
+    private static final int ITEMS = 100_000;
+    private static final int RUNS = 5;
+
+    private File dir;
+
+    @BeforeClass
+    public static void onlyWhenAsked() {
+        Benchmarks.assumeEnabled();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("ckpt-bench").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void snapshotLoadBeatsFullParse() throws IOException {
+        writeLog(ITEMS);
+
+        long parseNanos = bestOf(() -> timeToFirstRow());
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            store.checkpoint();
+        }
+        assertEquals(0, new File(dir, ItemStore.LOG_FILE).length());
+        long snapshotNanos = bestOf(() -> timeToFirstRow());
+
+        // the cost of opening an empty store, for reference
+        File full = dir;
+        dir = Files.createTempDirectory("ckpt-bench-empty").toFile();
+        long emptyNanos = bestOf(() -> timeToFirstRow());
+        tearDown();
+        dir = full;
+
+        System.out.printf("time-to-first-row, %d items: full parse %.2f ms, snapshot %.2f ms, empty store %.2f ms%n",
+                ITEMS, parseNanos / 1e6, snapshotNanos / 1e6, emptyNanos / 1e6);
+
+        assertTrue("snapshot should be much faster than a full parse",
+                snapshotNanos * 10 < parseNanos);
+    }
+
+    private interface Timed {
+        long run() throws IOException;
+    }
+
+    private static long bestOf(Timed timed) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            best = Math.min(best, timed.run());
+        }
+        return best;
+    }
+
+    private long timeToFirstRow() throws IOException {
+        long start = System.nanoTime();
+        try (ItemStore store = ItemStore.open(dir)) {
+            ThingItem[] first = new ThingItem[1];
+            store.scan(item -> {
+                first[0] = item;
+                return false;
+            });
+            long elapsed = System.nanoTime() - start;
+            if (store.size() > 0) assertNotNull(first[0]);
+            return elapsed;
+        }
+    }
+
+    /** Writes the log directly with a single fsync; going through put() would fsync per item. */
+    private void writeLog(int count) throws IOException {
+        try (ItemLog log = new ItemLog(new File(dir, ItemStore.LOG_FILE))) {
+            for (int i = 1; i <= count; i++) {
+                ThingItem item = new ThingItem("Item " + i,
+                        "Benchmark item number " + i,
+                        String.valueOf(i % 500) + ".99",
+                        "Shelf " + (i % 40),
+                        "Active",
+                        null);
+                item.id = i;
+                log.append(ItemCodec.encodePut(item));
+            }
+            log.sync();
+        }
+    }
+}
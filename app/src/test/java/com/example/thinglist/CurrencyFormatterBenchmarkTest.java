@@ -0,0 +1,89 @@
+package com.example.thinglist;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rough JVM microbenchmark: formatting list prices the old way (a new currency
+ * NumberFormat per call, on doubles) vs one NumberFormat reused vs CurrencyFormatter.
+ * Prices repeat like a real inventory does – a few hundred distinct amounts.
+ */
+public class CurrencyFormatterBenchmarkTest {
+
+    private static final int CALLS = 200_000;
+    private static final int DISTINCT_PRICES = 400;
+
+    @BeforeClass
+    public static void onlyWhenAsked() {
+        Benchmarks.assumeEnabled();
+    }
+
+    @Test
+    public void sharedFormatterBeatsAFormatterPerCall() {
+        Random random = new Random(9);
+        long[] prices = new long[DISTINCT_PRICES];
+        for (int i = 0; i < prices.length; i++) prices[i] = random.nextInt(500_000);
+        long[] calls = new long[CALLS];
+        for (int i = 0; i < calls.length; i++) calls[i] = prices[random.nextInt(prices.length)];
+
+        CurrencyFormatter formatter = CurrencyFormatter.forLocale(Locale.US);
+        NumberFormat shared = NumberFormat.getCurrencyInstance(Locale.US);
+
+        // warm up the JIT
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20_000; i++) {
+                sink += NumberFormat.getCurrencyInstance(Locale.US).format(calls[i] / 100.0).length();
+                sink += shared.format(calls[i] / 100.0).length();
+                sink += formatter.format(calls[i]).length();
+            }
+        }
+
+        long start = System.nanoTime();
+        for (long cents : calls) {
+            sink += NumberFormat.getCurrencyInstance(Locale.US).format(cents / 100.0).length();
+        }
+        double perCall = (System.nanoTime() - start) / (double) CALLS;
+
+        long allocatedBefore = allocatedBytes();
+        start = System.nanoTime();
+        for (long cents : calls) sink += shared.format(cents / 100.0).length();
+        double reused = (System.nanoTime() - start) / (double) CALLS;
+        long reusedAllocated = allocatedBytes() - allocatedBefore;
+
+        allocatedBefore = allocatedBytes();
+        start = System.nanoTime();
+        for (long cents : calls) sink += formatter.format(cents).length();
+        double cached = (System.nanoTime() - start) / (double) CALLS;
+        long cachedAllocated = allocatedBytes() - allocatedBefore;
+
+        System.out.printf("currency format, %d calls over %d prices: new NumberFormat %.0f ns, "
+                        + "reused NumberFormat %.0f ns (%.1f B/call), CurrencyFormatter %.0f ns (%.1f B/call) [%d]%n",
+                CALLS, DISTINCT_PRICES, perCall, reused, reusedAllocated / (double) CALLS,
+                cached, cachedAllocated / (double) CALLS, sink);
+        assertTrue("CurrencyFormatter " + cached + " ns vs " + perCall + " ns", cached * 5 < perCall);
+        assertTrue("CurrencyFormatter " + cached + " ns vs " + reused + " ns", cached < reused);
+        if (cachedAllocated >= 0) {
+            // almost every call is a cache hit; only the odd slot collision formats again
+            assertTrue(cachedAllocated + " vs " + reusedAllocated + " bytes",
+                    cachedAllocated * 20 < reusedAllocated);
+        }
+    }
+
+    /** Bytes allocated by this thread so far, or -1 if the JVM can't tell. */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
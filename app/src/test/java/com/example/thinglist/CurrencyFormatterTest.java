@@ -0,0 +1,54 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CurrencyFormatterTest {
+
+    @Test
+    public void matchesNumberFormatInEveryLocale() {
+        Random random = new Random(3);
+        long[] amounts = new long[100];
+        for (int i = 0; i < amounts.length; i++) {
+            long magnitude = (long) Math.pow(10, random.nextInt(13));
+            amounts[i] = (random.nextLong() % magnitude) * (random.nextBoolean() ? 1 : -1);
+        }
+        amounts[0] = 0;
+        amounts[1] = 50;
+        amounts[2] = -250;
+
+        for (Locale locale : Locale.getAvailableLocales()) {
+            NumberFormat reference = NumberFormat.getCurrencyInstance(locale);
+            CurrencyFormatter formatter = CurrencyFormatter.forLocale(locale);
+            for (long cents : amounts) {
+                assertEquals(locale + " " + cents,
+                        reference.format(cents / 100.0), formatter.format(cents));
+            }
+        }
+    }
+
+    @Test
+    public void sharedPerLocaleAndCachesRecurringAmounts() {
+        CurrencyFormatter us = CurrencyFormatter.forLocale(Locale.US);
+        assertSame(us, CurrencyFormatter.forLocale(Locale.US));
+        assertEquals("$1,234.50", us.format(123_450));
+        assertSame(us.format(123_450), us.format(123_450));
+        assertEquals("-$0.05", us.format(-5));
+
+        assertEquals("1.234,50\u00a0€", CurrencyFormatter.forLocale(Locale.GERMANY).format(123_450));
+        // no minor unit: rounded half-even, like NumberFormat
+        assertEquals("￥1,234", CurrencyFormatter.forLocale(Locale.JAPAN).format(123_450));
+    }
+
+    @Test
+    public void formatToAppends() {
+        StringBuilder sb = new StringBuilder("Total: ");
+        CurrencyFormatter.forLocale(Locale.US).formatTo(99, sb);
+        assertEquals("Total: $0.99", sb.toString());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class IdBitmapTest {
+
+    @Test
+    public void addRemoveContainsAcrossChunkKinds() {
+        IdBitmap bitmap = new IdBitmap();
+        // dense run that forces the first chunk into a bitset, plus a sparse far chunk
+        for (long id = 1; id <= 10_000; id++) bitmap.add(id);
+        bitmap.add(200_000);
+        assertEquals(10_001, bitmap.cardinality());
+        assertTrue(bitmap.contains(5_000));
+        assertFalse(bitmap.add(5_000));
+
+        for (long id = 1; id <= 9_000; id++) assertTrue(bitmap.remove(id));
+        assertFalse(bitmap.contains(5_000));
+        assertEquals(1_001, bitmap.cardinality());
+        assertEquals(9_001, bitmap.nextId(0));
+        assertEquals(200_000, bitmap.nextId(10_001));
+        assertEquals(-1, bitmap.nextId(200_001));
+    }
+
+    @Test
+    public void setOperationsMatchTreeSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            TreeSet<Long> a = randomSet(random);
+            TreeSet<Long> b = randomSet(random);
+
+            IdBitmap or = toBitmap(a);
+            or.or(toBitmap(b));
+            TreeSet<Long> expectedOr = new TreeSet<>(a);
+            expectedOr.addAll(b);
+            assertArrayEquals(toArray(expectedOr), or.toArray());
+
+            IdBitmap and = toBitmap(a);
+            and.and(toBitmap(b));
+            TreeSet<Long> expectedAnd = new TreeSet<>(a);
+            expectedAnd.retainAll(b);
+            assertArrayEquals(toArray(expectedAnd), and.toArray());
+            assertEquals(expectedAnd.size(), and.cardinality());
+
+            IdBitmap andNot = toBitmap(a);
+            andNot.andNot(toBitmap(b));
+            TreeSet<Long> expectedAndNot = new TreeSet<>(a);
+            expectedAndNot.removeAll(b);
+            assertArrayEquals(toArray(expectedAndNot), andNot.toArray());
+            assertEquals(expectedAndNot.size(), andNot.cardinality());
+
+            long probe = random.nextInt(300_000);
+            Long expectedNext = a.ceiling(probe);
+            assertEquals(expectedNext == null ? -1 : expectedNext, toBitmap(a).nextId(probe));
+        }
+    }
+
+    @Test
+    public void unionOfManyMatchesRepeatedOr() {
+        Random random = new Random(9);
+        List<IdBitmap> parts = new ArrayList<>();
+        IdBitmap expected = new IdBitmap();
+        for (int i = 0; i < 500; i++) {
+            IdBitmap part = toBitmap(randomSet(random));
+            parts.add(part);
+            expected.or(part);
+        }
+        IdBitmap union = IdBitmap.union(parts);
+        assertEquals(expected.cardinality(), union.cardinality());
+        assertArrayEquals(expected.toArray(), union.toArray());
+        assertTrue(IdBitmap.union(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        IdBitmap original = IdBitmap.of(1, 2, 3);
+        IdBitmap copy = original.copy();
+        copy.add(4);
+        original.remove(1);
+        assertArrayEquals(new long[] {2, 3}, original.toArray());
+        assertArrayEquals(new long[] {1, 2, 3, 4}, copy.toArray());
+    }
+
+    private static TreeSet<Long> randomSet(Random random) {
+        TreeSet<Long> set = new TreeSet<>();
+        // mix of dense and sparse regions so both chunk kinds show up
+        int dense = random.nextInt(8_000);
+        long start = random.nextInt(70_000);
+        for (int i = 0; i < dense; i++) set.add(start + random.nextInt(20_000));
+        for (int i = 0; i < 300; i++) set.add((long) random.nextInt(300_000));
+        return set;
+    }
+
+    private static IdBitmap toBitmap(TreeSet<Long> set) {
+        IdBitmap bitmap = new IdBitmap();
+        List<Long> shuffled = new ArrayList<>(set);
+        Collections.shuffle(shuffled, new Random(set.size()));
+        for (long id : shuffled) bitmap.add(id);
+        return bitmap;
+    }
+
+    private static long[] toArray(TreeSet<Long> set) {
+        long[] out = new long[set.size()];
+        int i = 0;
+        for (long id : set) out[i++] = id;
+        return out;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ImageCollectorTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private File dir;
+    private ItemStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("photos").toFile();
+        store = ItemStore.inMemory();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    private File photo(String name, int bytes, long modified) throws IOException {
+        File f = new File(dir, name);
+        Files.write(f.toPath(), new byte[bytes]);
+        assertTrue(f.setLastModified(modified));
+        return f;
+    }
+
+    private ImageCollector collector() {
+        return new ImageCollector(Collections.singletonList(dir),
+                name -> name.endsWith(".jpg"),
+                Collections.singletonList(store::snapshot),
+                DAY);
+    }
+
+    private static ImageCollector.Result runToEnd(ImageCollector.Run run, int batch) throws IOException {
+        while (run.step(batch)) { }
+        return run.result();
+    }
+
+    @Test
+    public void deletesOnlyOldUnreferencedPhotos() throws IOException {
+        File kept = photo("kept.jpg", 100, NOW - 3 * DAY);
+        File orphan = photo("orphan.jpg", 1_000, NOW - 2 * DAY);
+        File fresh = photo("fresh.jpg", 10, NOW - DAY / 2);
+        File other = photo("notes.txt", 10, NOW - 9 * DAY);
+        store.put(new ThingItem("Lamp", "", "", "", "Active", kept.getPath()));
+
+        ImageCollector.Result result = runToEnd(collector().start(NOW), 10);
+
+        assertTrue(kept.exists());
+        assertFalse(orphan.exists());
+        assertTrue(fresh.exists());          // may still be on its way into an item
+        assertTrue(other.exists());          // not a candidate
+        assertEquals(3, result.scanned);
+        assertEquals(1, result.deleted);
+        assertEquals(1_000, result.bytesReclaimed);
+    }
+
+    @Test
+    public void worksInBatches() throws IOException {
+        for (int i = 0; i < 10; i++) photo("p" + i + ".jpg", 10, NOW - 2 * DAY);
+
+        ImageCollector.Run run = collector().start(NOW);
+        int steps = 0;
+        while (run.step(3)) {
+            steps++;
+            assertEquals(steps * 3, run.result().scanned);
+        }
+        assertEquals(3, steps);             // the fourth step finds the end after one file
+        assertEquals(10, run.result().scanned);
+        assertEquals(10, run.result().deleted);
+        assertFalse(run.step(3));
+    }
+
+    @Test
+    public void marksAgainWhenItemsChangeMidRun() throws IOException {
+        File photo = photo("late.jpg", 10, NOW - 2 * DAY);
+        File orphan = photo("gone.jpg", 10, NOW - 2 * DAY);
+        ImageCollector.Run run = collector().start(NOW);
+        assertTrue(run.step(0));             // marked with no items
+
+        store.put(new ThingItem("Chair", "", "", "", "Active", photo.getAbsolutePath()));
+        runToEnd(run, 10);
+
+        assertTrue(photo.exists());
+        assertFalse(orphan.exists());
+    }
+
+    @Test
+    public void everyReferenceSourceCounts() throws IOException {
+        File a = photo("a.jpg", 10, NOW - 2 * DAY);
+        File b = photo("b.jpg", 10, NOW - 2 * DAY);
+        ItemStore vault = ItemStore.inMemory();
+        store.put(new ThingItem("A", "", "", "", "Active", a.getPath()));
+        vault.put(new ThingItem("B", "", "", "", "Active", b.getPath()));
+
+        ImageCollector collector = new ImageCollector(Collections.singletonList(dir),
+                name -> true, Arrays.asList(store::snapshot, vault::snapshot), DAY);
+        assertEquals(0, runToEnd(collector.start(NOW), 10).deleted);
+        vault.close();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ImageFileStoreTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("images").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void samePhotoIsStoredOnce() throws IOException {
+        ImageFileStore store = new ImageFileStore(dir);
+        byte[] photo = "pretend jpeg".getBytes(StandardCharsets.US_ASCII);
+
+        File first = store.put(photo, photo.length);
+        assertTrue(first.setLastModified(1_000_000L));
+        File second = store.put(Arrays.copyOf(photo, photo.length), photo.length);
+
+        assertEquals(first, second);
+        // handed out again, so it counts as new for the collector's grace period
+        assertTrue(second.lastModified() > 1_000_000L);
+        assertEquals(1, dir.listFiles().length);
+        assertArrayEquals(photo, Files.readAllBytes(first.toPath()));
+    }
+
+    @Test
+    public void filesAreNamedByContentHash() throws IOException {
+        ImageFileStore store = new ImageFileStore(dir);
+        byte[] buffer = new byte[64];
+        byte[] abc = "abc".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(abc, 0, buffer, 0, abc.length);
+
+        // only the first length bytes of the buffer count
+        File f = store.put(buffer, abc.length);
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad.jpg", f.getName());
+        assertEquals(3, f.length());
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                ImageFileStore.hashOf(f));
+        assertNull(ImageFileStore.hashOf(new File(dir, "item_1700000000000.jpg")));
+
+        File other = store.put(new byte[]{1, 2, 3}, 3);
+        assertNotEquals(f, other);
+        assertEquals(2, dir.listFiles().length);
+    }
+
+    @Test
+    public void adoptedFilesMoveInOrAreDroppedAsDuplicates() throws IOException {
+        ImageFileStore store = new ImageFileStore(dir);
+        File captures = new File(dir, "captures");
+        captures.mkdirs();
+        byte[] photo = "full size capture".getBytes(StandardCharsets.US_ASCII);
+
+        File capture = new File(captures, "capture_1.jpg");
+        Files.write(capture.toPath(), photo);
+        File stored = store.adopt(capture);
+        assertFalse(capture.exists());
+        assertEquals(ContentHash.of(photo, 0, photo.length), ImageFileStore.hashOf(stored));
+        assertArrayEquals(photo, Files.readAllBytes(stored.toPath()));
+
+        File again = new File(captures, "capture_2.jpg");
+        Files.write(again.toPath(), photo);
+        assertEquals(stored, store.adopt(again));
+        assertFalse(again.exists());
+        captures.delete();
+    }
+
+    @Test
+    public void fileHashedAsItIsWrittenIsAdoptedUnderThatHash() throws IOException {
+        ImageFileStore store = new ImageFileStore(dir);
+        File captures = new File(dir, "captures");
+        captures.mkdirs();
+        byte[] photo = "streamed from the gallery".getBytes(StandardCharsets.US_ASCII);
+
+        File copy = new File(captures, "import_1.tmp");
+        String hash;
+        try (DigestOutputStream out = ContentHash.hashing(new FileOutputStream(copy))) {
+            out.write(photo, 0, 10);
+            out.write(photo, 10, photo.length - 10);
+            hash = ContentHash.of(out);
+        }
+        assertEquals(ContentHash.of(photo, 0, photo.length), hash);
+
+        File stored = store.adopt(copy, hash);
+        assertFalse(copy.exists());
+        assertEquals(hash, ImageFileStore.hashOf(stored));
+        assertArrayEquals(photo, Files.readAllBytes(stored.toPath()));
+        captures.delete();
+    }
+
+    @Test
+    public void unfinishedWritesAreCleanedUp() throws IOException {
+        File leftover = new File(dir, "abc.12.tmp");
+        Files.write(leftover.toPath(), new byte[10]);
+
+        new ImageFileStore(dir);
+        assertFalse(leftover.exists());
+    }
+}
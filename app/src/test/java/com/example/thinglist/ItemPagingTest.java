@@ -0,0 +1,110 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ItemPagingTest {
+
+    @Test
+    public void pagesWalkTheWholeOrderOnce() throws IOException {
+        Locale.setDefault(Locale.US);
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            store.put(item("Item " + random.nextInt(40), "T" + random.nextInt(4),
+                    random.nextInt(2_000), random.nextInt(9)));
+        }
+        ItemQuery query = ItemQuery.builder().categories("T1", "T3").build();
+
+        for (SortIndex.Key key : SortIndex.Key.values()) {
+            for (boolean descending : new boolean[] {false, true}) {
+                long[] expected = indexes.sort().order(key, descending, indexes.run(query));
+                assertArrayEquals(expected, collect(indexes, query, key, descending, 7));
+            }
+        }
+        assertArrayEquals(indexes.run(query).toArray(), collect(indexes, query, null, false, 7));
+    }
+
+    @Test
+    public void tokensSurviveWritesBetweenPages() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(store.put(item("n" + i, "T", i * 100, 1)).id);
+        }
+
+        ItemPage first = indexes.page(ItemQuery.ALL, SortIndex.Key.PRICE, false, 5, null);
+        assertEquals(20, first.totalMatches);
+        assertTrue(first.hasMore());
+        ThingItem last = first.items.get(4);
+
+        // the item the token points at goes away, and a cheaper one shows up
+        store.remove(last.id);
+        store.put(item("cheap", "T", 1, 1));
+        ThingItem moved = store.get(ids.get(6));
+        moved.priceCents = 50;
+        store.put(moved);
+
+        ItemPage second = indexes.page(ItemQuery.ALL, SortIndex.Key.PRICE, false, 5, first.nextToken);
+        long[] expected = {ids.get(5), ids.get(7), ids.get(8), ids.get(9), ids.get(10)};
+        assertArrayEquals(expected, ids(second.items));
+    }
+
+    @Test
+    public void lastPageHasNoToken() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+        for (int i = 0; i < 4; i++) store.put(item("n" + i, "T", i, 1));
+
+        ItemPage page = indexes.page(ItemQuery.ALL, SortIndex.Key.NAME, true, 4, null);
+        assertEquals(4, page.items.size());
+        assertFalse(page.hasMore());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tokenIsTiedToItsOrder() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+        for (int i = 0; i < 4; i++) store.put(item("n" + i, "T", i, 1));
+
+        ItemPage page = indexes.page(ItemQuery.ALL, SortIndex.Key.NAME, false, 2, null);
+        indexes.page(ItemQuery.ALL, SortIndex.Key.PRICE, false, 2, page.nextToken);
+    }
+
+    private static long[] collect(ItemIndexes indexes, ItemQuery query, SortIndex.Key key,
+                                  boolean descending, int pageSize) {
+        List<ThingItem> all = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        String token = null;
+        do {
+            ItemPage page = indexes.page(query, key, descending, pageSize, token);
+            for (ThingItem item : page.items) assertTrue(seen.add(item.id));
+            all.addAll(page.items);
+            token = page.nextToken;
+        } while (token != null);
+        return ids(all);
+    }
+
+    private static long[] ids(List<ThingItem> items) {
+        long[] ids = new long[items.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = items.get(i).id;
+        return ids;
+    }
+
+    private static ThingItem item(String name, String type, long priceCents, int quantity) {
+        ThingItem item = new ThingItem(name, "", Money.toPlainString(priceCents), "Home", type, null);
+        item.quantity = quantity;
+        return item;
+    }
+}
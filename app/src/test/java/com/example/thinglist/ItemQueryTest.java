@@ -0,0 +1,184 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ItemQueryTest {
+
+    private static final String[] TYPES = {"Electronics", "Stationery", "Kitchenware", "Bags"};
+    private static final String[] ROOMS = {"Office", "Kitchen", "Garage"};
+    private static final String[] WORDS = {"lamp", "ladder", "mug", "cable", "pen", "bag", "laptop"};
+
+    @Test
+    public void combinedPredicatesIntersect() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+
+        ThingItem lamp = store.put(item("Desk lamp", "Electronics", "office", 4500));
+        store.put(item("Floor lamp", "Electronics", "Garage", 12000));
+        store.put(item("Mug", "Kitchenware", "Office", 899));
+        ThingItem bag = store.put(item("Laptop bag", "Bags", "Office", 5500));
+
+        ItemQuery query = ItemQuery.builder()
+                .categories("Electronics", "Bags")
+                .location("OFFICE ")
+                .priceBetween(1000, 6000)
+                .build();
+        assertArrayEquals(new long[] {lamp.id, bag.id}, indexes.run(query).toArray());
+
+        ItemQuery withText = query.toBuilder().text("lam").build();
+        assertArrayEquals(new long[] {lamp.id}, indexes.run(withText).toArray());
+
+        assertEquals(4, indexes.run(ItemQuery.ALL).cardinality());
+        assertTrue(indexes.run(ItemQuery.builder().categories("Furniture").build()).isEmpty());
+    }
+
+    @Test
+    public void totalsCoverExactlyTheMatches() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+
+        store.put(item("Desk lamp", "Electronics", "Office", 4500));
+        ThingItem floor = item("Floor lamp", "Electronics", "Garage", 12000);
+        floor.quantity = 2;
+        store.put(floor);
+        store.put(item("Mug", "Kitchenware", "Office", 899));
+
+        assertEquals(new CategoryTotals.Sum(3, 4, 4500 + 24000 + 899), indexes.sum(ItemQuery.ALL));
+        ItemQuery electronics = ItemQuery.builder().categories("Electronics").build();
+        assertEquals(new CategoryTotals.Sum(2, 3, 4500 + 24000), indexes.sum(electronics));
+
+        // a search narrows the header just like the list
+        ItemQuery floorOnly = electronics.toBuilder().text("floor").build();
+        assertEquals(new CategoryTotals.Sum(1, 2, 24000), indexes.sum(floorOnly));
+        assertEquals(CategoryTotals.Sum.ZERO, indexes.sum(ItemQuery.builder().text("sofa").build()));
+    }
+
+    @Test
+    public void itemsWithoutAStatusAreMisc() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+
+        ThingItem untyped = store.put(item("Box", null, "Garage", 500));
+        store.put(item("Tape", " ", "Garage", 250));
+        store.put(item("Mug", "Kitchenware", "Office", 899));
+        assertEquals(ThingItem.DEFAULT_STATUS, untyped.status);
+
+        ItemQuery misc = ItemQuery.builder().categories(ThingItem.DEFAULT_STATUS).build();
+        assertEquals(2, indexes.run(misc).cardinality());
+        assertEquals(new CategoryTotals.Sum(2, 2, 750), indexes.sum(misc));
+        assertEquals(new CategoryTotals.Sum(2, 2, 750),
+                indexes.totals().forCategory(ThingItem.DEFAULT_STATUS));
+    }
+
+    @Test
+    public void aDetachedIndexIsBuiltAgain() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+        store.put(item("Desk lamp", "Electronics", "Office", 4500));
+
+        QueryIndex first = indexes.query();
+        store.removeIndex(first);
+        store.put(item("Mug", "Kitchenware", "Office", 899));
+
+        assertNotSame(first, indexes.query());
+        assertEquals(2, indexes.run(ItemQuery.builder().location("Office").build()).cardinality());
+    }
+
+    @Test
+    public void priceBucketsNeverDecrease() {
+        int last = QueryIndex.bucketOf(0);
+        for (long cents = 1; cents < 1_000_000; cents++) {
+            int bucket = QueryIndex.bucketOf(cents);
+            assertTrue(bucket >= last);
+            last = bucket;
+        }
+        assertTrue(QueryIndex.bucketOf(Long.MAX_VALUE) >= last);
+    }
+
+    @Test
+    public void randomQueriesMatchBruteForce() throws IOException {
+        Random random = new Random(3);
+        ItemStore store = ItemStore.inMemory();
+        ItemIndexes indexes = new ItemIndexes(store);
+        indexes.query();   // attach before writing so updates/deletes go through the index
+        List<Long> live = new ArrayList<>();
+
+        for (int i = 0; i < 3000; i++) {
+            if (live.isEmpty() || random.nextInt(4) != 0) {
+                live.add(store.put(randomItem(random)).id);
+            } else if (random.nextBoolean()) {
+                ThingItem update = randomItem(random);
+                update.id = live.get(random.nextInt(live.size()));
+                store.put(update);
+            } else {
+                store.remove(live.remove(random.nextInt(live.size())));
+            }
+        }
+
+        for (int round = 0; round < 300; round++) {
+            ItemQuery.Builder b = ItemQuery.builder();
+            List<String> types = null;
+            String room = null;
+            long min = Long.MIN_VALUE;
+            long max = Long.MAX_VALUE;
+            String word = null;
+            if (random.nextBoolean()) {
+                types = Arrays.asList(TYPES).subList(0, 1 + random.nextInt(TYPES.length - 1));
+                b.categories(types);
+            }
+            if (random.nextInt(3) == 0) {
+                room = ROOMS[random.nextInt(ROOMS.length)];
+                b.location(room);
+            }
+            if (random.nextBoolean()) {
+                min = random.nextInt(20_000);
+                max = min + random.nextInt(40_000);
+                b.priceBetween(min, max);
+            }
+            if (random.nextInt(3) == 0) {
+                word = WORDS[random.nextInt(WORDS.length)].substring(0, 2);
+                b.text(word);
+            }
+
+            List<Long> expected = new ArrayList<>();
+            for (ThingItem item : store.snapshot()) {
+                if (types != null && !types.contains(item.status)) continue;
+                if (room != null && !room.equalsIgnoreCase(item.location)) continue;
+                if (item.priceCents < min || item.priceCents > max) continue;
+                if (word != null && !hasWordStartingWith(item.name, word)) continue;
+                expected.add(item.id);
+            }
+            long[] actual = indexes.run(b.build()).toArray();
+            assertEquals(expected.size(), actual.length);
+            for (int i = 0; i < actual.length; i++) {
+                assertEquals((long) expected.get(i), actual[i]);
+            }
+        }
+    }
+
+    private static boolean hasWordStartingWith(String text, String prefix) {
+        for (String w : text.toLowerCase(Locale.ROOT).split(" ")) {
+            if (w.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private static ThingItem randomItem(Random random) {
+        String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        return item(name, TYPES[random.nextInt(TYPES.length)],
+                ROOMS[random.nextInt(ROOMS.length)], random.nextInt(60_000));
+    }
+
+    private static ThingItem item(String name, String type, String location, long priceCents) {
+        return new ThingItem(name, "", Money.toPlainString(priceCents), location, type, null);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ItemSnapshotTest {
+
+    @Test
+    public void idMapSharesStructureAndKeepsOldVersions() {
+        PersistentIdMap<String> v0 = PersistentIdMap.empty();
+        PersistentIdMap<String> v1 = v0.with(1, "a");
+        PersistentIdMap<String> v2 = v1.with(5000, "b");   // forces the trie to grow
+        PersistentIdMap<String> v3 = v2.with(1, null);
+
+        assertNull(v0.get(1));
+        assertEquals("a", v1.get(1));
+        assertNull(v1.get(5000));
+        assertEquals("a", v2.get(1));
+        assertEquals("b", v2.get(5000));
+        assertNull(v3.get(1));
+        assertEquals("b", v3.get(5000));
+        assertEquals(2, v2.size());
+        assertEquals(1, v3.size());
+        assertSame(v3, v3.with(1, null));
+        assertSame(v3, v3.with(1_000_000, null));
+    }
+
+    @Test
+    public void snapshotIsUnaffectedByLaterWrites() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        store.put(item("A"));
+        ItemSnapshot before = store.snapshot();
+
+        store.put(item("B"));
+        store.remove(1);
+        ItemSnapshot after = store.snapshot();
+
+        assertEquals(1, before.size());
+        assertEquals("A", before.get(1).name);
+        assertNull(before.get(2));
+        assertEquals(1, after.size());
+        assertNull(after.get(1));
+        assertEquals("B", after.get(2).name);
+        assertTrue(after.version() > before.version());
+    }
+
+    @Test
+    public void versionOnlyMovesOnWrites() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        store.put(item("A"));
+        ItemSnapshot first = store.snapshot();
+        assertSame(first, store.snapshot());
+
+        // repeated list views of one snapshot are the same object, not copies
+        List<ThingItem> list = first.asList();
+        assertSame(list, store.items());
+
+        store.remove(42);   // nothing to delete
+        assertEquals(first.version(), store.snapshot().version());
+    }
+
+    @Test
+    public void readersSeeConsistentSnapshotsWhileWriterRuns() throws Exception {
+        ItemStore store = ItemStore.inMemory();
+        AtomicReference<String> failure = new AtomicReference<>();
+        int writes = 2000;
+
+        Thread reader = new Thread(() -> {
+            long lastVersion = -1;
+            while (failure.get() == null) {
+                ItemSnapshot s = store.snapshot();
+                if (s.version() < lastVersion) failure.set("version went backwards");
+                lastVersion = s.version();
+                int counted = 0;
+                for (ThingItem ignored : s) counted++;
+                if (counted != s.size()) failure.set("size " + s.size() + " but iterated " + counted);
+                if (s.size() == writes) return;
+            }
+        });
+        reader.start();
+        for (int i = 0; i < writes; i++) {
+            store.put(item("Item " + i));
+        }
+        reader.join(10_000);
+        assertNull(failure.get(), failure.get());
+        assertFalse(reader.isAlive());
+    }
+
+    private static ThingItem item(String name) {
+        return new ThingItem(name, "", "1.00", "Home", "Active", null);
+    }
+}
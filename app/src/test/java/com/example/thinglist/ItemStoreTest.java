@@ -0,0 +1,481 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for the durable item store (no device needed).
+ */
+public class ItemStoreTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("itemstore").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(dir);
+    }
+
+    @Test
+    public void itemsSurviveReopen() throws IOException {
+        try (ItemStore store = ItemStore.open(dir)) {
+            store.put(item("Laptop", "999.99"));
+            store.put(item("Camera", "450"));
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            List<ThingItem> items = store.items();
+            assertEquals(2, items.size());
+            assertEquals("Laptop", items.get(0).name);
+            assertEquals("450", items.get(1).price);
+            assertEquals(2, items.get(1).id);
+
+            // ids keep counting up after a reopen
+            assertEquals(3, store.put(item("Bike", "300")).id);
+        }
+    }
+
+    @Test
+    public void updatesAndDeletesAreReplayed() throws IOException {
+        try (ItemStore store = ItemStore.open(dir)) {
+            ThingItem a = store.put(item("Lamp", "20"));
+            ThingItem b = store.put(item("Desk", "150"));
+            a.price = "25";
+            store.put(a);
+            store.remove(b.id);
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            assertEquals(1, store.size());
+            assertEquals("25", store.get(1).price);
+            assertNull(store.get(2));
+        }
+    }
+
+    @Test
+    public void truncatedRecordIsDroppedAndStoreReopens() throws IOException {
+        try (ItemStore store = ItemStore.open(dir)) {
+            store.put(item("First", "1"));
+            store.put(item("Second", "2"));
+            store.put(item("Third", "3"));
+        }
+
+        // Simulate a crash in the middle of writing the last record.
+        File logFile = new File(dir, ItemStore.LOG_FILE);
+        long fullLength = logFile.length();
+        try (RandomAccessFile raf = new RandomAccessFile(logFile, "rw")) {
+            raf.setLength(fullLength - 5);
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            List<ThingItem> items = store.items();
+            assertEquals(2, items.size());
+            assertEquals("Second", items.get(1).name);
+
+            // the torn tail is gone, so new appends land on a clean record boundary
+            store.put(item("Fourth", "4"));
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            assertEquals(3, store.size());
+            assertEquals("Fourth", store.items().get(2).name);
+        }
+    }
+
+    @Test
+    public void corruptedRecordStopsReplay() throws IOException {
+        try (ItemStore store = ItemStore.open(dir)) {
+            store.put(item("Good", "1"));
+            store.put(item("Bad", "2"));
+        }
+
+        // Flip a byte inside the last payload so its checksum no longer matches.
+        File logFile = new File(dir, ItemStore.LOG_FILE);
+        try (RandomAccessFile raf = new RandomAccessFile(logFile, "rw")) {
+            long pos = raf.length() - 3;
+            raf.seek(pos);
+            int b = raf.read();
+            raf.seek(pos);
+            raf.write(b ^ 0xFF);
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            assertEquals(1, store.size());
+            assertEquals("Good", store.items().get(0).name);
+        }
+    }
+
+    @Test
+    public void checkpointTrimsLogAndReopens() throws Exception {
+        try (ItemStore store = ItemStore.open(dir)) {
+            ThingItem keep = store.put(item("Keep", "1"));
+            ThingItem churn = store.put(item("Churn", "0"));
+            ThingItem gone = store.put(item("Gone", "5"));
+            store.remove(gone.id);
+
+            String padding = new String(new char[32 * 1024]).replace('\0', 'x');
+            long written = 0;
+            int round = 0;
+            while (written < ItemStore.CHECKPOINT_LOG_BYTES * 2) {
+                churn.description = padding + round++;
+                store.put(churn);
+                written += padding.length();
+            }
+
+            // the background checkpoint should have kicked in by now
+            store.awaitBackgroundWork();
+            assertTrue(new File(dir, ItemStore.CHECKPOINT_FILE).exists());
+            assertTrue(new File(dir, ItemStore.LOG_FILE).length() < ItemStore.CHECKPOINT_LOG_BYTES);
+            assertEquals(padding + (round - 1), store.get(churn.id).description);
+
+            keep.price = "2";
+            store.put(keep);
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            assertEquals(2, store.size());
+            assertEquals("2", store.get(1).price);
+            assertNull(store.get(3));
+            assertEquals(4, store.put(item("Next", "1")).id);
+        }
+    }
+
+    @Test
+    public void changesAfterCheckpointAreLayeredOnTop() throws IOException {
+        try (ItemStore store = ItemStore.open(dir)) {
+            store.put(item("A", "1"));
+            store.put(item("B", "2"));
+            store.put(item("C", "3"));
+            store.checkpoint();
+            assertEquals(0, new File(dir, ItemStore.LOG_FILE).length());
+
+            ThingItem b = store.get(2);
+            b.price = "20";
+            store.put(b);
+            store.remove(3);
+            store.put(item("D", "4"));
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            List<ThingItem> items = store.items();
+            assertEquals(3, items.size());
+            assertEquals("A", items.get(0).name);
+            assertEquals("20", items.get(1).price);
+            assertEquals("D", items.get(2).name);
+            assertEquals(4, items.get(2).id);
+
+            // checkpoint again with deletes in the overlay, then reopen once more
+            store.checkpoint();
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            assertEquals(3, store.size());
+            assertNull(store.get(3));
+            assertEquals("D", store.get(4).name);
+        }
+    }
+
+    @Test
+    public void logOlderThanCheckpointReplaysToSameState() throws IOException {
+        File logCopy = new File(dir, "log.bak");
+        try (ItemStore store = ItemStore.open(dir)) {
+            store.put(item("A", "1"));
+            ThingItem b = store.put(item("B", "2"));
+            store.remove(b.id);
+            Files.copy(new File(dir, ItemStore.LOG_FILE).toPath(), logCopy.toPath());
+            store.checkpoint();
+        }
+
+        // Crash between installing the checkpoint and trimming the log.
+        Files.copy(logCopy.toPath(), new File(dir, ItemStore.LOG_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            assertEquals(1, store.size());
+            assertEquals("A", store.items().get(0).name);
+        }
+    }
+
+    @Test
+    public void changeFeedReportsDeltasWithStableIds() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ThingItem a = store.put(item("A", "1"));
+        long seen = store.snapshot().version();
+
+        ThingItem b = store.put(item("B", "2"));
+        ThingItem a2 = new ThingItem("A2", "", "3", "Home", "Active", null);
+        a2.id = a.id;
+        store.put(a2);
+        store.remove(b.id);
+
+        List<ItemChange> changes = store.changesSince(seen);
+        assertEquals(3, changes.size());
+        assertEquals(ItemChange.Type.INSERT, changes.get(0).type);
+        assertEquals(b.id, changes.get(0).id);
+        assertEquals(ItemChange.Type.UPDATE, changes.get(1).type);
+        assertEquals(a.id, changes.get(1).id);
+        assertEquals("A2", changes.get(1).item.name);
+        assertEquals(ItemChange.Type.REMOVE, changes.get(2).type);
+        assertEquals(store.snapshot().version(), changes.get(2).version);
+
+        assertTrue(store.changesSince(store.snapshot().version()).isEmpty());
+    }
+
+    @Test
+    public void changeFeedAsksForReloadWhenTooFarBehind() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        long start = store.snapshot().version();
+        for (int i = 0; i < ItemStore.JOURNAL_CAPACITY + 10; i++) {
+            store.put(item("Item " + i, "1"));
+        }
+        assertNull(store.changesSince(start));
+        long recent = store.snapshot().version() - 5;
+        assertEquals(5, store.changesSince(recent).size());
+    }
+
+    @Test
+    public void changeFeedDoesNotWaitForACommitInProgress() throws Exception {
+        try (ItemStore store = ItemStore.open(dir)) {
+            long before = store.snapshot().version();
+            store.put(item("Lamp", "30"));
+
+            CountDownLatch locked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            // stands in for the writer holding the store's lock through an fsync
+            Thread committer = new Thread(() -> {
+                synchronized (store) {
+                    locked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) { }
+                }
+            });
+            committer.start();
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            try {
+                List<ItemChange> changes = CompletableFuture
+                        .supplyAsync(() -> store.changesSince(before))
+                        .get(5, TimeUnit.SECONDS);
+                assertEquals(1, changes.size());
+                assertEquals("Lamp", changes.get(0).item.name);
+            } finally {
+                release.countDown();
+                committer.join();
+            }
+        }
+    }
+
+    @Test
+    public void listenersHearAboutCommitsThatChangedSomething() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        List<ItemChange> heard = new ArrayList<>();
+        store.addChangeListener((snapshot, changes) -> heard.addAll(changes));
+
+        store.put(item("A", "1"));
+        store.remove(99);   // no-op, nobody is told
+        assertEquals(1, heard.size());
+    }
+
+    @Test
+    public void indexIsFedWithoutBlockingCommits() throws Exception {
+        try (ItemStore store = ItemStore.open(dir)) {
+            for (int i = 0; i < 5; i++) store.put(item("Item " + i, "1"));
+
+            CountDownLatch walking = new CountDownLatch(1);
+            CountDownLatch commitsDone = new CountDownLatch(1);
+            Map<Long, String> names = new HashMap<>();
+            ItemStore.Index index = new ItemStore.Index() {
+                @Override
+                public void onPut(ThingItem previous, ThingItem item) {
+                    if (previous == null && names.isEmpty()) {
+                        walking.countDown();
+                        try {
+                            assertTrue(commitsDone.await(5, TimeUnit.SECONDS));
+                        } catch (InterruptedException e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+                    if (previous != null) assertEquals(names.get(previous.id), previous.name);
+                    names.put(item.id, item.name);
+                }
+
+                @Override
+                public void onRemove(ThingItem previous) {
+                    assertEquals(names.remove(previous.id), previous.name);
+                }
+            };
+            Thread builder = new Thread(() -> store.addIndex(index));
+            builder.start();
+            assertTrue(walking.await(5, TimeUnit.SECONDS));
+
+            // these would wait for the whole walk if it held the store lock
+            ThingItem renamed = store.get(2).copy();
+            renamed.name = "Renamed";
+            store.put(renamed);
+            store.remove(3);
+            store.put(item("Added", "1"));
+            renamed.name = "Renamed twice";
+            store.put(renamed);
+            commitsDone.countDown();
+            builder.join(5000);
+            assertFalse(builder.isAlive());
+
+            Map<Long, String> expected = new HashMap<>();
+            for (ThingItem it : store.items()) expected.put(it.id, it.name);
+            assertEquals(expected, names);
+
+            // attached: later commits reach it directly
+            store.remove(1);
+            assertFalse(names.containsKey(1L));
+        }
+    }
+
+    @Test
+    public void indexesHearOfAChangeOnlyOnceItIsPublished() throws IOException {
+        try (ItemStore store = ItemStore.open(dir)) {
+            List<String> seen = new ArrayList<>();
+            store.addIndex(new ItemStore.Index() {
+                @Override
+                public void onPut(ThingItem previous, ThingItem item) {
+                    ThingItem published = store.snapshot().get(item.id);
+                    seen.add(published != null ? published.name : null);
+                }
+
+                @Override
+                public void onRemove(ThingItem previous) {
+                    seen.add(store.snapshot().get(previous.id) == null ? "gone" : "still there");
+                }
+            });
+            store.put(item("Lamp", "1"));
+            store.remove(1);
+            assertEquals(Arrays.asList("Lamp", "gone"), seen);
+        }
+    }
+
+    @Test
+    public void aThrowingIndexIsDetachedAndTheCommitStands() throws IOException {
+        try (ItemStore store = ItemStore.open(dir)) {
+            ItemStore.Index broken = new ItemStore.Index() {
+                @Override
+                public void onPut(ThingItem previous, ThingItem item) {
+                    if (item.name.equals("Bad")) throw new IllegalStateException("index bug");
+                }
+
+                @Override
+                public void onRemove(ThingItem previous) { }
+            };
+            List<Long> heard = new ArrayList<>();
+            store.addIndex(broken);
+            store.addChangeListener((snapshot, changes) -> heard.add(snapshot.version()));
+            long before = store.snapshot().version();
+
+            store.put(item("Bad", "1"));
+
+            assertFalse(store.isAttached(broken));
+            assertEquals("Bad", store.get(1).name);
+            assertEquals(1, store.changesSince(before).size());
+            assertEquals(1, heard.size());
+        }
+        try (ItemStore store = ItemStore.open(dir)) {
+            assertEquals("Bad", store.get(1).name);
+        }
+    }
+
+    @Test
+    public void typedFieldsRoundTrip() throws IOException {
+        long addedAt;
+        try (ItemStore store = ItemStore.open(dir)) {
+            ThingItem lamp = item("Lamp", "$1,249.50");
+            lamp.quantity = 3;
+            addedAt = lamp.dateAdded;
+            store.put(lamp);
+            store.checkpoint();
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            ThingItem lamp = store.get(1);
+            assertEquals("$1,249.50", lamp.price);
+            assertEquals(124950, lamp.priceCents);
+            assertEquals(3, lamp.quantity);
+            assertEquals(addedAt, lamp.dateAdded);
+        }
+    }
+
+    @Test
+    public void legacyRecordsAreParsedOnceAndMigratedByCheckpoint() throws IOException {
+        // A log written before items had typed fields
+        try (ItemLog log = new ItemLog(new File(dir, ItemStore.LOG_FILE))) {
+            log.append(legacyPut(1, "Old Radio", "19.99"));
+            log.append(legacyPut(2, "Old Chair", "n/a"));
+            log.sync();
+        }
+
+        try (ItemStore store = ItemStore.open(dir)) {
+            assertEquals(1999, store.get(1).priceCents);
+            assertEquals(1, store.get(1).quantity);
+            assertEquals(0, store.get(2).priceCents);
+            store.checkpoint();
+        }
+
+        try (CheckpointFile ckpt = CheckpointFile.open(new File(dir, ItemStore.CHECKPOINT_FILE))) {
+            assertEquals(ItemCodec.OP_PUT, ckpt.payload(1)[0]);
+            assertEquals(1999, ckpt.get(1).priceCents);
+            assertEquals("19.99", ckpt.get(1).price);
+        }
+    }
+
+    /** Record layout used before priceCents/quantity/dateAdded were stored. */
+    private static byte[] legacyPut(long id, String name, String price) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(ItemCodec.OP_PUT_V1);
+            out.writeLong(id);
+            for (String s : new String[] {name, "", price, "Home", "Active", null}) {
+                if (s == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(utf8.length);
+                    out.write(utf8);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ThingItem item(String name, String price) {
+        return new ThingItem(name, "", price, "Home", "Active", null);
+    }
+
+    private static void deleteRecursively(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children) deleteRecursively(c);
+        }
+        f.delete();
+    }
+}
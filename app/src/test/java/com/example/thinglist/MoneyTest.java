@@ -0,0 +1,47 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MoneyTest {
+
+    @Test
+    public void parsesTypedPricesIntoCents() {
+        assertEquals(1999, Money.parseCents("19.99"));
+        assertEquals(120000, Money.parseCents("$1,200"));
+        assertEquals(4500, Money.parseCents(" 45 "));
+        assertEquals(1250, Money.parseCents("12.5"));
+        assertEquals(1000, Money.parseCents("9.995"));   // rounds half-up
+        assertEquals(-350, Money.parseCents("-3.50"));
+    }
+
+    @Test
+    public void unparseablePricesAreZero() {
+        assertEquals(0, Money.parseCents(null));
+        assertEquals(0, Money.parseCents(""));
+        assertEquals(0, Money.parseCents("free"));
+        assertEquals(0, Money.parseCents("1.2.3"));
+    }
+
+    @Test
+    public void plainStringRoundTrips() {
+        assertEquals("19.99", Money.toPlainString(1999));
+        assertEquals("0.05", Money.toPlainString(5));
+        assertEquals("-3.50", Money.toPlainString(-350));
+        assertEquals(123456789L, Money.parseCents(Money.toPlainString(123456789L)));
+    }
+
+    @Test
+    public void totalsInCentsAreExact() {
+        // 0.10 added ten times is exactly 1.00 – the double version is not
+        long cents = 0;
+        double dollars = 0;
+        for (int i = 0; i < 10; i++) {
+            cents += Money.parseCents("0.10");
+            dollars += 0.10;
+        }
+        assertEquals(100, cents);
+        assertTrue(dollars != 1.0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rough JVM benchmark: GTIN lookups in a catalog of a few million products, built from
+ * CSV by the real tool. Half the lookups are for codes that aren't listed, as in a shop
+ * with plenty of own-brand stock.
+ */
+public class ProductCatalogBenchmarkTest {
+
+    private static final int PRODUCTS = 2_000_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    private File dir;
+
+    @BeforeClass
+    public static void onlyWhenAsked() {
+        Benchmarks.assumeEnabled();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("catalog-bench").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void lookupsAreFastAndAllocationFree() throws IOException {
+        // GTINs are random, so the CSV is in no particular order
+        Random random = new Random(22);
+        long[] listed = new long[PRODUCTS];
+        File csv = new File(dir, "products.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(csv.toPath(), StandardCharsets.UTF_8)) {
+            out.write("gtin,name,description,price\n");
+            for (int i = 0; i < PRODUCTS; i++) {
+                listed[i] = 1_000_000_000_000L + (random.nextLong() >>> 1) % 9_000_000_000_000L;
+                out.write(Long.toString(listed[i]));
+                out.write(",Product " + i + ",Aisle " + (i % 40) + "," + (i % 5000) + ".99\n");
+            }
+        }
+
+        File file = new File(dir, "products.bin");
+        long start = System.nanoTime();
+        ProductCatalogBuilder.Stats stats;
+        try (Reader in = Files.newBufferedReader(csv.toPath(), StandardCharsets.UTF_8)) {
+            stats = ProductCatalogBuilder.build(in, file);
+        }
+        double buildSeconds = (System.nanoTime() - start) / 1e9;
+        csv.delete();
+
+        long[] queries = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            queries[i] = i % 2 == 0 ? listed[random.nextInt(PRODUCTS)] : 1 + (random.nextLong() >>> 1) % 9_999_999_999_999L;
+        }
+
+        try (ProductCatalog catalog = ProductCatalog.open(file)) {
+            assertEquals(PRODUCTS - stats.duplicates, catalog.size());
+
+            // warm up the JIT (and the page cache)
+            long sink = 0;
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < 100_000; i++) sink += catalog.find(queries[i]);
+            }
+
+            int found = 0;
+            long allocatedBefore = allocatedBytes();
+            start = System.nanoTime();
+            for (long gtin : queries) {
+                if (catalog.find(gtin) >= 0) found++;
+            }
+            double perLookup = (System.nanoTime() - start) / (double) LOOKUPS;
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            System.out.printf("product catalog, %d products (%d MB, built in %.1f s): %.0f ns per lookup, "
+                            + "%d bytes allocated over %d lookups [%d]%n",
+                    catalog.size(), file.length() >> 20, buildSeconds, perLookup, allocated, LOOKUPS, sink);
+            assertTrue("found " + found, found >= LOOKUPS / 2);
+            assertTrue(perLookup + " ns per lookup", perLookup < 20_000);
+            if (allocatedBefore >= 0) {
+                // nothing per lookup; a little slack for whatever the JVM does in between
+                assertTrue(allocated + " bytes", allocated < LOOKUPS / 100);
+            }
+        }
+    }
+
+    /** Bytes allocated by this thread so far, or -1 if the JVM can't tell. */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProductCatalogTest {
+
+    private File dir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("catalog").toFile();
+        file = new File(dir, "products.bin");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    private ProductCatalogBuilder.Stats build(String csv) throws IOException {
+        return ProductCatalogBuilder.build(new StringReader(csv), file);
+    }
+
+    @Test
+    public void findsProductsByBarcode() throws IOException {
+        ProductCatalogBuilder.Stats stats = build("gtin,name,description,price\n"
+                + "5901234123457,Desk lamp,LED; warm white,24.99\n"
+                + "4006381333931,Highlighter,Yellow,1.29\n"
+                + "036000291452,Tissues,\"Box of 100, \"\"soft\"\"\",3.50\n");
+        assertEquals(3, stats.rows);
+        assertEquals(0, stats.skipped);
+
+        try (ProductCatalog catalog = ProductCatalog.open(file)) {
+            assertEquals(3, catalog.size());
+            ProductCatalog.Product lamp = catalog.lookup("5901234123457");
+            assertEquals("Desk lamp", lamp.name);
+            assertEquals("LED; warm white", lamp.description);
+            assertEquals(2499, lamp.priceCents);
+
+            // a UPC-A and the same code as an EAN-13 are one product
+            assertEquals("Box of 100, \"soft\"", catalog.lookup("036000291452").description);
+            assertEquals("Tissues", catalog.lookup("0036000291452").name);
+
+            assertNull(catalog.lookup("9780201379624"));
+            assertNull(catalog.lookup("BOX-12345"));
+            assertEquals(-1, catalog.find(1));
+            assertEquals(-1, catalog.find(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void recordsAreSortedAndFirstDuplicateWins() throws IOException {
+        ProductCatalogBuilder.Stats stats = build("00000030,c,,1\n00000010,a,,1\n"
+                + "00000020,first,,1\nnot a gtin,x,,1\n\n00000020,second,,1\n");
+        assertEquals(3, stats.rows);
+        assertEquals(1, stats.skipped);
+        assertEquals(1, stats.duplicates);
+
+        try (ProductCatalog catalog = ProductCatalog.open(file)) {
+            assertEquals(10, catalog.gtin(0));
+            assertEquals(20, catalog.gtin(1));
+            assertEquals(30, catalog.gtin(2));
+            assertEquals("first", catalog.lookup("00000020").name);
+        }
+    }
+
+    @Test
+    public void longTextIsCutAtACharacterBoundary() throws IOException {
+        char[] name = new char[100];
+        Arrays.fill(name, 'é');     // two bytes each in UTF-8
+        build("12345670," + new String(name) + ",,0\n");
+        try (ProductCatalog catalog = ProductCatalog.open(file)) {
+            String stored = catalog.lookup("12345670").name;
+            assertEquals(31, stored.length());      // 62 of the 63 bytes – no half character
+            assertTrue(new String(name).startsWith(stored));
+        }
+    }
+
+    @Test
+    public void quotedFieldsMaySpanLines() throws IOException {
+        List<String> fields = new ArrayList<>();
+        BufferedReader in = new BufferedReader(new StringReader("1,\"two\nlines\",3\n4"));
+        assertTrue(ProductCatalogBuilder.readRow(in, fields));
+        assertEquals(Arrays.asList("1", "two\nlines", "3"), fields);
+        assertTrue(ProductCatalogBuilder.readRow(in, fields));
+        assertEquals(Arrays.asList("4"), fields);
+        assertFalse(ProductCatalogBuilder.readRow(in, fields));
+    }
+
+    @Test
+    public void missingCatalogIsNull() throws IOException {
+        assertNull(ProductCatalog.open(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedCatalogIsRejected() throws IOException {
+        build("12345670,a,,1\n87654325,b,,2\n");
+        try (java.io.RandomAccessFile raf = new java.io.RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        ProductCatalog.open(file);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.thinglist;
+
+import com.example.thinglist.ReceiptParser.LineItem;
+import com.example.thinglist.ReceiptParser.Receipt;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rough JVM benchmark: a corpus of generated receipts in the layouts tills actually print –
+ * quantity under the name, over it, or inline, tax flags, member savings, thousands
+ * separators, comma decimals – parsed end to end. Every item has to come out right; the
+ * throughput is printed, and only checked loosely.
+ */
+public class ReceiptParserBenchmarkTest {
+
+    private static final int RECEIPTS = 2_000;
+
+    private static final String[] PRODUCTS = {
+            "BANANAS", "MILK 2% GAL", "COFFEE BEANS", "PAPER TOWELS", "AA BATTERIES 8PK", "DISH SOAP",
+            "Wood screws 100pk", "Light bulb 60W", "Extension cord 3m", "Duct tape", "USB-C cable",
+            "Olive oil 1L", "Greek yogurt", "Sourdough loaf", "Espresso", "Notebook A5", "HDMI CABLE 2M",
+    };
+
+    private static final class Sample {
+        final String text;
+        final List<LineItem> items = new ArrayList<>();
+
+        Sample(String text) {
+            this.text = text;
+        }
+    }
+
+    @BeforeClass
+    public static void onlyWhenAsked() {
+        Benchmarks.assumeEnabled();
+    }
+
+    @Test
+    public void parsesACorpusOfReceipts() throws IOException {
+        Random random = new Random(23);
+        List<Sample> corpus = new ArrayList<>();
+        long chars = 0;
+        int expectedItems = 0;
+        for (int i = 0; i < RECEIPTS; i++) {
+            Sample sample = receipt(random, i % 4);
+            corpus.add(sample);
+            chars += sample.text.length();
+            expectedItems += sample.items.size();
+        }
+
+        // every item, exactly, on the first pass
+        for (Sample sample : corpus) {
+            List<LineItem> items = new ArrayList<>();
+            ReceiptParser.parse(new StringReader(sample.text), items::add);
+            assertEquals(sample.text, sample.items, items);
+        }
+
+        // warm up the JIT
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            for (Sample sample : corpus) sink += ReceiptParser.parse(new StringReader(sample.text), item -> { }).items;
+        }
+
+        int parsed = 0;
+        long start = System.nanoTime();
+        for (Sample sample : corpus) {
+            Receipt receipt = ReceiptParser.parse(new StringReader(sample.text), item -> { });
+            parsed += receipt.items;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double megabytes = chars * 2 / 1e6;
+        System.out.printf("receipt parse, %d receipts (%.1f MB of text): %.0f receipts/s, %.0f items/s, %.1f MB/s [%d]%n",
+                RECEIPTS, megabytes, RECEIPTS / seconds, parsed / seconds, megabytes / seconds, sink);
+        assertEquals(expectedItems, parsed);
+        // a phone OCR pass takes ~a second a receipt; parsing must be noise next to it
+        assertTrue(RECEIPTS / seconds + " receipts/s", RECEIPTS / seconds > 1_000);
+    }
+
+    // -------------------- corpus --------------------
+
+    private static Sample receipt(Random random, int layout) {
+        StringBuilder text = new StringBuilder();
+        List<LineItem> items = new ArrayList<>();
+        boolean euro = layout == 3;
+        text.append(euro ? "Bäckerei Sonne\nHauptstr. 5\n" : "STORE #" + random.nextInt(9999) + "\n")
+                .append("123 Any Street\n")
+                .append(euro ? "12.04.2024 08:15\n" : "04/12/2024  08:15  REG 2\n\n");
+
+        int count = 5 + random.nextInt(40);
+        long subtotal = 0;
+        for (int i = 0; i < count; i++) {
+            String name = PRODUCTS[random.nextInt(PRODUCTS.length)];
+            int quantity = random.nextInt(4) == 0 ? 2 + random.nextInt(5) : 1;
+            long unit = 49 + random.nextInt(random.nextInt(20) == 0 ? 200_000 : 3_000);
+            long total = unit * quantity;
+            String flag = random.nextBoolean() ? " F" : random.nextBoolean() ? " T" : "";
+
+            if (quantity == 1) {
+                pad(text, name, money(total, euro)).append(flag).append('\n');
+            } else if (layout == 0) {
+                text.append(name).append('\n');
+                pad(text, "  " + quantity + " @ " + money(unit, euro), money(total, euro)).append(flag).append('\n');
+            } else if (layout == 1) {
+                pad(text, quantity + " @ " + money(unit, euro), "").append('\n');
+                pad(text, name, money(total, euro)).append(flag).append('\n');
+            } else {
+                pad(text, quantity + "x " + name, money(total, euro)).append('\n');
+                unit = (total + quantity / 2) / quantity;
+            }
+
+            if (layout == 0 && random.nextInt(8) == 0) {
+                long saving = Math.min(total, 50 + random.nextInt(100));
+                pad(text, "    MEMBER SAVINGS", money(saving, false) + "-").append('\n');
+                total -= saving;
+                unit = (total + quantity / 2) / quantity;
+            }
+            items.add(new LineItem(name, quantity, unit, total));
+            subtotal += total;
+        }
+        pad(text, "SUBTOTAL", money(subtotal, euro)).append('\n');
+        pad(text, "TAX", money(subtotal / 12, euro)).append('\n');
+        pad(text, "TOTAL", money(subtotal + subtotal / 12, euro)).append('\n');
+        pad(text, "VISA", money(subtotal + subtotal / 12, euro)).append('\n');
+        text.append("THANK YOU FOR SHOPPING\n");
+
+        Sample sample = new Sample(text.toString());
+        sample.items.addAll(items);
+        return sample;
+    }
+
+    private static StringBuilder pad(StringBuilder out, String left, String right) {
+        out.append(left);
+        for (int i = left.length() + right.length(); i < 34; i++) out.append(' ');
+        return out.append(' ').append(right);
+    }
+
+    private static String money(long cents, boolean euro) {
+        String whole = Long.toString(cents / 100);
+        if (!euro && whole.length() > 3) whole = whole.substring(0, whole.length() - 3) + "," + whole.substring(whole.length() - 3);
+        long fraction = cents % 100;
+        return (euro ? "" : "$") + whole + (euro ? "," : ".") + (fraction < 10 ? "0" : "") + fraction;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.thinglist;
+
+import com.example.thinglist.ReceiptParser.LineItem;
+import com.example.thinglist.ReceiptParser.Receipt;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReceiptParserTest {
+
+    private final List<LineItem> items = new ArrayList<>();
+
+    private Receipt parse(String text) throws IOException {
+        return ReceiptParser.parse(new StringReader(text), items::add);
+    }
+
+    @Test
+    public void supermarketReceipt() throws IOException {
+        Receipt receipt = parse(""
+                + "FRESH MARKET #0412\n"
+                + "1200 Main St, Springfield\n"
+                + "03/14/2024 17:42   REG 3\n"
+                + "\n"
+                + "BANANAS                 1.29 F\n"
+                + "MILK 2% GAL             3.49 F\n"
+                + "2 @ 4.99\n"
+                + "COFFEE BEANS           9.98 F\n"
+                + "PAPER TOWELS            8.99 T\n"
+                + "  MEMBER SAVINGS        1.50-\n"
+                + "SUBTOTAL               24.25\n"
+                + "TAX                     0.69\n"
+                + "TOTAL                  24.94\n"
+                + "VISA                   24.94\n"
+                + "CHANGE DUE              0.00\n");
+
+        assertEquals("FRESH MARKET #0412", receipt.store);
+        assertEquals(LocalDate.of(2024, 3, 14), receipt.date);
+        assertEquals(2425, receipt.subtotalCents);
+        assertEquals(69, receipt.taxCents);
+        assertEquals(2494, receipt.totalCents);
+        assertEquals(Arrays.asList(
+                new LineItem("BANANAS", 1, 129, 129),
+                new LineItem("MILK 2% GAL", 1, 349, 349),
+                new LineItem("COFFEE BEANS", 2, 499, 998),
+                new LineItem("PAPER TOWELS", 1, 749, 749)), items);
+        assertEquals(4, receipt.items);
+    }
+
+    @Test
+    public void quantityOnTheItemLine() throws IOException {
+        parse("Hardware Hut\n"
+                + "2x WOOD SCREWS 100PK   $13.98\n"
+                + "LIGHT BULB 60W 3 @ 2.50   7.50\n"
+                + "Duct tape  QTY 2   10.00\n"
+                + "HAMMER 16OZ  $1,024.00\n"
+                + "Total $1,055.48\n");
+        assertEquals(Arrays.asList(
+                new LineItem("WOOD SCREWS 100PK", 2, 699, 1398),
+                new LineItem("LIGHT BULB 60W", 3, 250, 750),
+                new LineItem("Duct tape", 2, 500, 1000),
+                new LineItem("HAMMER 16OZ", 1, 102400, 102400)), items);
+    }
+
+    @Test
+    public void europeanReceipt() throws IOException {
+        Receipt receipt = parse("Café Zentral\n"
+                + "Datum: 05.11.2023\n"
+                + "Espresso            2,80\n"
+                + "Apfelstrudel        4,50\n"
+                + "Subtotal            7,30\n"
+                + "Total               7,30\n");
+        assertEquals(LocalDate.of(2023, 11, 5), receipt.date);
+        assertEquals(730, receipt.totalCents);
+        assertEquals(2, items.size());
+        assertEquals(new LineItem("Espresso", 1, 280, 280), items.get(0));
+    }
+
+    @Test
+    public void noiseIsNotAnItem() throws IOException {
+        parse("STORE\n"
+                + "Order 1234567\n"
+                + "REF A12.50\n"
+                + "***** 19.99\n"
+                + "12 ITEMS SOLD\n"
+                + "TOTAL 0.00\n");
+        assertTrue(items.toString(), items.isEmpty());
+    }
+
+    @Test
+    public void linesMaySplitAnywhereBetweenFeeds() {
+        String text = "Shop\r\nSOAP 1.99\r\nSHAMPOO 5.49\r\nTOTAL 7.48";
+        ReceiptParser parser = new ReceiptParser(items::add);
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i += 3) parser.feed(chars, i, Math.min(3, chars.length - i));
+        Receipt receipt = parser.finish();
+
+        assertEquals(Arrays.asList(new LineItem("SOAP", 1, 199, 199), new LineItem("SHAMPOO", 1, 549, 549)), items);
+        assertEquals(748, receipt.totalCents);
+    }
+
+    @Test
+    public void dates() {
+        assertEquals(LocalDate.of(2024, 3, 5), date("2024-03-05 10:01"));
+        assertEquals(LocalDate.of(2024, 3, 5), date("Date: 03/05/24"));
+        assertEquals(LocalDate.of(2024, 5, 23), date("23/05/2024"));
+        assertNull(date("13/13/2024"));
+        assertNull(date("Tel 555-123-4567"));
+        assertNull(date("TOTAL 12.50"));
+    }
+
+    @Test
+    public void itemBecomesAThingItem() throws IOException {
+        Receipt receipt = parse("FRESH MARKET\n2024-01-02\n2 @ 4.99\nCOFFEE 9.98\n");
+        ThingItem item = items.get(0).toThingItem(receipt);
+        assertEquals("COFFEE", item.name);
+        assertEquals(2, item.quantity);
+        assertEquals(499, item.priceCents);
+        assertEquals("From receipt – FRESH MARKET, 2024-01-02", item.description);
+    }
+
+    private static LocalDate date(String line) {
+        return ReceiptParser.findDate(line.toCharArray(), 0, line.length());
+    }
+}
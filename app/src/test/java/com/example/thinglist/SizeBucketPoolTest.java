@@ -0,0 +1,98 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SizeBucketPoolTest {
+
+    private static final class Buffer {
+        final int bytes;
+
+        Buffer(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final List<Buffer> evicted = new ArrayList<>();
+
+    private SizeBucketPool<Buffer> pool(long maxBytes) {
+        return new SizeBucketPool<>(maxBytes, b -> b.bytes, evicted::add);
+    }
+
+    @Test
+    public void reusesABufferThatIsBigEnoughButNotWay() {
+        SizeBucketPool<Buffer> pool = pool(1 << 30);
+        Buffer small = new Buffer(1_000);
+        Buffer medium = new Buffer(4_000);
+        Buffer huge = new Buffer(1_000_000);
+        pool.put(small);
+        pool.put(medium);
+        pool.put(huge);
+
+        assertSame(medium, pool.take(3_000));
+        assertNull(pool.take(1_500));         // only the huge one is left that fits – too big
+        assertSame(small, pool.take(900));
+        assertSame(huge, pool.take(600_000));
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.retainedBytes());
+    }
+
+    @Test
+    public void neverHandsOutSomethingTooSmall() {
+        SizeBucketPool<Buffer> pool = pool(1 << 30);
+        pool.put(new Buffer(1_025));           // same size class as 2_048
+        assertNull(pool.take(2_048));
+        Buffer exact = new Buffer(2_048);
+        pool.put(exact);
+        assertSame(exact, pool.take(2_048));
+    }
+
+    @Test
+    public void oldestGoesFirstWhenOverTheCap() {
+        SizeBucketPool<Buffer> pool = pool(10_000);
+        Buffer a = new Buffer(4_000);
+        Buffer b = new Buffer(300);
+        Buffer c = new Buffer(4_000);
+        Buffer d = new Buffer(4_000);
+        pool.put(a);
+        pool.put(b);
+        pool.put(c);
+        assertTrue(evicted.isEmpty());
+
+        pool.put(d);
+        assertEquals(List.of(a), evicted);
+        assertEquals(8_300, pool.retainedBytes());
+        assertEquals(3, pool.size());
+
+        pool.clear();
+        assertEquals(List.of(a, b, c, d), evicted);
+        assertEquals(0, pool.retainedBytes());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        SizeBucketPool<Buffer> pool = pool(1 << 20);
+        assertEquals(0, pool.hitRate(), 0);
+        pool.put(new Buffer(100));
+        pool.take(100);                        // hit
+        pool.take(100);                        // miss – it's been taken
+        pool.take(5_000);                      // miss
+        pool.put(new Buffer(5_000));
+        pool.take(5_000);                      // hit
+        assertEquals(2, pool.hits());
+        assertEquals(2, pool.misses());
+        assertEquals(0.5, pool.hitRate(), 1e-9);
+    }
+
+    @Test
+    public void bucketsArePowersOfTwo() {
+        assertEquals(0, SizeBucketPool.bucketOf(1));
+        assertEquals(10, SizeBucketPool.bucketOf(1_024));
+        assertEquals(11, SizeBucketPool.bucketOf(1_025));
+        assertEquals(31, SizeBucketPool.bucketOf(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SortIndexTest {
+
+    @Test
+    public void namesSortIgnoringCase() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        SortIndex index = new SortIndex(Locale.US);
+        store.addIndex(index);
+
+        long banana = store.put(item("banana", "Kitchenware", 100, 1)).id;
+        long apple = store.put(item("Apple", "Kitchenware", 300, 5)).id;
+        long cherry = store.put(item("cherry", "Bags", 200, 3)).id;
+
+        assertArrayEquals(new long[] {apple, banana, cherry}, index.order(SortIndex.Key.NAME, false));
+        assertArrayEquals(new long[] {apple, cherry, banana}, index.order(SortIndex.Key.PRICE, true));
+        assertArrayEquals(new long[] {apple, cherry, banana}, index.order(SortIndex.Key.QUANTITY, true));
+        // ties keep id order
+        assertArrayEquals(new long[] {cherry, banana, apple}, index.order(SortIndex.Key.TYPE, false));
+
+        IdBitmap subset = IdBitmap.of(apple, cherry);
+        assertArrayEquals(new long[] {cherry, apple}, index.order(SortIndex.Key.NAME, true, subset));
+    }
+
+    @Test
+    public void ordersFollowWritesAndMatchAFullSort() throws IOException {
+        Random random = new Random(5);
+        ItemStore store = ItemStore.inMemory();
+        SortIndex index = new SortIndex(Locale.FRANCE);
+        store.addIndex(index);
+        String[] names = {"école", "Ecole", "zèbre", "abeille", "Éclair", "banane", "Zoo"};
+        List<Long> live = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            if (live.isEmpty() || random.nextInt(3) != 0) {
+                ThingItem item = item(names[random.nextInt(names.length)] + " " + random.nextInt(50),
+                        "T" + random.nextInt(5), random.nextInt(10_000), random.nextInt(100));
+                if (!live.isEmpty() && random.nextBoolean()) {
+                    item.id = live.get(random.nextInt(live.size()));   // update
+                }
+                long id = store.put(item).id;
+                if (!live.contains(id)) live.add(id);
+            } else {
+                store.remove(live.remove(random.nextInt(live.size())));
+            }
+        }
+
+        Collator collator = Collator.getInstance(Locale.FRANCE);
+        collator.setStrength(Collator.SECONDARY);
+        List<ThingItem> expected = new ArrayList<>(store.items());
+        expected.sort(Comparator.<ThingItem, String>comparing(t -> t.name, collator)
+                .thenComparingLong(t -> t.id));
+        assertArrayEquals(ids(expected), index.order(SortIndex.Key.NAME, false));
+
+        expected.sort(Comparator.<ThingItem>comparingLong(t -> t.priceCents)
+                .thenComparingLong(t -> t.id).reversed());
+        assertArrayEquals(ids(expected), index.order(SortIndex.Key.PRICE, true));
+    }
+
+    private static long[] ids(List<ThingItem> items) {
+        long[] ids = new long[items.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = items.get(i).id;
+        return ids;
+    }
+
+    private static ThingItem item(String name, String type, long priceCents, int quantity) {
+        ThingItem item = new ThingItem(name, "", Money.toPlainString(priceCents), "Home", type, null);
+        item.quantity = quantity;
+        return item;
+    }
+}
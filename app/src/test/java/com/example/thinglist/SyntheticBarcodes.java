@@ -0,0 +1,201 @@
+package com.example.thinglist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Barcode pictures for the decoder tests: encodes EAN-13 / UPC-A / Code 128 into modules,
+ * then renders them the way a phone photo roughly looks – anti-aliased at a fractional
+ * module width, off centre, a little blurred, uneven lighting and sensor noise.
+ */
+final class SyntheticBarcodes {
+
+    private SyntheticBarcodes() { }
+
+    /** An ARGB picture, readable by {@link BarcodeDecoder}. */
+    static final class Picture implements BarcodeDecoder.Image {
+        final int width;
+        final int height;
+        final int[] pixels;
+
+        Picture(int width, int height, int[] pixels) {
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+        }
+
+        @Override
+        public int width() {
+            return width;
+        }
+
+        @Override
+        public int height() {
+            return height;
+        }
+
+        @Override
+        public void readRow(int y, int[] argb) {
+            System.arraycopy(pixels, y * width, argb, 0, width);
+        }
+
+        @Override
+        public void readColumn(int x, int[] argb) {
+            for (int y = 0; y < height; y++) argb[y] = pixels[y * width + x];
+        }
+
+        /** Turned a quarter clockwise: the bars become horizontal. */
+        Picture rotated() {
+            int[] out = new int[pixels.length];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    out[x * height + (height - 1 - y)] = pixels[y * width + x];
+                }
+            }
+            return new Picture(height, width, out);
+        }
+
+        /** Upside down. */
+        Picture flipped() {
+            int[] out = new int[pixels.length];
+            for (int i = 0; i < pixels.length; i++) out[pixels.length - 1 - i] = pixels[i];
+            return new Picture(width, height, out);
+        }
+    }
+
+    // -------------------- encoding --------------------
+
+    private static final int[][] EAN_L = {
+            {3, 2, 1, 1}, {2, 2, 2, 1}, {2, 1, 2, 2}, {1, 4, 1, 1}, {1, 1, 3, 2},
+            {1, 2, 3, 1}, {1, 1, 1, 4}, {1, 3, 1, 2}, {1, 2, 1, 3}, {3, 1, 1, 2},
+    };
+    private static final String[] EAN_PARITY = {
+            "LLLLLL", "LLGLGG", "LLGGLG", "LLGGGL", "LGLLGG", "LGGLLG", "LGGGLL", "LGLGLG", "LGLGGL", "LGGLGL",
+    };
+
+    /** The check digit that completes an EAN-13 (12 digits in) or UPC-A (11 digits in). */
+    static char eanCheckDigit(String digits) {
+        int sum = 0;
+        for (int i = digits.length() - 1, weight = 3; i >= 0; i--, weight = 4 - weight) {
+            sum += (digits.charAt(i) - '0') * weight;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    /** Module colours (true = bar) of a 13-digit EAN or, with a leading 0, a UPC-A. */
+    static boolean[] ean13(String digits) {
+        List<Boolean> modules = new ArrayList<>();
+        widths(modules, new int[]{1, 1, 1}, true);
+        String parity = EAN_PARITY[digits.charAt(0) - '0'];
+        for (int i = 1; i <= 6; i++) {
+            int[] l = EAN_L[digits.charAt(i) - '0'];
+            int[] w = parity.charAt(i - 1) == 'L' ? l : new int[]{l[3], l[2], l[1], l[0]};
+            widths(modules, w, false);
+        }
+        widths(modules, new int[]{1, 1, 1, 1, 1}, false);
+        for (int i = 7; i <= 12; i++) widths(modules, EAN_L[digits.charAt(i) - '0'], true);
+        widths(modules, new int[]{1, 1, 1}, true);
+        return toArray(modules);
+    }
+
+    /** Code 128 modules for printable ASCII, in code set C for even-length digit strings, else B. */
+    static boolean[] code128(String text) {
+        List<Integer> values = new ArrayList<>();
+        boolean numeric = text.length() % 2 == 0 && text.chars().allMatch(Character::isDigit);
+        int start = numeric ? BarcodeDecoder.CODE128_START_C : BarcodeDecoder.CODE128_START_B;
+        if (numeric) {
+            for (int i = 0; i < text.length(); i += 2) values.add(Integer.parseInt(text.substring(i, i + 2)));
+        } else {
+            for (char c : text.toCharArray()) values.add(c - 32);
+        }
+        int sum = start;
+        for (int i = 0; i < values.size(); i++) sum += values.get(i) * (i + 1);
+
+        List<Boolean> modules = new ArrayList<>();
+        widths(modules, BarcodeDecoder.CODE128[start], true);
+        for (int v : values) widths(modules, BarcodeDecoder.CODE128[v], true);
+        widths(modules, BarcodeDecoder.CODE128[sum % 103], true);
+        widths(modules, BarcodeDecoder.CODE128_STOP, true);
+        return toArray(modules);
+    }
+
+    private static void widths(List<Boolean> out, int[] widths, boolean barFirst) {
+        boolean bar = barFirst;
+        for (int w : widths) {
+            for (int i = 0; i < w; i++) out.add(bar);
+            bar = !bar;
+        }
+    }
+
+    private static boolean[] toArray(List<Boolean> list) {
+        boolean[] out = new boolean[list.size()];
+        for (int i = 0; i < out.length; i++) out[i] = list.get(i);
+        return out;
+    }
+
+    // -------------------- rendering --------------------
+
+    /**
+     * Renders {@code modules} as vertical bars {@code moduleWidth} pixels wide (fractional),
+     * starting at {@code left}, over the middle {@code barHeight} of a {@code width} ×
+     * {@code height} picture, with lighting falloff, a 3-pixel blur and ±{@code noise} grey
+     * levels of noise.
+     */
+    static Picture render(boolean[] modules, int width, int height, float moduleWidth,
+                          float left, float barHeight, int noise, Random random) {
+        // coverage of each pixel column by bars, anti-aliased
+        float[] coverage = new float[width];
+        for (int m = 0; m < modules.length; m++) {
+            if (!modules[m]) continue;
+            float from = left + m * moduleWidth;
+            float to = from + moduleWidth;
+            for (int x = Math.max(0, (int) from); x < Math.min(width, (int) Math.ceil(to)); x++) {
+                coverage[x] += Math.min(to, x + 1) - Math.max(from, x);
+            }
+        }
+        float[] blurred = new float[width];
+        for (int x = 0; x < width; x++) {
+            float sum = 0;
+            int n = 0;
+            for (int k = -1; k <= 1; k++) {
+                if (x + k >= 0 && x + k < width) {
+                    sum += coverage[x + k];
+                    n++;
+                }
+            }
+            blurred[x] = sum / n;
+        }
+
+        int[] pixels = new int[width * height];
+        int top = (int) ((height - barHeight) / 2);
+        int bottom = (int) (top + barHeight);
+        for (int y = 0; y < height; y++) {
+            boolean inBars = y >= top && y < bottom;
+            for (int x = 0; x < width; x++) {
+                // paper from 235 grey in one corner down to 170 in the other
+                float paper = 235 - 65f * (x + y) / (width + height);
+                float ink = 35;
+                float c = inBars ? blurred[x] : 0;
+                int grey = Math.round(paper + (ink - paper) * Math.min(1f, c));
+                grey += random.nextInt(2 * noise + 1) - noise;
+                grey = Math.max(0, Math.min(255, grey));
+                pixels[y * width + x] = 0xFF000000 | (grey << 16) | (grey << 8) | grey;
+            }
+        }
+        return new Picture(width, height, pixels);
+    }
+
+    /** A plain, barcode-free picture: paper with some noise and a few dark blotches. */
+    static Picture clutter(int width, int height, Random random) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int grey = 200 + random.nextInt(21) - 10;
+                if (((x / 37) + (y / 53)) % 7 == 0) grey -= 140;
+                pixels[y * width + x] = 0xFF000000 | (grey << 16) | (grey << 8) | grey;
+            }
+        }
+        return new Picture(width, height, pixels);
+    }
+}
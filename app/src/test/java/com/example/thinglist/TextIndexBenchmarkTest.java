@@ -0,0 +1,88 @@
+package com.example.thinglist;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rough JVM benchmark: as-you-type search latency over a 100k item inventory.
+ * Queries are prefixes of 1–5 letters, some with a second word, like a user typing.
+ */
+public class TextIndexBenchmarkTest {
+
+    private static final int ITEMS = 100_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int QUERIES = 5_000;
+
+    @BeforeClass
+    public static void onlyWhenAsked() {
+        Benchmarks.assumeEnabled();
+    }
+
+    @Test
+    public void p99QueryLatencyIsAFewMillis() throws IOException {
+        Random random = new Random(1);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < words.length; i++) words[i] = randomWord(random);
+
+        ItemStore store = ItemStore.inMemory();
+        TextIndex index = new TextIndex();
+        store.addIndex(index);
+        for (int i = 0; i < ITEMS; i++) {
+            store.put(new ThingItem(
+                    phrase(random, words, 2),
+                    phrase(random, words, 8),
+                    "10",
+                    "Room " + random.nextInt(50),
+                    "Active",
+                    null));
+        }
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < queries.length; i++) {
+            String word = words[random.nextInt(words.length)];
+            String query = word.substring(0, 1 + random.nextInt(Math.min(5, word.length())));
+            if (random.nextInt(4) == 0) {
+                query += " " + words[random.nextInt(words.length)].substring(0, 2);
+            }
+            queries[i] = query;
+        }
+
+        // warm up the JIT, then measure
+        for (int i = 0; i < 1_000; i++) index.search(queries[i]);
+        long[] nanos = new long[QUERIES];
+        long hits = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            hits += index.search(queries[i]).cardinality();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[QUERIES / 2] / 1e6;
+        double p99 = nanos[QUERIES * 99 / 100] / 1e6;
+
+        System.out.printf("text search, %d items, %d terms: p50 %.3f ms, p99 %.3f ms, max %.3f ms (%d hits)%n",
+                ITEMS, index.termCount(), p50, p99, nanos[QUERIES - 1] / 1e6, hits);
+        assertTrue("p99 search latency " + p99 + " ms", p99 < 5.0);
+    }
+
+    private static String phrase(Random random, String[] words, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(words[random.nextInt(words.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String randomWord(Random random) {
+        char[] letters = new char[3 + random.nextInt(8)];
+        for (int i = 0; i < letters.length; i++) letters[i] = (char) ('a' + random.nextInt(26));
+        return new String(letters);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.thinglist;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TextIndexTest {
+
+    @Test
+    public void wordsMatchAsPrefixesAcrossFields() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        TextIndex index = new TextIndex();
+        store.addIndex(index);
+
+        ThingItem lamp = store.put(new ThingItem("Desk Lamp", "LED, adjustable", "45", "Office", "Furniture", null));
+        ThingItem mug = store.put(new ThingItem("Coffee Mug", "Ceramic", "9", "Kitchen", "Kitchenware", null));
+
+        assertArrayEquals(new long[] {lamp.id}, index.search("lam").toArray());
+        assertArrayEquals(new long[] {mug.id}, index.search("kit").toArray());       // location
+        assertArrayEquals(new long[] {lamp.id}, index.search("led adj").toArray());  // AND of words
+        assertTrue(index.search("lamp ceramic").isEmpty());
+        assertNull(index.search("  ,, "));
+    }
+
+    @Test
+    public void searchIsCaseAndAccentInsensitive() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        TextIndex index = new TextIndex();
+        store.addIndex(index);
+
+        ThingItem cafe = store.put(new ThingItem("Café Table", "", "120", "Patio", "Furniture", null));
+        assertArrayEquals(new long[] {cafe.id}, index.search("CAFE").toArray());
+        assertArrayEquals(new long[] {cafe.id}, index.search("café").toArray());
+    }
+
+    @Test
+    public void updatesAndDeletesReplaceOldTerms() throws IOException {
+        ItemStore store = ItemStore.inMemory();
+        ThingItem radio = store.put(new ThingItem("Old Radio", "", "10", "Attic", "Electronics", null));
+
+        // attaching later indexes what is already there
+        TextIndex index = new TextIndex();
+        store.addIndex(index);
+        assertEquals(1, index.search("radio").cardinality());
+
+        ThingItem renamed = new ThingItem("Vintage Speaker", "", "10", "Attic", "Electronics", null);
+        renamed.id = radio.id;
+        store.put(renamed);
+        assertTrue(index.search("radio").isEmpty());
+        assertEquals(1, index.search("vint").cardinality());
+
+        store.remove(radio.id);
+        assertTrue(index.search("attic").isEmpty());
+        assertEquals(0, index.termCount());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.thinglist;
+
+import com.example.thinglist.ThumbnailStore.Variant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ThumbnailStoreTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("thumbs").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void leastRecentlyUsedGoesFirstWhenOverTheCap() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(dir, 3_000);
+        store.put("a", Variant.SMALL, out -> out.write(new byte[1_000]));
+        store.put("b", Variant.SMALL, out -> out.write(new byte[1_000]));
+        store.put("c", Variant.SMALL, out -> out.write(new byte[1_000]));
+        assertNotNull(store.get("a", Variant.SMALL));   // a is now the most recent
+
+        store.put("d", Variant.SMALL, out -> out.write(new byte[1_000]));
+        assertNull(store.get("b", Variant.SMALL));
+        assertNotNull(store.get("a", Variant.SMALL));
+        assertNotNull(store.get("c", Variant.SMALL));
+        assertEquals(3_000, store.sizeBytes());
+        assertEquals(3, dir.listFiles().length);
+    }
+
+    @Test
+    public void variantsAreSeparateAndSurviveReopen() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(dir, 1_000_000);
+        store.put("h", Variant.SMALL, out -> out.write(new byte[10]));
+        store.put("h", Variant.MEDIUM, out -> out.write(new byte[100]));
+        assertTrue(new File(dir, "left.jpg.1.tmp").createNewFile());   // interrupted write
+
+        ThumbnailStore reopened = new ThumbnailStore(dir, 1_000_000);
+        assertEquals(2, reopened.count());
+        assertEquals(110, reopened.sizeBytes());
+        assertEquals(10, reopened.get("h", Variant.SMALL).length());
+        assertFalse(new File(dir, "left.jpg.1.tmp").exists());
+
+        // deleted behind our back (e.g. storage cleanup): a miss, not a stale file
+        assertTrue(new File(dir, "h_medium.jpg").delete());
+        assertNull(reopened.get("h", Variant.MEDIUM));
+        assertEquals(10, reopened.sizeBytes());
+    }
+
+    @Test
+    public void smallestFittingVariant() {
+        assertEquals(Variant.SMALL, Variant.smallestFitting(120, 48));
+        assertEquals(Variant.MEDIUM, Variant.smallestFitting(700, 600));
+        assertNull(Variant.smallestFitting(1080, 660));
+    }
+
+    @Test
+    public void contentHashIsSha256() throws IOException {
+        File f = new File(dir, "x");
+        byte[] abc = "abc".getBytes(StandardCharsets.US_ASCII);
+        Files.write(f.toPath(), abc);
+        String expected = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals(expected, ContentHash.of(f));
+        assertEquals(expected, ContentHash.of(abc, 0, abc.length));
+        assertTrue(ContentHash.isHash(expected));
+        assertFalse(ContentHash.isHash("item_1700000000000"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.thinglist;
+
+import com.example.thinglist.TileGrid.Tile;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TileGridTest {
+
+    @Test
+    public void sampleSizeKeepsAtLeastOnePixelPerScreenPixel() {
+        assertEquals(1, TileGrid.sampleSizeFor(2f));
+        assertEquals(1, TileGrid.sampleSizeFor(1f));
+        assertEquals(1, TileGrid.sampleSizeFor(0.6f));
+        assertEquals(2, TileGrid.sampleSizeFor(0.5f));
+        assertEquals(2, TileGrid.sampleSizeFor(0.3f));
+        assertEquals(8, TileGrid.sampleSizeFor(0.1f));
+    }
+
+    @Test
+    public void onlyTilesOnScreenAreListed() {
+        TileGrid grid = new TileGrid(4000, 3000);
+        List<Tile> tiles = new ArrayList<>();
+        grid.visibleTiles(1, 600, 100, 1100, 500, tiles);
+
+        assertEquals(2, tiles.size());
+        assertEquals(new Tile(1, 512, 0, 1024, 512), tiles.get(0));
+        assertEquals(1024, tiles.get(1).left);
+        assertEquals(1536, tiles.get(1).right);
+    }
+
+    @Test
+    public void edgeTilesAreClippedToTheImage() {
+        TileGrid grid = new TileGrid(4000, 3000);
+        List<Tile> tiles = new ArrayList<>();
+        // zoomed out with the view hanging off every side
+        grid.visibleTiles(4, -500, -500, 5000, 4000, tiles);
+
+        assertEquals(4, tiles.size());      // 2048-pixel tiles
+        Tile last = tiles.get(3);
+        assertEquals(2048, last.left);
+        assertEquals(4000, last.right);
+        assertEquals(3000, last.bottom);
+        assertEquals(488 * 238 * 4, last.decodedBytes());
+    }
+
+    @Test
+    public void everyTileDecodesToAtMostTileSize() {
+        TileGrid grid = new TileGrid(4032, 3024);
+        for (int sampleSize = 1; sampleSize <= 8; sampleSize *= 2) {
+            List<Tile> tiles = new ArrayList<>();
+            grid.visibleTiles(sampleSize, 0, 0, 4032, 3024, tiles);
+            long covered = 0;
+            for (Tile t : tiles) {
+                assertTrue(t.decodedBytes() <= TileGrid.TILE_SIZE * TileGrid.TILE_SIZE * 4);
+                covered += (long) (t.right - t.left) * (t.bottom - t.top);
+            }
+            assertEquals(4032L * 3024, covered);
+        }
+    }
+}
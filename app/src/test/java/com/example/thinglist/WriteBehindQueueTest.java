@@ -0,0 +1,188 @@
+package com.example.thinglist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindQueueTest {
+
+    private File dir;
+    private ItemStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("writequeue").toFile();
+        store = ItemStore.open(dir);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void pendingSavesAreGroupCommitted() throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue(store);
+        List<CompletableFuture<ThingItem>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(queue.put(item("Item " + i)));
+        }
+        // nothing is written until the writer thread runs
+        assertFalse(futures.get(49).isDone());
+        assertEquals(0, store.size());
+
+        queue.start();
+        queue.awaitFlush();
+
+        assertEquals(1, queue.commits());
+        assertEquals(50, store.size());
+        for (int i = 0; i < 50; i++) {
+            ThingItem saved = futures.get(i).get(1, TimeUnit.SECONDS);
+            assertEquals(i + 1, saved.id);
+        }
+        queue.close();
+    }
+
+    @Test
+    public void idIsAssignedBeforeCommit() throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue(store);
+        ThingItem item = item("Early");
+        queue.put(item);
+        assertEquals(1, item.id);
+        assertNull(store.get(1));
+
+        queue.start();
+        queue.awaitFlush();
+        assertEquals("Early", store.get(1).name);
+        queue.close();
+    }
+
+    @Test
+    public void newIdsDoNotWaitForACommitInProgress() throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue(store);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // stands in for the writer holding the store's lock through an fsync
+        Thread committer = new Thread(() -> {
+            synchronized (store) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) { }
+            }
+        });
+        committer.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        ThingItem item = item("Quick");
+        CompletableFuture<ThingItem> queued = CompletableFuture.supplyAsync(() -> {
+            queue.put(item);
+            return item;
+        });
+        try {
+            assertEquals(1, queued.get(5, TimeUnit.SECONDS).id);
+        } finally {
+            release.countDown();
+            committer.join();
+        }
+        queue.start();
+        queue.awaitFlush();
+        assertEquals("Quick", store.get(1).name);
+        queue.close();
+    }
+
+    @Test
+    public void putAllCommitsItsItemsTogether() throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue(store);
+        List<ThingItem> receipt = Arrays.asList(item("Milk"), item("Bread"), item("Eggs"));
+        CompletableFuture<List<ThingItem>> saved = queue.putAll(receipt);
+        assertEquals(3, receipt.get(2).id);     // ids straight away, like put
+
+        queue.start();
+        assertSame(receipt, saved.get(5, TimeUnit.SECONDS));
+        assertEquals(1, queue.commits());
+        assertEquals(3, store.size());
+        assertEquals("Bread", store.get(2).name);
+        queue.close();
+    }
+
+    @Test
+    public void aFailingListenerDoesNotFailTheSave() throws Exception {
+        boolean[] thrown = {false};
+        store.addChangeListener((snapshot, changes) -> {
+            if (!thrown[0]) {
+                thrown[0] = true;
+                throw new IllegalStateException("listener bug");
+            }
+        });
+        WriteBehindQueue queue = new WriteBehindQueue(store);
+        queue.start();
+        long before = store.snapshot().version();
+
+        // it's on disk, so it's saved – whatever a listener did afterwards
+        assertEquals("First", queue.put(item("First")).get(5, TimeUnit.SECONDS).name);
+        assertTrue(thrown[0]);
+        assertEquals("First", store.get(1).name);
+        assertEquals(1, store.changesSince(before).size());
+
+        assertEquals("Second", queue.put(item("Second")).get(5, TimeUnit.SECONDS).name);
+        queue.flush().get(5, TimeUnit.SECONDS);
+        assertEquals("Second", store.get(2).name);
+        queue.close();
+    }
+
+    @Test
+    public void flushIsABarrierForEarlierWrites() throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue(store);
+        queue.start();
+        ThingItem a = item("A");
+        queue.put(a);
+        queue.put(item("B"));
+        queue.remove(a.id);
+        queue.flush().get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, store.size());
+        assertEquals("B", store.get(2).name);
+        queue.close();
+    }
+
+    @Test
+    public void closeCommitsQueuedWritesDurably() throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue(store);
+        queue.start();
+        for (int i = 0; i < 20; i++) {
+            queue.put(item("Item " + i));
+        }
+        queue.close();
+        store.close();
+
+        store = ItemStore.open(dir);
+        assertEquals(20, store.size());
+
+        // writes after close fail instead of disappearing
+        CompletableFuture<ThingItem> late = queue.put(item("Late"));
+        assertTrue(late.isCompletedExceptionally());
+    }
+
+    private static ThingItem item(String name) {
+        return new ThingItem(name, "", "1.00", "Home", "Active", null);
+    }
+}